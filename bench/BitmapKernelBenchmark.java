@@ -0,0 +1,120 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the scalar and vector BitmapKernels, alone and inside BitmapBfs.
+ *
+ * The kernel section times each kernel over bitmaps of several sizes, from cache-resident to
+ * memory-bound, and reports nanoseconds per 64-bit word (per int for parityMask). The BFS section
+ * times BitmapBfs.oddVertices with each kernel set on generated graphs, next to
+ * Practice.oddVertices on the Vertex form of the same graph.
+ *
+ * The vector rows only appear when vector/ was compiled in and the JVM runs with the module:
+ *   javac --add-modules jdk.incubator.vector -d out -cp out vector/*.java
+ *   java --add-modules jdk.incubator.vector -cp out BitmapKernelBenchmark
+ *
+ * Usage:
+ *   java -cp out BitmapKernelBenchmark [--words=1024,65536,4194304] [--sizes=1000000] [--shapes=er,rmat]
+ *       [--measure=1]
+ */
+public class BitmapKernelBenchmark {
+  private static volatile long sink;
+
+  public static void main(String[] args) {
+    int[] wordCounts = {1 << 10, 1 << 16, 1 << 22};
+    int[] sizes = {1_000_000};
+    List<String> shapes = Arrays.asList("er", "rmat");
+    double measure = 1;
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--words=")) wordCounts = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+      else if (arg.startsWith("--sizes=")) sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+      else if (arg.startsWith("--shapes=")) shapes = Arrays.asList(value.split(","));
+      else if (arg.startsWith("--measure=")) measure = Double.parseDouble(value);
+      else throw new IllegalArgumentException("unknown argument: " + arg);
+    }
+    List<BitmapKernels> kernels = new ArrayList<>(List.of(BitmapKernels.scalar()));
+    if (BitmapKernels.vector() != null) kernels.add(BitmapKernels.vector());
+
+    System.out.printf(Locale.ROOT, "%-14s %10s %-10s %12s%n", "kernel", "words", "impl", "ns/element");
+    for (int words : wordCounts) {
+      Random random = new Random(words);
+      long[] a = random.longs(words).toArray();
+      long[] b = random.longs(words).toArray();
+      long[] scratch = new long[words];
+      int[] values = random.ints(words).toArray();
+      long[] mask = new long[(words + 63) >>> 6];
+      for (BitmapKernels k : kernels) {
+        report("andNotOr", words, k, measure, () -> {
+          System.arraycopy(a, 0, scratch, 0, words);
+          return k.andNotOr(scratch, b, 0, words);
+        });
+        report("cardinality", words, k, measure, () -> k.cardinality(a, 0, words));
+        report("andCardinality", words, k, measure, () -> k.andCardinality(a, b, 0, words));
+        report("parityMask", words, k, measure, () -> {
+          k.parityMask(values, mask);
+          return (int) mask[0];
+        });
+      }
+    }
+
+    System.out.println();
+    System.out.printf(Locale.ROOT, "%-6s %9s %-24s %12s%n", "shape", "vertices", "oddVertices", "ms/op");
+    for (String shape : shapes) {
+      for (int n : sizes) {
+        int[][] adjacency;
+        switch (shape) {
+          case "er": adjacency = GraphGenerators.erdosRenyi(n, 4, 1); break;
+          case "rmat": adjacency = GraphGenerators.rmat(n, 8, 2); break;
+          case "grid": adjacency = GraphGenerators.grid(n, 3); break;
+          default: throw new IllegalArgumentException("unknown shape: " + shape);
+        }
+        List<Vertex<Integer>> vertices = GraphGenerators.toVertices(adjacency);
+        GraphSnapshot<Vertex<Integer>> snapshot = GraphSnapshot.ofVertices(vertices);
+        BitmapBfs search = BitmapBfs.ofSnapshot(snapshot);
+        Vertex<Integer> start = vertices.get(new Random(n).nextInt(n));
+        bfsReport(shape, n, "Practice", measure, () -> Practice.oddVertices(start));
+        for (BitmapKernels k : kernels) {
+          BitmapBfs withKernels = search.withKernels(k);
+          bfsReport(shape, n, "BitmapBfs " + k.name(), measure, () -> withKernels.oddVertices(start));
+        }
+      }
+    }
+  }
+
+  private interface Op {
+    int run();
+  }
+
+  private static void report(String kernel, int elements, BitmapKernels k, double seconds, Op op) {
+    System.out.printf(Locale.ROOT, "%-14s %10d %-10s %12.3f%n", kernel, elements, k.name(),
+        time(op, seconds) / elements);
+  }
+
+  private static void bfsReport(String shape, int n, String name, double seconds, Op op) {
+    System.out.printf(Locale.ROOT, "%-6s %9d %-24s %12.2f%n", shape, n, name, time(op, seconds) / 1e6);
+  }
+
+  /**
+   * Runs op for the given time after a warmup of the same length and returns the mean nanoseconds
+   * per call.
+   */
+  private static double time(Op op, double seconds) {
+    long budget = (long) (seconds * 1e9);
+    for (long end = System.nanoTime() + budget; System.nanoTime() < end; ) {
+      sink += op.run();
+    }
+    long calls = 0;
+    long start = System.nanoTime();
+    long elapsed;
+    do {
+      sink += op.run();
+      calls++;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < budget);
+    return (double) elapsed / calls;
+  }
+}
@@ -0,0 +1,96 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares CompressedGraph with CsrGraph on footprint and traversal speed.
+ *
+ * For each shape and size it builds the CSR graph in id order and relabelled by RCM, compresses
+ * both, and reports bytes per edge (neighbor storage alone and the whole graph), the whole-graph
+ * ratio to CSR, and the mean time of Practice.sortedReachable from a few starts and of
+ * Practice.positivePathExists over random pairs.
+ *
+ * Usage:
+ *   java -cp out CompressionBenchmark [--sizes=100000,1000000] [--shapes=er,rmat,grid] [--queries=200]
+ */
+public class CompressionBenchmark {
+  private static volatile long sink;
+
+  public static void main(String[] args) {
+    int[] sizes = {100_000, 1_000_000};
+    List<String> shapes = Arrays.asList("er", "rmat", "grid");
+    int queries = 200;
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--sizes=")) sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+      else if (arg.startsWith("--shapes=")) shapes = Arrays.asList(value.split(","));
+      else if (arg.startsWith("--queries=")) queries = Integer.parseInt(value);
+      else throw new IllegalArgumentException("unknown argument: " + arg);
+    }
+
+    System.out.printf(Locale.ROOT, "%-6s %9s %-5s %-10s %10s %10s %7s %10s %10s%n",
+        "shape", "vertices", "order", "form", "edge B/e", "total B/e", "ratio", "reach ms", "path us");
+    for (String shape : shapes) {
+      for (int size : sizes) {
+        run(shape, size, queries);
+      }
+    }
+  }
+
+  private static void run(String shape, int n, int queries) {
+    int[][] adjacency;
+    switch (shape) {
+      case "er": adjacency = GraphGenerators.erdosRenyi(n, 4, 1); break;
+      case "rmat": adjacency = GraphGenerators.rmat(n, 8, 2); break;
+      case "grid": adjacency = GraphGenerators.grid(n, 3); break;
+      default: throw new IllegalArgumentException("unknown shape: " + shape);
+    }
+    CsrGraph byId = CsrGraph.fromMap(GraphGenerators.toMap(adjacency));
+    Random random = new Random(n);
+    int[] starts = new int[5];
+    for (int s = 0; s < starts.length; s++) {
+      starts[s] = GraphGenerators.id(random.nextInt(n));
+    }
+    int[] from = new int[queries];
+    int[] to = new int[queries];
+    for (int q = 0; q < queries; q++) {
+      from[q] = GraphGenerators.id(random.nextInt(n));
+      to[q] = GraphGenerators.id(random.nextInt(n));
+    }
+
+    for (VertexOrdering.Order order : List.of(VertexOrdering.Order.ID, VertexOrdering.Order.RCM)) {
+      CsrGraph csr = order == VertexOrdering.Order.ID ? byId : VertexOrdering.reorder(byId, order);
+      CompressedGraph compressed = CompressedGraph.copyOf(csr);
+      double edges = Math.max(1, csr.edgeCount());
+      long csrBytes = 4L * csr.vertexCount() + 8L * ((csr.vertexCount() + 63) >>> 6) + 4L * (csr.vertexCount() + 1)
+          + 4L * csr.edgeCount() + (csr.idOrdered() ? 0 : 8L * csr.vertexCount());
+      String name = order.name().toLowerCase(Locale.ROOT);
+      report(shape, n, name, "csr", 4, csrBytes / edges, 1, csr, starts, from, to);
+      report(shape, n, name, "compressed", compressed.edgeBytes() / edges, compressed.sizeBytes() / edges,
+          (double) csrBytes / compressed.sizeBytes(), compressed, starts, from, to);
+    }
+  }
+
+  private static void report(String shape, int n, String order, String form, double edgeBytes, double totalBytes,
+      double ratio, IntGraph graph, int[] starts, int[] from, int[] to) {
+    long reachNanos = 0;
+    long pathNanos = 0;
+    // The first pass warms up the code for this graph class; the second is reported.
+    for (int pass = 0; pass < 2; pass++) {
+      long t = System.nanoTime();
+      for (int start : starts) {
+        sink += Practice.sortedReachable(graph, start).length;
+      }
+      reachNanos = System.nanoTime() - t;
+      t = System.nanoTime();
+      for (int q = 0; q < from.length; q++) {
+        if (Practice.positivePathExists(graph, from[q], to[q])) sink++;
+      }
+      pathNanos = System.nanoTime() - t;
+    }
+    System.out.printf(Locale.ROOT, "%-6s %9d %-5s %-10s %10.2f %10.2f %7.2f %10.2f %10.1f%n",
+        shape, n, order, form, edgeBytes, totalBytes, ratio, reachNanos / 1e6 / starts.length,
+        pathNanos / 1e3 / from.length);
+  }
+}
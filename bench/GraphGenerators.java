@@ -0,0 +1,220 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeded generators for benchmark graphs.
+ *
+ * Every generator returns an adjacency array: adjacency[i] lists the neighbors of vertex i, for
+ * vertices 0..n-1. The same seed always produces the same graph. The to* methods convert an
+ * adjacency array into the shapes the Practice methods take.
+ */
+public final class GraphGenerators {
+  private GraphGenerators() {
+  }
+
+  /**
+   * Erdos-Renyi style random graph with n * averageDegree directed edges chosen uniformly.
+   */
+  public static int[][] erdosRenyi(int n, int averageDegree, long seed) {
+    Random random = new Random(seed);
+    int[][] adjacency = new int[n][averageDegree];
+    for (int[] neighbors : adjacency) {
+      for (int e = 0; e < averageDegree; e++) {
+        neighbors[e] = random.nextInt(n);
+      }
+    }
+    return dedupe(adjacency);
+  }
+
+  /**
+   * Power-law graph from the R-MAT recursive quadrant model with the usual (0.57, 0.19, 0.19, 0.05)
+   * probabilities. Vertex ids are folded into [0, n) when n is not a power of two.
+   */
+  public static int[][] rmat(int n, int averageDegree, long seed) {
+    Random random = new Random(seed);
+    int scale = 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1));
+    int[] degree = new int[n];
+    int[][] edges = new int[2][(int) Math.min(Integer.MAX_VALUE - 8, (long) n * averageDegree)];
+    for (int e = 0; e < edges[0].length; e++) {
+      int source = 0;
+      int target = 0;
+      for (int bit = 0; bit < scale; bit++) {
+        double p = random.nextDouble();
+        if (p < 0.57) continue;
+        if (p < 0.76) target |= 1 << bit;
+        else if (p < 0.95) source |= 1 << bit;
+        else {
+          source |= 1 << bit;
+          target |= 1 << bit;
+        }
+      }
+      edges[0][e] = source % n;
+      edges[1][e] = target % n;
+      degree[source % n]++;
+    }
+    int[][] adjacency = new int[n][];
+    for (int i = 0; i < n; i++) {
+      adjacency[i] = new int[degree[i]];
+      degree[i] = 0;
+    }
+    for (int e = 0; e < edges[0].length; e++) {
+      int source = edges[0][e];
+      adjacency[source][degree[source]++] = edges[1][e];
+    }
+    return dedupe(adjacency);
+  }
+
+  /**
+   * A single path 0 -> 1 -> ... -> n-1, the deepest possible shape.
+   */
+  public static int[][] chain(int n) {
+    int[][] adjacency = new int[n][];
+    for (int i = 0; i < n; i++) {
+      adjacency[i] = i + 1 < n ? new int[]{i + 1} : new int[0];
+    }
+    return adjacency;
+  }
+
+  /**
+   * A complete directed graph without self-loops; n * (n - 1) edges.
+   */
+  public static int[][] clique(int n) {
+    int[][] adjacency = new int[n][n - 1];
+    for (int i = 0; i < n; i++) {
+      for (int j = 0, e = 0; j < n; j++) {
+        if (j != i) adjacency[i][e++] = j;
+      }
+    }
+    return adjacency;
+  }
+
+  /**
+   * Cycle-heavy graph in the spirit of PracticeTest's createComplexGraph: rings of cycleLength
+   * vertices, each with a self-loop on its first vertex, one edge to the next ring and a random
+   * back edge to an earlier ring.
+   */
+  public static int[][] cycles(int n, int cycleLength, long seed) {
+    Random random = new Random(seed);
+    List<int[]> adjacency = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      int ringStart = i - i % cycleLength;
+      int ringEnd = Math.min(n, ringStart + cycleLength);
+      int next = i + 1 < ringEnd ? i + 1 : ringStart;
+      if (i == ringStart) {
+        int forward = ringEnd < n ? ringEnd : i;
+        int back = ringStart > 0 ? random.nextInt(ringStart) : i;
+        adjacency.add(new int[]{next, i, forward, back});
+      } else {
+        adjacency.add(new int[]{next});
+      }
+    }
+    return dedupe(adjacency.toArray(new int[0][]));
+  }
+
+  /**
+   * Square 2D lattice with edges both ways between horizontal and vertical neighbors, with the
+   * vertex numbers shuffled. Its structure has perfect locality that the numbering hides, as in road
+   * or mesh graphs whose ids come from insertion order.
+   */
+  public static int[][] grid(int n, long seed) {
+    Random random = new Random(seed);
+    int side = Math.max(1, (int) Math.sqrt(n));
+    int[] label = new int[n];
+    for (int i = 0; i < n; i++) {
+      label[i] = i;
+    }
+    for (int i = n - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = label[i];
+      label[i] = label[j];
+      label[j] = swap;
+    }
+    int[][] adjacency = new int[n][];
+    for (int cell = 0; cell < n; cell++) {
+      int row = cell / side;
+      int column = cell % side;
+      int[] neighbors = new int[4];
+      int count = 0;
+      if (column > 0) neighbors[count++] = label[cell - 1];
+      if (column + 1 < side && cell + 1 < n) neighbors[count++] = label[cell + 1];
+      if (row > 0) neighbors[count++] = label[cell - side];
+      if (cell + side < n) neighbors[count++] = label[cell + side];
+      adjacency[label[cell]] = Arrays.copyOf(neighbors, count);
+    }
+    return adjacency;
+  }
+
+  /**
+   * The id used for vertex i in Map and Vertex graphs: i + 1, negated for every tenth vertex so that
+   * positivePathExists has something to prune.
+   */
+  public static int id(int i) {
+    return i % 10 == 9 ? -(i + 1) : i + 1;
+  }
+
+  /**
+   * Builds the map representation, using id(i) for vertex i.
+   */
+  public static Map<Integer, Set<Integer>> toMap(int[][] adjacency) {
+    Map<Integer, Set<Integer>> graph = new HashMap<>(adjacency.length * 2);
+    for (int i = 0; i < adjacency.length; i++) {
+      Set<Integer> neighbors = new HashSet<>(adjacency[i].length * 2);
+      for (int j : adjacency[i]) {
+        neighbors.add(id(j));
+      }
+      graph.put(id(i), neighbors);
+    }
+    return graph;
+  }
+
+  /**
+   * Builds Vertex objects holding id(i), returned in vertex order.
+   */
+  public static List<Vertex<Integer>> toVertices(int[][] adjacency) {
+    List<Vertex<Integer>> vertices = new ArrayList<>(adjacency.length);
+    for (int i = 0; i < adjacency.length; i++) {
+      vertices.add(new Vertex<>(id(i), new ArrayList<>(adjacency[i].length)));
+    }
+    for (int i = 0; i < adjacency.length; i++) {
+      for (int j : adjacency[i]) {
+        vertices.get(i).neighbors.add(vertices.get(j));
+      }
+    }
+    return vertices;
+  }
+
+  /**
+   * Builds a Professional network where vertex i works at "Company " + (i % companies).
+   */
+  public static List<Professional> toNetwork(int[][] adjacency, int companies) {
+    List<Professional> people = new ArrayList<>(adjacency.length);
+    for (int i = 0; i < adjacency.length; i++) {
+      people.add(new Professional("P" + i, "Company " + (i % companies), i % 40, new HashSet<>()));
+    }
+    for (int i = 0; i < adjacency.length; i++) {
+      for (int j : adjacency[i]) {
+        people.get(i).getConnections().add(people.get(j));
+      }
+    }
+    return people;
+  }
+
+  private static int[][] dedupe(int[][] adjacency) {
+    for (int i = 0; i < adjacency.length; i++) {
+      int[] neighbors = adjacency[i];
+      Arrays.sort(neighbors);
+      int size = 0;
+      for (int k = 0; k < neighbors.length; k++) {
+        if (size == 0 || neighbors[k] != neighbors[size - 1]) neighbors[size++] = neighbors[k];
+      }
+      if (size != neighbors.length) adjacency[i] = Arrays.copyOf(neighbors, size);
+    }
+    return adjacency;
+  }
+}
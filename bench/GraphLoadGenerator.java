@@ -0,0 +1,184 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Load generator for GraphServer that reports throughput and latency percentiles.
+ *
+ * Opens the requested number of connections, each driven by its own thread (virtual when the JDK
+ * has them), and keeps every connection busy for the measurement period: it sends depth pipelined
+ * queries, flushes, and waits for all the replies. A query's latency runs from the flush to its
+ * reply. Queries rotate through all five operations over random vertices.
+ *
+ * Without --connect an in-process server is started over a generated R-MAT graph of --vertices
+ * vertices, so the tool is self-contained. With --connect the server is expected to serve a graph
+ * whose ids are GraphGenerators.id(0 .. vertices-1), such as one written with
+ * GraphFile.writeMap(path, GraphGenerators.toMap(...)).
+ *
+ * Usage:
+ *   java -cp out GraphLoadGenerator [--connect=tcp:127.0.0.1:7070 | --connect=unix:/tmp/graph.sock]
+ *       [--vertices=100000] [--connections=256] [--depth=4] [--seconds=10]
+ *
+ * Very large connection counts need a raised open-file limit, and on JDKs without virtual threads
+ * every connection costs a platform thread.
+ */
+public class GraphLoadGenerator {
+
+  public static void main(String[] args) throws Exception {
+    String connect = null;
+    int vertices = 100_000;
+    int connections = 256;
+    int depth = 4;
+    double seconds = 10;
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--connect=")) connect = value;
+      else if (arg.startsWith("--vertices=")) vertices = Integer.parseInt(value);
+      else if (arg.startsWith("--connections=")) connections = Integer.parseInt(value);
+      else if (arg.startsWith("--depth=")) depth = Integer.parseInt(value);
+      else if (arg.startsWith("--seconds=")) seconds = Double.parseDouble(value);
+      else throw new IllegalArgumentException("unknown argument: " + arg);
+    }
+
+    GraphServer local = null;
+    SocketAddress address;
+    if (connect == null) {
+      int[][] adjacency = GraphGenerators.rmat(vertices, 8, 2);
+      CsrGraph graph = CsrGraph.fromMap(GraphGenerators.toMap(adjacency));
+      String[] companies = new String[graph.vertexCount()];
+      for (int i = 0; i < companies.length; i++) {
+        companies[i] = "Company " + Math.floorMod(graph.idOf(i), 300);
+      }
+      local = GraphServer.start(graph, companies, new InetSocketAddress("127.0.0.1", 0));
+      address = local.address();
+    } else {
+      address = GraphServer.parseAddress(connect);
+    }
+
+    try {
+      Result result = run(address, vertices, connections, depth, (long) (seconds * 1e9));
+      System.out.printf(Locale.ROOT, "connections=%d depth=%d queries=%d errors=%d%n",
+          connections, depth, result.latencies.length, result.errors);
+      System.out.printf(Locale.ROOT, "throughput %.0f queries/s%n", result.latencies.length * 1e9 / result.elapsedNanos);
+      System.out.printf(Locale.ROOT, "latency us: p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+          percentile(result.latencies, 0.50) / 1e3, percentile(result.latencies, 0.90) / 1e3,
+          percentile(result.latencies, 0.99) / 1e3, percentile(result.latencies, 0.999) / 1e3,
+          result.latencies.length == 0 ? 0 : result.latencies[result.latencies.length - 1] / 1e3);
+      if (local != null) {
+        System.out.printf(Locale.ROOT, "server executed %d, coalesced %d%n",
+            local.executedQueries(), local.coalescedQueries());
+      }
+    } finally {
+      if (local != null) local.close();
+    }
+  }
+
+  static Result run(SocketAddress address, int vertices, int connections, int depth, long nanos)
+      throws Exception {
+    ExecutorService threads = GraphServer.newThreadPerTaskExecutor();
+    CountDownLatch connected = new CountDownLatch(connections);
+    CountDownLatch go = new CountDownLatch(1);
+    long[] deadline = new long[1];
+    List<Future<Samples>> futures = new ArrayList<>(connections);
+    for (int c = 0; c < connections; c++) {
+      long seed = c;
+      futures.add(threads.submit(() -> {
+        GraphClient client;
+        try {
+          client = GraphClient.connect(address);
+        } finally {
+          connected.countDown();
+        }
+        try (client) {
+          go.await();
+          return drive(client, new Random(seed), vertices, depth, deadline[0]);
+        }
+      }));
+    }
+    connected.await();
+    long start = System.nanoTime();
+    deadline[0] = start + nanos;
+    go.countDown();
+
+    Samples all = new Samples();
+    for (Future<Samples> future : futures) {
+      Samples samples = future.get();
+      all.errors += samples.errors;
+      for (int i = 0; i < samples.size; i++) {
+        all.add(samples.values[i]);
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    threads.shutdown();
+    long[] latencies = Arrays.copyOf(all.values, all.size);
+    Arrays.sort(latencies);
+    return new Result(latencies, all.errors, elapsed);
+  }
+
+  private static Samples drive(GraphClient client, Random random, int vertices, int depth, long deadline)
+      throws IOException {
+    Samples samples = new Samples();
+    int op = random.nextInt(5);
+    while (System.nanoTime() < deadline) {
+      for (int d = 0; d < depth; d++) {
+        client.send(query(op++ % 5, random, vertices));
+      }
+      long sent = System.nanoTime();
+      client.flush();
+      for (int d = 0; d < depth; d++) {
+        GraphClient.Reply reply = client.receive();
+        samples.add(System.nanoTime() - sent);
+        if (reply.isError()) samples.errors++;
+      }
+    }
+    return samples;
+  }
+
+  private static GraphQuery query(int op, Random random, int vertices) {
+    int a = GraphGenerators.id(random.nextInt(vertices));
+    int b = GraphGenerators.id(random.nextInt(vertices));
+    switch (op) {
+      case 0: return GraphQuery.twoWay(a, b);
+      case 1: return GraphQuery.positivePathExists(a, b);
+      case 2: return GraphQuery.sortedReachable(a);
+      case 3: return GraphQuery.oddVertices(a);
+      default: return GraphQuery.hasExtendedConnectionAtCompany(a, "Company " + random.nextInt(300));
+    }
+  }
+
+  private static double percentile(long[] sorted, double p) {
+    if (sorted.length == 0) return 0;
+    return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+  }
+
+  static final class Samples {
+    long[] values = new long[1024];
+    int size;
+    long errors;
+
+    void add(long value) {
+      if (size == values.length) values = Arrays.copyOf(values, size * 2);
+      values[size++] = value;
+    }
+  }
+
+  static final class Result {
+    final long[] latencies;
+    final long errors;
+    final long elapsedNanos;
+
+    Result(long[] latencies, long errors, long elapsedNanos) {
+      this.latencies = latencies;
+      this.errors = errors;
+      this.elapsedNanos = elapsedNanos;
+    }
+  }
+}
@@ -0,0 +1,82 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Times EdgeListLoader against a plain sequential read of the same file.
+ *
+ * Writes an R-MAT edge list of --vertices vertices and --degree edges per vertex (unless --file
+ * names an existing one), then reports MB/s for reading the bytes alone and for a full load into a
+ * CsrGraph. When the file is in the page cache the read figure is memory bandwidth, so it is an
+ * upper bound on what the parser could reach.
+ *
+ * Usage:
+ *   java -cp out IngestBenchmark [--file=edges.txt] [--vertices=1000000] [--degree=8] [--runs=3]
+ */
+public class IngestBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    Path file = null;
+    int vertices = 1_000_000;
+    int degree = 8;
+    int runs = 3;
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--file=")) file = Paths.get(value);
+      else if (arg.startsWith("--vertices=")) vertices = Integer.parseInt(value);
+      else if (arg.startsWith("--degree=")) degree = Integer.parseInt(value);
+      else if (arg.startsWith("--runs=")) runs = Integer.parseInt(value);
+      else throw new IllegalArgumentException("unknown argument: " + arg);
+    }
+    boolean generated = file == null;
+    if (generated) {
+      file = Files.createTempFile("ingest", ".txt");
+      int[][] adjacency = GraphGenerators.rmat(vertices, degree, 5);
+      try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+        for (int i = 0; i < adjacency.length; i++) {
+          for (int j : adjacency[i]) {
+            out.write(GraphGenerators.id(i) + " " + GraphGenerators.id(j) + "\n");
+          }
+        }
+      }
+    }
+    try {
+      double megabytes = Files.size(file) / 1e6;
+      for (int run = 0; run < runs; run++) {
+        long start = System.nanoTime();
+        long checksum = read(file);
+        double readSeconds = (System.nanoTime() - start) / 1e9;
+        start = System.nanoTime();
+        CsrGraph graph = EdgeListLoader.load(file);
+        double loadSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%.0f MB: read %.0f MB/s, load %.0f MB/s (%d vertices, %d edges, %d)%n",
+            megabytes, megabytes / readSeconds, megabytes / loadSeconds, graph.vertexCount(), graph.edgeCount(),
+            checksum & 1);
+      }
+    } finally {
+      if (generated) Files.delete(file);
+    }
+  }
+
+  private static long read(Path file) throws IOException {
+    long sum = 0;
+    ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (channel.read(buffer) >= 0) {
+        buffer.flip();
+        while (buffer.remaining() >= 8) {
+          sum += buffer.getLong();
+        }
+        buffer.clear();
+      }
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Measures how VertexOrdering changes traversal locality and speed.
+ *
+ * For each shape, size and order it reports the reorder time, two locality proxies and traversal
+ * times:
+ * <ul>
+ *   <li>span: the mean |i - j| over all edges i -> j, in indices.</li>
+ *   <li>line: the fraction of edges whose ends share a 64-byte line of a visited bitset (512
+ *   indices), so that marking the target touches a line the source already touched.</li>
+ *   <li>reach: Practice.sortedReachable on the CSR graph, including the sort a relabelled graph
+ *   needs to return ids in order.</li>
+ *   <li>path: Practice.positivePathExists over random pairs.</li>
+ *   <li>vertex: Practice.sortedReachable on Vertex objects copied by VertexOrdering.relayout, so
+ *   that the heap layout follows the order. The id row is the original allocation order.</li>
+ * </ul>
+ *
+ * The JVM cannot read hardware counters; for cache miss counts run a single shape, size and order
+ * under perf, for example:
+ *   perf stat -e L1-dcache-load-misses,LLC-load-misses java -cp out OrderingBenchmark --shapes=grid
+ *       --sizes=1000000 --orders=rcm
+ * and compare it with --orders=id.
+ *
+ * Usage:
+ *   java -cp out OrderingBenchmark [--sizes=100000,1000000] [--shapes=er,rmat,grid]
+ *       [--orders=id,bfs,rcm,degree] [--queries=200]
+ */
+public class OrderingBenchmark {
+  private static volatile long sink;
+
+  public static void main(String[] args) {
+    int[] sizes = {100_000, 1_000_000};
+    List<String> shapes = Arrays.asList("er", "rmat", "grid");
+    List<String> orders = Arrays.asList("id", "bfs", "rcm", "degree");
+    int queries = 200;
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--sizes=")) sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+      else if (arg.startsWith("--shapes=")) shapes = Arrays.asList(value.split(","));
+      else if (arg.startsWith("--orders=")) orders = Arrays.asList(value.split(","));
+      else if (arg.startsWith("--queries=")) queries = Integer.parseInt(value);
+      else throw new IllegalArgumentException("unknown argument: " + arg);
+    }
+
+    System.out.printf(Locale.ROOT, "%-6s %9s %-7s %10s %10s %7s %10s %10s %10s%n",
+        "shape", "vertices", "order", "reorder ms", "span", "line", "reach ms", "path us", "vertex ms");
+    for (String shape : shapes) {
+      for (int size : sizes) {
+        run(shape, size, orders, queries);
+      }
+    }
+  }
+
+  private static void run(String shape, int n, List<String> orders, int queries) {
+    int[][] adjacency;
+    switch (shape) {
+      case "er": adjacency = GraphGenerators.erdosRenyi(n, 4, 1); break;
+      case "rmat": adjacency = GraphGenerators.rmat(n, 8, 2); break;
+      case "grid": adjacency = GraphGenerators.grid(n, 3); break;
+      default: throw new IllegalArgumentException("unknown shape: " + shape);
+    }
+    CsrGraph original = CsrGraph.fromMap(GraphGenerators.toMap(adjacency));
+    List<Vertex<Integer>> vertices = GraphGenerators.toVertices(adjacency);
+    Random random = new Random(n);
+    // A few starts for the full traversals, and random pairs for the early-exit searches.
+    int[] starts = new int[5];
+    for (int s = 0; s < starts.length; s++) {
+      starts[s] = random.nextInt(n);
+    }
+    int[] from = new int[queries];
+    int[] to = new int[queries];
+    for (int q = 0; q < queries; q++) {
+      from[q] = GraphGenerators.id(random.nextInt(n));
+      to[q] = GraphGenerators.id(random.nextInt(n));
+    }
+
+    for (String name : orders) {
+      VertexOrdering.Order order = VertexOrdering.Order.valueOf(name.toUpperCase(Locale.ROOT));
+      long begin = System.nanoTime();
+      CsrGraph graph = order == VertexOrdering.Order.ID ? original : VertexOrdering.reorder(original, order);
+      long reorderNanos = System.nanoTime() - begin;
+      List<Vertex<Integer>> roots = order == VertexOrdering.Order.ID ? vertices : VertexOrdering.relayout(vertices, order);
+
+      long spanSum = 0;
+      long sameLine = 0;
+      for (int i = 0; i < graph.vertexCount(); i++) {
+        for (int edge = graph.edgeStart(i); edge < graph.edgeEnd(i); edge++) {
+          int j = graph.target(edge);
+          spanSum += Math.abs(i - j);
+          if (i >>> 9 == j >>> 9) sameLine++;
+        }
+      }
+      double edges = Math.max(1, graph.edgeCount());
+
+      // One untimed pass of each warms up the code and the caches the same way for every order.
+      long reachNanos = 0;
+      long vertexNanos = 0;
+      for (int pass = 0; pass < 2; pass++) {
+        reachNanos = 0;
+        vertexNanos = 0;
+        for (int s : starts) {
+          int id = GraphGenerators.id(s);
+          long t = System.nanoTime();
+          sink += Practice.sortedReachable(graph, id).length;
+          reachNanos += System.nanoTime() - t;
+          t = System.nanoTime();
+          sink += Practice.sortedReachable(roots.get(s)).size();
+          vertexNanos += System.nanoTime() - t;
+        }
+      }
+      long pathNanos = 0;
+      for (int pass = 0; pass < 2; pass++) {
+        long t = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+          if (Practice.positivePathExists(graph, from[q], to[q])) sink++;
+        }
+        pathNanos = System.nanoTime() - t;
+      }
+
+      System.out.printf(Locale.ROOT, "%-6s %9d %-7s %10.1f %10.0f %7.3f %10.2f %10.1f %10.2f%n",
+          shape, n, name, reorderNanos / 1e6, spanSum / edges, sameLine / edges,
+          reachNanos / 1e6 / starts.length, pathNanos / 1e3 / queries, vertexNanos / 1e6 / starts.length);
+    }
+  }
+}
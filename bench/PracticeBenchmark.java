@@ -0,0 +1,206 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Benchmarks every Practice method over generated graphs.
+ *
+ * For each shape and size the graph is built once in every representation, then each query is run
+ * repeatedly from seeded random starting vertices. Every benchmark reports throughput (ops/s),
+ * average time per op and bytes allocated per op by the measuring thread (from
+ * com.sun.management.ThreadMXBean, the same counter JMH's gc profiler reads).
+ *
+ * Usage:
+ *   java -cp out PracticeBenchmark [--sizes=1000,100000] [--shapes=er,rmat,chain,clique,cycles]
+ *       [--warmup=1] [--measure=2] [--filter=twoWay]
+ *
+ * Warmup and measurement are in seconds per benchmark. Graphs of 10^7 vertices in Map and Vertex
+ * form need a large heap (on the order of -Xmx16g).
+ */
+public class PracticeBenchmark {
+  private static final int QUERIES = 1024;
+  // Dense cliques grow as n^2, so larger requested sizes are capped to this many vertices.
+  private static final int MAX_CLIQUE = 2_000;
+
+  private static volatile int sink;
+
+  private final double warmupSeconds;
+  private final double measureSeconds;
+  private final String filter;
+
+  private PracticeBenchmark(double warmupSeconds, double measureSeconds, String filter) {
+    this.warmupSeconds = warmupSeconds;
+    this.measureSeconds = measureSeconds;
+    this.filter = filter;
+  }
+
+  public static void main(String[] args) {
+    int[] sizes = {1_000, 10_000, 100_000};
+    List<String> shapes = Arrays.asList("er", "rmat", "chain", "clique", "cycles");
+    double warmup = 1;
+    double measure = 2;
+    String filter = "";
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--sizes=")) sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+      else if (arg.startsWith("--shapes=")) shapes = Arrays.asList(value.split(","));
+      else if (arg.startsWith("--warmup=")) warmup = Double.parseDouble(value);
+      else if (arg.startsWith("--measure=")) measure = Double.parseDouble(value);
+      else if (arg.startsWith("--filter=")) filter = value;
+      else throw new IllegalArgumentException("unknown argument: " + arg);
+    }
+
+    PracticeBenchmark benchmark = new PracticeBenchmark(warmup, measure, filter);
+    System.out.printf(Locale.ROOT, "%-8s %10s %-34s %14s %14s %14s%n",
+        "shape", "vertices", "benchmark", "ops/s", "avg ns/op", "alloc B/op");
+    for (String shape : shapes) {
+      for (int size : sizes) {
+        benchmark.run(shape, size);
+      }
+    }
+  }
+
+  private static int[][] generate(String shape, int n) {
+    switch (shape) {
+      case "er": return GraphGenerators.erdosRenyi(n, 4, 1);
+      case "rmat": return GraphGenerators.rmat(n, 8, 2);
+      case "chain": return GraphGenerators.chain(n);
+      case "clique": return GraphGenerators.clique(Math.min(n, MAX_CLIQUE));
+      case "cycles": return GraphGenerators.cycles(n, 8, 3);
+      default: throw new IllegalArgumentException("unknown shape: " + shape);
+    }
+  }
+
+  private void run(String shape, int size) {
+    int[][] adjacency = generate(shape, size);
+    int n = adjacency.length;
+    Map<Integer, Set<Integer>> map = GraphGenerators.toMap(adjacency);
+    CsrGraph csr = CsrGraph.fromMap(map);
+    OffHeapGraph offHeap = OffHeapGraph.copyOf(csr);
+    List<Vertex<Integer>> vertices = GraphGenerators.toVertices(adjacency);
+    List<Professional> people = GraphGenerators.toNetwork(adjacency, 300);
+
+    Random random = new Random(n);
+    int[] from = new int[QUERIES];
+    int[] to = new int[QUERIES];
+    for (int q = 0; q < QUERIES; q++) {
+      from[q] = random.nextInt(n);
+      to[q] = random.nextInt(n);
+    }
+    // A company nobody works at forces a full traversal of the extended network.
+    String[] companies = new String[QUERIES];
+    for (int q = 0; q < QUERIES; q++) {
+      companies[q] = q % 4 == 0 ? "Nobody Inc." : "Company " + random.nextInt(300);
+    }
+
+    List<Benchmark> benchmarks = new ArrayList<>();
+    benchmarks.add(new Benchmark("oddVertices", q -> Practice.oddVertices(vertices.get(from[q]))));
+    benchmarks.add(new Benchmark("sortedReachable(Vertex)",
+        q -> Practice.sortedReachable(vertices.get(from[q])).size()));
+    benchmarks.add(new Benchmark("sortedReachable(Map)",
+        q -> Practice.sortedReachable(map, GraphGenerators.id(from[q])).size()));
+    benchmarks.add(new Benchmark("sortedReachable(IntGraph)",
+        q -> Practice.sortedReachable(csr, GraphGenerators.id(from[q])).length));
+    benchmarks.add(new Benchmark("sortedReachable(OffHeapGraph)",
+        q -> Practice.sortedReachable(offHeap, GraphGenerators.id(from[q])).length));
+    benchmarks.add(new Benchmark("twoWay",
+        q -> Practice.twoWay(vertices.get(from[q]), vertices.get(to[q])) ? 1 : 0));
+    benchmarks.add(new Benchmark("positivePathExists(Map)",
+        q -> Practice.positivePathExists(map, GraphGenerators.id(from[q]), GraphGenerators.id(to[q])) ? 1 : 0));
+    benchmarks.add(new Benchmark("positivePathExists(IntGraph)",
+        q -> Practice.positivePathExists(csr, GraphGenerators.id(from[q]), GraphGenerators.id(to[q])) ? 1 : 0));
+    benchmarks.add(new Benchmark("positivePathExists(OffHeapGraph)",
+        q -> Practice.positivePathExists(offHeap, GraphGenerators.id(from[q]), GraphGenerators.id(to[q])) ? 1 : 0));
+    // Batch variants answer all QUERIES sources per op; compare with the single-source loop.
+    List<Vertex<Integer>> sources = new ArrayList<>(QUERIES);
+    for (int q = 0; q < QUERIES; q++) {
+      sources.add(vertices.get(from[q]));
+    }
+    BatchReachability batch = BatchReachability.ofVertices(vertices);
+    benchmarks.add(new Benchmark("oddVertices x" + QUERIES + " loop", q -> {
+      int acc = 0;
+      for (Vertex<Integer> source : sources) {
+        acc += Practice.oddVertices(source);
+      }
+      return acc;
+    }));
+    benchmarks.add(new Benchmark("oddVertices x" + QUERIES + " batch", q -> batch.oddVertices(sources)[q]));
+    benchmarks.add(new Benchmark("sortedReachable x" + QUERIES + " loop", q -> {
+      int acc = 0;
+      for (Vertex<Integer> source : sources) {
+        acc += Practice.sortedReachable(source).size();
+      }
+      return acc;
+    }));
+    benchmarks.add(new Benchmark("sortedReachable x" + QUERIES + " batch",
+        q -> batch.sortedReachable(sources)[q].size()));
+    benchmarks.add(new Benchmark("hasExtendedConnectionAtCompany",
+        q -> Practice.hasExtendedConnectionAtCompany(people.get(from[q]), companies[q]) ? 1 : 0));
+
+    for (Benchmark benchmark : benchmarks) {
+      if (!benchmark.name.contains(filter)) continue;
+      Result result = measure(benchmark);
+      System.out.printf(Locale.ROOT, "%-8s %10d %-34s %14.1f %14.1f %14.1f%n",
+          shape, n, benchmark.name, result.opsPerSecond, result.nanosPerOp, result.bytesPerOp);
+    }
+  }
+
+  /**
+   * Runs one benchmark for the warmup period, then for the measurement period.
+   */
+  Result measure(Benchmark benchmark) {
+    loop(benchmark, (long) (warmupSeconds * 1e9));
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+    long start = System.nanoTime();
+    long ops = loop(benchmark, (long) (measureSeconds * 1e9));
+    long elapsed = System.nanoTime() - start;
+    long bytes = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+    return new Result(ops * 1e9 / elapsed, (double) elapsed / ops, (double) bytes / ops);
+  }
+
+  private static long loop(Benchmark benchmark, long budgetNanos) {
+    long deadline = System.nanoTime() + budgetNanos;
+    long ops = 0;
+    int acc = 0;
+    do {
+      // Check the clock once per batch so timing calls do not dominate very fast queries.
+      for (int q = 0; q < 16; q++) {
+        acc += benchmark.op.applyAsInt((int) (ops++ & (QUERIES - 1)));
+      }
+    } while (System.nanoTime() < deadline);
+    sink = acc;
+    return ops;
+  }
+
+  /**
+   * A named query; op receives the index of the pre-generated query to run.
+   */
+  static final class Benchmark {
+    final String name;
+    final IntUnaryOperator op;
+
+    Benchmark(String name, IntUnaryOperator op) {
+      this.name = name;
+      this.op = op;
+    }
+  }
+
+  static final class Result {
+    final double opsPerSecond;
+    final double nanosPerOp;
+    final double bytesPerOp;
+
+    Result(double opsPerSecond, double nanosPerOp, double bytesPerOp) {
+      this.opsPerSecond = opsPerSecond;
+      this.nanosPerOp = nanosPerOp;
+      this.bytesPerOp = bytesPerOp;
+    }
+  }
+}
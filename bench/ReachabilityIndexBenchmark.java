@@ -0,0 +1,98 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the forms of PositiveReachabilityIndex with a plain traversal per query.
+ *
+ * For each shape and size it builds the index in every form and reports build time, index size,
+ * average 2-hop label size and the mean latency of positivePathExists over random vertex pairs,
+ * next to Practice.positivePathExists on the CSR graph (a bidirectional search). The closure is
+ * skipped when its bit matrix would exceed 1 GiB.
+ *
+ * Usage:
+ *   java -cp out ReachabilityIndexBenchmark [--sizes=1000,10000,100000] [--shapes=er,rmat,chain,cycles]
+ *       [--queries=200000]
+ */
+public class ReachabilityIndexBenchmark {
+  private static volatile int sink;
+
+  public static void main(String[] args) {
+    int[] sizes = {1_000, 10_000, 100_000};
+    List<String> shapes = Arrays.asList("er", "rmat", "chain", "cycles");
+    int queries = 200_000;
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--sizes=")) sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+      else if (arg.startsWith("--shapes=")) shapes = Arrays.asList(value.split(","));
+      else if (arg.startsWith("--queries=")) queries = Integer.parseInt(value);
+      else throw new IllegalArgumentException("unknown argument: " + arg);
+    }
+
+    System.out.printf(Locale.ROOT, "%-8s %10s %-10s %11s %10s %12s %10s %12s%n",
+        "shape", "vertices", "form", "components", "build ms", "size MB", "avg label", "query ns");
+    for (String shape : shapes) {
+      for (int size : sizes) {
+        run(shape, size, queries);
+      }
+    }
+  }
+
+  private static void run(String shape, int n, int queries) {
+    int[][] adjacency;
+    switch (shape) {
+      case "er": adjacency = GraphGenerators.erdosRenyi(n, 4, 1); break;
+      case "rmat": adjacency = GraphGenerators.rmat(n, 8, 2); break;
+      case "chain": adjacency = GraphGenerators.chain(n); break;
+      case "cycles": adjacency = GraphGenerators.cycles(n, 8, 3); break;
+      default: throw new IllegalArgumentException("unknown shape: " + shape);
+    }
+    CsrGraph graph = CsrGraph.fromMap(GraphGenerators.toMap(adjacency));
+    Random random = new Random(n);
+    int[] from = new int[queries];
+    int[] to = new int[queries];
+    for (int q = 0; q < queries; q++) {
+      from[q] = GraphGenerators.id(random.nextInt(n));
+      to[q] = GraphGenerators.id(random.nextInt(n));
+    }
+
+    // Traversals are much slower, so they get a smaller sample of the same pairs.
+    int traversals = Math.min(queries, 2_000);
+    long nanos = time(traversals, q -> Practice.positivePathExists(graph, from[q], to[q]));
+    System.out.printf(Locale.ROOT, "%-8s %10d %-10s %11s %10s %12s %10s %12.1f%n",
+        shape, n, "traversal", "-", "-", "-", "-", (double) nanos / traversals);
+
+    int components = -1;
+    for (PositiveReachabilityIndex.Mode mode
+        : List.of(PositiveReachabilityIndex.Mode.TWO_HOP, PositiveReachabilityIndex.Mode.CLOSURE)) {
+      if (mode == PositiveReachabilityIndex.Mode.CLOSURE && (long) components * components / 8 > 1L << 30) {
+        System.out.printf(Locale.ROOT, "%-8s %10d %-10s %11d %10s%n", shape, n, "closure", components, "skipped");
+        continue;
+      }
+      PositiveReachabilityIndex index = PositiveReachabilityIndex.of(graph, mode);
+      components = index.componentCount();
+      // Warm up the query path before timing it.
+      time(queries, q -> index.positivePathExists(from[q], to[q]));
+      nanos = time(queries, q -> index.positivePathExists(from[q], to[q]));
+      System.out.printf(Locale.ROOT, "%-8s %10d %-10s %11d %10.1f %12.2f %10.1f %12.1f%n",
+          shape, n, mode.name().toLowerCase(Locale.ROOT), components, index.buildNanos() / 1e6,
+          index.sizeBytes() / 1e6, index.averageLabelSize(), (double) nanos / queries);
+    }
+  }
+
+  private interface Query {
+    boolean run(int q);
+  }
+
+  private static long time(int count, Query query) {
+    int acc = 0;
+    long start = System.nanoTime();
+    for (int q = 0; q < count; q++) {
+      if (query.run(q)) acc++;
+    }
+    long elapsed = System.nanoTime() - start;
+    sink = acc;
+    return elapsed;
+  }
+}
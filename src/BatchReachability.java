@@ -0,0 +1,222 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers oddVertices and sortedReachable for many starting vertices at once.
+ *
+ * The graph is condensed into its strongly connected components once, when the batch object is
+ * built. Each query batch is then processed 64 sources at a time: every source owns one bit of a
+ * long per component, the sources' own components are seeded, and the bits are pushed along the
+ * condensation in a single pass from the highest component id to the lowest (Tarjan numbers
+ * components in reverse topological order, so a component's predecessors are always done first).
+ * Shared regions of the graph are visited once per 64 sources instead of once per source, and a
+ * strongly connected component is handled as a unit.
+ *
+ * The number of odd values per component is precomputed, so oddVertices adds one count per
+ * reached component. For sortedReachable every value is sorted once up front together with its
+ * component; a single walk over that order appends each value to the sources whose bit is set for
+ * its component, so every result comes out sorted without a per-source sort.
+ *
+ * The object reflects the graph as of construction; build a new one after the graph changes.
+ */
+public final class BatchReachability {
+  private static final int LANES = 64;
+
+  private final GraphSnapshot<Vertex<Integer>> snapshot;
+  private final SccIndex components;
+  private final CsrGraph dag;
+  private final int[] odd;
+  // All values in ascending order, each with the component of the vertex it came from.
+  private final int[] orderedValues;
+  private final int[] orderedComponents;
+  // Components holding a vertex with null data; sortedReachable fails on them like Practice does.
+  private final long[] hasNull;
+
+  private BatchReachability(GraphSnapshot<Vertex<Integer>> snapshot, SccIndex components, int[] values,
+      long[] nullValues) {
+    this.snapshot = snapshot;
+    this.components = components;
+    this.dag = components.condensation();
+    int count = components.componentCount();
+    int n = values.length;
+    this.odd = new int[count];
+    this.hasNull = new long[(count + 63) >>> 6];
+    // Sort (value, component) pairs packed into longs, the value in the high half.
+    long[] pairs = new long[n];
+    for (int v = 0; v < n; v++) {
+      int c = components.componentOf(v);
+      pairs[v] = ((long) values[v] << 32) | c;
+      if ((nullValues[v >>> 6] & (1L << v)) != 0) {
+        hasNull[c >>> 6] |= 1L << c;
+      } else if (values[v] % 2 != 0) {
+        odd[c]++;
+      }
+    }
+    Arrays.sort(pairs);
+    this.orderedValues = new int[n];
+    this.orderedComponents = new int[n];
+    for (int i = 0; i < n; i++) {
+      orderedValues[i] = (int) (pairs[i] >> 32);
+      orderedComponents[i] = (int) pairs[i];
+    }
+  }
+
+  /**
+   * Prepares batch queries over every vertex reachable from the given roots.
+   *
+   * @param roots the vertices to start from
+   * @return the batch query object
+   */
+  public static BatchReachability ofVertices(Collection<? extends Vertex<Integer>> roots) {
+    return ofSnapshot(GraphSnapshot.ofVertices(roots));
+  }
+
+  /**
+   * Prepares batch queries over the vertices of a snapshot.
+   *
+   * @param snapshot the snapshot
+   * @return the batch query object
+   */
+  public static BatchReachability ofSnapshot(GraphSnapshot<Vertex<Integer>> snapshot) {
+    int n = snapshot.size();
+    int[] values = new int[n];
+    long[] nulls = new long[(n + 63) >>> 6];
+    for (int i = 0; i < n; i++) {
+      Integer data = snapshot.node(i).data;
+      if (data == null) nulls[i >>> 6] |= 1L << i;
+      else values[i] = data;
+    }
+    return new BatchReachability(snapshot, SccIndex.ofSnapshot(snapshot), values, nulls);
+  }
+
+  /**
+   * Prepares batch queries over the map representation used by Practice; the values are the
+   * vertex ids themselves.
+   *
+   * @param graph a map where each key is a vertex and its value is the set of its neighbors
+   * @return the batch query object
+   */
+  public static BatchReachability ofMap(Map<Integer, Set<Integer>> graph) {
+    CsrGraph csr = CsrGraph.fromMap(graph);
+    int[] values = new int[csr.vertexCount()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = csr.idOf(i);
+    }
+    return new BatchReachability(null, SccIndex.of(csr), values, new long[(values.length + 63) >>> 6]);
+  }
+
+  /**
+   * Same as calling Practice.oddVertices on each starting vertex.
+   *
+   * @param starting the starting vertices; null entries count 0
+   * @return the number of odd values reachable from each starting vertex, in the same order
+   * @throws IllegalArgumentException if a starting vertex is not part of the graph
+   */
+  public int[] oddVertices(List<Vertex<Integer>> starting) {
+    int[] sources = componentsOf(starting);
+    int[] result = new int[sources.length];
+    for (int base = 0; base < sources.length; base += LANES) {
+      long[] reach = propagate(sources, base);
+      for (int c = 0; c < reach.length; c++) {
+        long bits = reach[c];
+        if (odd[c] == 0) continue;
+        while (bits != 0) {
+          result[base + Long.numberOfTrailingZeros(bits)] += odd[c];
+          bits &= bits - 1;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Same as calling Practice.sortedReachable(Vertex) on each starting vertex.
+   *
+   * @param starting the starting vertices; null entries get an empty list
+   * @return the sorted reachable values for each starting vertex, in the same order
+   * @throws IllegalArgumentException if a starting vertex is not part of the graph
+   */
+  public IntList[] sortedReachable(List<Vertex<Integer>> starting) {
+    return collect(componentsOf(starting));
+  }
+
+  /**
+   * Same as calling Practice.sortedReachable(Map, int) on each starting id, for an object built
+   * with ofMap.
+   *
+   * @param starting the starting vertex values
+   * @return the sorted reachable values for each starting value, in the same order; empty when a
+   *     value is not a key of the map
+   */
+  public IntList[] sortedReachable(int[] starting) {
+    IntGraph graph = components.graph();
+    int[] sources = new int[starting.length];
+    for (int q = 0; q < starting.length; q++) {
+      int index = graph.indexOf(starting[q]);
+      sources[q] = index >= 0 && graph.isKey(index) ? components.componentOf(index) : -1;
+    }
+    return collect(sources);
+  }
+
+  private int[] componentsOf(List<Vertex<Integer>> starting) {
+    if (snapshot == null) throw new IllegalStateException("batch was not built from a Vertex graph");
+    int[] sources = new int[starting.size()];
+    for (int q = 0; q < sources.length; q++) {
+      Vertex<Integer> vertex = starting.get(q);
+      if (vertex == null) {
+        sources[q] = -1;
+        continue;
+      }
+      int index = snapshot.indexOf(vertex);
+      if (index < 0) throw new IllegalArgumentException("starting vertex is not in the snapshot");
+      sources[q] = components.componentOf(index);
+    }
+    return sources;
+  }
+
+  private IntList[] collect(int[] sources) {
+    IntList[] result = new IntList[sources.length];
+    for (int q = 0; q < sources.length; q++) {
+      result[q] = new IntList();
+    }
+    for (int base = 0; base < sources.length; base += LANES) {
+      long[] reach = propagate(sources, base);
+      for (int c = 0; c < reach.length; c++) {
+        if (reach[c] != 0 && (hasNull[c >>> 6] & (1L << c)) != 0) {
+          throw new NullPointerException("reachable vertex has null data");
+        }
+      }
+      // Walking the values in global order appends them to every source already sorted.
+      for (int i = 0; i < orderedValues.length; i++) {
+        long bits = reach[orderedComponents[i]];
+        while (bits != 0) {
+          result[base + Long.numberOfTrailingZeros(bits)].addInt(orderedValues[i]);
+          bits &= bits - 1;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns, for each component, a word whose bit i is set when source base + i reaches it.
+   */
+  private long[] propagate(int[] sources, int base) {
+    long[] reach = new long[dag.vertexCount()];
+    int lanes = Math.min(LANES, sources.length - base);
+    for (int i = 0; i < lanes; i++) {
+      if (sources[base + i] >= 0) reach[sources[base + i]] |= 1L << i;
+    }
+    for (int c = reach.length - 1; c >= 0; c--) {
+      long bits = reach[c];
+      if (bits == 0) continue;
+      for (int edge = dag.edgeStart(c); edge < dag.edgeEnd(c); edge++) {
+        reach[dag.target(edge)] |= bits;
+      }
+    }
+    return reach;
+  }
+}
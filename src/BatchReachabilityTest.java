@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class BatchReachabilityTest {
+
+  private static List<Vertex<Integer>> randomGraph(int n, int degree, long seed) {
+    Random random = new Random(seed);
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      vertices.add(new Vertex<>(random.nextInt(50) - 10));
+    }
+    for (Vertex<Integer> vertex : vertices) {
+      for (int e = 0; e < degree; e++) {
+        vertex.neighbors.add(vertices.get(random.nextInt(n)));
+      }
+    }
+    return vertices;
+  }
+
+  @Test
+  public void testVertexBatch_MatchesSingleSource() {
+    List<Vertex<Integer>> vertices = randomGraph(400, 1, 3);
+    BatchReachability batch = BatchReachability.ofVertices(vertices);
+    // More than 64 sources, with repeats and a null, so several lanes blocks are exercised.
+    List<Vertex<Integer>> sources = new ArrayList<>();
+    Random random = new Random(4);
+    for (int q = 0; q < 150; q++) {
+      sources.add(q == 70 ? null : vertices.get(random.nextInt(vertices.size())));
+    }
+
+    int[] odd = batch.oddVertices(sources);
+    IntList[] sorted = batch.sortedReachable(sources);
+    for (int q = 0; q < sources.size(); q++) {
+      assertEquals(Practice.oddVertices(sources.get(q)), odd[q]);
+      assertEquals(Practice.sortedReachable(sources.get(q)), sorted[q]);
+    }
+  }
+
+  @Test
+  public void testVertexBatch_UnknownVertexAndNullData() {
+    Vertex<Integer> a = new Vertex<>(1);
+    Vertex<Integer> b = new Vertex<>(null);
+    a.neighbors.add(b);
+    BatchReachability batch = BatchReachability.ofVertices(List.of(a));
+    assertArrayEquals(new int[]{1, 0}, batch.oddVertices(Arrays.asList(a, b)));
+    assertThrows(NullPointerException.class, () -> batch.sortedReachable(List.of(a)));
+    assertThrows(IllegalArgumentException.class, () -> batch.oddVertices(List.of(new Vertex<>(3))));
+  }
+
+  @Test
+  public void testMapBatch_MatchesSingleSource() {
+    Random random = new Random(8);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < 200; i++) {
+      graph.put(i - 50, new HashSet<>(Arrays.asList(random.nextInt(220) - 50)));
+    }
+    BatchReachability batch = BatchReachability.ofMap(graph);
+    int[] starting = new int[100];
+    for (int q = 0; q < starting.length; q++) {
+      starting[q] = random.nextInt(240) - 60;
+    }
+    IntList[] sorted = batch.sortedReachable(starting);
+    for (int q = 0; q < starting.length; q++) {
+      assertEquals(Practice.sortedReachable(graph, starting[q]), sorted[q]);
+    }
+    assertThrows(IllegalStateException.class, () -> batch.oddVertices(new ArrayList<>()));
+  }
+}
@@ -0,0 +1,186 @@
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Point-to-point reachability by bidirectional breadth-first search over int graphs.
+ *
+ * One search runs forward from the source over the graph and one runs backward from the target
+ * over graph.reverse(), which is built on first use and cached on the graph instance. Each round
+ * expands whichever side currently has the smaller frontier, and the query answers true as soon as
+ * one side reaches a vertex the other side has already seen. On sparse graphs this touches roughly
+ * the square root of the vertices a one-sided search would.
+ *
+ * Visited state lives in a per-thread workspace marked with epoch stamps, so a query only pays for
+ * the vertices it touches. A search started from inside an admissible test on the same thread gets
+ * a private workspace, so nesting is safe (it just allocates).
+ */
+public final class BidirectionalSearch {
+  private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+  private BidirectionalSearch() {
+  }
+
+  /**
+   * Returns whether there exists a path from the starting to ending vertex that includes only positive values.
+   * Same contract as Practice.positivePathExists(IntGraph, int, int).
+   *
+   * @param graph an int graph
+   * @param starting the starting vertex value
+   * @param ending the ending vertex value
+   * @return whether there exists a valid positive path from starting to ending
+   */
+  public static boolean positivePathExists(IntGraph graph, int starting, int ending) {
+    return pathExists(graph, starting, ending, id -> id > 0);
+  }
+
+  /**
+   * Returns whether there exists a path from the starting to ending vertex that passes only
+   * through vertices whose ids satisfy admissible, endpoints included. Inadmissible vertices are
+   * never enqueued. Returns false if either endpoint is not a key of the graph.
+   *
+   * @param graph an int graph
+   * @param starting the starting vertex value
+   * @param ending the ending vertex value
+   * @param admissible the test a vertex id must pass to be part of the path
+   * @return whether an admissible path exists from starting to ending
+   */
+  public static boolean pathExists(IntGraph graph, int starting, int ending, IntPredicate admissible) {
+    if (!admissible.test(starting) || !admissible.test(ending)) return false;
+    int start = graph.indexOf(starting);
+    int end = graph.indexOf(ending);
+    if (start < 0 || end < 0 || !graph.isKey(start) || !graph.isKey(end)) return false;
+    return search(graph, start, end, admissible);
+  }
+
+  /**
+   * Returns true if and only if it is possible both to reach v2 from v1 and to reach v1 from v2.
+   * Same contract as Practice.twoWay.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param snapshot a snapshot containing both vertices
+   * @param v1 the starting vertex
+   * @param v2 the target vertex
+   * @return true if there is a two-way connection between v1 and v2, false otherwise
+   */
+  public static <T> boolean twoWay(GraphSnapshot<Vertex<T>> snapshot, Vertex<T> v1, Vertex<T> v2) {
+    if (v1 == null || v2 == null) return false;
+    int a = snapshot.indexOf(v1);
+    int b = snapshot.indexOf(v2);
+    if (a < 0 || b < 0) throw new IllegalArgumentException("vertex is not in the snapshot");
+    return reaches(snapshot.graph(), a, b) && reaches(snapshot.graph(), b, a);
+  }
+
+  /**
+   * Returns whether the vertex at index target is reachable from the vertex at index source.
+   *
+   * @param graph an int graph
+   * @param source the dense index of the source
+   * @param target the dense index of the target
+   * @return true if a path exists; a vertex always reaches itself
+   */
+  public static boolean reaches(IntGraph graph, int source, int target) {
+    return search(graph, source, target, null);
+  }
+
+  private static boolean search(IntGraph graph, int source, int target, IntPredicate admissible) {
+    if (source == target) return true;
+    Workspace ws = Workspace.acquire(graph.vertexCount());
+    try {
+      return search(graph, source, target, admissible, ws);
+    } finally {
+      ws.inUse = false;
+    }
+  }
+
+  private static boolean search(IntGraph graph, int source, int target, IntPredicate admissible, Workspace ws) {
+    IntGraph.Cursor forwardCursor = graph.cursor();
+    IntGraph.Cursor backwardCursor = graph.reverse().cursor();
+    int forward = ws.forwardMark;
+    int backward = ws.backwardMark;
+    int[] marks = ws.marks;
+    marks[source] = forward;
+    marks[target] = backward;
+    ws.forward[0] = source;
+    ws.backward[0] = target;
+    int forwardSize = 1;
+    int backwardSize = 1;
+    long visited = 0;
+    long scanned = 0;
+    long rejected = 0;
+    long maxFrontier = 1;
+    boolean found = false;
+
+    search:
+    while (forwardSize > 0 && backwardSize > 0) {
+      boolean expandForward = forwardSize <= backwardSize;
+      IntGraph.Cursor cursor = expandForward ? forwardCursor : backwardCursor;
+      int[] frontier = expandForward ? ws.forward : ws.backward;
+      int size = expandForward ? forwardSize : backwardSize;
+      int mine = expandForward ? forward : backward;
+      int theirs = expandForward ? backward : forward;
+
+      // The next level is appended after the current one and then shifted down.
+      int out = size;
+      for (int i = 0; i < size; i++) {
+        cursor.of(frontier[i]);
+        if (TraversalMetrics.ENABLED) visited++;
+        for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+          if (TraversalMetrics.ENABLED) scanned++;
+          int mark = marks[next];
+          if (mark == mine) {
+            if (TraversalMetrics.ENABLED) rejected++;
+            continue;
+          }
+          if (mark == theirs) {
+            found = true;
+            break search;
+          }
+          if (admissible != null && !admissible.test(graph.idOf(next))) continue;
+          marks[next] = mine;
+          if (out == frontier.length) {
+            frontier = Arrays.copyOf(frontier, out * 2);
+            if (expandForward) ws.forward = frontier; else ws.backward = frontier;
+          }
+          frontier[out++] = next;
+        }
+      }
+      System.arraycopy(frontier, size, frontier, 0, out - size);
+      if (expandForward) forwardSize = out - size; else backwardSize = out - size;
+      if (TraversalMetrics.ENABLED) maxFrontier = Math.max(maxFrontier, out - size);
+    }
+    if (TraversalMetrics.ENABLED) TraversalMetrics.traversal(visited, scanned, rejected, maxFrontier, found);
+    return found;
+  }
+
+  private static final class Workspace {
+    private int[] marks = new int[0];
+    private int forwardMark;
+    private int backwardMark;
+    private int[] forward = new int[64];
+    private int[] backward = new int[64];
+    private boolean inUse;
+
+    static Workspace acquire(int vertexCount) {
+      Workspace ws = WORKSPACE.get();
+      // A search started from inside an admissible test gets its own workspace.
+      if (ws.inUse) ws = new Workspace();
+      ws.inUse = true;
+      ws.begin(vertexCount);
+      return ws;
+    }
+
+    void begin(int vertexCount) {
+      if (marks.length < vertexCount) {
+        marks = new int[vertexCount];
+        forwardMark = 0;
+      }
+      forwardMark += 2;
+      if (forwardMark <= 0) {
+        // Wrapped around: stale marks could match the new epoch, so clear once and restart.
+        Arrays.fill(marks, 0);
+        forwardMark = 2;
+      }
+      backwardMark = forwardMark + 1;
+    }
+  }
+}
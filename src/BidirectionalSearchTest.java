@@ -0,0 +1,33 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class BidirectionalSearchTest {
+
+  @Test
+  public void testTwoWay_MatchesPractice() {
+    Vertex<Integer>[] vertices = PracticeTest.createComplexGraph();
+    GraphSnapshot<Vertex<Integer>> snapshot = GraphSnapshot.ofVertices(Arrays.asList(vertices));
+    for (Vertex<Integer> v1 : vertices) {
+      for (Vertex<Integer> v2 : vertices) {
+        assertEquals(Practice.twoWay(v1, v2), BidirectionalSearch.twoWay(snapshot, v1, v2));
+      }
+    }
+  }
+
+  @Test
+  public void testPathExists_NestedSearchInAdmissibleTest() {
+    // 1 -> 2 -> ... -> 50; a vertex is admissible when it can reach 40 by itself, so the outer
+    // search runs inner searches on the same thread.
+    Map<Integer, Set<Integer>> map = new HashMap<>();
+    for (int i = 1; i <= 50; i++) {
+      map.put(i, i < 50 ? new HashSet<>(List.of(i + 1)) : new HashSet<>());
+    }
+    CsrGraph chain = CsrGraph.fromMap(map);
+    for (int ending = 1; ending <= 50; ending++) {
+      boolean nested = BidirectionalSearch.pathExists(chain, 1, ending,
+          id -> BidirectionalSearch.pathExists(chain, id, 40, other -> true));
+      assertEquals(ending <= 40, nested, "ending " + ending);
+    }
+  }
+}
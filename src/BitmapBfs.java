@@ -0,0 +1,232 @@
+import java.util.Arrays;
+
+/**
+ * Sequential breadth-first search that keeps the frontier, the next level and the visited set as
+ * bitmaps, so the per-level bookkeeping runs as bulk word operations.
+ *
+ * A top-down level sets the bit of every neighbor of the frontier in next, without checking
+ * visited per edge. One BitmapKernels.andNotOr pass over the words the level touched then leaves only
+ * the new vertices in next, marks them visited and counts them. Once the frontier holds more than
+ * 1/20 of the vertices, levels run bottom-up instead, like ParallelBfs: every unvisited vertex
+ * looks for a parent in the frontier through the reverse graph.
+ *
+ * oddVertices is a masked popcount: the parity of a payload column (the ids by default, or the
+ * Vertex data of a snapshot) is computed once into a bitmap with BitmapKernels.parityMask, and
+ * each query counts the bits of visited & odd. The kernels are the vector ones when available (see
+ * BitmapKernels.get) and the scalar loops otherwise; both give the same answers.
+ *
+ * The object holds no per-query state and can be shared between threads.
+ */
+public final class BitmapBfs {
+  private static final int BOTTOM_UP_DIVISOR = 20;
+  private static final int TOP_DOWN_DIVISOR = 40;
+
+  private final IntGraph graph;
+  private final GraphSnapshot<Vertex<Integer>> snapshot;
+  private final long[] odd;
+  private final BitmapKernels kernels;
+
+  private BitmapBfs(IntGraph graph, GraphSnapshot<Vertex<Integer>> snapshot, long[] odd, BitmapKernels kernels) {
+    this.graph = graph;
+    this.snapshot = snapshot;
+    this.odd = odd;
+    this.kernels = kernels;
+  }
+
+  /**
+   * Prepares searches over an int graph whose payload is the vertex ids.
+   *
+   * @param graph an int graph
+   */
+  public BitmapBfs(IntGraph graph) {
+    this(graph, null, parity(graph, ids(graph)), BitmapKernels.get());
+  }
+
+  /**
+   * Prepares searches over an int graph with one payload value per vertex index.
+   *
+   * @param graph an int graph
+   * @param payload the value of each vertex, counted by oddVertices
+   */
+  public BitmapBfs(IntGraph graph, int[] payload) {
+    this(graph, null, parity(graph, payload), BitmapKernels.get());
+  }
+
+  /**
+   * Prepares searches over a Vertex snapshot, with the vertex data as payload. Vertices with null
+   * data are not odd, like in Practice.oddVertices.
+   *
+   * @param snapshot the snapshot
+   * @return the search
+   */
+  public static BitmapBfs ofSnapshot(GraphSnapshot<Vertex<Integer>> snapshot) {
+    return new BitmapBfs(snapshot.graph(), snapshot, parity(snapshot.graph(), data(snapshot)), BitmapKernels.get());
+  }
+
+  /**
+   * Same search with the given kernels, so tests and benchmarks can compare implementations.
+   */
+  BitmapBfs withKernels(BitmapKernels kernels) {
+    return new BitmapBfs(graph, snapshot, odd, kernels);
+  }
+
+  /**
+   * @return the name of the kernels in use
+   */
+  public String kernels() {
+    return kernels.name();
+  }
+
+  /**
+   * Same contract as Practice.sortedReachable(IntGraph, int).
+   *
+   * @param starting the starting vertex value
+   * @return the reachable vertex values in ascending order
+   */
+  public int[] sortedReachable(int starting) {
+    int start = graph.indexOf(starting);
+    if (start < 0 || !graph.isKey(start)) return new int[0];
+    long[] visited = reach(start);
+    int[] result = new int[kernels.cardinality(visited, 0, visited.length)];
+    int out = 0;
+    for (int word = 0; word < visited.length; word++) {
+      for (long bits = visited[word]; bits != 0; bits &= bits - 1) {
+        result[out++] = graph.idOf((word << 6) + Long.numberOfTrailingZeros(bits));
+      }
+    }
+    if (!graph.idOrdered()) RadixSort.sort(result, result.length);
+    return result;
+  }
+
+  /**
+   * Counts the reachable vertices with an odd payload, starting vertex included. As with
+   * sortedReachable(int), the start must be a key of the graph.
+   *
+   * @param starting the starting vertex value
+   * @return the number of odd payloads reachable from starting; 0 when starting is not a key
+   */
+  public int oddVertices(int starting) {
+    int start = graph.indexOf(starting);
+    if (start < 0 || !graph.isKey(start)) return 0;
+    long[] visited = reach(start);
+    return kernels.andCardinality(visited, odd, 0, visited.length);
+  }
+
+  /**
+   * Same as Practice.oddVertices, for a search built with ofSnapshot.
+   *
+   * @param starting the starting vertex (may be null)
+   * @return the number of vertices with odd values reachable from the starting vertex
+   * @throws IllegalArgumentException if starting is not in the snapshot
+   */
+  public int oddVertices(Vertex<Integer> starting) {
+    if (snapshot == null) throw new IllegalStateException("search was not built from a Vertex snapshot");
+    if (starting == null) return 0;
+    int start = snapshot.indexOf(starting);
+    if (start < 0) throw new IllegalArgumentException("starting vertex is not in the snapshot");
+    long[] visited = reach(start);
+    return kernels.andCardinality(visited, odd, 0, visited.length);
+  }
+
+  /**
+   * Runs a breadth-first search from the vertex at index source.
+   *
+   * @param source the dense index of the starting vertex
+   * @return a bitmap with bit i set when the vertex at index i is reachable from source
+   */
+  public long[] reach(int source) {
+    int n = graph.vertexCount();
+    int words = words(graph);
+    long[] visited = new long[words];
+    long[] frontier = new long[words];
+    long[] next = new long[words];
+    visited[source >>> 6] |= 1L << source;
+    frontier[source >>> 6] = 1L << source;
+    // Words [low, high) of frontier may hold bits; everything outside is zero.
+    int low = source >>> 6;
+    int high = low + 1;
+    int size = 1;
+    boolean bottomUp = false;
+    IntGraph.Cursor cursor = graph.cursor();
+    IntGraph.Cursor parents = null;
+    while (size > 0) {
+      bottomUp = (long) size * (bottomUp ? TOP_DOWN_DIVISOR : BOTTOM_UP_DIVISOR) > n;
+      int nextLow;
+      int nextHigh;
+      if (bottomUp) {
+        if (parents == null) parents = graph.reverse().cursor();
+        for (int word = 0; word < words; word++) {
+          long reached = 0;
+          for (long unseen = ~visited[word] & lastWordMask(word, words, n); unseen != 0; unseen &= unseen - 1) {
+            int vertex = (word << 6) + Long.numberOfTrailingZeros(unseen);
+            parents.of(vertex);
+            for (int parent = parents.next(); parent >= 0; parent = parents.next()) {
+              if ((frontier[parent >>> 6] & (1L << parent)) != 0) {
+                reached |= 1L << vertex;
+                break;
+              }
+            }
+          }
+          next[word] = reached;
+        }
+        nextLow = 0;
+        nextHigh = words;
+      } else {
+        nextLow = words;
+        nextHigh = 0;
+        for (int word = low; word < high; word++) {
+          for (long bits = frontier[word]; bits != 0; bits &= bits - 1) {
+            cursor.of((word << 6) + Long.numberOfTrailingZeros(bits));
+            for (int target = cursor.next(); target >= 0; target = cursor.next()) {
+              int targetWord = target >>> 6;
+              next[targetWord] |= 1L << target;
+              nextLow = Math.min(nextLow, targetWord);
+              nextHigh = Math.max(nextHigh, targetWord + 1);
+            }
+          }
+        }
+      }
+      size = nextLow < nextHigh ? kernels.andNotOr(next, visited, nextLow, nextHigh) : 0;
+      // The old frontier becomes the next buffer, so clear the words it used.
+      Arrays.fill(frontier, low, high, 0L);
+      long[] swap = frontier;
+      frontier = next;
+      next = swap;
+      low = nextLow;
+      high = nextHigh;
+    }
+    return visited;
+  }
+
+  private static long lastWordMask(int word, int words, int n) {
+    return word < words - 1 || (n & 63) == 0 ? -1L : (1L << n) - 1;
+  }
+
+  private static int words(IntGraph graph) {
+    return (graph.vertexCount() + 63) >>> 6;
+  }
+
+  private static long[] parity(IntGraph graph, int[] payload) {
+    if (payload.length != graph.vertexCount()) throw new IllegalArgumentException("payload length != vertex count");
+    long[] odd = new long[words(graph)];
+    BitmapKernels.get().parityMask(payload, odd);
+    return odd;
+  }
+
+  private static int[] ids(IntGraph graph) {
+    int[] ids = new int[graph.vertexCount()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = graph.idOf(i);
+    }
+    return ids;
+  }
+
+  private static int[] data(GraphSnapshot<Vertex<Integer>> snapshot) {
+    int[] values = new int[snapshot.size()];
+    for (int i = 0; i < values.length; i++) {
+      Integer value = snapshot.node(i).data;
+      values[i] = value == null ? 0 : value;
+    }
+    return values;
+  }
+}
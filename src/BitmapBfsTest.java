@@ -0,0 +1,122 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class BitmapBfsTest {
+
+  private static Map<Integer, Set<Integer>> randomMap(long seed, int vertices, int edges) {
+    return GraphFixtures.randomMap(seed, vertices, edges, -300, 700, 0.1);
+  }
+
+  private static List<BitmapKernels> kernels() {
+    List<BitmapKernels> kernels = new ArrayList<>(List.of(BitmapKernels.scalar()));
+    // The vector kernels are only present when vector/ was compiled in and the module is enabled.
+    if (BitmapKernels.vector() != null) kernels.add(BitmapKernels.vector());
+    return kernels;
+  }
+
+  @Test
+  public void testKernelsMatchBitByBitLoops() {
+    Random random = new Random(3);
+    for (BitmapKernels kernels : kernels()) {
+      for (int words : new int[] {0, 1, 3, 8, 17, 64, 131}) {
+        long[] a = new long[words];
+        long[] b = new long[words];
+        for (int i = 0; i < words; i++) {
+          a[i] = random.nextLong();
+          b[i] = random.nextInt(4) == 0 ? -1L : random.nextLong();
+        }
+        int from = words < 3 ? 0 : random.nextInt(3);
+        int to = words - (words < 3 ? 0 : random.nextInt(3));
+        int cardinality = 0;
+        int both = 0;
+        for (int bit = from * 64; bit < to * 64; bit++) {
+          if ((a[bit >>> 6] & (1L << bit)) != 0) {
+            cardinality++;
+            if ((b[bit >>> 6] & (1L << bit)) != 0) both++;
+          }
+        }
+        String label = kernels.name() + " " + words + " words";
+        assertEquals(cardinality, kernels.cardinality(a, from, to), label);
+        assertEquals(both, kernels.andCardinality(a, b, from, to), label);
+
+        long[] next = a.clone();
+        long[] visited = b.clone();
+        assertEquals(cardinality - both, kernels.andNotOr(next, visited, from, to), label);
+        for (int i = 0; i < words; i++) {
+          boolean inRange = i >= from && i < to;
+          assertEquals(inRange ? a[i] & ~b[i] : a[i], next[i], label);
+          assertEquals(inRange ? a[i] | b[i] : b[i], visited[i], label);
+        }
+      }
+      for (int n : new int[] {0, 5, 64, 100, 257}) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+          values[i] = random.nextInt() - (i % 3);
+        }
+        long[] mask = new long[(n + 63) >>> 6];
+        Arrays.fill(mask, -1L);
+        kernels.parityMask(values, mask);
+        for (int i = 0; i < mask.length * 64; i++) {
+          boolean odd = i < n && values[i] % 2 != 0;
+          assertEquals(odd, (mask[i >>> 6] & (1L << i)) != 0, kernels.name() + " value " + i);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testQueriesMatchPractice() {
+    for (long seed = 1; seed <= 3; seed++) {
+      Map<Integer, Set<Integer>> map = randomMap(seed, 200, (int) (seed * 300));
+      List<Integer> starts = new ArrayList<>(map.keySet());
+      starts.addAll(List.of(2001, 99_999));
+      for (IntGraph graph : List.of(CsrGraph.fromMap(map), VertexOrdering.fromMap(map, VertexOrdering.Order.RCM))) {
+        for (BitmapKernels kernels : kernels()) {
+          BitmapBfs search = new BitmapBfs(graph).withKernels(kernels);
+          for (int starting : starts) {
+            int[] expected = Practice.sortedReachable(graph, starting);
+            assertArrayEquals(expected, search.sortedReachable(starting), kernels.name() + " from " + starting);
+            assertEquals(Arrays.stream(expected).filter(v -> v % 2 != 0).count(), search.oddVertices(starting));
+          }
+        }
+      }
+    }
+    // A long chain takes one level per vertex, and a dense graph switches to bottom-up levels.
+    Map<Integer, Set<Integer>> chain = new HashMap<>();
+    for (int i = 0; i < 5000; i++) {
+      chain.put(i, new HashSet<>(List.of(i + 1)));
+    }
+    assertEquals(5001, new BitmapBfs(CsrGraph.fromMap(chain)).sortedReachable(0).length);
+    assertEquals(2500, new BitmapBfs(CsrGraph.fromMap(chain)).oddVertices(0));
+    Map<Integer, Set<Integer>> dense = randomMap(9, 300, 6000);
+    for (int starting : dense.keySet()) {
+      assertArrayEquals(Practice.sortedReachable(CsrGraph.fromMap(dense), starting),
+          new BitmapBfs(CsrGraph.fromMap(dense)).sortedReachable(starting));
+    }
+  }
+
+  @Test
+  public void testSnapshotOddVerticesMatchesPractice() {
+    Random random = new Random(12);
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      vertices.add(new Vertex<>(i % 17 == 0 ? null : random.nextInt(100) - 50));
+    }
+    for (int i = 0; i < 600; i++) {
+      vertices.get(random.nextInt(300)).neighbors.add(vertices.get(random.nextInt(300)));
+    }
+    BitmapBfs search = BitmapBfs.ofSnapshot(GraphSnapshot.ofVertices(vertices));
+    for (BitmapKernels kernels : kernels()) {
+      BitmapBfs withKernels = search.withKernels(kernels);
+      for (Vertex<Integer> vertex : vertices) {
+        assertEquals(Practice.oddVertices(vertex), withKernels.oddVertices(vertex));
+      }
+    }
+    assertEquals(0, search.oddVertices((Vertex<Integer>) null));
+    assertThrows(IllegalArgumentException.class, () -> search.oddVertices(new Vertex<>(1)));
+    assertThrows(IllegalStateException.class,
+        () -> new BitmapBfs(CsrGraph.fromMap(new HashMap<>())).oddVertices(new Vertex<>(1)));
+    assertThrows(IllegalArgumentException.class, () -> new BitmapBfs(CsrGraph.fromMap(Map.of(1, Set.of())), new int[2]));
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Bulk operations over bitmaps stored as long words, used by the frontier loop of BitmapBfs.
+ *
+ * This class is the scalar implementation: plain loops over longs that the JIT unrolls, with
+ * Long.bitCount compiled to a popcount instruction. get() returns a VectorBitmapKernels instead
+ * when that class was compiled (from vector/, with --add-modules jdk.incubator.vector) and the JVM
+ * was started with the same flag; it overrides these methods with jdk.incubator.vector loops. The
+ * system property graph.vectorKernels=false, read once when the class loads, forces the scalar
+ * version.
+ *
+ * Word ranges are [from, to). All methods are stateless, so one instance is shared by all threads.
+ */
+class BitmapKernels {
+  private static final BitmapKernels SCALAR = new BitmapKernels();
+  private static final BitmapKernels VECTOR = loadVector();
+  // Resolved once: get() runs on every BFS level, and the property is fixed at startup.
+  private static final BitmapKernels DEFAULT =
+      VECTOR != null && !"false".equals(System.getProperty("graph.vectorKernels")) ? VECTOR : SCALAR;
+
+  BitmapKernels() {
+  }
+
+  /**
+   * @return the vector kernels when available and enabled, otherwise the scalar ones
+   */
+  static BitmapKernels get() {
+    return DEFAULT;
+  }
+
+  /**
+   * @return the scalar kernels
+   */
+  static BitmapKernels scalar() {
+    return SCALAR;
+  }
+
+  /**
+   * @return the vector kernels, or null when they are not compiled in or the module is missing
+   */
+  static BitmapKernels vector() {
+    return VECTOR;
+  }
+
+  private static BitmapKernels loadVector() {
+    try {
+      return (BitmapKernels) Class.forName("VectorBitmapKernels").getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // Not compiled in, or jdk.incubator.vector is not in the boot layer.
+      return null;
+    }
+  }
+
+  /**
+   * @return a short name for reports
+   */
+  String name() {
+    return "scalar";
+  }
+
+  /**
+   * Keeps only the new vertices of a frontier and marks them visited: next &= ~visited, then
+   * visited |= next.
+   *
+   * @return the number of bits left set in next
+   */
+  int andNotOr(long[] next, long[] visited, int from, int to) {
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      long fresh = next[i] & ~visited[i];
+      next[i] = fresh;
+      visited[i] |= fresh;
+      count += Long.bitCount(fresh);
+    }
+    return count;
+  }
+
+  /**
+   * @return the number of set bits
+   */
+  int cardinality(long[] bits, int from, int to) {
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      count += Long.bitCount(bits[i]);
+    }
+    return count;
+  }
+
+  /**
+   * @return the number of bits set in both a and b
+   */
+  int andCardinality(long[] a, long[] b, int from, int to) {
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      count += Long.bitCount(a[i] & b[i]);
+    }
+    return count;
+  }
+
+  /**
+   * Sets bit i of out when values[i] is odd, and clears it otherwise.
+   *
+   * @param values an int column, one value per vertex
+   * @param out a bitmap of at least (values.length + 63) / 64 words
+   */
+  void parityMask(int[] values, long[] out) {
+    int n = values.length;
+    for (int word = 0; word << 6 < n; word++) {
+      int base = word << 6;
+      int end = Math.min(n, base + 64);
+      long bits = 0;
+      for (int i = base; i < end; i++) {
+        bits |= (long) (values[i] & 1) << (i - base);
+      }
+      out[word] = bits;
+    }
+  }
+}
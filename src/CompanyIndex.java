@@ -0,0 +1,100 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed answers to hasExtendedConnectionAtCompany for a Professional network.
+ *
+ * Company names are interned to dense int ids. The network is split into strongly connected
+ * components, and every component gets a bitset of the companies reachable from it: its own
+ * members' companies OR'd with the bitsets of the components it links to. Everyone in a component
+ * has the same extended network, so a query is a component lookup plus one bit test.
+ *
+ * Connections are directed, so the component structure comes from SccIndex rather than plain
+ * undirected connectivity. The index reflects the network as of the last rebuild; call rebuild
+ * after connections change. Professionals added since then fall back to a direct traversal.
+ */
+class CompanyIndex {
+  private final List<Professional> roots;
+  private GraphSnapshot<Professional> snapshot;
+  private SccIndex components;
+  private Map<String, Integer> companyIds;
+  private long[][] reachableCompanies;
+
+  /**
+   * Builds the index over every professional reachable from the given roots.
+   *
+   * @param roots the professionals to start from
+   */
+  public CompanyIndex(Collection<Professional> roots) {
+    this.roots = new ArrayList<>(roots);
+    rebuild();
+  }
+
+  /**
+   * Recomputes the index from the current connections of the network.
+   */
+  public void rebuild() {
+    GraphSnapshot<Professional> snapshot = GraphSnapshot.ofNetwork(roots);
+    SccIndex components = SccIndex.ofSnapshot(snapshot);
+    Map<String, Integer> companyIds = new HashMap<>();
+    int[] memberCompany = new int[snapshot.size()];
+    for (int i = 0; i < snapshot.size(); i++) {
+      String company = snapshot.node(i).getCompany();
+      Integer id = companyIds.get(company);
+      if (id == null) {
+        id = companyIds.size();
+        companyIds.put(company, id);
+      }
+      memberCompany[i] = id;
+    }
+
+    int words = (companyIds.size() + 63) >>> 6;
+    long[][] reachable = new long[components.componentCount()][words];
+    for (int i = 0; i < memberCompany.length; i++) {
+      reachable[components.componentOf(i)][memberCompany[i] >>> 6] |= 1L << memberCompany[i];
+    }
+    // Condensation edges always point to lower component ids, so ascending order sees every
+    // successor's bitset completed before it is folded in.
+    CsrGraph dag = components.condensation();
+    for (int c = 0; c < reachable.length; c++) {
+      for (int edge = dag.edgeStart(c); edge < dag.edgeEnd(c); edge++) {
+        long[] successor = reachable[dag.target(edge)];
+        for (int w = 0; w < words; w++) {
+          reachable[c][w] |= successor[w];
+        }
+      }
+    }
+
+    this.snapshot = snapshot;
+    this.components = components;
+    this.companyIds = companyIds;
+    this.reachableCompanies = reachable;
+  }
+
+  /**
+   * @return the number of distinct companies in the indexed network
+   */
+  public int companyCount() {
+    return companyIds.size();
+  }
+
+  /**
+   * Same contract as Practice.hasExtendedConnectionAtCompany.
+   *
+   * @param person the professional to start the search from (may be null)
+   * @param companyName the name of the company to check for employment
+   * @return true if a person in the extended network works at the specified company, false otherwise
+   */
+  public boolean hasExtendedConnectionAtCompany(Professional person, String companyName) {
+    if (person == null) return false;
+    int index = snapshot.indexOf(person);
+    if (index < 0) return Practice.hasExtendedConnectionAtCompany(person, companyName);
+    Integer company = companyIds.get(companyName);
+    if (company == null) return false;
+    long[] bits = reachableCompanies[components.componentOf(index)];
+    return (bits[company >>> 6] & (1L << company)) != 0;
+  }
+}
@@ -0,0 +1,40 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class CompanyIndexTest {
+
+  /**
+   * The index must agree with the traversal for every professional and company in a network
+   * with cycles, and must pick up connection changes after a rebuild.
+   */
+  @Test
+  public void testMatchesTraversal() {
+    Professional e = new Professional("E", "Innovative LLC", 5, new HashSet<>());
+    Professional d = new Professional("D", "Other Corp", 4, new HashSet<>());
+    Professional b = new Professional("B", "Other Corp", 3, new HashSet<>());
+    Professional f = new Professional("F", "FutureTech", 4, new HashSet<>());
+    Professional a = new Professional("A", "Other Corp", 7, new HashSet<>());
+    a.getConnections().add(b);
+    b.getConnections().add(d);
+    b.getConnections().add(e);
+    d.getConnections().add(a); // cycle: A -> B -> D -> A
+    f.getConnections().add(f); // self-loop, unreachable from A
+
+    List<Professional> everyone = Arrays.asList(a, b, d, e, f);
+    CompanyIndex index = new CompanyIndex(everyone);
+    assertEquals(3, index.companyCount());
+    for (Professional person : everyone) {
+      for (String company : Arrays.asList("Innovative LLC", "Other Corp", "FutureTech", "UltraCorp")) {
+        assertEquals(Practice.hasExtendedConnectionAtCompany(person, company),
+            index.hasExtendedConnectionAtCompany(person, company));
+      }
+    }
+    assertFalse(index.hasExtendedConnectionAtCompany(null, "Other Corp"));
+
+    e.getConnections().add(f);
+    assertFalse(index.hasExtendedConnectionAtCompany(a, "FutureTech"));
+    index.rebuild();
+    assertTrue(index.hasExtendedConnectionAtCompany(a, "FutureTech"));
+  }
+}
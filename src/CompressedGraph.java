@@ -0,0 +1,429 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable int graph whose neighbor lists are gap-encoded into one byte array, in the style of
+ * WebGraph.
+ *
+ * Each vertex's neighbors are sorted and stored as differences: the first as the zigzag-encoded
+ * distance from the vertex's own index, the rest as gaps from the previous neighbor. Clustered or
+ * relabelled graphs (see VertexOrdering) have small gaps, so most neighbors take one byte instead of
+ * the four of a CSR target. A list is stored in one of two encodings, whichever is smaller:
+ * <ul>
+ *   <li>varint: 7 bits per byte, high bit set while more bytes follow. Good for irregular gaps.</li>
+ *   <li>packed: every gap in the same bit width, read with one unaligned 8-byte load and a shift.
+ *   Good for long lists of similar gaps, and its decoder has no data-dependent branches.</li>
+ * </ul>
+ * Every list starts with a varint header holding its degree and encoding. The byte position of
+ * each list and the id of each vertex are stored as a Column: an int base per 64 vertices plus a
+ * 16-bit difference per vertex, so ascending ids and list positions cost about 2 bytes per vertex
+ * instead of 4. Key bits and the id table of relabelled graphs are kept as in CsrGraph.
+ *
+ * The Cursor decodes on the fly: next() resumes the decoder where the previous call stopped, so any
+ * IntGraph algorithm (Practice.sortedReachable, positivePathExists, GraphSearch) runs on the
+ * compressed form unchanged. Instances are safe to share between threads once built.
+ */
+public final class CompressedGraph implements IntGraph {
+  private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  // The packed decoder loads 8 bytes from any byte of the list, so the data ends with this many spare bytes.
+  private static final int PADDING = 8;
+
+  private final Column ids;
+  private final long[] keys;
+  private final Column offsets;
+  private final byte[] data;
+  private final long edgeCount;
+  private final long[] byId;
+  private volatile CompressedGraph reverse;
+
+  private CompressedGraph(Column ids, long[] keys, Column offsets, byte[] data, long edgeCount, long[] byId) {
+    this.ids = ids;
+    this.keys = keys;
+    this.offsets = offsets;
+    this.data = data;
+    this.edgeCount = edgeCount;
+    this.byId = byId;
+  }
+
+  /**
+   * Compresses any int graph, with the same ids, keys and edges.
+   *
+   * @param graph the graph to copy
+   * @return the copy, or graph itself if it already is a CompressedGraph
+   * @throws IllegalArgumentException if the encoded edges would not fit in one array
+   */
+  public static CompressedGraph copyOf(IntGraph graph) {
+    if (graph instanceof CompressedGraph) return (CompressedGraph) graph;
+    int n = graph.vertexCount();
+    int[] ids = new int[n];
+    long[] keys = new long[(n + 63) >>> 6];
+    Encoder encoder = new Encoder(n);
+    Cursor cursor = graph.cursor();
+    for (int index = 0; index < n; index++) {
+      ids[index] = graph.idOf(index);
+      if (graph.isKey(index)) keys[index >>> 6] |= 1L << index;
+      cursor.of(index);
+      for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+        encoder.add(next);
+      }
+      encoder.endList(index);
+    }
+    return new CompressedGraph(new Column(ids), keys, new Column(encoder.offsets), encoder.finish(), graph.edgeCount(),
+        CsrGraph.idTable(ids));
+  }
+
+  /**
+   * Builds a compressed graph from the map representation used by Practice.
+   * Null neighbor sets are treated as empty and null neighbors are ignored.
+   *
+   * @param graph a map where each key is a vertex and its value is the set of its neighbors
+   * @return the compressed graph
+   */
+  public static CompressedGraph fromMap(Map<Integer, Set<Integer>> graph) {
+    return copyOf(CsrGraph.fromMap(graph));
+  }
+
+  @Override
+  public int vertexCount() {
+    return ids.size();
+  }
+
+  @Override
+  public long edgeCount() {
+    return edgeCount;
+  }
+
+  @Override
+  public int indexOf(int id) {
+    if (byId != null) return CsrGraph.indexIn(byId, id);
+    int low = 0;
+    int high = ids.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int value = ids.get(mid);
+      if (value < id) low = mid + 1;
+      else if (value > id) high = mid - 1;
+      else return mid;
+    }
+    return -1;
+  }
+
+  @Override
+  public boolean idOrdered() {
+    return byId == null;
+  }
+
+  @Override
+  public int idOf(int index) {
+    return ids.get(index);
+  }
+
+  @Override
+  public boolean isKey(int index) {
+    return (keys[index >>> 6] & (1L << index)) != 0;
+  }
+
+  @Override
+  public int degree(int index) {
+    int position = offsets.get(index);
+    int header = data[position];
+    if (header >= 0) return header >>> 1;
+    return readVarint(data, position) >>> 1;
+  }
+
+  /**
+   * @return the bytes used by the encoded neighbor lists alone
+   */
+  public long edgeBytes() {
+    return data.length;
+  }
+
+  /**
+   * @return the approximate heap footprint of the graph in bytes, excluding a cached reverse
+   */
+  public long sizeBytes() {
+    return ids.sizeBytes() + 8L * keys.length + offsets.sizeBytes() + data.length
+        + (byId == null ? 0 : 8L * byId.length);
+  }
+
+  @Override
+  public Cursor cursor() {
+    return new Decoder();
+  }
+
+  /**
+   * Returns the reverse of this graph, also compressed. It is built on first use and cached.
+   *
+   * @return the graph whose edges run from target to source
+   */
+  @Override
+  public CompressedGraph reverse() {
+    CompressedGraph result = reverse;
+    if (result == null) {
+      // Racing threads may each build one; they are identical, so any of them can win.
+      result = buildReverse();
+      result.reverse = this;
+      reverse = result;
+    }
+    return result;
+  }
+
+  private CompressedGraph buildReverse() {
+    if (edgeCount > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("too many edges to reverse on the heap: " + edgeCount);
+    }
+    int n = ids.size();
+    int[] reverseOffsets = new int[n + 1];
+    Decoder decoder = new Decoder();
+    for (int source = 0; source < n; source++) {
+      decoder.of(source);
+      for (int next = decoder.next(); next >= 0; next = decoder.next()) {
+        reverseOffsets[next + 1]++;
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      reverseOffsets[i + 1] += reverseOffsets[i];
+    }
+    int[] fill = Arrays.copyOf(reverseOffsets, n);
+    int[] sources = new int[(int) edgeCount];
+    // Sources are visited in ascending order, so every reversed list comes out sorted.
+    for (int source = 0; source < n; source++) {
+      decoder.of(source);
+      for (int next = decoder.next(); next >= 0; next = decoder.next()) {
+        sources[fill[next]++] = source;
+      }
+    }
+    Encoder encoder = new Encoder(n);
+    for (int target = 0; target < n; target++) {
+      for (int k = reverseOffsets[target]; k < reverseOffsets[target + 1]; k++) {
+        encoder.add(sources[k]);
+      }
+      encoder.endList(target);
+    }
+    return new CompressedGraph(ids, keys, new Column(encoder.offsets), encoder.finish(), edgeCount, byId);
+  }
+
+  private static int readVarint(byte[] data, int position) {
+    int value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = data[position++];
+      value |= (b & 0x7f) << shift;
+      if (b >= 0) return value;
+    }
+  }
+
+  /**
+   * Decodes one neighbor list at a time. The first neighbor is decoded by of(), and each next()
+   * returns the decoded neighbor and decodes the one after it, so the loop carries no first-call
+   * check.
+   */
+  private final class Decoder implements Cursor {
+    private final byte[] bytes = data;
+    private final Column starts = offsets;
+    private int position;
+    private int remaining;
+    private int current;
+    private boolean packed;
+    private long bit;
+    private int width;
+    private long mask;
+
+    @Override
+    public Cursor of(int index) {
+      position = starts.get(index);
+      int header = readVarint();
+      remaining = header >>> 1;
+      packed = (header & 1) != 0;
+      if (remaining > 0) {
+        int zigzag = readVarint();
+        current = index + ((zigzag >>> 1) ^ -(zigzag & 1));
+        if (packed) {
+          width = bytes[position++];
+          mask = (1L << width) - 1;
+          bit = (long) position << 3;
+        }
+      }
+      return this;
+    }
+
+    @Override
+    public int next() {
+      if (remaining == 0) return -1;
+      int result = current;
+      if (--remaining > 0) {
+        if (packed) {
+          long word = (long) LONG.get(bytes, (int) (bit >>> 3));
+          current += (int) ((word >>> (bit & 7)) & mask);
+          bit += width;
+        } else {
+          current += readVarint();
+        }
+      }
+      return result;
+    }
+
+    private int readVarint() {
+      // One-byte values are the common case for clustered graphs, so check for them first.
+      byte b = bytes[position++];
+      if (b >= 0) return b;
+      int value = b & 0x7f;
+      for (int shift = 7; ; shift += 7) {
+        b = bytes[position++];
+        value |= (b & 0x7f) << shift;
+        if (b >= 0) return value;
+      }
+    }
+  }
+
+  /**
+   * Appends neighbor lists to a growing byte array, choosing the smaller encoding for each.
+   */
+  private static final class Encoder {
+    final int[] offsets;
+    private byte[] data = new byte[1024];
+    private int size;
+    private int[] list = new int[16];
+    private int count;
+
+    Encoder(int vertexCount) {
+      offsets = new int[vertexCount];
+    }
+
+    void add(int target) {
+      if (count == list.length) list = Arrays.copyOf(list, count * 2);
+      list[count++] = target;
+    }
+
+    void endList(int index) {
+      offsets[index] = size;
+      Arrays.sort(list, 0, count);
+      long varintBytes = 0;
+      int maxGap = 0;
+      for (int k = 1; k < count; k++) {
+        int gap = list[k] - list[k - 1];
+        varintBytes += varintLength(gap);
+        maxGap = Math.max(maxGap, gap);
+      }
+      int width = 32 - Integer.numberOfLeadingZeros(maxGap);
+      long packedBytes = 1 + ((long) (count - 1) * width + 7) / 8;
+      // Ties go to packed, which decodes without branching.
+      boolean packed = count > 1 && packedBytes <= varintBytes;
+      ensure(10 + (packed ? packedBytes : varintBytes));
+      writeVarint(count << 1 | (packed ? 1 : 0));
+      if (count > 0) {
+        int delta = list[0] - index;
+        writeVarint((delta << 1) ^ (delta >> 31));
+      }
+      if (packed) {
+        data[size++] = (byte) width;
+        long buffer = 0;
+        int bits = 0;
+        for (int k = 1; k < count; k++) {
+          buffer |= (long) (list[k] - list[k - 1]) << bits;
+          bits += width;
+          while (bits >= 8) {
+            data[size++] = (byte) buffer;
+            buffer >>>= 8;
+            bits -= 8;
+          }
+        }
+        if (bits > 0) data[size++] = (byte) buffer;
+      } else {
+        for (int k = 1; k < count; k++) {
+          writeVarint(list[k] - list[k - 1]);
+        }
+      }
+      count = 0;
+    }
+
+    byte[] finish() {
+      ensure(PADDING);
+      return Arrays.copyOf(data, size + PADDING);
+    }
+
+    private void writeVarint(int value) {
+      while ((value & ~0x7f) != 0) {
+        data[size++] = (byte) (value & 0x7f | 0x80);
+        value >>>= 7;
+      }
+      data[size++] = (byte) value;
+    }
+
+    private void ensure(long more) {
+      if (size + more <= data.length) return;
+      if (size + more > Integer.MAX_VALUE - 16) {
+        throw new IllegalArgumentException("encoded edges exceed " + (Integer.MAX_VALUE - 16) + " bytes");
+      }
+      data = Arrays.copyOf(data, (int) Math.min(Integer.MAX_VALUE - 16, Math.max(size + more, 2L * data.length)));
+    }
+
+    private static int varintLength(int value) {
+      return value == 0 ? 1 : (31 - Integer.numberOfLeadingZeros(value)) / 7 + 1;
+    }
+  }
+
+  /**
+   * An int per vertex, stored as the minimum of each block of 64 values plus a 16-bit difference
+   * from it. Blocks whose values span 65536 or more keep plain ints in an overflow array instead.
+   */
+  private static final class Column {
+    private static final int BLOCK = 64;
+
+    private final int size;
+    // The minimum of each narrow block, or the start of a wide block in overflow.
+    private final int[] bases;
+    private final long[] wide;
+    private final char[] deltas;
+    private final int[] overflow;
+
+    Column(int[] values) {
+      size = values.length;
+      int blocks = (size + BLOCK - 1) / BLOCK;
+      bases = new int[blocks];
+      wide = new long[(blocks + 63) >>> 6];
+      deltas = new char[size];
+      IntList spill = new IntList();
+      for (int block = 0; block < blocks; block++) {
+        int start = block * BLOCK;
+        int end = Math.min(size, start + BLOCK);
+        int min = values[start];
+        int max = values[start];
+        for (int i = start + 1; i < end; i++) {
+          min = Math.min(min, values[i]);
+          max = Math.max(max, values[i]);
+        }
+        if ((long) max - min <= Character.MAX_VALUE) {
+          bases[block] = min;
+          for (int i = start; i < end; i++) {
+            deltas[i] = (char) (values[i] - min);
+          }
+        } else {
+          wide[block >>> 6] |= 1L << block;
+          bases[block] = spill.size();
+          for (int i = start; i < end; i++) {
+            spill.addInt(values[i]);
+          }
+        }
+      }
+      overflow = Arrays.copyOf(spill.elements(), spill.size());
+    }
+
+    int get(int index) {
+      int block = index >>> 6;
+      if ((wide[block >>> 6] & (1L << block)) != 0) return overflow[bases[block] + (index & (BLOCK - 1))];
+      return bases[block] + deltas[index];
+    }
+
+    int size() {
+      return size;
+    }
+
+    long sizeBytes() {
+      return 4L * bases.length + 8L * wide.length + 2L * deltas.length + 4L * overflow.length;
+    }
+  }
+}
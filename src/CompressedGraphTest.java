@@ -0,0 +1,118 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class CompressedGraphTest {
+
+  private static Map<Integer, Set<Integer>> randomMap(long seed, int vertices, int edges) {
+    return GraphFixtures.randomMap(seed, vertices, edges, -1000, 3000, 0.2);
+  }
+
+  private static int[] neighbors(IntGraph graph, int index) {
+    int[] result = new int[graph.degree(index)];
+    IntGraph.Cursor cursor = graph.cursor().of(index);
+    for (int k = 0; k < result.length; k++) {
+      result[k] = cursor.next();
+    }
+    assertEquals(-1, cursor.next());
+    return result;
+  }
+
+  private static void assertSameGraph(IntGraph expected, CompressedGraph actual) {
+    assertEquals(expected.vertexCount(), actual.vertexCount());
+    assertEquals(expected.edgeCount(), actual.edgeCount());
+    assertEquals(expected.idOrdered(), actual.idOrdered());
+    for (int i = 0; i < expected.vertexCount(); i++) {
+      assertEquals(expected.idOf(i), actual.idOf(i));
+      assertEquals(i, actual.indexOf(expected.idOf(i)));
+      assertEquals(expected.isKey(i), actual.isKey(i));
+      assertEquals(expected.degree(i), actual.degree(i));
+      int[] sorted = neighbors(expected, i);
+      Arrays.sort(sorted);
+      // Compressed lists are always stored sorted.
+      assertArrayEquals(sorted, neighbors(actual, i), "neighbors of " + i);
+    }
+  }
+
+  @Test
+  public void testMatchesCsrGraphInBothDirections() {
+    for (long seed = 1; seed <= 3; seed++) {
+      CsrGraph csr = CsrGraph.fromMap(randomMap(seed, 300, (int) (seed * 1500)));
+      CompressedGraph graph = CompressedGraph.copyOf(csr);
+      assertSameGraph(csr, graph);
+      assertEquals(-1, graph.indexOf(99_999));
+      assertSameGraph(csr.reverse(), graph.reverse());
+      assertSame(graph, graph.reverse().reverse());
+      assertSame(graph, CompressedGraph.copyOf(graph));
+      assertTrue(graph.edgeBytes() < 4 * graph.edgeCount());
+
+      CsrGraph relabelled = VertexOrdering.reorder(csr, VertexOrdering.Order.RCM);
+      assertSameGraph(relabelled, CompressedGraph.copyOf(relabelled));
+    }
+  }
+
+  @Test
+  public void testBothEncodingsAndEdgeCases() {
+    // Vertex 0 has a long run of small gaps (packed), vertex 1 a few large irregular gaps (varint),
+    // vertex 2 a repeated neighbor, vertex 3 a single neighbor far below it and the last vertex none.
+    int n = 300_000;
+    int[] ids = new int[n];
+    for (int i = 0; i < n; i++) {
+      ids[i] = i * 2 - 7;
+    }
+    int[][] lists = {
+        {3, 5, 6, 9, 11, 12, 15, 16, 18, 21, 22, 25, 27, 28, 31, 33, 34, 200},
+        {n - 1, 5, 70_000, 128, 129, 16_383, 16_384},
+        {4, 4, 4},
+        {0},
+    };
+    int edges = 0;
+    for (int[] list : lists) {
+      edges += list.length;
+    }
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[edges];
+    int edge = 0;
+    for (int i = 0; i < lists.length; i++) {
+      for (int target : lists[i]) {
+        targets[edge++] = target;
+      }
+      offsets[i + 1] = edge;
+    }
+    Arrays.fill(offsets, lists.length + 1, n + 1, edge);
+    long[] keys = new long[(n + 63) >>> 6];
+    keys[0] = 0b1011;
+    CsrGraph csr = new CsrGraph(ids, keys, offsets, targets);
+    CompressedGraph graph = CompressedGraph.copyOf(csr);
+    assertSameGraph(csr, graph);
+    assertSameGraph(csr.reverse(), graph.reverse());
+    assertEquals(0, graph.degree(n - 1));
+    assertEquals(-1, graph.cursor().of(n - 1).next());
+    assertFalse(graph.isKey(2));
+    // The degree-300000 header and reverse lists of neighbor-only vertices cross varint widths too.
+    assertTrue(graph.sizeBytes() > graph.edgeBytes());
+  }
+
+  @Test
+  public void testPracticeQueriesMatchMap() {
+    Map<Integer, Set<Integer>> map = randomMap(11, 120, 400);
+    CompressedGraph graph = CompressedGraph.fromMap(map);
+    for (int starting : map.keySet()) {
+      List<Integer> expected = Practice.sortedReachable(map, starting);
+      int[] actual = Practice.sortedReachable(graph, starting);
+      assertEquals(expected.size(), actual.length);
+      for (int i = 0; i < actual.length; i++) {
+        assertEquals(expected.get(i), actual[i]);
+      }
+      assertArrayEquals(actual, ReachableValues.sortedReachable(graph, starting).toArray());
+    }
+    Random random = new Random(5);
+    List<Integer> keys = new ArrayList<>(map.keySet());
+    for (int i = 0; i < 500; i++) {
+      int starting = keys.get(random.nextInt(keys.size()));
+      int ending = keys.get(random.nextInt(keys.size()));
+      assertEquals(Practice.positivePathExists(map, starting, ending),
+          Practice.positivePathExists(graph, starting, ending));
+    }
+  }
+}
@@ -0,0 +1,435 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A directed int graph that many threads can read while one writer applies batches of edits.
+ *
+ * The graph is published as a sequence of immutable, versioned snapshots. Readers call snapshot()
+ * (one volatile read, no locking) and can query that version for as long as they like; later
+ * writes never show through it, so a traversal always sees a consistent graph and can never hit a
+ * ConcurrentModificationException.
+ *
+ * Adjacency is kept in a fixed number of hash segments, each an open-addressing table from vertex
+ * id to its sorted neighbor array. A batch copies only the segments it touches (the copies share
+ * the neighbor arrays of untouched vertices) and only the neighbor arrays it changes, then
+ * publishes the new snapshot with a single volatile write. Writers are serialized by a lock.
+ *
+ * The model matches the Map&lt;Integer, Set&lt;Integer&gt;&gt; used by Practice: vertices are the
+ * keys, and an edge may point to an id that is not a vertex. Snapshot.asIntGraph() freezes a
+ * snapshot into a CsrGraph (built on first use, then cached on the snapshot) so every IntGraph
+ * query in this package runs against it unchanged.
+ */
+public final class ConcurrentIntGraph {
+  private static final int SEGMENT_BITS = 8;
+  private static final int SEGMENTS = 1 << SEGMENT_BITS;
+  private static final int[] NO_NEIGHBORS = new int[0];
+
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private volatile Snapshot current;
+
+  /**
+   * Creates an empty graph at version 0.
+   */
+  public ConcurrentIntGraph() {
+    Segment[] segments = new Segment[SEGMENTS];
+    Arrays.fill(segments, Segment.EMPTY);
+    current = new Snapshot(0, segments, 0);
+  }
+
+  /**
+   * Creates a graph holding a copy of the map representation used by Practice.
+   * Null keys and null neighbors are ignored.
+   *
+   * @param graph a map where each key is a vertex and its value is the set of its neighbors
+   * @return the concurrent graph, at version 1
+   */
+  public static ConcurrentIntGraph fromMap(Map<Integer, Set<Integer>> graph) {
+    ConcurrentIntGraph result = new ConcurrentIntGraph();
+    Batch batch = new Batch();
+    for (Map.Entry<Integer, Set<Integer>> entry : graph.entrySet()) {
+      if (entry.getKey() == null) continue;
+      batch.addVertex(entry.getKey());
+      if (entry.getValue() == null) continue;
+      for (Integer neighbor : entry.getValue()) {
+        if (neighbor != null) batch.addEdge(entry.getKey(), neighbor);
+      }
+    }
+    result.apply(batch);
+    return result;
+  }
+
+  /**
+   * @return the latest published snapshot; never blocks
+   */
+  public Snapshot snapshot() {
+    return current;
+  }
+
+  /**
+   * Applies every edit in the batch, in order, and publishes the result as one new version.
+   * Readers see either none or all of the batch.
+   *
+   * @param batch the edits to apply; it can be reused or discarded afterward
+   * @return the snapshot that includes the batch
+   */
+  public Snapshot apply(Batch batch) {
+    writeLock.lock();
+    try {
+      Snapshot base = current;
+      if (batch.size == 0) return base;
+      Segment[] segments = base.segments.clone();
+      boolean[] copied = new boolean[SEGMENTS];
+      int vertexCount = base.vertexCount;
+
+      // Group the edits by vertex, keeping their order within each vertex, so every touched
+      // neighbor array is rebuilt once per batch.
+      long[] order = new long[batch.size];
+      for (int i = 0; i < batch.size; i++) {
+        order[i] = ((long) batch.vertex[i] << 32) | i;
+      }
+      Arrays.sort(order);
+      IntList scratch = new IntList();
+      long[] edits = new long[batch.size];
+      for (int start = 0; start < order.length; ) {
+        int id = (int) (order[start] >> 32);
+        int end = start;
+        while (end < order.length && (int) (order[end] >> 32) == id) end++;
+
+        int s = segmentOf(id);
+        int[] before = segments[s].get(id);
+        // A removeVertex drops everything before it, so only the edits after the last one count.
+        int first = start;
+        for (int k = start; k < end; k++) {
+          if (batch.op[(int) order[k]] == Batch.REMOVE_VERTEX) first = k + 1;
+        }
+        boolean present = first == start && before != null;
+        int editCount = 0;
+        for (int k = first; k < end; k++) {
+          int op = (int) order[k];
+          switch (batch.op[op]) {
+            case Batch.ADD_VERTEX:
+              present = true;
+              break;
+            case Batch.ADD_EDGE:
+              present = true;
+              edits[editCount++] = ((long) batch.target[op] << 32) | k;
+              break;
+            case Batch.REMOVE_EDGE:
+              edits[editCount++] = ((long) batch.target[op] << 32) | k;
+              break;
+            default:
+              throw new IllegalStateException("unknown edit " + batch.op[op]);
+          }
+        }
+        // Sorting by (target, position) puts the edits of each target together, last one last; that
+        // one decides whether the target ends up in the list. One merge with the old list then
+        // applies them all.
+        Arrays.sort(edits, 0, editCount);
+        int[] old = first == start && before != null ? before : NO_NEIGHBORS;
+        scratch.clear();
+        int b = 0;
+        for (int e = 0; e < editCount; e++) {
+          int target = (int) (edits[e] >> 32);
+          if (e + 1 < editCount && (int) (edits[e + 1] >> 32) == target) continue;
+          while (b < old.length && old[b] < target) scratch.addInt(old[b++]);
+          if (b < old.length && old[b] == target) b++;
+          if (batch.op[(int) order[(int) edits[e]]] == Batch.ADD_EDGE) scratch.addInt(target);
+        }
+        while (b < old.length) scratch.addInt(old[b++]);
+        boolean changed = present != (before != null)
+            || present && !Arrays.equals(before, 0, before.length, scratch.elements(), 0, scratch.size());
+        start = end;
+        if (!changed) continue;
+
+        if (!copied[s]) {
+          segments[s] = segments[s].copy();
+          copied[s] = true;
+        }
+        if (present) {
+          if (before == null) vertexCount++;
+          segments[s].put(id, scratch.size() == 0 ? NO_NEIGHBORS : scratch.toIntArray());
+        } else if (before != null) {
+          vertexCount--;
+          segments[s].remove(id);
+        }
+      }
+      Snapshot next = new Snapshot(base.version + 1, segments, vertexCount);
+      current = next;
+      return next;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private static int segmentOf(int id) {
+    return (id * 0x9E3779B9) >>> (32 - SEGMENT_BITS);
+  }
+
+  /**
+   * A list of edits for one atomic update. Edits apply in the order they were added. Adding an
+   * edge adds its source vertex if needed; removing a vertex drops its outgoing edges but not edges
+   * that point to it, just as removing a key from the Practice map would.
+   *
+   * Not thread-safe; build it on the writer thread.
+   */
+  public static final class Batch {
+    static final int ADD_VERTEX = 0;
+    static final int REMOVE_VERTEX = 1;
+    static final int ADD_EDGE = 2;
+    static final int REMOVE_EDGE = 3;
+
+    private byte[] op = new byte[16];
+    private int[] vertex = new int[16];
+    private int[] target = new int[16];
+    private int size;
+
+    public Batch addVertex(int id) {
+      return append(ADD_VERTEX, id, 0);
+    }
+
+    public Batch removeVertex(int id) {
+      return append(REMOVE_VERTEX, id, 0);
+    }
+
+    public Batch addEdge(int from, int to) {
+      return append(ADD_EDGE, from, to);
+    }
+
+    public Batch removeEdge(int from, int to) {
+      return append(REMOVE_EDGE, from, to);
+    }
+
+    /**
+     * @return the number of edits in the batch
+     */
+    public int size() {
+      return size;
+    }
+
+    public void clear() {
+      size = 0;
+    }
+
+    private Batch append(int kind, int id, int to) {
+      if (size == op.length) {
+        op = Arrays.copyOf(op, size * 2);
+        vertex = Arrays.copyOf(vertex, size * 2);
+        target = Arrays.copyOf(target, size * 2);
+      }
+      op[size] = (byte) kind;
+      vertex[size] = id;
+      target[size] = to;
+      size++;
+      return this;
+    }
+  }
+
+  /**
+   * One immutable version of the graph. Safe to share between any number of threads.
+   */
+  public static final class Snapshot {
+    private final long version;
+    private final Segment[] segments;
+    private final int vertexCount;
+    private volatile CsrGraph graph;
+
+    Snapshot(long version, Segment[] segments, int vertexCount) {
+      this.version = version;
+      this.segments = segments;
+      this.vertexCount = vertexCount;
+    }
+
+    /**
+     * @return the version number; each applied batch adds one
+     */
+    public long version() {
+      return version;
+    }
+
+    /**
+     * @return the number of vertices (keys) in this version
+     */
+    public int vertexCount() {
+      return vertexCount;
+    }
+
+    public boolean containsVertex(int id) {
+      return segments[segmentOf(id)].get(id) != null;
+    }
+
+    /**
+     * @param id a vertex id
+     * @return a copy of the vertex's neighbors in ascending order; empty if it is not a vertex
+     */
+    public int[] neighbors(int id) {
+      int[] neighbors = segments[segmentOf(id)].get(id);
+      return neighbors == null ? NO_NEIGHBORS : neighbors.clone();
+    }
+
+    /**
+     * Returns this version as a CsrGraph. Built on first call and cached, so the cost is paid once
+     * per version however many queries and threads run against it. CSR indices are global (they
+     * follow id order over the whole graph), so each version is built in full rather than from the
+     * segments of the previous one; callers that apply many small batches should query the
+     * snapshot directly through neighbors() or batch their IntGraph queries per version.
+     *
+     * @return the immutable CSR form of this snapshot
+     */
+    public CsrGraph asIntGraph() {
+      CsrGraph result = graph;
+      if (result == null) {
+        // Readers racing on a fresh version wait for one build instead of each making a copy.
+        synchronized (this) {
+          result = graph;
+          if (result == null) {
+            result = toCsr();
+            graph = result;
+          }
+        }
+      }
+      return result;
+    }
+
+    private CsrGraph toCsr() {
+      int[] keyIds = new int[vertexCount];
+      int total = vertexCount;
+      int k = 0;
+      for (Segment segment : segments) {
+        for (int slot = 0; slot < segment.ids.length; slot++) {
+          if (segment.adjacency[slot] == null) continue;
+          keyIds[k++] = segment.ids[slot];
+          total += segment.adjacency[slot].length;
+        }
+      }
+      int[] all = Arrays.copyOf(keyIds, total);
+      int count = vertexCount;
+      for (Segment segment : segments) {
+        for (int[] neighbors : segment.adjacency) {
+          if (neighbors == null) continue;
+          System.arraycopy(neighbors, 0, all, count, neighbors.length);
+          count += neighbors.length;
+        }
+      }
+      RadixSort.sort(all, count);
+      int n = 0;
+      for (int i = 0; i < count; i++) {
+        if (n == 0 || all[i] != all[n - 1]) all[n++] = all[i];
+      }
+      int[] ids = Arrays.copyOf(all, n);
+
+      long[] keys = new long[(n + 63) >>> 6];
+      int[] offsets = new int[n + 1];
+      for (int id : keyIds) {
+        int index = Arrays.binarySearch(ids, id);
+        keys[index >>> 6] |= 1L << index;
+        offsets[index + 1] = segments[segmentOf(id)].get(id).length;
+      }
+      for (int i = 0; i < n; i++) {
+        offsets[i + 1] += offsets[i];
+      }
+      int[] targets = new int[offsets[n]];
+      for (int id : keyIds) {
+        int index = Arrays.binarySearch(ids, id);
+        int edge = offsets[index];
+        // Neighbor arrays are sorted by id, and indices follow id order, so targets stay sorted.
+        for (int neighbor : segments[segmentOf(id)].get(id)) {
+          targets[edge++] = Arrays.binarySearch(ids, neighbor);
+        }
+      }
+      return new CsrGraph(ids, keys, offsets, targets);
+    }
+  }
+
+  /**
+   * An open-addressing table from vertex id to neighbor array, with linear probing. A slot is free
+   * when its adjacency entry is null. Published segments are never modified; the writer copies a
+   * segment before its first change in a batch.
+   */
+  static final class Segment {
+    static final Segment EMPTY = new Segment(new int[4], new int[4][], 0);
+
+    // Not final: a private copy may grow while the batch runs. The volatile write that publishes
+    // the snapshot makes the finished arrays visible to readers.
+    int[] ids;
+    int[][] adjacency;
+    int size;
+
+    private Segment(int[] ids, int[][] adjacency, int size) {
+      this.ids = ids;
+      this.adjacency = adjacency;
+      this.size = size;
+    }
+
+    Segment copy() {
+      return new Segment(ids.clone(), adjacency.clone(), size);
+    }
+
+    int[] get(int id) {
+      int mask = ids.length - 1;
+      for (int slot = slotOf(id, mask); adjacency[slot] != null; slot = (slot + 1) & mask) {
+        if (ids[slot] == id) return adjacency[slot];
+      }
+      return null;
+    }
+
+    /**
+     * Inserts or replaces; only called on a private copy.
+     */
+    void put(int id, int[] neighbors) {
+      int mask = ids.length - 1;
+      int slot = slotOf(id, mask);
+      while (adjacency[slot] != null && ids[slot] != id) {
+        slot = (slot + 1) & mask;
+      }
+      if (adjacency[slot] == null) {
+        if (2 * (size + 1) > ids.length) {
+          grow();
+          put(id, neighbors);
+          return;
+        }
+        size++;
+      }
+      ids[slot] = id;
+      adjacency[slot] = neighbors;
+    }
+
+    void remove(int id) {
+      int mask = ids.length - 1;
+      int slot = slotOf(id, mask);
+      while (adjacency[slot] != null && ids[slot] != id) {
+        slot = (slot + 1) & mask;
+      }
+      if (adjacency[slot] == null) return;
+      size--;
+      // Shift later entries of the probe run back so lookups never stop at the hole.
+      int hole = slot;
+      for (int next = (hole + 1) & mask; adjacency[next] != null; next = (next + 1) & mask) {
+        int home = slotOf(ids[next], mask);
+        if (((next - home) & mask) >= ((next - hole) & mask)) {
+          ids[hole] = ids[next];
+          adjacency[hole] = adjacency[next];
+          hole = next;
+        }
+      }
+      adjacency[hole] = null;
+    }
+
+    private void grow() {
+      int[] oldIds = ids;
+      int[][] oldAdjacency = adjacency;
+      ids = new int[oldIds.length * 2];
+      adjacency = new int[oldIds.length * 2][];
+      size = 0;
+      for (int slot = 0; slot < oldIds.length; slot++) {
+        if (oldAdjacency[slot] != null) put(oldIds[slot], oldAdjacency[slot]);
+      }
+    }
+
+    private static int slotOf(int id, int mask) {
+      int h = id * 0x85EBCA6B;
+      return (h ^ (h >>> 15)) & mask;
+    }
+  }
+}
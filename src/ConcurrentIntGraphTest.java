@@ -0,0 +1,151 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConcurrentIntGraphTest {
+
+  @Test
+  public void testBatches_MatchMapModel() {
+    Random random = new Random(15);
+    Map<Integer, Set<Integer>> model = new HashMap<>();
+    ConcurrentIntGraph graph = new ConcurrentIntGraph();
+    for (int round = 0; round < 30; round++) {
+      ConcurrentIntGraph.Batch batch = new ConcurrentIntGraph.Batch();
+      for (int e = 0; e < 200; e++) {
+        int from = random.nextInt(400) - 200;
+        int to = random.nextInt(400) - 200;
+        int kind = random.nextInt(10);
+        if (kind < 6) {
+          batch.addEdge(from, to);
+          model.computeIfAbsent(from, k -> new HashSet<>()).add(to);
+        } else if (kind < 9) {
+          batch.removeEdge(from, to);
+          if (model.containsKey(from)) model.get(from).remove(to);
+        } else if (random.nextBoolean()) {
+          batch.addVertex(from);
+          model.computeIfAbsent(from, k -> new HashSet<>());
+        } else {
+          batch.removeVertex(from);
+          model.remove(from);
+        }
+      }
+      ConcurrentIntGraph.Snapshot snapshot = graph.apply(batch);
+      assertEquals(round + 1, snapshot.version());
+      assertEquals(model.size(), snapshot.vertexCount());
+      CsrGraph csr = snapshot.asIntGraph();
+      assertSame(csr, snapshot.asIntGraph());
+      for (int q = 0; q < 20; q++) {
+        int starting = random.nextInt(400) - 200;
+        assertEquals(model.containsKey(starting), snapshot.containsVertex(starting));
+        Set<Integer> expected = model.getOrDefault(starting, Collections.emptySet());
+        assertEquals(new TreeSet<>(expected).toString(), Arrays.toString(snapshot.neighbors(starting)));
+        List<Integer> reachable = Practice.sortedReachable(model, starting);
+        int[] actual = Practice.sortedReachable(csr, starting);
+        assertEquals(reachable.size(), actual.length);
+        for (int i = 0; i < actual.length; i++) {
+          assertEquals(reachable.get(i), actual[i]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSnapshot_IsolatedFromLaterBatches() {
+    Map<Integer, Set<Integer>> map = new HashMap<>();
+    map.put(1, new HashSet<>(List.of(2)));
+    map.put(2, new HashSet<>());
+    ConcurrentIntGraph graph = ConcurrentIntGraph.fromMap(map);
+    ConcurrentIntGraph.Snapshot before = graph.snapshot();
+    graph.apply(new ConcurrentIntGraph.Batch().addEdge(2, 3).removeEdge(1, 2).removeVertex(2));
+    ConcurrentIntGraph.Snapshot after = graph.snapshot();
+
+    assertArrayEquals(new int[]{2}, before.neighbors(1));
+    assertTrue(before.containsVertex(2));
+    assertArrayEquals(new int[]{1, 2}, Practice.sortedReachable(before.asIntGraph(), 1));
+    assertArrayEquals(new int[0], after.neighbors(1));
+    assertFalse(after.containsVertex(2));
+    assertEquals(1, after.vertexCount());
+    assertSame(after, graph.apply(new ConcurrentIntGraph.Batch()));
+  }
+
+  @Test
+  public void testRepeatedEditsInOneBatch_LastEditWins() {
+    ConcurrentIntGraph graph = new ConcurrentIntGraph();
+    graph.apply(new ConcurrentIntGraph.Batch().addEdge(1, 5).addEdge(1, 7).addEdge(2, 3));
+    ConcurrentIntGraph.Snapshot snapshot = graph.apply(new ConcurrentIntGraph.Batch()
+        .addEdge(1, 6).removeEdge(1, 6)
+        .removeEdge(1, 5).addEdge(1, 5)
+        .removeEdge(1, 7).addEdge(1, 4).addEdge(1, 4)
+        .addEdge(2, 9).removeVertex(2).addEdge(2, 8)
+        .removeEdge(3, 1));
+    assertArrayEquals(new int[]{4, 5}, snapshot.neighbors(1));
+    assertArrayEquals(new int[]{8}, snapshot.neighbors(2));
+    assertFalse(snapshot.containsVertex(3));
+    assertEquals(2, snapshot.vertexCount());
+
+    // A hub with many edges in one batch, added in descending order.
+    ConcurrentIntGraph.Batch hub = new ConcurrentIntGraph.Batch();
+    for (int i = 200_000; i > 0; i--) {
+      hub.addEdge(0, i).addEdge(0, i);
+    }
+    int[] neighbors = graph.apply(hub).neighbors(0);
+    assertEquals(200_000, neighbors.length);
+    for (int i = 0; i < neighbors.length; i++) {
+      assertEquals(i + 1, neighbors[i]);
+    }
+  }
+
+  @Test
+  public void testAsIntGraph_BuiltOncePerVersion() throws Exception {
+    ConcurrentIntGraph graph = ConcurrentIntGraph.fromMap(Map.of(1, Set.of(2, 3), 2, Set.of(1)));
+    ConcurrentIntGraph.Snapshot snapshot = graph.snapshot();
+    ExecutorService readers = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<CsrGraph>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        results.add(readers.submit(snapshot::asIntGraph));
+      }
+      for (Future<CsrGraph> result : results) {
+        assertSame(results.get(0).get(), result.get());
+      }
+    } finally {
+      readers.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testReadersDuringWrites_SeeConsistentVersions() throws Exception {
+    // The writer grows a chain 1 -> 2 -> ... one batch at a time; each batch adds the next vertex
+    // and the edge to it, so every version must reach exactly 1..vertexCount from 1.
+    ConcurrentIntGraph graph = new ConcurrentIntGraph();
+    graph.apply(new ConcurrentIntGraph.Batch().addVertex(1));
+    AtomicBoolean done = new AtomicBoolean();
+    ExecutorService readers = Executors.newFixedThreadPool(4);
+    List<Future<Integer>> results = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      results.add(readers.submit(() -> {
+        int checks = 0;
+        while (!done.get() || checks == 0) {
+          ConcurrentIntGraph.Snapshot snapshot = graph.snapshot();
+          int[] reachable = Practice.sortedReachable(snapshot.asIntGraph(), 1);
+          assertEquals(snapshot.vertexCount(), reachable.length);
+          assertEquals(reachable.length, reachable[reachable.length - 1]);
+          assertTrue(Practice.positivePathExists(snapshot.asIntGraph(), 1, reachable.length));
+          checks++;
+        }
+        return checks;
+      }));
+    }
+    for (int v = 2; v <= 2000; v++) {
+      graph.apply(new ConcurrentIntGraph.Batch().addVertex(v).addEdge(v - 1, v));
+    }
+    done.set(true);
+    for (Future<Integer> result : results) {
+      assertTrue(result.get(30, TimeUnit.SECONDS) > 0);
+    }
+    readers.shutdown();
+    assertEquals(2000, graph.snapshot().vertexCount());
+  }
+}
@@ -0,0 +1,383 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Hop-bounded and weighted path queries over a Professional network.
+ *
+ * The network reachable from the roots is frozen into a GraphSnapshot, with companies interned to
+ * dense ids and each connection's weight precomputed into an array beside the CSR targets.
+ *
+ * closestAtCompany is a level-by-level BFS. It stops after the first level holding someone at
+ * the company, or at the hop bound, and picks the most experienced person on that level.
+ * shortestPath and cheapestAtCompany run Dijkstra with an IndexedIntHeap. A hop bound below n-1
+ * makes the search run over (person, hops) states. A state is skipped once the same person has
+ * been settled with no more hops, so the bound stays exact without exploring every layer. Those
+ * searches keep BYTES_PER_STATE bytes for each of the n * (maxHops + 1) states. A bound whose states
+ * would take more than the budget set by the graph.hopStateBudgetBytes system property (1 GiB by
+ * default) is rejected; a bound of n-1 or more needs only n states, so unbounded queries always
+ * run.
+ *
+ * All queries reuse one workspace: visited marks are epoch stamps, and the heap, queue and path
+ * buffer keep their size between calls. After the first queries have grown them, a query
+ * allocates nothing. Every query returns the same Result object, which holds the answer until the
+ * next query, so use one search per thread. The search reflects the network as of the last
+ * rebuild.
+ */
+class ConnectionSearch {
+  // Stamp, parent, hop count and distance, plus the heap's slot, position and key.
+  static final int BYTES_PER_STATE = 4 + 4 + 4 + 8 + 4 + 4 + 8;
+  static final long STATE_BUDGET_BYTES = Long.getLong("graph.hopStateBudgetBytes", 1L << 30);
+
+  private final List<Professional> roots;
+  private final ToIntBiFunction<? super Professional, ? super Professional> weight;
+  private GraphSnapshot<Professional> snapshot;
+  private CsrGraph graph;
+  private int[] weights;
+  private int[] companyOf;
+  private int[] years;
+  private Map<String, Integer> companyIds;
+
+  private int epoch;
+  private int[] nodeSeen = new int[0];
+  private int[] settledHops = new int[0];
+  private int[] queue = new int[0];
+  private int[] stateSeen = new int[0];
+  private int[] parent = new int[0];
+  private int[] hops = new int[0];
+  private long[] dist = new long[0];
+  private final IndexedIntHeap heap = new IndexedIntHeap();
+  private final Result result = new Result();
+
+  /**
+   * Builds a search over every professional reachable from the given roots, with every connection
+   * costing 1.
+   *
+   * @param roots the professionals to start from
+   */
+  public ConnectionSearch(Collection<Professional> roots) {
+    this(roots, (from, to) -> 1);
+  }
+
+  /**
+   * Builds a search over every professional reachable from the given roots.
+   *
+   * @param roots the professionals to start from
+   * @param weight the non-negative cost of following a connection from one professional to another
+   */
+  public ConnectionSearch(Collection<Professional> roots,
+      ToIntBiFunction<? super Professional, ? super Professional> weight) {
+    this.roots = new ArrayList<>(roots);
+    this.weight = weight;
+    rebuild();
+  }
+
+  /**
+   * Re-snapshots the network and recomputes connection weights from the current connections.
+   */
+  public void rebuild() {
+    GraphSnapshot<Professional> snapshot = GraphSnapshot.ofNetwork(roots);
+    CsrGraph graph = snapshot.graph();
+    int n = snapshot.size();
+    int[] weights = new int[(int) graph.edgeCount()];
+    int[] companyOf = new int[n];
+    int[] years = new int[n];
+    Map<String, Integer> companyIds = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      Professional person = snapshot.node(i);
+      Integer id = companyIds.get(person.getCompany());
+      if (id == null) {
+        id = companyIds.size();
+        companyIds.put(person.getCompany(), id);
+      }
+      companyOf[i] = id;
+      years[i] = person.getYearsOfExperience();
+      for (int edge = graph.edgeStart(i); edge < graph.edgeEnd(i); edge++) {
+        int cost = weight.applyAsInt(person, snapshot.node(graph.target(edge)));
+        if (cost < 0) {
+          throw new IllegalArgumentException("negative weight " + cost + " from " + person.getName());
+        }
+        weights[edge] = cost;
+      }
+    }
+
+    this.snapshot = snapshot;
+    this.graph = graph;
+    this.weights = weights;
+    this.companyOf = companyOf;
+    this.years = years;
+    this.companyIds = companyIds;
+    if (nodeSeen.length < n) {
+      nodeSeen = new int[n];
+      settledHops = new int[n];
+      queue = new int[n];
+    }
+  }
+
+  /**
+   * @return the number of professionals in the searched network
+   */
+  public int size() {
+    return snapshot.size();
+  }
+
+  /**
+   * Finds the nearest professional at a company within maxHops connections of a person. Among
+   * those at the smallest hop count, the one with the most years of experience wins; remaining
+   * ties go to whoever was reached first. The person themself counts, at 0 hops, like in
+   * Practice.hasExtendedConnectionAtCompany. The cost of the result is its hop count.
+   *
+   * @param person the professional to start from (may be null, which finds nothing)
+   * @param companyName the company to look for
+   * @param maxHops the largest number of connections to follow
+   * @return the shared result, holding the match and the path to it if one was found
+   * @throws IllegalArgumentException if maxHops is negative or person is not in the network
+   */
+  public Result closestAtCompany(Professional person, String companyName, int maxHops) {
+    checkHops(maxHops);
+    result.clear();
+    if (person == null) return result;
+    int start = indexOf(person);
+    Integer company = companyIds.get(companyName);
+    if (company == null) return result;
+    if (companyOf[start] == company) return found(start, 0, 0);
+
+    int stamp = nextEpoch();
+    nodeSeen[start] = stamp;
+    parent[start] = -1;
+    queue[0] = start;
+    int head = 0;
+    int tail = 1;
+    for (int level = 1; level <= maxHops && head < tail; level++) {
+      int best = -1;
+      int levelEnd = tail;
+      while (head < levelEnd) {
+        int vertex = queue[head++];
+        for (int edge = graph.edgeStart(vertex); edge < graph.edgeEnd(vertex); edge++) {
+          int next = graph.target(edge);
+          if (nodeSeen[next] == stamp) continue;
+          nodeSeen[next] = stamp;
+          parent[next] = vertex;
+          queue[tail++] = next;
+          if (companyOf[next] == company && (best < 0 || years[next] > years[best])) best = next;
+        }
+      }
+      if (best >= 0) return found(best, level, level);
+    }
+    return result;
+  }
+
+  /**
+   * Finds the cheapest path from one professional to another that uses at most maxHops
+   * connections.
+   *
+   * @param from the professional to start from (may be null, which finds nothing)
+   * @param to the professional to reach (may be null, which finds nothing)
+   * @param maxHops the largest number of connections to follow
+   * @return the shared result, holding the path if one was found
+   * @throws IllegalArgumentException if maxHops is negative or over the state budget, or if from
+   *     or to is not in the network
+   */
+  public Result shortestPath(Professional from, Professional to, int maxHops) {
+    checkHops(maxHops);
+    result.clear();
+    if (from == null || to == null) return result;
+    int start = indexOf(from);
+    int target = indexOf(to);
+    return dijkstra(start, target, -1, maxHops);
+  }
+
+  /**
+   * Finds the cheapest path from a professional to anyone at a company, using at most maxHops
+   * connections. The person themself counts, at cost 0.
+   *
+   * @param person the professional to start from (may be null, which finds nothing)
+   * @param companyName the company to look for
+   * @param maxHops the largest number of connections to follow
+   * @return the shared result, holding the match and the path to it if one was found
+   * @throws IllegalArgumentException if maxHops is negative or over the state budget, or if person
+   *     is not in the network
+   */
+  public Result cheapestAtCompany(Professional person, String companyName, int maxHops) {
+    checkHops(maxHops);
+    result.clear();
+    if (person == null) return result;
+    int start = indexOf(person);
+    Integer company = companyIds.get(companyName);
+    if (company == null) return result;
+    return dijkstra(start, -1, company, maxHops);
+  }
+
+  private Result dijkstra(int start, int target, int company, int maxHops) {
+    int n = snapshot.size();
+    // Simple paths never need more than n-1 hops, so larger bounds can use one state per person.
+    boolean layered = maxHops < n - 1;
+    long states = layered ? (long) n * (maxHops + 1) : n;
+    if (layered && (states > Integer.MAX_VALUE - 8 || states * BYTES_PER_STATE > STATE_BUDGET_BYTES)) {
+      throw new IllegalArgumentException("hop bound " + maxHops + " needs " + states * BYTES_PER_STATE
+          + " bytes of search state for " + n + " people, over the graph.hopStateBudgetBytes budget of "
+          + STATE_BUDGET_BYTES);
+    }
+    ensureStates((int) states);
+    int stamp = nextEpoch();
+    stateSeen[start] = stamp;
+    dist[start] = 0;
+    parent[start] = -1;
+    hops[start] = 0;
+    heap.add(start, 0);
+    while (!heap.isEmpty()) {
+      long cost = heap.minKey();
+      int state = heap.poll();
+      int level = layered ? state / n : hops[state];
+      int vertex = layered ? state - level * n : state;
+      if (layered) {
+        // Reaching a person again later costs at least as much, so it only helps with fewer hops.
+        if (nodeSeen[vertex] == stamp && settledHops[vertex] <= level) continue;
+        nodeSeen[vertex] = stamp;
+        settledHops[vertex] = level;
+      }
+      if (vertex == target || (company >= 0 && companyOf[vertex] == company)) {
+        heap.clear();
+        return found(state, level, cost);
+      }
+      if (level == maxHops) continue;
+      int base = layered ? (level + 1) * n : 0;
+      for (int edge = graph.edgeStart(vertex); edge < graph.edgeEnd(vertex); edge++) {
+        int next = graph.target(edge);
+        if (layered && nodeSeen[next] == stamp && settledHops[next] <= level + 1) continue;
+        int nextState = base + next;
+        long nextCost = cost + weights[edge];
+        if (stateSeen[nextState] != stamp) {
+          stateSeen[nextState] = stamp;
+          heap.add(nextState, nextCost);
+        } else if (heap.contains(nextState) && nextCost < dist[nextState]) {
+          heap.decreaseKey(nextState, nextCost);
+        } else {
+          continue;
+        }
+        dist[nextState] = nextCost;
+        parent[nextState] = state;
+        hops[nextState] = level + 1;
+      }
+    }
+    return result;
+  }
+
+  private Result found(int state, int hopCount, long cost) {
+    int n = snapshot.size();
+    if (result.path.length < hopCount + 1) result.path = new int[Math.max(hopCount + 1, 2 * result.path.length)];
+    // Walk the parent chain back from the end state; state modulo n is the person in every layer.
+    int current = state;
+    for (int i = hopCount; i >= 0; i--) {
+      result.path[i] = current % n;
+      current = i == 0 ? -1 : parent[current];
+    }
+    result.snapshot = snapshot;
+    result.found = true;
+    result.hops = hopCount;
+    result.cost = cost;
+    return result;
+  }
+
+  private int indexOf(Professional person) {
+    int index = snapshot.indexOf(person);
+    if (index < 0) throw new IllegalArgumentException("not in the searched network: " + person.getName());
+    return index;
+  }
+
+  private static void checkHops(int maxHops) {
+    if (maxHops < 0) throw new IllegalArgumentException("maxHops must not be negative: " + maxHops);
+  }
+
+  private void ensureStates(int states) {
+    if (stateSeen.length >= states) return;
+    int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(states, 2L * stateSeen.length));
+    stateSeen = new int[capacity];
+    parent = new int[capacity];
+    hops = new int[capacity];
+    dist = new long[capacity];
+    heap.ensureCapacity(capacity);
+    // Fresh arrays hold stamp 0, so restart the epochs for the node marks too.
+    Arrays.fill(nodeSeen, 0);
+    epoch = 0;
+  }
+
+  private int nextEpoch() {
+    if (parent.length < nodeSeen.length) ensureStates(nodeSeen.length);
+    if (++epoch == 0) {
+      Arrays.fill(nodeSeen, 0);
+      Arrays.fill(stateSeen, 0);
+      epoch = 1;
+    }
+    return epoch;
+  }
+
+  /**
+   * The answer to the last query on a ConnectionSearch. It is overwritten by the next query.
+   */
+  static final class Result {
+    private GraphSnapshot<Professional> snapshot;
+    private boolean found;
+    private int hops;
+    private long cost;
+    private int[] path = new int[0];
+
+    private void clear() {
+      found = false;
+      hops = -1;
+      cost = -1;
+    }
+
+    /**
+     * @return true if a path was found
+     */
+    public boolean found() {
+      return found;
+    }
+
+    /**
+     * @return the number of connections on the path, or -1 if none was found
+     */
+    public int hops() {
+      return hops;
+    }
+
+    /**
+     * @return the summed weight of the path, or -1 if none was found
+     */
+    public long cost() {
+      return cost;
+    }
+
+    /**
+     * @return the professional the path ends at, or null if none was found
+     */
+    public Professional target() {
+      return found ? snapshot.node(path[hops]) : null;
+    }
+
+    /**
+     * @param i a position on the path, 0 for the start through hops() for the target
+     * @return the professional at that position
+     */
+    public Professional pathAt(int i) {
+      if (!found || i < 0 || i > hops) throw new IndexOutOfBoundsException("position " + i + ", hops " + hops);
+      return snapshot.node(path[i]);
+    }
+
+    /**
+     * @return a copy of the path from start to target, empty if none was found
+     */
+    public List<Professional> path() {
+      List<Professional> copy = new ArrayList<>(found ? hops + 1 : 0);
+      for (int i = 0; found && i <= hops; i++) {
+        copy.add(snapshot.node(path[i]));
+      }
+      return copy;
+    }
+  }
+}
@@ -0,0 +1,241 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+public class ConnectionSearchTest {
+
+  private static final String[] COMPANIES = {"Acme", "Globex", "Initech", "Umbrella", "Hooli"};
+
+  private static List<Professional> randomNetwork(Random random, int n, int degree) {
+    List<Professional> people = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      people.add(new Professional("p" + i, COMPANIES[random.nextInt(COMPANIES.length)], random.nextInt(30),
+          new HashSet<>()));
+    }
+    for (Professional person : people) {
+      int connections = random.nextInt(degree + 1);
+      for (int k = 0; k < connections; k++) {
+        person.getConnections().add(people.get(random.nextInt(n)));
+      }
+    }
+    return people;
+  }
+
+  private static int weight(Professional from, Professional to) {
+    return (from.getYearsOfExperience() * 7 + to.getYearsOfExperience() * 3) % 10;
+  }
+
+  /** Cheapest cost from start to every person using at most maxHops connections, by Bellman-Ford rounds. */
+  private static Map<Professional, Long> boundedCosts(Professional start, int maxHops) {
+    Map<Professional, Long> costs = new IdentityHashMap<>();
+    costs.put(start, 0L);
+    for (int round = 0; round < maxHops; round++) {
+      Map<Professional, Long> next = new IdentityHashMap<>(costs);
+      for (Map.Entry<Professional, Long> entry : costs.entrySet()) {
+        for (Professional to : entry.getKey().getConnections()) {
+          long cost = entry.getValue() + weight(entry.getKey(), to);
+          next.merge(to, cost, Math::min);
+        }
+      }
+      costs = next;
+    }
+    return costs;
+  }
+
+  private static void assertValidPath(ConnectionSearch.Result result, Professional start, int maxHops,
+      boolean weighted) {
+    assertTrue(result.hops() <= maxHops);
+    List<Professional> path = result.path();
+    assertEquals(result.hops() + 1, path.size());
+    assertSame(start, path.get(0));
+    assertSame(result.target(), path.get(path.size() - 1));
+    long cost = 0;
+    for (int i = 1; i < path.size(); i++) {
+      assertTrue(path.get(i - 1).getConnections().contains(path.get(i)));
+      assertSame(path.get(i), result.pathAt(i));
+      cost += weighted ? weight(path.get(i - 1), path.get(i)) : 1;
+    }
+    assertEquals(cost, result.cost());
+  }
+
+  @Test
+  public void testClosestAtCompany_NearestLevelMostExperienced() {
+    Professional dana = new Professional("Dana", "Globex", 2, new HashSet<>());
+    Professional erin = new Professional("Erin", "Globex", 20, new HashSet<>());
+    Professional carl = new Professional("Carl", "Globex", 9, new HashSet<>());
+    Professional bea = new Professional("Bea", "Initech", 5, new HashSet<>(Arrays.asList(erin)));
+    Professional abe = new Professional("Abe", "Acme", 4, new HashSet<>(Arrays.asList(bea, carl, dana)));
+    ConnectionSearch search = new ConnectionSearch(List.of(abe));
+
+    ConnectionSearch.Result result = search.closestAtCompany(abe, "Globex", 3);
+    assertTrue(result.found());
+    assertSame(carl, result.target());
+    assertEquals(1, result.hops());
+    assertEquals(List.of(abe, carl), result.path());
+
+    assertSame(abe, search.closestAtCompany(abe, "Acme", 0).target());
+    assertEquals(0, search.closestAtCompany(abe, "Acme", 0).hops());
+    assertFalse(search.closestAtCompany(abe, "Globex", 0).found());
+    assertFalse(search.closestAtCompany(abe, "Nowhere", 5).found());
+    assertFalse(search.closestAtCompany(null, "Globex", 5).found());
+    assertNull(search.closestAtCompany(null, "Globex", 5).target());
+    assertSame(erin, search.closestAtCompany(bea, "Globex", 1).target());
+    assertThrows(IllegalArgumentException.class, () -> search.closestAtCompany(abe, "Globex", -1));
+    Professional stranger = new Professional("Zed", "Globex", 1, new HashSet<>());
+    assertThrows(IllegalArgumentException.class, () -> search.closestAtCompany(stranger, "Globex", 1));
+  }
+
+  @Test
+  public void testShortestPath_HopBoundChangesAnswer() {
+    Professional d = new Professional("D", "Hooli", 1, new HashSet<>());
+    Professional c = new Professional("C", "Acme", 1, new HashSet<>(Arrays.asList(d)));
+    Professional b = new Professional("B", "Acme", 1, new HashSet<>(Arrays.asList(c)));
+    Professional a = new Professional("A", "Acme", 1, new HashSet<>(Arrays.asList(b, d)));
+    // The direct connection costs 10, the three-hop detour costs 3.
+    ConnectionSearch search = new ConnectionSearch(List.of(a), (from, to) -> from == a && to == d ? 10 : 1);
+
+    ConnectionSearch.Result result = search.shortestPath(a, d, Integer.MAX_VALUE);
+    assertEquals(3, result.cost());
+    assertEquals(List.of(a, b, c, d), result.path());
+    result = search.shortestPath(a, d, 2);
+    assertEquals(10, result.cost());
+    assertEquals(1, result.hops());
+    assertEquals(List.of(a, d), result.path());
+    assertFalse(search.shortestPath(d, a, 5).found());
+    assertEquals(0, search.shortestPath(a, a, 0).cost());
+
+    assertSame(d, search.cheapestAtCompany(a, "Hooli", 3).target());
+    assertEquals(3, search.cheapestAtCompany(a, "Hooli", 3).cost());
+    assertThrows(IllegalArgumentException.class, () -> new ConnectionSearch(List.of(a), (from, to) -> -1));
+    // Unknown endpoints are rejected on either side.
+    Professional stranger = new Professional("Zed", "Acme", 1, new HashSet<>());
+    assertThrows(IllegalArgumentException.class, () -> search.shortestPath(stranger, d, 3));
+    assertThrows(IllegalArgumentException.class, () -> search.shortestPath(a, stranger, 3));
+  }
+
+  @Test
+  public void testShortestPath_HopBoundOverStateBudgetRejected() {
+    // 6000 people x 5001 layers needs about 30M states, over the default 1 GiB budget.
+    List<Professional> people = new ArrayList<>();
+    Professional previous = new Professional("P0", "Acme", 1, new HashSet<>());
+    people.add(previous);
+    for (int i = 1; i < 6000; i++) {
+      Professional next = new Professional("P" + i, "Acme", 1, new HashSet<>());
+      previous.getConnections().add(next);
+      people.add(next);
+      previous = next;
+    }
+    ConnectionSearch search = new ConnectionSearch(List.of(people.get(0)));
+    Professional last = people.get(people.size() - 1);
+    assertThrows(IllegalArgumentException.class, () -> search.shortestPath(people.get(0), last, 5000));
+    // Bounds of n-1 or more need one state per person and always run.
+    assertEquals(5999, search.shortestPath(people.get(0), last, 5999).hops());
+    assertEquals(5999, search.shortestPath(people.get(0), last, Integer.MAX_VALUE).hops());
+    assertTrue(search.shortestPath(people.get(0), people.get(3), 3).found());
+  }
+
+  @Test
+  public void testRandomNetworks_MatchBruteForce() {
+    Random random = new Random(21);
+    for (int trial = 0; trial < 20; trial++) {
+      List<Professional> people = randomNetwork(random, 1 + random.nextInt(60), 4);
+      ConnectionSearch hops = new ConnectionSearch(people);
+      ConnectionSearch weighted = new ConnectionSearch(people, ConnectionSearchTest::weight);
+      for (Professional start : people) {
+        for (int maxHops : new int[]{0, 1, 2, 4, Integer.MAX_VALUE}) {
+          int rounds = Math.min(maxHops, people.size());
+          Map<Professional, Long> costs = boundedCosts(start, rounds);
+
+          for (Professional end : people) {
+            ConnectionSearch.Result result = weighted.shortestPath(start, end, maxHops);
+            assertEquals(costs.containsKey(end), result.found());
+            if (result.found()) {
+              assertEquals(costs.get(end).longValue(), result.cost());
+              assertValidPath(result, start, maxHops, true);
+            }
+          }
+
+          for (String company : COMPANIES) {
+            // Nearest level by BFS, then the most experienced person on it.
+            Map<Professional, Integer> levels = new IdentityHashMap<>();
+            levels.put(start, 0);
+            List<Professional> frontier = List.of(start);
+            int bestYears = -1;
+            int bestLevel = -1;
+            for (int level = 0; level <= rounds && !frontier.isEmpty() && bestLevel < 0; level++) {
+              List<Professional> next = new ArrayList<>();
+              for (Professional person : frontier) {
+                if (company.equals(person.getCompany()) && person.getYearsOfExperience() > bestYears) {
+                  bestYears = person.getYearsOfExperience();
+                  bestLevel = level;
+                }
+                for (Professional to : person.getConnections()) {
+                  if (levels.putIfAbsent(to, level + 1) == null) next.add(to);
+                }
+              }
+              frontier = next;
+            }
+            ConnectionSearch.Result closest = hops.closestAtCompany(start, company, maxHops);
+            assertEquals(bestLevel >= 0, closest.found());
+            if (closest.found()) {
+              assertEquals(bestLevel, closest.hops());
+              assertEquals(bestYears, closest.target().getYearsOfExperience());
+              assertEquals(company, closest.target().getCompany());
+              assertValidPath(closest, start, maxHops, false);
+            }
+
+            long cheapest = Long.MAX_VALUE;
+            for (Map.Entry<Professional, Long> entry : costs.entrySet()) {
+              if (company.equals(entry.getKey().getCompany())) cheapest = Math.min(cheapest, entry.getValue());
+            }
+            ConnectionSearch.Result result = weighted.cheapestAtCompany(start, company, maxHops);
+            assertEquals(cheapest != Long.MAX_VALUE, result.found());
+            if (result.found()) {
+              assertEquals(cheapest, result.cost());
+              assertEquals(company, result.target().getCompany());
+              assertValidPath(result, start, maxHops, true);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRebuild_SeesNewConnections() {
+    Professional b = new Professional("B", "Globex", 3, new HashSet<>());
+    Professional a = new Professional("A", "Acme", 1, new HashSet<>());
+    ConnectionSearch search = new ConnectionSearch(List.of(a, b));
+    assertFalse(search.closestAtCompany(a, "Globex", 2).found());
+    a.getConnections().add(b);
+    search.rebuild();
+    assertSame(b, search.closestAtCompany(a, "Globex", 2).target());
+    assertEquals(2, search.size());
+  }
+
+  @Test
+  public void testSteadyStateQueriesDoNotAllocate() {
+    Random random = new Random(7);
+    List<Professional> people = randomNetwork(random, 2_000, 6);
+    ConnectionSearch search = new ConnectionSearch(people, ConnectionSearchTest::weight);
+    Runnable queries = () -> {
+      for (int q = 0; q < 200; q++) {
+        Professional start = people.get(random.nextInt(people.size()));
+        search.closestAtCompany(start, COMPANIES[q % COMPANIES.length], 3);
+        search.cheapestAtCompany(start, COMPANIES[q % COMPANIES.length], 3);
+        search.shortestPath(start, people.get(random.nextInt(people.size())), q % 2 == 0 ? 4 : Integer.MAX_VALUE);
+      }
+    };
+    // The first rounds grow the workspace and let the JIT compile the loops.
+    for (int round = 0; round < 20; round++) {
+      queries.run();
+    }
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long before = threads.getCurrentThreadAllocatedBytes();
+    queries.run();
+    long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+    // Allow some slack for the measurement itself and the random number generator.
+    assertTrue(allocated < 4096, allocated + " bytes allocated by 600 queries");
+  }
+}
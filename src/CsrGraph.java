@@ -0,0 +1,308 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable directed graph over int vertex ids, stored in compressed-sparse-row (CSR) form.
+ *
+ * Every vertex id is remapped to a dense index in [0, vertexCount()). Graphs built from a map or
+ * copied from an id-ordered graph assign indices in ascending id order, so walking indices from 0
+ * upward visits ids in sorted order. A graph built by VertexOrdering places vertices in another
+ * order; it then keeps a sorted (id, index) table for indexOf and idOrdered() is false.
+ * The outgoing edges of the vertex at index i are targets[offsets[i]] .. targets[offsets[i + 1] - 1],
+ * each stored as the dense index of the neighbor.
+ *
+ * A vertex that only ever appears as a neighbor (never as a key of the source map) is still a vertex
+ * of the graph, but it has no outgoing edges and isKey reports false for it.
+ */
+public final class CsrGraph implements IntGraph {
+  private final int[] ids;
+  private final long[] keys;
+  private final int[] offsets;
+  private final int[] targets;
+  // (id << 32 | index) sorted ascending, or null when ids already ascend with index.
+  private final long[] byId;
+  private volatile CsrGraph reverse;
+
+  CsrGraph(int[] ids, long[] keys, int[] offsets, int[] targets) {
+    this(ids, keys, offsets, targets, idTable(ids));
+  }
+
+  private CsrGraph(int[] ids, long[] keys, int[] offsets, int[] targets, long[] byId) {
+    this.ids = ids;
+    this.keys = keys;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.byId = byId;
+  }
+
+  /**
+   * Returns the (id << 32 | index) table indexOf needs when ids do not ascend with index, or null
+   * when they do.
+   *
+   * @throws IllegalArgumentException if an id appears twice
+   */
+  static long[] idTable(int[] ids) {
+    int i = 1;
+    while (i < ids.length && ids[i - 1] < ids[i]) {
+      i++;
+    }
+    if (i >= ids.length) return null;
+    long[] byId = new long[ids.length];
+    for (int index = 0; index < ids.length; index++) {
+      byId[index] = (long) ids[index] << 32 | index;
+    }
+    Arrays.sort(byId);
+    for (int k = 1; k < byId.length; k++) {
+      if ((int) (byId[k] >> 32) == (int) (byId[k - 1] >> 32)) {
+        throw new IllegalArgumentException("duplicate vertex id " + (int) (byId[k] >> 32));
+      }
+    }
+    return byId;
+  }
+
+  /**
+   * Builds a CSR graph from the map representation used by Practice.
+   * Null neighbor sets are treated as empty and null neighbors are ignored.
+   *
+   * @param graph a map where each key is a vertex and its value is the set of its neighbors
+   * @return an immutable CSR copy of the graph
+   */
+  public static CsrGraph fromMap(Map<Integer, Set<Integer>> graph) {
+    int[] all = new int[16];
+    int count = 0;
+    for (Map.Entry<Integer, Set<Integer>> entry : graph.entrySet()) {
+      if (entry.getKey() == null) continue;
+      if (count == all.length) all = Arrays.copyOf(all, count * 2);
+      all[count++] = entry.getKey();
+      if (entry.getValue() == null) continue;
+      for (Integer neighbor : entry.getValue()) {
+        if (neighbor == null) continue;
+        if (count == all.length) all = Arrays.copyOf(all, count * 2);
+        all[count++] = neighbor;
+      }
+    }
+    Arrays.sort(all, 0, count);
+    int n = 0;
+    for (int i = 0; i < count; i++) {
+      if (n == 0 || all[i] != all[n - 1]) all[n++] = all[i];
+    }
+    int[] ids = Arrays.copyOf(all, n);
+
+    long[] keys = new long[(n + 63) >>> 6];
+    int[] offsets = new int[n + 1];
+    for (Map.Entry<Integer, Set<Integer>> entry : graph.entrySet()) {
+      if (entry.getKey() == null) continue;
+      int index = Arrays.binarySearch(ids, entry.getKey());
+      keys[index >>> 6] |= 1L << index;
+      if (entry.getValue() == null) continue;
+      for (Integer neighbor : entry.getValue()) {
+        if (neighbor != null) offsets[index + 1]++;
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+
+    int[] targets = new int[offsets[n]];
+    for (Map.Entry<Integer, Set<Integer>> entry : graph.entrySet()) {
+      if (entry.getKey() == null || entry.getValue() == null) continue;
+      int index = Arrays.binarySearch(ids, entry.getKey());
+      int edge = offsets[index];
+      for (Integer neighbor : entry.getValue()) {
+        if (neighbor != null) targets[edge++] = Arrays.binarySearch(ids, neighbor);
+      }
+      Arrays.sort(targets, offsets[index], edge);
+    }
+    return new CsrGraph(ids, keys, offsets, targets);
+  }
+
+  /**
+   * Copies any int graph into an on-heap CSR graph with the same ids, keys and edges.
+   *
+   * @param graph the graph to copy
+   * @return the copy, or graph itself if it already is a CsrGraph
+   */
+  public static CsrGraph copyOf(IntGraph graph) {
+    if (graph instanceof CsrGraph) return (CsrGraph) graph;
+    if (graph.edgeCount() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("too many edges for an on-heap CSR graph: " + graph.edgeCount());
+    }
+    int n = graph.vertexCount();
+    int[] ids = new int[n];
+    long[] keys = new long[(n + 63) >>> 6];
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[(int) graph.edgeCount()];
+    Cursor cursor = graph.cursor();
+    int edge = 0;
+    for (int index = 0; index < n; index++) {
+      ids[index] = graph.idOf(index);
+      if (graph.isKey(index)) keys[index >>> 6] |= 1L << index;
+      cursor.of(index);
+      for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+        targets[edge++] = next;
+      }
+      offsets[index + 1] = edge;
+    }
+    return new CsrGraph(ids, keys, offsets, targets);
+  }
+
+  /**
+   * Returns the reverse of this graph: the same vertices with every edge reversed.
+   * It is built on first use and cached, so later calls on the same instance are free.
+   *
+   * @return the CSR graph whose edges run from target to source
+   */
+  @Override
+  public CsrGraph reverse() {
+    CsrGraph result = reverse;
+    if (result == null) {
+      // Racing threads may each build one; they are identical, so any of them can win.
+      result = buildReverse();
+      result.reverse = this;
+      reverse = result;
+    }
+    return result;
+  }
+
+  private CsrGraph buildReverse() {
+    int n = ids.length;
+    int[] reverseOffsets = new int[n + 1];
+    for (int edge = 0; edge < targets.length; edge++) {
+      reverseOffsets[targets[edge] + 1]++;
+    }
+    for (int i = 0; i < n; i++) {
+      reverseOffsets[i + 1] += reverseOffsets[i];
+    }
+    int[] next = Arrays.copyOf(reverseOffsets, n);
+    int[] reverseTargets = new int[targets.length];
+    // Sources are visited in ascending order, so every reversed neighbor list comes out sorted.
+    for (int source = 0; source < n; source++) {
+      for (int edge = offsets[source]; edge < offsets[source + 1]; edge++) {
+        reverseTargets[next[targets[edge]]++] = source;
+      }
+    }
+    return new CsrGraph(ids, keys, reverseOffsets, reverseTargets, byId);
+  }
+
+  /**
+   * @return the number of vertices, including neighbor-only vertices
+   */
+  @Override
+  public int vertexCount() {
+    return ids.length;
+  }
+
+  /**
+   * @return the number of directed edges
+   */
+  @Override
+  public long edgeCount() {
+    return targets.length;
+  }
+
+  /**
+   * Returns the dense index of the given vertex id.
+   *
+   * @param id the vertex id
+   * @return the dense index of id, or -1 if id is not a vertex of this graph
+   */
+  @Override
+  public int indexOf(int id) {
+    if (byId == null) {
+      int index = Arrays.binarySearch(ids, id);
+      return index >= 0 ? index : -1;
+    }
+    return indexIn(byId, id);
+  }
+
+  /**
+   * Looks an id up in a table built by idTable.
+   *
+   * @return the index of id, or -1 if the table does not hold it
+   */
+  static int indexIn(long[] byId, int id) {
+    int low = 0;
+    int high = byId.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midId = (int) (byId[mid] >> 32);
+      if (midId < id) low = mid + 1;
+      else if (midId > id) high = mid - 1;
+      else return (int) byId[mid];
+    }
+    return -1;
+  }
+
+  @Override
+  public boolean idOrdered() {
+    return byId == null;
+  }
+
+  /**
+   * @param index a dense vertex index
+   * @return the original vertex id at that index
+   */
+  @Override
+  public int idOf(int index) {
+    return ids[index];
+  }
+
+  /**
+   * @param index a dense vertex index
+   * @return whether the vertex was a key of the map the graph was built from
+   */
+  @Override
+  public boolean isKey(int index) {
+    return (keys[index >>> 6] & (1L << index)) != 0;
+  }
+
+  @Override
+  public int degree(int index) {
+    return offsets[index + 1] - offsets[index];
+  }
+
+  @Override
+  public Cursor cursor() {
+    return new Cursor() {
+      private int edge;
+      private int end;
+
+      @Override
+      public Cursor of(int index) {
+        edge = offsets[index];
+        end = offsets[index + 1];
+        return this;
+      }
+
+      @Override
+      public int next() {
+        return edge < end ? targets[edge++] : -1;
+      }
+    };
+  }
+
+  /**
+   * @param index a dense vertex index
+   * @return the position of the first outgoing edge of the vertex
+   */
+  public int edgeStart(int index) {
+    return offsets[index];
+  }
+
+  /**
+   * @param index a dense vertex index
+   * @return one past the position of the last outgoing edge of the vertex
+   */
+  public int edgeEnd(int index) {
+    return offsets[index + 1];
+  }
+
+  /**
+   * @param edge an edge position in [edgeStart(i), edgeEnd(i))
+   * @return the dense index of the neighbor at the end of that edge
+   */
+  public int target(int edge) {
+    return targets[edge];
+  }
+}
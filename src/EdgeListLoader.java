@@ -0,0 +1,527 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Builds graphs from text files: edge lists into a CsrGraph, Professional exports into Professional
+ * objects.
+ *
+ * An edge list has one edge per line, "src dst", two decimal ints separated by spaces, tabs or a
+ * comma. Anything after the second number is ignored, so weighted lists load too. Blank lines and
+ * lines starting with '#' or '%' are skipped, and CRLF line ends are accepted.
+ *
+ * Loading runs in two steps:
+ * <ol>
+ *   <li>The file is cut into line-aligned chunks. Each chunk is memory-mapped and parsed in parallel
+ *       straight from the bytes, with no String per line, into packed (src, dst) longs.</li>
+ *   <li>The edges are filled straight into the arrays of the CsrGraph. When the ids are fairly
+ *       dense, which is the usual case, an id's index is its rank in a bitmap of the id range; one
+ *       pass counts each source's edges into CSR offsets, a second drops every edge into place,
+ *       and each neighbor list is then sorted and deduplicated on its own. Otherwise all edges are
+ *       sorted with Arrays.parallelSort, duplicates are dropped, and the same two passes run with
+ *       indices found by binary search.</li>
+ * </ol>
+ * Every vertex that appears in the file is a key of the result, so it answers like the map
+ * representation of the same edges with an (possibly empty) neighbor set for every vertex.
+ *
+ * The on-heap CSR holds at most 2^31 - 1 edges. For larger graphs, stream the sorted edges into an
+ * OffHeapGraph.Builder instead.
+ */
+public final class EdgeListLoader {
+  // Chunks are big enough to amortize a mapping and small enough to keep every core busy.
+  private static final long MAX_CHUNK_BYTES = 64L << 20;
+  private static final long MIN_CHUNK_BYTES = 1L << 20;
+  // Ids spanning at most this many values per edge are indexed with a bitmap instead of a sort.
+  private static final long DENSE_SPAN_PER_EDGE = 8;
+
+  private EdgeListLoader() {
+  }
+
+  /**
+   * Loads an edge list on the common ForkJoin pool.
+   *
+   * @param path the edge list file
+   * @return the graph, with targets sorted and duplicate edges removed
+   * @throws IOException if the file cannot be read or a line is not an edge
+   */
+  public static CsrGraph load(Path path) throws IOException {
+    return load(path, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Loads an edge list, parsing and sorting on the given pool.
+   *
+   * @param path the edge list file
+   * @param pool the pool that parses chunks and sorts edges
+   * @return the graph, with targets sorted and duplicate edges removed
+   * @throws IOException if the file cannot be read or a line is not an edge
+   */
+  public static CsrGraph load(Path path, ForkJoinPool pool) throws IOException {
+    long[] edges;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long[] bounds = chunkBounds(channel, pool.getParallelism());
+      long[][] parsed = new long[bounds.length - 1][];
+      try {
+        pool.submit(() -> IntStream.range(0, parsed.length).parallel().forEach(chunk -> {
+          try {
+            parsed[chunk] = parseChunk(channel, bounds[chunk], bounds[chunk + 1]);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        })).join();
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      edges = concat(parsed);
+    }
+    return build(edges, pool);
+  }
+
+  /**
+   * Returns one Vertex per vertex of the graph, holding its id, linked like the graph's edges.
+   *
+   * @param graph an int graph
+   * @return the vertices, listed by dense index
+   */
+  public static List<Vertex<Integer>> toVertices(IntGraph graph) {
+    return toVertices(graph, graph::idOf);
+  }
+
+  /**
+   * Returns one Vertex per vertex of the graph, linked like the graph's edges.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param graph an int graph
+   * @param data the data for the vertex at each dense index
+   * @return the vertices, listed by dense index
+   */
+  public static <T> List<Vertex<T>> toVertices(IntGraph graph, IntFunction<? extends T> data) {
+    int n = graph.vertexCount();
+    List<Vertex<T>> vertices = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      vertices.add(new Vertex<>(data.apply(i), new ArrayList<>(graph.degree(i))));
+    }
+    IntGraph.Cursor cursor = graph.cursor();
+    for (int i = 0; i < n; i++) {
+      List<Vertex<T>> neighbors = vertices.get(i).neighbors;
+      cursor.of(i);
+      for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+        neighbors.add(vertices.get(next));
+      }
+    }
+    return vertices;
+  }
+
+  /**
+   * Loads a Professional export: CSV with the columns name, company, yearsOfExperience and
+   * connections, where connections lists the names of other people in the file separated by ';'.
+   * Fields may be quoted, with "" for a quote inside. A first line whose yearsOfExperience field is
+   * not a number is taken as a header and skipped. Names must be unique.
+   *
+   * @param path the CSV file
+   * @return the people in file order, with their connections linked
+   * @throws IOException if the file cannot be read, a row is malformed, a name repeats or a
+   *     connection names nobody in the file
+   */
+  public static List<Professional> loadProfessionals(Path path) throws IOException {
+    List<Professional> people = new ArrayList<>();
+    List<String[]> connectionNames = new ArrayList<>();
+    Map<String, Professional> byName = new HashMap<>();
+    try (CsvReader csv = new CsvReader(Files.newInputStream(path))) {
+      List<String> row = new ArrayList<>();
+      while (csv.readRow(row)) {
+        if (row.size() == 1 && row.get(0).isEmpty()) continue;
+        if (row.size() != 4) {
+          throw new IOException("line " + csv.line() + ": expected 4 fields but found " + row.size());
+        }
+        int years;
+        try {
+          years = Integer.parseInt(row.get(2).trim());
+        } catch (NumberFormatException e) {
+          if (csv.line() == 1) continue;
+          throw new IOException("line " + csv.line() + ": bad yearsOfExperience " + row.get(2));
+        }
+        Professional person = new Professional(row.get(0), row.get(1), years, new HashSet<>());
+        if (byName.putIfAbsent(person.getName(), person) != null) {
+          throw new IOException("line " + csv.line() + ": duplicate name " + person.getName());
+        }
+        people.add(person);
+        String connections = row.get(3).trim();
+        connectionNames.add(connections.isEmpty() ? new String[0] : connections.split(";"));
+      }
+    }
+    for (int i = 0; i < people.size(); i++) {
+      for (String name : connectionNames.get(i)) {
+        Professional connection = byName.get(name.trim());
+        if (connection == null) {
+          throw new IOException(people.get(i).getName() + " is connected to unknown person " + name.trim());
+        }
+        people.get(i).getConnections().add(connection);
+      }
+    }
+    return people;
+  }
+
+  /**
+   * Splits the file at line starts into about equal chunks.
+   */
+  private static long[] chunkBounds(FileChannel channel, int parallelism) throws IOException {
+    long size = channel.size();
+    long chunk = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, size / (4L * Math.max(1, parallelism)) + 1));
+    long[] bounds = new long[(int) ((size + chunk - 1) / chunk) + 1];
+    int count = 1;
+    ByteBuffer probe = ByteBuffer.allocate(4096);
+    long position = 0;
+    while (position < size) {
+      long next = position + chunk;
+      if (next >= size) {
+        next = size;
+      } else {
+        // Move the cut to just after the next newline.
+        search:
+        while (true) {
+          probe.clear();
+          int read = channel.read(probe, next);
+          if (read <= 0) {
+            next = size;
+            break;
+          }
+          for (int i = 0; i < read; i++) {
+            if (probe.get(i) == '\n') {
+              next += i + 1;
+              break search;
+            }
+          }
+          next += read;
+        }
+      }
+      bounds[count++] = next;
+      position = next;
+    }
+    return Arrays.copyOf(bounds, count);
+  }
+
+  /**
+   * Parses the lines in [start, end) into edges packed as src in the high half and dst, with its
+   * sign bit flipped, in the low half, so that sorted longs order by src and then dst.
+   */
+  private static long[] parseChunk(FileChannel channel, long start, long end) throws IOException {
+    MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    int limit = bytes.limit();
+    long[] edges = new long[Math.max(16, limit / 12)];
+    int count = 0;
+    int i = 0;
+    while (i < limit) {
+      // Skip leading blanks, then blank lines and comments.
+      byte b = bytes.get(i);
+      while ((b == ' ' || b == '\t') && ++i < limit) b = bytes.get(i);
+      if (i == limit) break;
+      if (b == '\n' || b == '\r' || b == '#' || b == '%') {
+        while (i < limit && bytes.get(i) != '\n') i++;
+        i++;
+        continue;
+      }
+      long src = 0;
+      long dst = 0;
+      for (int field = 0; field < 2; field++) {
+        if (field == 1) {
+          int separator = i;
+          while (i < limit && (bytes.get(i) == ' ' || bytes.get(i) == '\t' || bytes.get(i) == ',')) i++;
+          if (i == separator) throw malformed(start + i);
+        }
+        boolean negative = i < limit && bytes.get(i) == '-';
+        if (negative || (i < limit && bytes.get(i) == '+')) i++;
+        int digits = 0;
+        long value = 0;
+        while (i < limit) {
+          int digit = bytes.get(i) - '0';
+          if (digit < 0 || digit > 9) break;
+          value = value * 10 + digit;
+          if (value > 1L << 31) throw malformed(start + i);
+          digits++;
+          i++;
+        }
+        if (negative) value = -value;
+        if (digits == 0 || value > Integer.MAX_VALUE) throw malformed(start + i);
+        if (field == 0) src = value; else dst = value;
+      }
+      if (i < limit) {
+        byte after = bytes.get(i);
+        if (after != ' ' && after != '\t' && after != ',' && after != '\r' && after != '\n') throw malformed(start + i);
+      }
+      while (i < limit && bytes.get(i) != '\n') i++;
+      i++;
+      if (count == edges.length) edges = Arrays.copyOf(edges, count * 2);
+      edges[count++] = src << 32 | ((dst ^ 0x80000000L) & 0xffffffffL);
+    }
+    return Arrays.copyOf(edges, count);
+  }
+
+  private static IOException malformed(long position) {
+    return new IOException("not an edge at byte " + position);
+  }
+
+  private static long[] concat(long[][] parts) {
+    long total = 0;
+    for (long[] part : parts) {
+      total += part.length;
+    }
+    if (total > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("too many edges for an on-heap CSR graph: " + total);
+    long[] all = new long[(int) total];
+    int position = 0;
+    for (long[] part : parts) {
+      System.arraycopy(part, 0, all, position, part.length);
+      position += part.length;
+    }
+    return all;
+  }
+
+  /**
+   * Removes repeats from sorted edges in place.
+   *
+   * @return the number of distinct edges
+   */
+  private static int dedupe(long[] edges) {
+    int m = 0;
+    for (int i = 0; i < edges.length; i++) {
+      if (m == 0 || edges[i] != edges[m - 1]) edges[m++] = edges[i];
+    }
+    return m;
+  }
+
+  private static int source(long edge) {
+    return (int) (edge >> 32);
+  }
+
+  private static int target(long edge) {
+    return (int) edge ^ 0x80000000;
+  }
+
+  private static CsrGraph build(long[] edges, ForkJoinPool pool) {
+    int m = edges.length;
+    if (m == 0) return new CsrGraph(new int[0], new long[0], new int[1], new int[0]);
+    long min = Integer.MAX_VALUE;
+    long max = Integer.MIN_VALUE;
+    for (long edge : edges) {
+      min = Math.min(min, Math.min(source(edge), target(edge)));
+      max = Math.max(max, Math.max(source(edge), target(edge)));
+    }
+    long span = max - min + 1;
+    if (span <= Math.min(Integer.MAX_VALUE, DENSE_SPAN_PER_EDGE * (long) m)) {
+      return buildDense(edges, (int) min, span, pool);
+    }
+    Arrays.parallelSort(edges);
+    return buildSparse(edges, dedupe(edges), pool);
+  }
+
+  /**
+   * Builds the graph when the ids cover a range not much wider than the edge count. A bitmap over
+   * the range marks the vertices; its set bits are the sorted ids and an id's dense index is its
+   * rank in the bitmap. Edges are then placed with a counting sort by source, and only each
+   * vertex's own neighbors are sorted and deduplicated, so the edges are never sorted as a whole.
+   */
+  private static CsrGraph buildDense(long[] edges, int min, long span, ForkJoinPool pool) {
+    int m = edges.length;
+    long[] present = new long[(int) ((span + 63) >>> 6)];
+    for (long edge : edges) {
+      int source = source(edge) - min;
+      int target = target(edge) - min;
+      present[source >>> 6] |= 1L << source;
+      present[target >>> 6] |= 1L << target;
+    }
+    int[] rank = new int[present.length + 1];
+    for (int word = 0; word < present.length; word++) {
+      rank[word + 1] = rank[word] + Long.bitCount(present[word]);
+    }
+    int n = rank[present.length];
+    int[] ids = new int[n];
+    int index = 0;
+    for (int word = 0; word < present.length; word++) {
+      for (long bits = present[word]; bits != 0; bits &= bits - 1) {
+        ids[index++] = min + (word << 6) + Long.numberOfTrailingZeros(bits);
+      }
+    }
+
+    // First pass counts each source's edges, second pass drops every edge into its source's slot.
+    int[] offsets = new int[n + 1];
+    for (long edge : edges) {
+      offsets[rank(present, rank, source(edge) - min) + 1]++;
+    }
+    for (int i = 0; i < n; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    int[] next = Arrays.copyOf(offsets, n);
+    int[] targets = new int[m];
+    for (long edge : edges) {
+      targets[next[rank(present, rank, source(edge) - min)]++] = rank(present, rank, target(edge) - min);
+    }
+    pool.submit(() -> IntStream.range(0, n).parallel()
+        .forEach(i -> Arrays.sort(targets, offsets[i], offsets[i + 1]))).join();
+
+    // Drop repeated edges, sliding each neighbor list down over the gaps.
+    int out = 0;
+    int start = 0;
+    for (int i = 0; i < n; i++) {
+      int end = offsets[i + 1];
+      offsets[i] = out;
+      for (int e = start; e < end; e++) {
+        if (e == start || targets[e] != targets[e - 1]) targets[out++] = targets[e];
+      }
+      start = end;
+    }
+    offsets[n] = out;
+    return new CsrGraph(ids, allKeys(n), offsets, out == m ? targets : Arrays.copyOf(targets, out));
+  }
+
+  private static int rank(long[] present, int[] rank, int offset) {
+    return rank[offset >>> 6] + Long.bitCount(present[offset >>> 6] & ((1L << offset) - 1));
+  }
+
+  private static CsrGraph buildSparse(long[] edges, int m, ForkJoinPool pool) {
+    // Vertex ids: the distinct sources (already in order) merged with the distinct targets.
+    int[] targetIds = new int[m];
+    for (int e = 0; e < m; e++) {
+      targetIds[e] = target(edges[e]);
+    }
+    Arrays.parallelSort(targetIds);
+    int[] ids = new int[16];
+    int n = 0;
+    int t = 0;
+    int e = 0;
+    while (e < m || t < m) {
+      int next;
+      if (t == m || (e < m && source(edges[e]) <= targetIds[t])) next = source(edges[e++]);
+      else next = targetIds[t++];
+      if (n > 0 && ids[n - 1] == next) continue;
+      if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+      ids[n++] = next;
+    }
+    int[] finalIds = Arrays.copyOf(ids, n);
+
+    // First pass: count each source's edges. Sources appear in id order, so one sweep suffices.
+    int[] offsets = new int[n + 1];
+    int index = 0;
+    for (e = 0; e < m; e++) {
+      int source = source(edges[e]);
+      while (finalIds[index] != source) index++;
+      offsets[index + 1]++;
+    }
+    for (int i = 0; i < n; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    // Second pass: edges are already grouped by source and sorted by target, so each target
+    // index lands at the edge's own position.
+    int[] targets = new int[m];
+    pool.submit(() -> IntStream.range(0, m).parallel()
+        .forEach(edge -> targets[edge] = Arrays.binarySearch(finalIds, target(edges[edge])))).join();
+    return new CsrGraph(finalIds, allKeys(n), offsets, targets);
+  }
+
+  private static long[] allKeys(int n) {
+    long[] keys = new long[(n + 63) >>> 6];
+    Arrays.fill(keys, -1L);
+    if ((n & 63) != 0) keys[keys.length - 1] = (1L << n) - 1;
+    return keys;
+  }
+
+  /**
+   * A minimal RFC 4180 reader that decodes each field straight from the bytes.
+   */
+  private static final class CsvReader implements AutoCloseable {
+    private final InputStream in;
+    private byte[] field = new byte[64];
+    private int line;
+    private int pending = -2;
+
+    CsvReader(InputStream in) {
+      this.in = new BufferedInputStream(in, 1 << 16);
+    }
+
+    int line() {
+      return line;
+    }
+
+    /**
+     * Reads the next row into fields.
+     *
+     * @return false at the end of the input
+     */
+    boolean readRow(List<String> fields) throws IOException {
+      fields.clear();
+      int c = read();
+      if (c < 0) return false;
+      line++;
+      int length = 0;
+      boolean quoted = false;
+      while (true) {
+        if (quoted) {
+          if (c < 0) throw new IOException("line " + line + ": unterminated quoted field");
+          if (c == '"') {
+            c = read();
+            if (c != '"') {
+              quoted = false;
+              continue;
+            }
+          } else if (c == '\n') {
+            line++;
+          }
+          length = append(length, c);
+        } else if (c == '"' && length == 0) {
+          quoted = true;
+        } else if (c == ',' || c == '\n' || c < 0) {
+          fields.add(new String(field, 0, length, StandardCharsets.UTF_8));
+          length = 0;
+          if (c != ',') return true;
+        } else if (c == '\r') {
+          int next = read();
+          if (next != '\n') length = append(length, c);
+          unread(next);
+        } else {
+          length = append(length, c);
+        }
+        c = read();
+      }
+    }
+
+    private int append(int length, int c) {
+      if (length == field.length) field = Arrays.copyOf(field, length * 2);
+      field[length] = (byte) c;
+      return length + 1;
+    }
+
+    private int read() throws IOException {
+      if (pending != -2) {
+        int c = pending;
+        pending = -2;
+        return c;
+      }
+      return in.read();
+    }
+
+    private void unread(int c) {
+      pending = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,156 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+public class EdgeListLoaderTest {
+
+  @TempDir
+  Path dir;
+
+  private static void assertSameGraph(Map<Integer, Set<Integer>> expected, IntGraph actual) {
+    CsrGraph csr = CsrGraph.fromMap(expected);
+    assertEquals(csr.vertexCount(), actual.vertexCount());
+    assertEquals(csr.edgeCount(), actual.edgeCount());
+    IntGraph.Cursor want = csr.cursor();
+    IntGraph.Cursor got = actual.cursor();
+    for (int i = 0; i < csr.vertexCount(); i++) {
+      assertEquals(csr.idOf(i), actual.idOf(i));
+      assertTrue(actual.isKey(i));
+      want.of(i);
+      got.of(i);
+      for (int next = want.next(); next >= 0; next = want.next()) {
+        assertEquals(next, got.next());
+      }
+      assertEquals(-1, got.next());
+    }
+  }
+
+  @Test
+  public void testLoad_CommentsDuplicatesAndLineEnds() throws IOException {
+    Path file = dir.resolve("small.txt");
+    Files.writeString(file, "# a comment\n"
+        + "% another\n"
+        + "1 2\n"
+        + "1\t3\r\n"
+        + "\n"
+        + "  2 -5 0.75\n"
+        + "1 2\n"
+        + "-5,1\n"
+        + "7 7");
+    CsrGraph graph = EdgeListLoader.load(file);
+
+    Map<Integer, Set<Integer>> expected = new HashMap<>();
+    expected.put(1, new HashSet<>(Arrays.asList(2, 3)));
+    expected.put(2, new HashSet<>(Arrays.asList(-5)));
+    expected.put(3, new HashSet<>());
+    expected.put(-5, new HashSet<>(Arrays.asList(1)));
+    expected.put(7, new HashSet<>(Arrays.asList(7)));
+    assertSameGraph(expected, graph);
+    assertTrue(Practice.positivePathExists(graph, 1, 3));
+    assertFalse(Practice.positivePathExists(graph, 2, 1));
+  }
+
+  @Test
+  public void testLoad_ManyChunksMatchMap() throws IOException {
+    // Large enough for several 1 MiB chunks, so lines are cut at chunk boundaries.
+    Random random = new Random(19);
+    Map<Integer, Set<Integer>> expected = new HashMap<>();
+    Path file = dir.resolve("large.txt");
+    try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+      for (int i = 0; i < 300_000; i++) {
+        int src = random.nextInt(20_000) - 10_000;
+        int dst = random.nextInt(20_000) - 10_000;
+        expected.computeIfAbsent(src, k -> new HashSet<>()).add(dst);
+        expected.computeIfAbsent(dst, k -> new HashSet<>());
+        out.write(src + " " + dst + "\n");
+      }
+    }
+    assertTrue(Files.size(file) > 3 << 20);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertSameGraph(expected, EdgeListLoader.load(file, pool));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testLoad_SparseIds() throws IOException {
+    // Ids spread over the whole int range take the binary search path instead of the bitmap.
+    Path file = dir.resolve("sparse.txt");
+    Files.writeString(file, "2147483647 -2147483648\n-2147483648 0\n0 2147483647\n5 0\n");
+    Map<Integer, Set<Integer>> expected = new HashMap<>();
+    expected.put(Integer.MAX_VALUE, new HashSet<>(Arrays.asList(Integer.MIN_VALUE)));
+    expected.put(Integer.MIN_VALUE, new HashSet<>(Arrays.asList(0)));
+    expected.put(0, new HashSet<>(Arrays.asList(Integer.MAX_VALUE)));
+    expected.put(5, new HashSet<>(Arrays.asList(0)));
+    assertSameGraph(expected, EdgeListLoader.load(file));
+  }
+
+  @Test
+  public void testLoad_RejectsMalformedLines() throws IOException {
+    for (String text : new String[]{"1 2\n3\n", "1 x\n", "1 2x\n", "12-3\n", "1 2147483648\n"}) {
+      Path file = dir.resolve("bad.txt");
+      Files.writeString(file, text);
+      assertThrows(IOException.class, () -> EdgeListLoader.load(file), text);
+    }
+    Path empty = dir.resolve("empty.txt");
+    Files.writeString(empty, "");
+    assertEquals(0, EdgeListLoader.load(empty).vertexCount());
+  }
+
+  @Test
+  public void testToVertices_AnswersLikeGraph() throws IOException {
+    Path file = dir.resolve("vertices.txt");
+    Files.writeString(file, "5 8\n5 9\n8 2\n9 2\n4 2\n2 5\n");
+    CsrGraph graph = EdgeListLoader.load(file);
+    List<Vertex<Integer>> vertices = EdgeListLoader.toVertices(graph);
+    assertEquals(graph.vertexCount(), vertices.size());
+    for (int i = 0; i < vertices.size(); i++) {
+      int[] expected = Practice.sortedReachable(graph, graph.idOf(i));
+      assertEquals(expected.length, Practice.sortedReachable(vertices.get(i)).size());
+      for (int k = 0; k < expected.length; k++) {
+        assertEquals(expected[k], Practice.sortedReachable(vertices.get(i)).getInt(k));
+      }
+    }
+    List<Vertex<String>> named = EdgeListLoader.toVertices(graph, i -> "v" + graph.idOf(i));
+    assertEquals("v2", named.get(0).data);
+    assertEquals("v5", named.get(0).neighbors.get(0).data);
+  }
+
+  @Test
+  public void testLoadProfessionals() throws IOException {
+    Path file = dir.resolve("people.csv");
+    Files.writeString(file, "name,company,yearsOfExperience,connections\n"
+        + "Ada,Acme,10,\"Bob;Smith, Jr.\"\n"
+        + "Bob,\"Initech \"\"East\"\"\",3,\r\n"
+        + "\"Smith, Jr.\",Globex,7,Ada\n");
+    List<Professional> people = EdgeListLoader.loadProfessionals(file);
+    assertEquals(3, people.size());
+    Professional ada = people.get(0);
+    Professional bob = people.get(1);
+    Professional smith = people.get(2);
+    assertEquals("Acme", ada.getCompany());
+    assertEquals(10, ada.getYearsOfExperience());
+    assertEquals("Initech \"East\"", bob.getCompany());
+    assertEquals("Smith, Jr.", smith.getName());
+    assertEquals(Set.of(bob, smith), ada.getConnections());
+    assertTrue(bob.getConnections().isEmpty());
+    assertTrue(Practice.hasExtendedConnectionAtCompany(smith, "Initech \"East\""));
+    assertFalse(Practice.hasExtendedConnectionAtCompany(bob, "Acme"));
+
+    Path unknown = dir.resolve("unknown.csv");
+    Files.writeString(unknown, "Ada,Acme,10,Zed\n");
+    assertThrows(IOException.class, () -> EdgeListLoader.loadProfessionals(unknown));
+    Path duplicate = dir.resolve("duplicate.csv");
+    Files.writeString(duplicate, "Ada,Acme,10,\nAda,Acme,11,\n");
+    assertThrows(IOException.class, () -> EdgeListLoader.loadProfessionals(duplicate));
+  }
+}
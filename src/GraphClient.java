@@ -0,0 +1,193 @@
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A blocking client for GraphServer.
+ *
+ * The query methods send one request and wait for its answer. To pipeline, call send for each
+ * query, flush once, then call receive once per query sent; replies come back in request order.
+ * A client is one connection and is not thread-safe.
+ */
+public final class GraphClient implements AutoCloseable {
+  private final SocketChannel channel;
+  private ByteBuffer out = ByteBuffer.allocate(8192);
+  private ByteBuffer in = ByteBuffer.allocate(8192);
+  private int nextRequestId;
+
+  private GraphClient(SocketChannel channel) {
+    this.channel = channel;
+    in.flip();
+  }
+
+  /**
+   * Connects to a server over TCP or a Unix domain socket.
+   *
+   * @param address the server address
+   * @return the connected client
+   * @throws IOException if the connection fails
+   */
+  public static GraphClient connect(SocketAddress address) throws IOException {
+    SocketChannel channel = address instanceof UnixDomainSocketAddress
+        ? SocketChannel.open(StandardProtocolFamily.UNIX)
+        : SocketChannel.open();
+    try {
+      channel.connect(address);
+      if (!(address instanceof UnixDomainSocketAddress)) channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      return new GraphClient(channel);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public boolean twoWay(int id1, int id2) throws IOException {
+    return call(GraphQuery.twoWay(id1, id2)).asBoolean();
+  }
+
+  public boolean positivePathExists(int starting, int ending) throws IOException {
+    return call(GraphQuery.positivePathExists(starting, ending)).asBoolean();
+  }
+
+  public int[] sortedReachable(int starting) throws IOException {
+    return call(GraphQuery.sortedReachable(starting)).asInts();
+  }
+
+  public int oddVertices(int starting) throws IOException {
+    return call(GraphQuery.oddVertices(starting)).asInt();
+  }
+
+  public boolean hasExtendedConnectionAtCompany(int person, String companyName) throws IOException {
+    return call(GraphQuery.hasExtendedConnectionAtCompany(person, companyName)).asBoolean();
+  }
+
+  /**
+   * Buffers a request without sending it.
+   *
+   * @param query the query
+   * @return the request id its reply will carry
+   */
+  public int send(GraphQuery query) {
+    int length = 4 + query.encodedLength();
+    if (out.remaining() < 4 + length) {
+      ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + 4 + length));
+      out.flip();
+      out = bigger.put(out);
+    }
+    int requestId = nextRequestId++;
+    out.putInt(length);
+    out.putInt(requestId);
+    query.write(out);
+    return requestId;
+  }
+
+  /**
+   * Writes every buffered request to the server.
+   */
+  public void flush() throws IOException {
+    out.flip();
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+    out.clear();
+  }
+
+  /**
+   * Waits for the next reply.
+   *
+   * @return the reply
+   * @throws IOException if the connection fails or closes
+   */
+  public Reply receive() throws IOException {
+    fill(4);
+    int length = in.getInt();
+    if (length < 5) throw new IOException("bad frame length " + length);
+    fill(length);
+    int requestId = in.getInt();
+    byte[] body = new byte[length - 4];
+    in.get(body);
+    return new Reply(requestId, ByteBuffer.wrap(body));
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private Reply call(GraphQuery query) throws IOException {
+    send(query);
+    flush();
+    return receive();
+  }
+
+  private void fill(int bytes) throws IOException {
+    if (in.remaining() >= bytes) return;
+    in.compact();
+    if (in.capacity() < bytes) {
+      ByteBuffer bigger = ByteBuffer.allocate(Math.max(bytes, in.capacity() * 2));
+      in.flip();
+      in = bigger.put(in);
+    }
+    while (in.position() < bytes) {
+      if (channel.read(in) < 0) throw new IOException("server closed the connection");
+    }
+    in.flip();
+  }
+
+  /**
+   * One reply from the server.
+   */
+  public static final class Reply {
+    private final int requestId;
+    private final ByteBuffer body;
+
+    Reply(int requestId, ByteBuffer body) {
+      this.requestId = requestId;
+      this.body = body;
+    }
+
+    public int requestId() {
+      return requestId;
+    }
+
+    public boolean isError() {
+      return body.get(0) == GraphServer.ERROR;
+    }
+
+    /**
+     * @return the server's error message, or null if the query succeeded
+     */
+    public String error() {
+      if (!isError()) return null;
+      int length = body.getShort(1) & 0xffff;
+      return new String(body.array(), 3, length, StandardCharsets.UTF_8);
+    }
+
+    public boolean asBoolean() {
+      check();
+      return body.get(1) != 0;
+    }
+
+    public int asInt() {
+      check();
+      return body.getInt(1);
+    }
+
+    public int[] asInts() {
+      check();
+      int[] values = new int[body.getInt(1)];
+      body.position(5);
+      body.asIntBuffer().get(values);
+      return values;
+    }
+
+    private void check() {
+      if (isError()) throw new IllegalStateException("query failed: " + error());
+    }
+  }
+}
@@ -0,0 +1,284 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and writes the binary graph file format.
+ *
+ * All values are little-endian and every section starts on an 8-byte boundary:
+ * <pre>
+ *   header       magic int, version int, flags int, vertexCount int, edgeCount long, reserved long
+ *   ids          int[vertexCount]          ascending vertex ids
+ *   keys         long[(vertexCount+63)/64] bit i set when vertex i was a map key
+ *   offsets      int[vertexCount + 1]      CSR edge offsets
+ *   targets      int[edgeCount]            CSR neighbor indices
+ *   reverse      int[vertexCount + 1], int[edgeCount]     if FLAG_REVERSE
+ *   int column   int[vertexCount]                         if FLAG_INT_COLUMN
+ *   text column  int[vertexCount + 1] byte offsets, UTF-8 bytes     if FLAG_STRING_COLUMN
+ * </pre>
+ *
+ * open maps each section with FileChannel.map, so a loaded graph is read straight from the page
+ * cache with no copy onto the heap. Each section must fit in one mapping (2 GiB).
+ */
+public final class GraphFile {
+  static final int MAGIC = 0x48505247; // "GRPH" read as little-endian bytes
+  static final int VERSION = 1;
+  static final int FLAG_REVERSE = 1;
+  static final int FLAG_INT_COLUMN = 1 << 1;
+  static final int FLAG_STRING_COLUMN = 1 << 2;
+  static final int HEADER_BYTES = 32;
+
+  private GraphFile() {
+  }
+
+  /**
+   * Writes the map representation used by Practice, with its reverse edges.
+   *
+   * @param path the file to create or replace
+   * @param graph a map where each key is a vertex and its value is the set of its neighbors
+   * @throws IOException if the file cannot be written
+   */
+  public static void writeMap(Path path, Map<Integer, Set<Integer>> graph) throws IOException {
+    write(path, CsrGraph.fromMap(graph), true, null, null);
+  }
+
+  /**
+   * Writes every vertex reachable from the given roots, with its reverse edges. Vertex ids in the
+   * file are snapshot indices; the vertex data goes into the int column when every value is an
+   * Integer and into the text column (as String.valueOf) otherwise.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param path the file to create or replace
+   * @param roots the vertices to start from
+   * @throws IOException if the file cannot be written
+   */
+  public static <T> void writeVertices(Path path, Collection<? extends Vertex<T>> roots) throws IOException {
+    GraphSnapshot<Vertex<T>> snapshot = GraphSnapshot.ofVertices(roots);
+    int n = snapshot.size();
+    int[] ints = new int[n];
+    String[] strings = new String[n];
+    boolean allInts = true;
+    for (int i = 0; i < n; i++) {
+      T data = snapshot.node(i).data;
+      if (data instanceof Integer) ints[i] = (Integer) data; else allInts = false;
+      strings[i] = String.valueOf(data);
+    }
+    write(path, snapshot.graph(), true, allInts ? ints : null, allInts ? null : strings);
+  }
+
+  /**
+   * Writes an int graph with optional reverse edges and payload columns.
+   *
+   * @param path the file to create or replace
+   * @param graph the graph to write
+   * @param includeReverse whether to store the reverse edges so reverse() needs no heap copy
+   * @param intColumn one int per vertex index, or null
+   * @param stringColumn one string per vertex index, or null
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path path, IntGraph graph, boolean includeReverse, int[] intColumn,
+      String[] stringColumn) throws IOException {
+    int n = graph.vertexCount();
+    long m = graph.edgeCount();
+    if (m > Integer.MAX_VALUE) throw new IllegalArgumentException("too many edges for format version 1: " + m);
+    if (!graph.idOrdered()) throw new IllegalArgumentException("graph files need indices in ascending id order");
+    if (intColumn != null && intColumn.length != n) throw new IllegalArgumentException("int column length != vertex count");
+    if (stringColumn != null && stringColumn.length != n) throw new IllegalArgumentException("text column length != vertex count");
+
+    int flags = (includeReverse ? FLAG_REVERSE : 0)
+        | (intColumn != null ? FLAG_INT_COLUMN : 0)
+        | (stringColumn != null ? FLAG_STRING_COLUMN : 0);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      Output out = new Output(channel);
+      out.putInt(MAGIC);
+      out.putInt(VERSION);
+      out.putInt(flags);
+      out.putInt(n);
+      out.putLong(m);
+      out.putLong(0);
+
+      for (int i = 0; i < n; i++) {
+        out.putInt(graph.idOf(i));
+      }
+      out.align();
+      for (int word = 0; word < (n + 63) >>> 6; word++) {
+        long bits = 0;
+        for (int i = word << 6; i < Math.min(n, (word + 1) << 6); i++) {
+          if (graph.isKey(i)) bits |= 1L << i;
+        }
+        out.putLong(bits);
+      }
+      writeEdges(out, graph);
+      if (includeReverse) writeEdges(out, graph.reverse());
+      if (intColumn != null) {
+        for (int value : intColumn) {
+          out.putInt(value);
+        }
+        out.align();
+      }
+      if (stringColumn != null) {
+        byte[][] encoded = new byte[n][];
+        int offset = 0;
+        out.putInt(0);
+        for (int i = 0; i < n; i++) {
+          encoded[i] = stringColumn[i] == null ? new byte[0] : stringColumn[i].getBytes(StandardCharsets.UTF_8);
+          offset = Math.addExact(offset, encoded[i].length);
+          out.putInt(offset);
+        }
+        out.align();
+        for (byte[] bytes : encoded) {
+          out.putBytes(bytes);
+        }
+        out.align();
+      }
+      out.flush();
+    }
+  }
+
+  /**
+   * Maps a graph file into memory.
+   *
+   * @param path the file to open
+   * @return a graph reading directly from the mapped file
+   * @throws IOException if the file cannot be read or is not a graph file of a supported version
+   */
+  public static MappedGraph open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = map(channel, 0, HEADER_BYTES);
+      if (header.getInt(0) != MAGIC) throw new IOException("not a graph file: " + path);
+      if (header.getInt(4) != VERSION) throw new IOException("unsupported graph file version " + header.getInt(4));
+      int flags = header.getInt(8);
+      int n = header.getInt(12);
+      long m = header.getLong(16);
+
+      long position = HEADER_BYTES;
+      ByteBuffer ids = map(channel, position, 4L * n);
+      position = align(position + 4L * n);
+      ByteBuffer keys = map(channel, position, 8L * ((n + 63) >>> 6));
+      position += 8L * ((n + 63) >>> 6);
+      ByteBuffer offsets = map(channel, position, 4L * (n + 1));
+      position = align(position + 4L * (n + 1));
+      ByteBuffer targets = map(channel, position, 4L * m);
+      position = align(position + 4L * m);
+
+      ByteBuffer reverseOffsets = null;
+      ByteBuffer reverseTargets = null;
+      if ((flags & FLAG_REVERSE) != 0) {
+        reverseOffsets = map(channel, position, 4L * (n + 1));
+        position = align(position + 4L * (n + 1));
+        reverseTargets = map(channel, position, 4L * m);
+        position = align(position + 4L * m);
+      }
+      ByteBuffer intColumn = null;
+      if ((flags & FLAG_INT_COLUMN) != 0) {
+        intColumn = map(channel, position, 4L * n);
+        position = align(position + 4L * n);
+      }
+      ByteBuffer stringOffsets = null;
+      ByteBuffer stringBytes = null;
+      if ((flags & FLAG_STRING_COLUMN) != 0) {
+        stringOffsets = map(channel, position, 4L * (n + 1));
+        position = align(position + 4L * (n + 1));
+        stringBytes = map(channel, position, stringOffsets.getInt(4 * n));
+      }
+      return new MappedGraph(n, m, ids.asIntBuffer(), keys.asLongBuffer(), offsets.asIntBuffer(),
+          targets.asIntBuffer(), reverseOffsets == null ? null : reverseOffsets.asIntBuffer(),
+          reverseTargets == null ? null : reverseTargets.asIntBuffer(),
+          intColumn == null ? null : intColumn.asIntBuffer(),
+          stringOffsets == null ? null : stringOffsets.asIntBuffer(), stringBytes);
+    }
+  }
+
+  private static void writeEdges(Output out, IntGraph graph) throws IOException {
+    int n = graph.vertexCount();
+    long edge = 0;
+    out.putInt(0);
+    for (int i = 0; i < n; i++) {
+      edge += graph.degree(i);
+      out.putInt((int) edge);
+    }
+    out.align();
+    IntGraph.Cursor cursor = graph.cursor();
+    for (int i = 0; i < n; i++) {
+      cursor.of(i);
+      for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+        out.putInt(next);
+      }
+    }
+    out.align();
+  }
+
+  private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+    if (size > Integer.MAX_VALUE) throw new IOException("graph file section larger than 2 GiB");
+    if (position + size > channel.size()) throw new IOException("graph file is truncated");
+    return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static long align(long position) {
+    return (position + 7) & ~7L;
+  }
+
+  /**
+   * Buffered little-endian writer that tracks its position for alignment padding.
+   */
+  private static final class Output {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+    private long position;
+
+    Output(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    void putInt(int value) throws IOException {
+      if (buffer.remaining() < 4) drain();
+      buffer.putInt(value);
+      position += 4;
+    }
+
+    void putLong(long value) throws IOException {
+      if (buffer.remaining() < 8) drain();
+      buffer.putLong(value);
+      position += 8;
+    }
+
+    void putBytes(byte[] bytes) throws IOException {
+      int offset = 0;
+      while (offset < bytes.length) {
+        if (!buffer.hasRemaining()) drain();
+        int length = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.put(bytes, offset, length);
+        offset += length;
+      }
+      position += bytes.length;
+    }
+
+    void align() throws IOException {
+      while ((position & 7) != 0) {
+        if (!buffer.hasRemaining()) drain();
+        buffer.put((byte) 0);
+        position++;
+      }
+    }
+
+    void flush() throws IOException {
+      drain();
+    }
+
+    private void drain() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+}
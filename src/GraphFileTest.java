@@ -0,0 +1,82 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class GraphFileTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  public void testMapGraph_RoundTripAnswersLikeMap() throws IOException {
+    // 10 -> {20, 30}, 20 -> {-50}, 30 -> {20, 70}, -50 -> {90}, 70 -> {}, 90 -> {}, plus 40 -> {90}
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(10, new HashSet<>(Arrays.asList(20, 30)));
+    graph.put(20, new HashSet<>(Arrays.asList(-50)));
+    graph.put(30, new HashSet<>(Arrays.asList(20, 70)));
+    graph.put(-50, new HashSet<>(Arrays.asList(90)));
+    graph.put(70, new HashSet<>());
+    graph.put(90, new HashSet<>());
+    graph.put(40, new HashSet<>(Arrays.asList(90, 99)));
+    Path file = dir.resolve("map.graph");
+    GraphFile.writeMap(file, graph);
+
+    MappedGraph mapped = GraphFile.open(file);
+    assertEquals(8, mapped.vertexCount());
+    assertEquals(8, mapped.edgeCount());
+    for (int starting : new int[]{10, 20, -50, 40, 99, 5}) {
+      List<Integer> expected = Practice.sortedReachable(graph, starting);
+      int[] actual = Practice.sortedReachable(mapped, starting);
+      assertEquals(expected.size(), actual.length);
+      for (int i = 0; i < actual.length; i++) {
+        assertEquals(expected.get(i), actual[i]);
+      }
+      for (int ending : new int[]{10, 20, 30, 70, 90, 99}) {
+        assertEquals(Practice.positivePathExists(graph, starting, ending),
+            Practice.positivePathExists(mapped, starting, ending));
+      }
+    }
+  }
+
+  @Test
+  public void testVertexGraph_PayloadColumns() throws IOException {
+    Vertex<Integer> v5 = new Vertex<>(5);
+    Vertex<Integer> v8 = new Vertex<>(8);
+    Vertex<Integer> v2 = new Vertex<>(2);
+    v5.neighbors.add(v8);
+    v8.neighbors.add(v2);
+    v2.neighbors.add(v5);
+    Path ints = dir.resolve("ints.graph");
+    GraphFile.writeVertices(ints, List.of(v5));
+
+    MappedGraph mapped = GraphFile.open(ints);
+    assertTrue(mapped.hasIntColumn());
+    assertFalse(mapped.hasStringColumn());
+    assertEquals(5, mapped.intValue(0));
+    assertEquals(8, mapped.intValue(1));
+    assertEquals(2, mapped.intValue(2));
+    assertTrue(BidirectionalSearch.reaches(mapped, 2, 1));
+
+    Vertex<String> a = new Vertex<>("\u00dcn\u00efcode");
+    Vertex<String> b = new Vertex<>("b");
+    a.neighbors.add(b);
+    Path strings = dir.resolve("strings.graph");
+    GraphFile.writeVertices(strings, List.of(a));
+    MappedGraph text = GraphFile.open(strings);
+    assertTrue(text.hasStringColumn());
+    assertEquals("\u00dcn\u00efcode", text.stringValue(0));
+    assertEquals("b", text.stringValue(1));
+    assertFalse(BidirectionalSearch.reaches(text, 1, 0));
+  }
+
+  @Test
+  public void testOpen_RejectsForeignFile() throws IOException {
+    Path file = dir.resolve("junk.graph");
+    Files.write(file, new byte[64]);
+    assertThrows(IOException.class, () -> GraphFile.open(file));
+  }
+}
@@ -0,0 +1,48 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Random graphs shared by the tests, in the map representation used by Practice.
+ */
+final class GraphFixtures {
+  private static final int NON_KEY_IDS = 50;
+
+  private GraphFixtures() {
+  }
+
+  /**
+   * Draws a random graph. Keys are drawn from [minId, maxId), so there may be fewer than vertices
+   * of them. Each edge leaves a random key; it leads to another random key, or with probability
+   * nonKeyShare to an id in [maxId, maxId + 50) that is never a key, so some vertices are only
+   * ever neighbors.
+   *
+   * @param seed the random seed
+   * @param vertices the number of key draws
+   * @param edges the number of edge draws; repeated edges collapse
+   * @param minId the smallest key id
+   * @param maxId one past the largest key id, and the smallest neighbor-only id
+   * @param nonKeyShare the share of edges that lead to a neighbor-only vertex
+   * @return the graph
+   */
+  static Map<Integer, Set<Integer>> randomMap(long seed, int vertices, int edges, int minId, int maxId,
+      double nonKeyShare) {
+    Random random = new Random(seed);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < vertices; i++) {
+      graph.put(minId + random.nextInt(maxId - minId), new HashSet<>());
+    }
+    List<Integer> keys = new ArrayList<>(graph.keySet());
+    for (int i = 0; i < edges; i++) {
+      int from = keys.get(random.nextInt(keys.size()));
+      int to = random.nextDouble() < nonKeyShare ? maxId + random.nextInt(NON_KEY_IDS)
+          : keys.get(random.nextInt(keys.size()));
+      graph.get(from).add(to);
+    }
+    return graph;
+  }
+}
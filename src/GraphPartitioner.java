@@ -0,0 +1,445 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Splits an int graph into shards for ShardWorker processes.
+ *
+ * hash places each vertex by a mix of its id, so any process can compute the owner of an id
+ * without a lookup table, but it cuts almost every edge. labelPropagation starts from two
+ * candidate assignments: communities found by label propagation and packed into shards, and
+ * contiguous slices of a BFS order. It refines each by repeatedly moving every vertex to the shard
+ * most of its neighbors (in either direction) are in, as long as that shard stays under its size
+ * cap, and keeps the one that cuts fewer edges. It usually keeps most edges inside a shard, so
+ * distributed traversals cross fewer boundaries.
+ *
+ * Map and Vertex graphs are partitioned through their CSR form: CsrGraph.fromMap, or
+ * GraphSnapshot.ofVertices(roots).graph() with the vertex data as a string column.
+ */
+public final class GraphPartitioner {
+  /** How far a label propagation shard may grow past an even split. */
+  static final double DEFAULT_IMBALANCE = 0.05;
+  static final int DEFAULT_ROUNDS = 20;
+
+  private GraphPartitioner() {
+  }
+
+  /**
+   * Assigns vertices to shards by hashing their ids.
+   *
+   * @param graph the graph to split
+   * @param shards the number of shards
+   * @return the partition
+   */
+  public static Partition hash(IntGraph graph, int shards) {
+    checkShards(shards);
+    int[] shardOf = new int[graph.vertexCount()];
+    for (int i = 0; i < shardOf.length; i++) {
+      shardOf[i] = hashShard(graph.idOf(i), shards);
+    }
+    return new Partition(shardOf, shards);
+  }
+
+  /**
+   * Assigns vertices to shards with size-capped label propagation, using default settings.
+   *
+   * @param graph the graph to split
+   * @param shards the number of shards
+   * @return the partition
+   */
+  public static Partition labelPropagation(IntGraph graph, int shards) {
+    return labelPropagation(graph, shards, DEFAULT_ROUNDS, DEFAULT_IMBALANCE, 1);
+  }
+
+  /**
+   * Assigns vertices to shards with size-capped label propagation.
+   *
+   * @param graph the graph to split
+   * @param shards the number of shards
+   * @param rounds the most passes over all vertices; stops early once almost nothing moves
+   * @param imbalance how far a shard may grow past vertexCount / shards, as a fraction
+   * @param seed seeds the order vertices are visited in
+   * @return the partition
+   */
+  public static Partition labelPropagation(IntGraph graph, int shards, int rounds, double imbalance, long seed) {
+    checkShards(shards);
+    if (imbalance < 0) throw new IllegalArgumentException("imbalance must not be negative: " + imbalance);
+    int n = graph.vertexCount();
+    int capacity = (int) Math.min(n, Math.ceil((double) n / shards * (1 + imbalance)));
+    IntGraph reverse = graph.reverse();
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    Random random = new Random(seed);
+    // Neither starting point wins everywhere: packed communities suit clustered graphs, BFS slices
+    // suit skewed ones whose core touches everything. Refine both and keep the smaller cut.
+    Partition best = null;
+    long bestCut = Long.MAX_VALUE;
+    for (int[] shardOf : List.of(packCommunities(graph, reverse, shards, capacity, rounds, random, order),
+        bfsSlices(graph, reverse, shards))) {
+      refine(graph, reverse, shardOf, shards, capacity, rounds, random, order);
+      Partition partition = new Partition(shardOf, shards);
+      long cut = partition.edgeCut(graph);
+      if (cut < bestCut) {
+        best = partition;
+        bestCut = cut;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Moves each vertex, in random order, to the shard most of its neighbors are in while that shard
+   * has room, until a round moves almost nothing.
+   */
+  private static void refine(IntGraph graph, IntGraph reverse, int[] shardOf, int shards, int capacity, int rounds,
+      Random random, int[] order) {
+    int n = graph.vertexCount();
+    int[] sizes = new int[shards];
+    for (int shard : shardOf) {
+      sizes[shard]++;
+    }
+    int[] votes = new int[shards];
+    int[] touched = new int[shards];
+    IntGraph.Cursor out = graph.cursor();
+    IntGraph.Cursor in = reverse.cursor();
+    for (int round = 0; round < rounds; round++) {
+      shuffle(order, random);
+      int moved = 0;
+      for (int vertex : order) {
+        int current = shardOf[vertex];
+        int distinct = 0;
+        for (int pass = 0; pass < 2; pass++) {
+          IntGraph.Cursor cursor = (pass == 0 ? out : in).of(vertex);
+          for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+            int shard = shardOf[next];
+            if (votes[shard]++ == 0) touched[distinct++] = shard;
+          }
+        }
+        // Staying put wins ties, so vertices do not flip back and forth between equal shards.
+        int best = current;
+        int bestVotes = votes[current];
+        for (int k = 0; k < distinct; k++) {
+          int shard = touched[k];
+          if (votes[shard] > bestVotes && sizes[shard] < capacity) {
+            best = shard;
+            bestVotes = votes[shard];
+          }
+          votes[shard] = 0;
+        }
+        if (best != current) {
+          sizes[current]--;
+          sizes[best]++;
+          shardOf[vertex] = best;
+          moved++;
+        }
+      }
+      if (moved <= n / 1000) break;
+    }
+  }
+
+  /**
+   * Writes one shard file per shard into a directory, named shard-0.graph, shard-1.graph and so on.
+   *
+   * @param directory the directory to write into; created if missing
+   * @param graph the partitioned graph
+   * @param companies the company of the vertex at each index, or null
+   * @param partition a partition of graph
+   * @return the shard files, in shard order
+   * @throws IOException if a file cannot be written
+   */
+  public static List<Path> writeShards(Path directory, IntGraph graph, String[] companies, Partition partition)
+      throws IOException {
+    Files.createDirectories(directory);
+    List<Path> files = new ArrayList<>();
+    for (int shard = 0; shard < partition.shardCount(); shard++) {
+      Path file = directory.resolve("shard-" + shard + ".graph");
+      partition.shard(graph, companies, shard).write(file);
+      files.add(file);
+    }
+    return files;
+  }
+
+  /**
+   * Returns the shard hash would assign an id to.
+   */
+  static int hashShard(int id, int shards) {
+    // The finalizer of MurmurHash3, so consecutive ids spread evenly.
+    int h = id;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return Math.floorMod(h, shards);
+  }
+
+  private static void checkShards(int shards) {
+    if (shards < 1) throw new IllegalArgumentException("need at least one shard: " + shards);
+  }
+
+  /**
+   * Finds communities by plain label propagation, each capped at half a shard, then packs them
+   * into shards largest first, each into the least loaded shard. A community that no longer fits
+   * under capacity is dealt out vertex by vertex. Starting from whole communities matters: once
+   * shards are near their cap, single-vertex moves cannot pull a community that is split evenly
+   * between two shards onto one side.
+   */
+  private static int[] packCommunities(IntGraph graph, IntGraph reverse, int shards, int capacity, int rounds,
+      Random random, int[] order) {
+    int n = graph.vertexCount();
+    int[] label = new int[n];
+    int[] members = new int[n];
+    for (int i = 0; i < n; i++) {
+      label[i] = i;
+      members[i] = 1;
+    }
+    int communityCap = Math.max(1, capacity / 2);
+    int[] votes = new int[n];
+    int[] touched = new int[n];
+    IntGraph.Cursor out = graph.cursor();
+    IntGraph.Cursor in = reverse.cursor();
+    for (int round = 0; round < rounds; round++) {
+      shuffle(order, random);
+      int moved = 0;
+      for (int vertex : order) {
+        int current = label[vertex];
+        int distinct = 0;
+        for (int pass = 0; pass < 2; pass++) {
+          IntGraph.Cursor cursor = (pass == 0 ? out : in).of(vertex);
+          for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+            if (votes[label[next]]++ == 0) touched[distinct++] = label[next];
+          }
+        }
+        int best = current;
+        int bestVotes = votes[current];
+        for (int k = 0; k < distinct; k++) {
+          int candidate = touched[k];
+          if (votes[candidate] > bestVotes && members[candidate] < communityCap) {
+            best = candidate;
+            bestVotes = votes[candidate];
+          }
+          votes[candidate] = 0;
+        }
+        if (best != current) {
+          members[current]--;
+          members[best]++;
+          label[vertex] = best;
+          moved++;
+        }
+      }
+      if (moved <= n / 1000) break;
+    }
+
+    // Sort communities by size, largest first, as (size << 32 | label) so equal sizes keep label order.
+    int communities = 0;
+    for (int i = 0; i < n; i++) {
+      if (members[i] > 0) communities++;
+    }
+    long[] bySize = new long[communities];
+    int c = 0;
+    for (int i = 0; i < n; i++) {
+      if (members[i] > 0) bySize[c++] = -((long) members[i] << 32 | (Integer.MAX_VALUE - i));
+    }
+    Arrays.sort(bySize);
+    int[] shardOfLabel = new int[n];
+    int[] loads = new int[shards];
+    for (long packed : bySize) {
+      int community = Integer.MAX_VALUE - (int) (-packed);
+      int lightest = lightest(loads);
+      if (loads[lightest] + members[community] <= capacity) {
+        shardOfLabel[community] = lightest;
+        loads[lightest] += members[community];
+      } else {
+        shardOfLabel[community] = -1;
+      }
+    }
+    int[] shardOf = new int[n];
+    for (int i = 0; i < n; i++) {
+      int shard = shardOfLabel[label[i]];
+      if (shard < 0) {
+        shard = lightest(loads);
+        loads[shard]++;
+      }
+      shardOf[i] = shard;
+    }
+    return shardOf;
+  }
+
+  private static int lightest(int[] loads) {
+    int lightest = 0;
+    for (int shard = 1; shard < loads.length; shard++) {
+      if (loads[shard] < loads[lightest]) lightest = shard;
+    }
+    return lightest;
+  }
+
+  /**
+   * Cuts a BFS order over both edge directions into equal slices, so each shard starts out as a
+   * connected neighborhood rather than a random sample.
+   */
+  private static int[] bfsSlices(IntGraph graph, IntGraph reverse, int shards) {
+    int n = graph.vertexCount();
+    int[] queue = new int[n];
+    boolean[] seen = new boolean[n];
+    IntGraph.Cursor out = graph.cursor();
+    IntGraph.Cursor in = reverse.cursor();
+    int tail = 0;
+    for (int root = 0; root < n; root++) {
+      if (seen[root]) continue;
+      seen[root] = true;
+      int head = tail;
+      queue[tail++] = root;
+      while (head < tail) {
+        int vertex = queue[head++];
+        for (int pass = 0; pass < 2; pass++) {
+          IntGraph.Cursor cursor = (pass == 0 ? out : in).of(vertex);
+          for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+            if (!seen[next]) {
+              seen[next] = true;
+              queue[tail++] = next;
+            }
+          }
+        }
+      }
+    }
+    int[] shardOf = new int[n];
+    for (int position = 0; position < n; position++) {
+      shardOf[queue[position]] = (int) ((long) position * shards / n);
+    }
+    return shardOf;
+  }
+
+  private static void shuffle(int[] order, Random random) {
+    for (int i = order.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = order[i];
+      order[i] = order[j];
+      order[j] = swap;
+    }
+  }
+
+  /**
+   * An assignment of every vertex index of a graph to a shard.
+   */
+  public static final class Partition {
+    private final int[] shardOf;
+    private final int shards;
+
+    Partition(int[] shardOf, int shards) {
+      this.shardOf = shardOf;
+      this.shards = shards;
+    }
+
+    /**
+     * @return the number of shards
+     */
+    public int shardCount() {
+      return shards;
+    }
+
+    /**
+     * @param index a dense vertex index of the partitioned graph
+     * @return the shard that owns it
+     */
+    public int shardOf(int index) {
+      return shardOf[index];
+    }
+
+    /**
+     * @return the number of vertices owned by each shard
+     */
+    public int[] sizes() {
+      int[] sizes = new int[shards];
+      for (int shard : shardOf) {
+        sizes[shard]++;
+      }
+      return sizes;
+    }
+
+    /**
+     * @param graph the partitioned graph
+     * @return the number of edges whose endpoints are owned by different shards
+     */
+    public long edgeCut(IntGraph graph) {
+      long cut = 0;
+      IntGraph.Cursor cursor = graph.cursor();
+      for (int i = 0; i < shardOf.length; i++) {
+        cursor.of(i);
+        for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+          if (shardOf[next] != shardOf[i]) cut++;
+        }
+      }
+      return cut;
+    }
+
+    /**
+     * Extracts one shard: the vertices it owns with their outgoing edges, plus every vertex those
+     * edges lead to in other shards, kept as an edgeless stub tagged with its owner.
+     *
+     * @param graph the partitioned graph
+     * @param companies the company of the vertex at each index, or null
+     * @param shard the shard to extract
+     * @return the shard
+     */
+    public ShardWorker.Shard shard(IntGraph graph, String[] companies, int shard) {
+      if (graph.vertexCount() != shardOf.length) throw new IllegalArgumentException("partition is for another graph");
+      int n = shardOf.length;
+      // Shard files need ascending ids, so included vertices are numbered in id order: index order
+      // for most graphs, the ID permutation for one relabelled by VertexOrdering.
+      int[] byId = graph.idOrdered() ? null : VertexOrdering.permutation(graph, VertexOrdering.Order.ID);
+      int[] local = new int[n];
+      Arrays.fill(local, -1);
+      IntGraph.Cursor cursor = graph.cursor();
+      long edges = 0;
+      for (int i = 0; i < n; i++) {
+        if (shardOf[i] != shard) continue;
+        local[i] = 0;
+        cursor.of(i);
+        for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+          local[next] = 0;
+          edges++;
+        }
+      }
+      int count = 0;
+      for (int rank = 0; rank < n; rank++) {
+        int i = byId == null ? rank : byId[rank];
+        if (local[i] >= 0) local[i] = count++;
+      }
+
+      int[] ids = new int[count];
+      long[] keys = new long[(count + 63) >>> 6];
+      int[] owners = new int[count];
+      String[] shardCompanies = companies == null ? null : new String[count];
+      int[] offsets = new int[count + 1];
+      int[] targets = new int[Math.toIntExact(edges)];
+      int edge = 0;
+      for (int rank = 0; rank < n; rank++) {
+        int i = byId == null ? rank : byId[rank];
+        int index = local[i];
+        if (index < 0) continue;
+        ids[index] = graph.idOf(i);
+        boolean owned = shardOf[i] == shard;
+        owners[index] = owned ? ShardWorker.OWNED : shardOf[i];
+        if (shardCompanies != null && owned) shardCompanies[index] = companies[i];
+        if (owned) {
+          if (graph.isKey(i)) keys[index >>> 6] |= 1L << index;
+          cursor.of(i);
+          int first = edge;
+          for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+            targets[edge++] = local[next];
+          }
+          // Renumbering by id can put a relabelled graph's neighbors out of order.
+          if (byId != null) Arrays.sort(targets, first, edge);
+        }
+        offsets[index + 1] = edge;
+      }
+      return new ShardWorker.Shard(new CsrGraph(ids, keys, offsets, targets), owners, shardCompanies);
+    }
+  }
+}
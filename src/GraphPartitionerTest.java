@@ -0,0 +1,134 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+public class GraphPartitionerTest {
+
+  @TempDir
+  Path dir;
+
+  /** Dense clusters joined by a few random edges, so a good partition cuts far fewer edges than hashing. */
+  private static CsrGraph clustered(int clusters, int size, long seed) {
+    Random random = new Random(seed);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    int n = clusters * size;
+    for (int i = 0; i < n; i++) {
+      Set<Integer> neighbors = new HashSet<>();
+      int base = i / size * size;
+      for (int k = 0; k < 4; k++) {
+        neighbors.add(base + random.nextInt(size));
+      }
+      if (random.nextInt(10) == 0) neighbors.add(random.nextInt(n));
+      graph.put(i, neighbors);
+    }
+    return CsrGraph.fromMap(graph);
+  }
+
+  @Test
+  public void testHash_DependsOnlyOnId() {
+    CsrGraph graph = clustered(4, 100, 1);
+    GraphPartitioner.Partition partition = GraphPartitioner.hash(graph, 3);
+    assertEquals(3, partition.shardCount());
+    for (int i = 0; i < graph.vertexCount(); i++) {
+      assertEquals(GraphPartitioner.hashShard(graph.idOf(i), 3), partition.shardOf(i));
+    }
+    int[] sizes = partition.sizes();
+    assertEquals(graph.vertexCount(), Arrays.stream(sizes).sum());
+    for (int size : sizes) {
+      assertTrue(size > graph.vertexCount() / 4, Arrays.toString(sizes));
+    }
+    assertThrows(IllegalArgumentException.class, () -> GraphPartitioner.hash(graph, 0));
+  }
+
+  @Test
+  public void testLabelPropagation_BalancedAndCutsLessThanHash() {
+    CsrGraph graph = clustered(8, 500, 2);
+    GraphPartitioner.Partition hashed = GraphPartitioner.hash(graph, 4);
+    GraphPartitioner.Partition propagated = GraphPartitioner.labelPropagation(graph, 4);
+    int cap = (int) Math.ceil(graph.vertexCount() / 4.0 * (1 + GraphPartitioner.DEFAULT_IMBALANCE));
+    for (int size : propagated.sizes()) {
+      assertTrue(size <= cap, Arrays.toString(propagated.sizes()));
+    }
+    long hashCut = hashed.edgeCut(graph);
+    long propagatedCut = propagated.edgeCut(graph);
+    assertTrue(propagatedCut * 4 < hashCut, propagatedCut + " vs " + hashCut);
+
+    GraphPartitioner.Partition single = GraphPartitioner.labelPropagation(graph, 1);
+    assertEquals(0, single.edgeCut(graph));
+  }
+
+  @Test
+  public void testShard_OwnedVerticesKeepEdgesStubsNamedOwner() throws IOException {
+    CsrGraph graph = clustered(3, 50, 3);
+    String[] companies = new String[graph.vertexCount()];
+    for (int i = 0; i < companies.length; i++) {
+      companies[i] = "c" + (i % 5);
+    }
+    GraphPartitioner.Partition partition = GraphPartitioner.labelPropagation(graph, 3);
+    List<Path> files = GraphPartitioner.writeShards(dir.resolve("shards"), graph, companies, partition);
+    assertEquals(3, files.size());
+    int owned = 0;
+    for (int s = 0; s < 3; s++) {
+      ShardWorker.Shard shard = ShardWorker.Shard.open(files.get(s));
+      owned += shard.ownedCount();
+      IntGraph local = shard.graph;
+      IntGraph.Cursor cursor = local.cursor();
+      IntGraph.Cursor original = graph.cursor();
+      for (int i = 0; i < local.vertexCount(); i++) {
+        int global = graph.indexOf(local.idOf(i));
+        if (i > 0) assertTrue(local.idOf(i - 1) < local.idOf(i));
+        if (shard.owners[i] == ShardWorker.OWNED) {
+          assertEquals(s, partition.shardOf(global));
+          assertEquals(graph.isKey(global), local.isKey(i));
+          assertEquals(companies[global], shard.companies[i]);
+          cursor.of(i);
+          original.of(global);
+          for (int next = original.next(); next >= 0; next = original.next()) {
+            assertEquals(graph.idOf(next), local.idOf(cursor.next()));
+          }
+          assertEquals(-1, cursor.next());
+        } else {
+          assertEquals(partition.shardOf(global), shard.owners[i]);
+          assertFalse(local.isKey(i));
+          assertEquals(-1, cursor.of(i).next());
+        }
+      }
+    }
+    assertEquals(graph.vertexCount(), owned);
+  }
+
+  @Test
+  public void testShard_RelabelledGraphWritesIdOrderedShards() throws IOException {
+    CsrGraph ordered = clustered(3, 40, 5);
+    CsrGraph graph = VertexOrdering.reorder(ordered, VertexOrdering.Order.RCM);
+    assertFalse(graph.idOrdered());
+    GraphPartitioner.Partition partition = GraphPartitioner.labelPropagation(graph, 2);
+    List<Path> files = GraphPartitioner.writeShards(dir.resolve("relabelled"), graph, null, partition);
+    int owned = 0;
+    for (Path file : files) {
+      ShardWorker.Shard shard = ShardWorker.Shard.open(file);
+      owned += shard.ownedCount();
+      IntGraph local = shard.graph;
+      for (int i = 0; i < local.vertexCount(); i++) {
+        if (i > 0) assertTrue(local.idOf(i - 1) < local.idOf(i));
+        if (shard.owners[i] != ShardWorker.OWNED) continue;
+        IntGraph.Cursor cursor = local.cursor().of(i);
+        List<Integer> actual = new ArrayList<>();
+        for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+          actual.add(local.idOf(next));
+        }
+        // The id-ordered original lists neighbors in ascending id order, as the shard must.
+        List<Integer> expected = new ArrayList<>();
+        IntGraph.Cursor original = ordered.cursor().of(ordered.indexOf(local.idOf(i)));
+        for (int next = original.next(); next >= 0; next = original.next()) {
+          expected.add(ordered.idOf(next));
+        }
+        assertEquals(expected, actual);
+      }
+    }
+    assertEquals(graph.vertexCount(), owned);
+  }
+}
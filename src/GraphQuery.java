@@ -0,0 +1,160 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * One query of the GraphServer protocol, identified by its operation and arguments.
+ *
+ * Queries compare equal when they ask the same question, which is what lets the server answer
+ * identical concurrent queries with a single traversal. Vertex arguments are vertex ids of the
+ * served graph.
+ *
+ * On the wire a query is the operation byte followed by its arguments in big-endian order: two ints
+ * for TWO_WAY and POSITIVE_PATH, one int for SORTED_REACHABLE and ODD_VERTICES, and one int plus a
+ * length-prefixed UTF-8 company name for COMPANY.
+ */
+public final class GraphQuery {
+  public static final byte TWO_WAY = 1;
+  public static final byte POSITIVE_PATH = 2;
+  public static final byte SORTED_REACHABLE = 3;
+  public static final byte ODD_VERTICES = 4;
+  public static final byte COMPANY = 5;
+
+  private final byte op;
+  private final int first;
+  private final int second;
+  private final String company;
+
+  private GraphQuery(byte op, int first, int second, String company) {
+    this.op = op;
+    this.first = first;
+    this.second = second;
+    this.company = company;
+  }
+
+  public static GraphQuery twoWay(int id1, int id2) {
+    return new GraphQuery(TWO_WAY, id1, id2, null);
+  }
+
+  public static GraphQuery positivePathExists(int starting, int ending) {
+    return new GraphQuery(POSITIVE_PATH, starting, ending, null);
+  }
+
+  public static GraphQuery sortedReachable(int starting) {
+    return new GraphQuery(SORTED_REACHABLE, starting, 0, null);
+  }
+
+  public static GraphQuery oddVertices(int starting) {
+    return new GraphQuery(ODD_VERTICES, starting, 0, null);
+  }
+
+  public static GraphQuery hasExtendedConnectionAtCompany(int person, String companyName) {
+    if (companyName.getBytes(StandardCharsets.UTF_8).length > 0xffff) {
+      throw new IllegalArgumentException("company name is longer than 65535 bytes");
+    }
+    return new GraphQuery(COMPANY, person, 0, companyName);
+  }
+
+  public byte op() {
+    return op;
+  }
+
+  public int first() {
+    return first;
+  }
+
+  public int second() {
+    return second;
+  }
+
+  /**
+   * @return the company name of a COMPANY query, otherwise null
+   */
+  public String company() {
+    return company;
+  }
+
+  /**
+   * @return the number of bytes write will produce
+   */
+  int encodedLength() {
+    switch (op) {
+      case TWO_WAY:
+      case POSITIVE_PATH:
+        return 9;
+      case COMPANY:
+        return 7 + company.getBytes(StandardCharsets.UTF_8).length;
+      default:
+        return 5;
+    }
+  }
+
+  void write(ByteBuffer out) {
+    out.put(op);
+    out.putInt(first);
+    switch (op) {
+      case TWO_WAY:
+      case POSITIVE_PATH:
+        out.putInt(second);
+        break;
+      case COMPANY:
+        byte[] name = company.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) name.length);
+        out.put(name);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Reads a query written by write.
+   *
+   * @throws IllegalArgumentException if the operation is unknown or the query is truncated
+   */
+  static GraphQuery read(ByteBuffer in) {
+    if (in.remaining() < 5) throw new IllegalArgumentException("truncated query");
+    byte op = in.get();
+    int first = in.getInt();
+    switch (op) {
+      case TWO_WAY:
+      case POSITIVE_PATH:
+        if (in.remaining() < 4) throw new IllegalArgumentException("truncated query");
+        return new GraphQuery(op, first, in.getInt(), null);
+      case SORTED_REACHABLE:
+      case ODD_VERTICES:
+        return new GraphQuery(op, first, 0, null);
+      case COMPANY: {
+        if (in.remaining() < 2) throw new IllegalArgumentException("truncated query");
+        int length = in.getShort() & 0xffff;
+        if (in.remaining() < length) throw new IllegalArgumentException("truncated query");
+        byte[] name = new byte[length];
+        in.get(name);
+        return new GraphQuery(op, first, 0, new String(name, StandardCharsets.UTF_8));
+      }
+      default:
+        throw new IllegalArgumentException("unknown operation " + op);
+    }
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof GraphQuery)) return false;
+    GraphQuery query = (GraphQuery) other;
+    return op == query.op && first == query.first && second == query.second
+        && Objects.equals(company, query.company);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = op;
+    hash = 31 * hash + first;
+    hash = 31 * hash + second;
+    return 31 * hash + Objects.hashCode(company);
+  }
+
+  @Override
+  public String toString() {
+    return "GraphQuery[op=" + op + ", " + first + ", " + (company != null ? company : second) + "]";
+  }
+}
@@ -0,0 +1,323 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A reachability search with pluggable rules, covering the variants of the Practice queries.
+ *
+ * Every search takes an admissibility test and either a goal test (exists), a filter (count) or a
+ * visitor (forEach). A vertex that fails admissible is never enqueued, so no path passes through
+ * it; the starting vertex must be admissible too. Goals are checked as soon as a vertex is
+ * discovered and the search stops at the first hit. A visitor returns false to stop the search,
+ * which lets callers build any other aggregation with early exit.
+ *
+ * Every variant checks a discovered vertex in the same order: first whether it was already seen,
+ * then admissible. Inadmissible vertices are marked as seen too, so admissible runs at most once
+ * per vertex, and in TraversalMetrics a revisit is any edge to a vertex seen before, admissible or
+ * not, whichever overload ran.
+ *
+ * The int graph and map variants test vertex ids with IntPredicate, so the rules never box.
+ * Vertex searches test the vertex data and run on TraversalEngine; searches over any other object
+ * graph take a function from a node to its neighbors and track visited nodes in a HashSet.
+ *
+ * For example, positivePathExists is exists(graph, starting, id -> id > 0, id -> id == ending).
+ */
+public final class GraphSearch {
+  private static final ThreadLocal<Marks> MARKS = ThreadLocal.withInitial(Marks::new);
+
+  private GraphSearch() {
+  }
+
+  /**
+   * Calls visitor once for every vertex reachable from starting through admissible vertices, in
+   * discovery order, until it returns false.
+   *
+   * @param graph an int graph
+   * @param starting the starting vertex value; must be a key of the graph
+   * @param admissible the test a vertex id must pass to be entered
+   * @param visitor receives each reached vertex id; returns false to stop
+   * @return true if the visitor stopped the search, false if it ran to completion
+   */
+  public static boolean forEach(IntGraph graph, int starting, IntPredicate admissible, IntPredicate visitor) {
+    int start = graph.indexOf(starting);
+    if (start < 0) return false;
+    return forEachIndex(graph, start, index -> admissible.test(graph.idOf(index)),
+        index -> visitor.test(graph.idOf(index)));
+  }
+
+  /**
+   * Same as forEach, but the tests receive dense vertex indices instead of ids, for callers that
+   * keep per-vertex data in columns aligned with the indices.
+   *
+   * @param graph an int graph
+   * @param start the dense index of the starting vertex; must be a key of the graph
+   * @param admissible the test a vertex index must pass to be entered
+   * @param visitor receives each reached vertex index; returns false to stop
+   * @return true if the visitor stopped the search, false if it ran to completion
+   */
+  public static boolean forEachIndex(IntGraph graph, int start, IntPredicate admissible, IntPredicate visitor) {
+    if (start < 0 || start >= graph.vertexCount() || !graph.isKey(start) || !admissible.test(start)) return false;
+    if (!visitor.test(start)) return true;
+    Marks marks = Marks.acquire(graph.vertexCount());
+    IntGraph.Cursor cursor = graph.cursor();
+    long popped = 0;
+    long scanned = 0;
+    long rejected = 0;
+    long maxDepth = 1;
+    boolean stopped = false;
+    try (IntStack stack = new IntStack()) {
+      marks.mark(start);
+      stack.push(start);
+      search:
+      while (!stack.isEmpty()) {
+        cursor.of(stack.pop());
+        if (TraversalMetrics.ENABLED) popped++;
+        for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+          if (TraversalMetrics.ENABLED) scanned++;
+          if (!marks.mark(next)) {
+            if (TraversalMetrics.ENABLED) rejected++;
+            continue;
+          }
+          if (!admissible.test(next)) continue;
+          if (!visitor.test(next)) {
+            stopped = true;
+            break search;
+          }
+          stack.push(next);
+          if (TraversalMetrics.ENABLED) maxDepth = Math.max(maxDepth, stack.size());
+        }
+      }
+      return stopped;
+    } finally {
+      marks.release();
+      if (TraversalMetrics.ENABLED) TraversalMetrics.traversal(popped, scanned, rejected, maxDepth, stopped);
+    }
+  }
+
+  /**
+   * Returns whether a vertex whose id matches goal is reachable from starting through admissible
+   * vertices.
+   *
+   * @param graph an int graph
+   * @param starting the starting vertex value; must be a key of the graph
+   * @param admissible the test a vertex id must pass to be entered
+   * @param goal the test for the vertex being looked for
+   * @return true if a goal vertex is reachable
+   */
+  public static boolean exists(IntGraph graph, int starting, IntPredicate admissible, IntPredicate goal) {
+    return forEach(graph, starting, admissible, id -> !goal.test(id));
+  }
+
+  /**
+   * Counts the vertices reachable from starting through admissible vertices whose ids match filter.
+   *
+   * @param graph an int graph
+   * @param starting the starting vertex value; must be a key of the graph
+   * @param admissible the test a vertex id must pass to be entered
+   * @param filter the test applied to each reached vertex id
+   * @return the number of matching reachable vertices
+   */
+  public static int count(IntGraph graph, int starting, IntPredicate admissible, IntPredicate filter) {
+    int[] count = new int[1];
+    forEach(graph, starting, admissible, id -> {
+      if (filter.test(id)) count[0]++;
+      return true;
+    });
+    return count[0];
+  }
+
+  /**
+   * Point-to-point variant of exists for int graphs, run as a bidirectional search.
+   *
+   * @param graph an int graph
+   * @param starting the starting vertex value
+   * @param ending the ending vertex value
+   * @param admissible the test every vertex on the path, endpoints included, must pass
+   * @return whether an admissible path exists from starting to ending
+   */
+  public static boolean pathExists(IntGraph graph, int starting, int ending, IntPredicate admissible) {
+    return BidirectionalSearch.pathExists(graph, starting, ending, admissible);
+  }
+
+  /**
+   * Map version of forEach, for the representation used by Practice.
+   *
+   * @param graph a map where each key is a vertex and its value is the set of its neighbors
+   * @param starting the starting vertex value; must be a key of the map
+   * @param admissible the test a vertex must pass to be entered
+   * @param visitor receives each reached vertex; returns false to stop
+   * @return true if the visitor stopped the search, false if it ran to completion
+   */
+  public static boolean forEach(Map<Integer, Set<Integer>> graph, int starting, IntPredicate admissible,
+      IntPredicate visitor) {
+    if (!graph.containsKey(starting) || !admissible.test(starting)) return false;
+    if (!visitor.test(starting)) return true;
+    Set<Integer> visited = new HashSet<>();
+    long popped = 0;
+    long scanned = 0;
+    long rejected = 0;
+    long maxDepth = 1;
+    boolean stopped = false;
+    try (IntStack stack = new IntStack()) {
+      visited.add(starting);
+      stack.push(starting);
+      search:
+      while (!stack.isEmpty()) {
+        Set<Integer> neighbors = graph.get(stack.pop());
+        if (TraversalMetrics.ENABLED) popped++;
+        if (neighbors == null) continue;
+        for (Integer neighbor : neighbors) {
+          if (neighbor == null) continue;
+          if (TraversalMetrics.ENABLED) scanned++;
+          if (!visited.add(neighbor)) {
+            if (TraversalMetrics.ENABLED) rejected++;
+            continue;
+          }
+          if (!admissible.test(neighbor)) continue;
+          if (!visitor.test(neighbor)) {
+            stopped = true;
+            break search;
+          }
+          stack.push(neighbor);
+          if (TraversalMetrics.ENABLED) maxDepth = Math.max(maxDepth, stack.size());
+        }
+      }
+    } finally {
+      if (TraversalMetrics.ENABLED) TraversalMetrics.traversal(popped, scanned, rejected, maxDepth, stopped);
+    }
+    return stopped;
+  }
+
+  /**
+   * Map version of exists.
+   *
+   * @param graph a map where each key is a vertex and its value is the set of its neighbors
+   * @param starting the starting vertex value; must be a key of the map
+   * @param admissible the test a vertex must pass to be entered
+   * @param goal the test for the vertex being looked for
+   * @return true if a goal vertex is reachable
+   */
+  public static boolean exists(Map<Integer, Set<Integer>> graph, int starting, IntPredicate admissible,
+      IntPredicate goal) {
+    return forEach(graph, starting, admissible, id -> !goal.test(id));
+  }
+
+  /**
+   * Returns whether a vertex whose data matches goal is reachable from starting through vertices
+   * whose data is admissible.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param starting the starting vertex (may be null)
+   * @param admissible the test a vertex's data must pass to be entered
+   * @param goal the test for the vertex being looked for
+   * @return true if a goal vertex is reachable; false if starting is null
+   */
+  public static <T> boolean exists(Vertex<T> starting, Predicate<? super T> admissible, Predicate<? super T> goal) {
+    if (starting == null) return false;
+    return TraversalEngine.anyMatch(starting, admissible, goal);
+  }
+
+  /**
+   * Counts the vertices reachable from starting through admissible vertices whose data matches
+   * filter.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param starting the starting vertex (may be null)
+   * @param admissible the test a vertex's data must pass to be entered
+   * @param filter the test applied to each reached vertex's data
+   * @return the number of matching reachable vertices; 0 if starting is null
+   */
+  public static <T> int count(Vertex<T> starting, Predicate<? super T> admissible, Predicate<? super T> filter) {
+    if (starting == null) return 0;
+    return TraversalEngine.count(starting, admissible, filter);
+  }
+
+  /**
+   * Returns whether a node matching goal is reachable from starting through admissible nodes, in
+   * any object graph. Nodes are compared with equals and hashCode.
+   *
+   * @param <N> the node type
+   * @param starting the starting node (may be null)
+   * @param neighbors returns the direct neighbors of a node; null entries are skipped
+   * @param admissible the test a node must pass to be entered
+   * @param goal the test for the node being looked for
+   * @return true if a goal node is reachable; false if starting is null
+   */
+  public static <N> boolean exists(N starting, Function<? super N, ? extends Iterable<? extends N>> neighbors,
+      Predicate<? super N> admissible, Predicate<? super N> goal) {
+    if (starting == null || !admissible.test(starting)) return false;
+    if (goal.test(starting)) return true;
+    Set<N> visited = new HashSet<>();
+    ArrayDeque<N> stack = new ArrayDeque<>();
+    long popped = 0;
+    long scanned = 0;
+    long rejected = 0;
+    long maxDepth = 1;
+    boolean found = false;
+    visited.add(starting);
+    stack.push(starting);
+    search:
+    while (!stack.isEmpty()) {
+      Iterable<? extends N> next = neighbors.apply(stack.pop());
+      if (TraversalMetrics.ENABLED) popped++;
+      if (next == null) continue;
+      for (N neighbor : next) {
+        if (neighbor == null) continue;
+        if (TraversalMetrics.ENABLED) scanned++;
+        if (!visited.add(neighbor)) {
+          if (TraversalMetrics.ENABLED) rejected++;
+          continue;
+        }
+        if (!admissible.test(neighbor)) continue;
+        if (goal.test(neighbor)) {
+          found = true;
+          break search;
+        }
+        stack.push(neighbor);
+        if (TraversalMetrics.ENABLED) maxDepth = Math.max(maxDepth, stack.size());
+      }
+    }
+    if (TraversalMetrics.ENABLED) TraversalMetrics.traversal(popped, scanned, rejected, maxDepth, found);
+    return found;
+  }
+
+  /**
+   * Per-thread epoch-stamped visited marks for int graph searches.
+   */
+  private static final class Marks {
+    private int[] marks = new int[0];
+    private int epoch;
+    private boolean inUse;
+
+    static Marks acquire(int vertexCount) {
+      Marks marks = MARKS.get();
+      // A search started from inside a visitor gets its own marks.
+      if (marks.inUse) marks = new Marks();
+      marks.inUse = true;
+      if (marks.marks.length < vertexCount) {
+        marks.marks = new int[vertexCount];
+        marks.epoch = 0;
+      }
+      if (++marks.epoch == 0) {
+        Arrays.fill(marks.marks, 0);
+        marks.epoch = 1;
+      }
+      return marks;
+    }
+
+    boolean mark(int index) {
+      if (marks[index] == epoch) return false;
+      marks[index] = epoch;
+      return true;
+    }
+
+    void release() {
+      inUse = false;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class GraphSearchTest {
+
+  @Test
+  public void testIntGraphAndMap_AgreeOnCustomRules() {
+    Random random = new Random(21);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < 300; i++) {
+      Set<Integer> neighbors = new HashSet<>();
+      for (int e = 0; e < 2; e++) {
+        neighbors.add(random.nextInt(300) - 100);
+      }
+      graph.put(i - 100, neighbors);
+    }
+    CsrGraph csr = CsrGraph.fromMap(graph);
+    for (int q = 0; q < 200; q++) {
+      int starting = random.nextInt(320) - 110;
+      int ending = random.nextInt(320) - 110;
+      // Only even vertices may be passed through: a variant positivePathExists cannot express.
+      boolean expected = GraphSearch.exists(graph, starting, id -> id % 2 == 0, id -> id == ending);
+      assertEquals(expected, GraphSearch.exists(csr, starting, id -> id % 2 == 0, id -> id == ending));
+      assertEquals(expected && graph.containsKey(ending),
+          GraphSearch.pathExists(csr, starting, ending, id -> id % 2 == 0));
+      assertEquals(Practice.positivePathExists(graph, starting, ending),
+          GraphSearch.pathExists(csr, starting, ending, id -> id > 0));
+    }
+    for (int starting = -100; starting < 200; starting += 7) {
+      int reachable = Practice.sortedReachable(graph, starting).size();
+      assertEquals(reachable, GraphSearch.count(csr, starting, id -> true, id -> true));
+    }
+  }
+
+  @Test
+  public void testForEach_StopsAtFirstRejection() {
+    // 1 -> 2 -> 3 -> ... -> 100
+    CsrGraph chain = CsrGraph.fromMap(chainMap(100));
+    List<Integer> seen = new ArrayList<>();
+    assertTrue(GraphSearch.forEach(chain, 1, id -> true, id -> seen.add(id) && id < 5));
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5), seen);
+    seen.clear();
+    assertFalse(GraphSearch.forEach(chain, 1, id -> id != 4, seen::add));
+    assertEquals(Arrays.asList(1, 2, 3), seen);
+    assertFalse(GraphSearch.forEach(chain, 4, id -> id != 4, seen::add));
+    assertEquals(0, GraphSearch.count(chain, 500, id -> true, id -> true));
+  }
+
+  @Test
+  public void testVertexAndObjectGraphs() {
+    // 5 -> 4 -> 7, 5 -> 8 -> 7, 8 -> 9
+    Vertex<Integer> v5 = new Vertex<>(5);
+    Vertex<Integer> v4 = new Vertex<>(4);
+    Vertex<Integer> v8 = new Vertex<>(8);
+    Vertex<Integer> v7 = new Vertex<>(7);
+    Vertex<Integer> v9 = new Vertex<>(9);
+    v5.neighbors.add(v4);
+    v5.neighbors.add(v8);
+    v4.neighbors.add(v7);
+    v8.neighbors.add(v7);
+    v8.neighbors.add(v9);
+    assertEquals(3, GraphSearch.count(v5, value -> true, value -> value % 2 != 0));
+    assertEquals(2, GraphSearch.count(v5, value -> value != 8, value -> value % 2 != 0));
+    assertFalse(GraphSearch.exists(v5, value -> value != 8, value -> value == 9));
+    assertTrue(GraphSearch.exists(v5, value -> value != 4, value -> value == 7));
+    assertFalse(GraphSearch.exists((Vertex<Integer>) null, value -> true, value -> true));
+
+    Professional alice = new Professional("Alice", "Acme", 30, new HashSet<>());
+    Professional bob = new Professional("Bob", "Globex", 40, new HashSet<>());
+    Professional carol = new Professional("Carol", "Initech", 50, new HashSet<>());
+    alice.getConnections().add(bob);
+    bob.getConnections().add(carol);
+    assertTrue(GraphSearch.exists(alice, Professional::getConnections, p -> true,
+        p -> p.getCompany().equals("Initech")));
+    assertFalse(GraphSearch.exists(alice, Professional::getConnections, p -> p.getYearsOfExperience() < 45,
+        p -> p.getCompany().equals("Initech")));
+  }
+
+  private static Map<Integer, Set<Integer>> chainMap(int n) {
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 1; i <= n; i++) {
+      graph.put(i, i < n ? new HashSet<>(List.of(i + 1)) : new HashSet<>());
+    }
+    return graph;
+  }
+}
@@ -0,0 +1,357 @@
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small query server answering the Practice queries over one graph loaded at startup.
+ *
+ * Clients connect over TCP or a Unix domain socket. Every message is a frame: a big-endian int
+ * length followed by that many bytes. A request frame holds an int request id and a GraphQuery; a
+ * response frame holds the same request id, a status byte (OK or ERROR) and the answer: one byte
+ * for the boolean queries, an int for oddVertices, an int count plus that many ints for
+ * sortedReachable, or a length-prefixed UTF-8 message for an error.
+ *
+ * Each connection is served by its own thread, a virtual thread when the JDK has them (21+) and a
+ * platform thread otherwise. Requests may be pipelined: the server decodes every complete frame it
+ * has buffered, answers them in order and writes all the responses with one flush. Identical
+ * queries that arrive while one is already running, from any connection, wait for that one's
+ * answer instead of traversing again.
+ *
+ * Vertex arguments are ids of the served graph. twoWay is answered from an SccIndex built at
+ * startup and the company lookup needs a company name per vertex. oddVertices and sortedReachable
+ * work on the vertex values: the int column of a MappedGraph that has one (GraphFile.writeVertices
+ * stores the vertex data there, with snapshot indices as ids), and the ids otherwise.
+ *
+ * Usage:
+ *   java GraphServer --graph=network.graph [--listen=tcp:127.0.0.1:7070 | --listen=unix:/tmp/graph.sock]
+ *
+ * The graph file is a GraphFile; its string column, if present, holds each vertex's company.
+ */
+public final class GraphServer implements AutoCloseable {
+  static final byte OK = 0;
+  static final byte ERROR = 1;
+  static final int MAX_FRAME = 1 << 20;
+
+  private final IntGraph graph;
+  private final MappedGraph values;
+  private final String[] companies;
+  private final SccIndex components;
+  private final ServerSocketChannel server;
+  private final SocketAddress address;
+  private final ExecutorService connections;
+  private final Set<SocketChannel> open = ConcurrentHashMap.newKeySet();
+  private final ConcurrentHashMap<GraphQuery, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder executed = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private volatile boolean closed;
+
+  private GraphServer(IntGraph graph, String[] companies, ServerSocketChannel server) throws IOException {
+    this.graph = graph;
+    this.values = graph instanceof MappedGraph && ((MappedGraph) graph).hasIntColumn() ? (MappedGraph) graph : null;
+    this.companies = companies;
+    // Built through cursors, so a mapped graph is not copied onto the heap.
+    this.components = SccIndex.of(graph);
+    this.server = server;
+    this.address = server.getLocalAddress();
+    this.connections = newThreadPerTaskExecutor();
+    Thread acceptor = new Thread(this::acceptLoop, "graph-server-accept");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Starts a server and returns once it is accepting connections.
+   *
+   * @param graph the graph to serve
+   * @param companies the company of the vertex at each index, or null to reject company queries
+   * @param address an InetSocketAddress (port 0 picks a free port) or a UnixDomainSocketAddress
+   * @return the running server
+   * @throws IOException if the address cannot be bound
+   */
+  public static GraphServer start(IntGraph graph, String[] companies, SocketAddress address) throws IOException {
+    if (companies != null && companies.length != graph.vertexCount()) {
+      throw new IllegalArgumentException("need one company per vertex");
+    }
+    ServerSocketChannel server = address instanceof UnixDomainSocketAddress
+        ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+        : ServerSocketChannel.open();
+    try {
+      server.bind(address, 4096);
+      return new GraphServer(graph, companies, server);
+    } catch (IOException | RuntimeException e) {
+      server.close();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the bound address, with the actual port when port 0 was requested
+   */
+  public SocketAddress address() {
+    return address;
+  }
+
+  /**
+   * @return the number of queries that ran a traversal
+   */
+  public long executedQueries() {
+    return executed.sum();
+  }
+
+  /**
+   * @return the number of queries answered by waiting for an identical query already running
+   */
+  public long coalescedQueries() {
+    return coalesced.sum();
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    server.close();
+    for (SocketChannel channel : open) {
+      channel.close();
+    }
+    connections.shutdownNow();
+    if (address instanceof UnixDomainSocketAddress) {
+      Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+    }
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    Path file = null;
+    String listen = "tcp:127.0.0.1:7070";
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--graph=")) file = Paths.get(value);
+      else if (arg.startsWith("--listen=")) listen = value;
+      else throw new IllegalArgumentException("unknown argument: " + arg);
+    }
+    if (file == null) throw new IllegalArgumentException("--graph is required");
+    MappedGraph graph = GraphFile.open(file);
+    String[] companies = null;
+    if (graph.hasStringColumn()) {
+      companies = new String[graph.vertexCount()];
+      for (int i = 0; i < companies.length; i++) {
+        companies[i] = graph.stringValue(i);
+      }
+    }
+    try (GraphServer server = start(graph, companies, parseAddress(listen))) {
+      System.out.println("serving " + file + " on " + server.address());
+      Thread.currentThread().join();
+    }
+  }
+
+  /**
+   * Parses tcp:host:port or unix:path.
+   */
+  static SocketAddress parseAddress(String text) {
+    if (text.startsWith("unix:")) return UnixDomainSocketAddress.of(text.substring(5));
+    if (!text.startsWith("tcp:")) throw new IllegalArgumentException("expected tcp:host:port or unix:path: " + text);
+    int colon = text.lastIndexOf(':');
+    return new InetSocketAddress(text.substring(4, colon), Integer.parseInt(text.substring(colon + 1)));
+  }
+
+  /**
+   * Returns an executor that starts a virtual thread per task when the JDK supports it, found
+   * reflectively so the code still compiles and runs on JDK 17, and a platform thread otherwise.
+   */
+  static ExecutorService newThreadPerTaskExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "graph-server-connection");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  private void acceptLoop() {
+    while (!closed) {
+      SocketChannel channel;
+      try {
+        channel = server.accept();
+      } catch (IOException e) {
+        // Closing the server socket ends the loop; anything else is a failed accept worth retrying.
+        if (closed || e instanceof ClosedChannelException) return;
+        continue;
+      }
+      open.add(channel);
+      try {
+        if (!(address instanceof UnixDomainSocketAddress)) channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        connections.execute(() -> serve(channel));
+      } catch (IOException | RuntimeException e) {
+        open.remove(channel);
+        closeQuietly(channel);
+      }
+    }
+  }
+
+  private void serve(SocketChannel channel) {
+    ByteBuffer in = ByteBuffer.allocate(8192);
+    ByteBuffer out = ByteBuffer.allocate(8192);
+    try {
+      while (channel.read(in) >= 0) {
+        in.flip();
+        int needed = 0;
+        while (in.remaining() >= 4) {
+          int length = in.getInt(in.position());
+          if (length < 4 || length > MAX_FRAME) throw new IOException("bad frame length " + length);
+          if (in.remaining() < 4 + length) {
+            needed = 4 + length;
+            break;
+          }
+          in.getInt();
+          int end = in.position() + length;
+          int requestId = in.getInt();
+          ByteBuffer frame = in.slice(in.position(), end - in.position());
+          in.position(end);
+          out = respond(out, requestId, frame);
+        }
+        in.compact();
+        if (needed > in.capacity()) in = grow(in, needed);
+        // Everything decoded from this read is answered with a single write.
+        out.flip();
+        while (out.hasRemaining()) {
+          channel.write(out);
+        }
+        out.clear();
+      }
+    } catch (IOException e) {
+      // The client went away or sent garbage; either way this connection is done.
+    } finally {
+      open.remove(channel);
+      closeQuietly(channel);
+    }
+  }
+
+  private ByteBuffer respond(ByteBuffer out, int requestId, ByteBuffer frame) {
+    byte[] answer;
+    try {
+      answer = answer(GraphQuery.read(frame));
+    } catch (RuntimeException e) {
+      answer = error(String.valueOf(e.getMessage()));
+    }
+    if (out.remaining() < 8 + answer.length) out = grow(out, out.position() + 8 + answer.length);
+    out.putInt(4 + answer.length);
+    out.putInt(requestId);
+    out.put(answer);
+    return out;
+  }
+
+  /**
+   * Answers a query, sharing the work with an identical query already in flight.
+   */
+  byte[] answer(GraphQuery query) {
+    CompletableFuture<byte[]> mine = new CompletableFuture<>();
+    CompletableFuture<byte[]> running = inFlight.putIfAbsent(query, mine);
+    if (running != null) {
+      coalesced.increment();
+      return running.join();
+    }
+    try {
+      byte[] answer = execute(query);
+      mine.complete(answer);
+      return answer;
+    } catch (RuntimeException e) {
+      byte[] answer = error(String.valueOf(e.getMessage()));
+      mine.complete(answer);
+      return answer;
+    } finally {
+      inFlight.remove(query, mine);
+    }
+  }
+
+  private byte[] execute(GraphQuery query) {
+    executed.increment();
+    switch (query.op()) {
+      case GraphQuery.TWO_WAY:
+        return bool(components.twoWay(query.first(), query.second()));
+      case GraphQuery.POSITIVE_PATH:
+        return bool(Practice.positivePathExists(graph, query.first(), query.second()));
+      case GraphQuery.ODD_VERTICES: {
+        int[] count = new int[1];
+        GraphSearch.forEachIndex(graph, graph.indexOf(query.first()), index -> true, index -> {
+          if (value(index) % 2 != 0) count[0]++;
+          return true;
+        });
+        return ByteBuffer.allocate(5).put(OK).putInt(count[0]).array();
+      }
+      case GraphQuery.SORTED_REACHABLE: {
+        int[] reachable;
+        if (values == null) {
+          reachable = Practice.sortedReachable(graph, query.first());
+        } else {
+          IntList list = new IntList();
+          GraphSearch.forEachIndex(graph, graph.indexOf(query.first()), index -> true, index -> {
+            list.addInt(values.intValue(index));
+            return true;
+          });
+          list.sort();
+          reachable = list.toIntArray();
+        }
+        ByteBuffer answer = ByteBuffer.allocate(5 + 4 * reachable.length).put(OK).putInt(reachable.length);
+        answer.asIntBuffer().put(reachable);
+        return answer.array();
+      }
+      case GraphQuery.COMPANY: {
+        if (companies == null) return error("the served graph has no companies");
+        String company = query.company();
+        return bool(GraphSearch.forEachIndex(graph, graph.indexOf(query.first()), index -> true,
+            index -> !company.equals(companies[index])));
+      }
+      default:
+        return error("unknown operation " + query.op());
+    }
+  }
+
+  private int value(int index) {
+    return values != null ? values.intValue(index) : graph.idOf(index);
+  }
+
+  private static byte[] bool(boolean value) {
+    return new byte[]{OK, (byte) (value ? 1 : 0)};
+  }
+
+  private static byte[] error(String message) {
+    byte[] text = message.getBytes(StandardCharsets.UTF_8);
+    int length = Math.min(text.length, 0xffff);
+    return ByteBuffer.allocate(3 + length).put(ERROR).putShort((short) length).put(text, 0, length).array();
+  }
+
+  private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+    ByteBuffer bigger = ByteBuffer.allocate(Math.max(needed, buffer.capacity() * 2));
+    buffer.flip();
+    bigger.put(buffer);
+    return bigger;
+  }
+
+  private static void closeQuietly(SocketChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Nothing left to do for a connection that failed to close.
+    }
+  }
+}
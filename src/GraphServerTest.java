@@ -0,0 +1,139 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class GraphServerTest {
+
+  @TempDir
+  Path dir;
+
+  private static Map<Integer, Set<Integer>> randomGraph(int n, long seed) {
+    Random random = new Random(seed);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      graph.put(i - n / 4, new HashSet<>(Arrays.asList(random.nextInt(n) - n / 4, random.nextInt(n) - n / 4)));
+    }
+    return graph;
+  }
+
+  private static String[] companies(CsrGraph graph) {
+    String[] companies = new String[graph.vertexCount()];
+    for (int i = 0; i < companies.length; i++) {
+      companies[i] = "Company " + Math.floorMod(graph.idOf(i), 7);
+    }
+    return companies;
+  }
+
+  @Test
+  public void testTcp_AnswersLikePractice() throws IOException {
+    Map<Integer, Set<Integer>> map = randomGraph(300, 16);
+    CsrGraph graph = CsrGraph.fromMap(map);
+    SccIndex components = SccIndex.of(graph);
+    try (GraphServer server = GraphServer.start(graph, companies(graph), new InetSocketAddress("127.0.0.1", 0));
+         GraphClient client = GraphClient.connect(server.address())) {
+      Random random = new Random(17);
+      for (int q = 0; q < 100; q++) {
+        int a = random.nextInt(320) - 85;
+        int b = random.nextInt(320) - 85;
+        assertEquals(components.twoWay(a, b), client.twoWay(a, b));
+        assertEquals(Practice.positivePathExists(map, a, b), client.positivePathExists(a, b));
+        assertArrayEquals(Practice.sortedReachable(graph, a), client.sortedReachable(a));
+        int odd = (int) Practice.sortedReachable(map, a).stream().filter(v -> v % 2 != 0).count();
+        assertEquals(odd, client.oddVertices(a));
+        String company = "Company " + random.nextInt(8);
+        boolean expected = Practice.sortedReachable(map, a).stream()
+            .anyMatch(v -> company.equals("Company " + Math.floorMod(v, 7)));
+        assertEquals(expected, client.hasExtendedConnectionAtCompany(a, company));
+      }
+    }
+  }
+
+  @Test
+  public void testVertexFile_AnswersOnVertexData() throws IOException {
+    Random random = new Random(19);
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      vertices.add(new Vertex<>(random.nextInt(1000) - 500));
+    }
+    for (int i = 0; i < 400; i++) {
+      vertices.get(random.nextInt(200)).neighbors.add(vertices.get(random.nextInt(200)));
+    }
+    Path file = dir.resolve("vertices.graph");
+    GraphFile.writeVertices(file, vertices);
+    GraphSnapshot<Vertex<Integer>> snapshot = GraphSnapshot.ofVertices(vertices);
+    MappedGraph graph = GraphFile.open(file);
+    assertTrue(graph.hasIntColumn());
+    try (GraphServer server = GraphServer.start(graph, null, new InetSocketAddress("127.0.0.1", 0));
+         GraphClient client = GraphClient.connect(server.address())) {
+      for (Vertex<Integer> vertex : vertices) {
+        // Ids in a vertex file are snapshot indices; the answers must come from the vertex data.
+        int id = snapshot.indexOf(vertex);
+        assertEquals(Practice.oddVertices(vertex), client.oddVertices(id));
+        assertArrayEquals(Practice.sortedReachable(vertex).toIntArray(), client.sortedReachable(id));
+      }
+      assertEquals(0, client.oddVertices(-1));
+      assertArrayEquals(new int[0], client.sortedReachable(-1));
+    }
+  }
+
+  @Test
+  public void testUnixSocket_PipelinedRepliesInOrder() throws IOException {
+    CsrGraph graph = CsrGraph.fromMap(randomGraph(200, 18));
+    try (GraphServer server = GraphServer.start(graph, null, UnixDomainSocketAddress.of(dir.resolve("graph.sock")));
+         GraphClient client = GraphClient.connect(server.address())) {
+      List<Integer> ids = new ArrayList<>();
+      for (int q = 0; q < 500; q++) {
+        ids.add(client.send(q % 2 == 0 ? GraphQuery.sortedReachable(q % 150) : GraphQuery.oddVertices(q % 150)));
+      }
+      ids.add(client.send(GraphQuery.hasExtendedConnectionAtCompany(1, "Acme")));
+      client.flush();
+      for (int q = 0; q < 500; q++) {
+        GraphClient.Reply reply = client.receive();
+        assertEquals(ids.get(q), reply.requestId());
+        if (q % 2 == 0) assertArrayEquals(Practice.sortedReachable(graph, q % 150), reply.asInts());
+        else assertEquals(GraphSearch.count(graph, q % 150, id -> true, id -> id % 2 != 0), reply.asInt());
+      }
+      GraphClient.Reply error = client.receive();
+      assertTrue(error.isError());
+      assertThrows(IllegalStateException.class, error::asBoolean);
+      // The connection is still usable after an error reply.
+      assertEquals(Practice.sortedReachable(graph, 3).length, client.sortedReachable(3).length);
+    }
+  }
+
+  @Test
+  public void testConcurrentIdenticalQueries_AllAnswered() throws Exception {
+    // A long chain makes each traversal slow enough for identical queries to overlap.
+    Map<Integer, Set<Integer>> chain = new HashMap<>();
+    for (int i = 1; i <= 200_000; i++) {
+      chain.put(i, i < 200_000 ? new HashSet<>(List.of(i + 1)) : new HashSet<>());
+    }
+    CsrGraph graph = CsrGraph.fromMap(chain);
+    try (GraphServer server = GraphServer.start(graph, null, new InetSocketAddress("127.0.0.1", 0))) {
+      ExecutorService clients = Executors.newFixedThreadPool(8);
+      List<Future<Integer>> answers = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        answers.add(clients.submit(() -> {
+          try (GraphClient client = GraphClient.connect(server.address())) {
+            int last = 0;
+            for (int q = 0; q < 20; q++) {
+              last = client.oddVertices(1);
+            }
+            return last;
+          }
+        }));
+      }
+      for (Future<Integer> answer : answers) {
+        assertEquals(100_000, answer.get(60, TimeUnit.SECONDS));
+      }
+      clients.shutdown();
+      assertEquals(160, server.executedQueries() + server.coalescedQueries());
+    }
+  }
+}
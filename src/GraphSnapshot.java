@@ -0,0 +1,135 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A frozen CSR copy of an object graph (Vertex or Professional) reachable from a set of roots.
+ *
+ * Nodes are numbered 0..size()-1 in the order they are discovered, and the CSR graph uses those
+ * numbers as both its dense indices and its vertex ids. Nodes are matched by identity, so two
+ * distinct vertices holding equal data stay distinct.
+ *
+ * The snapshot does not follow later changes to the object graph; build a new one after mutating it.
+ *
+ * @param <N> the node type
+ */
+public final class GraphSnapshot<N> {
+  private final List<N> nodes;
+  private final Map<N, Integer> indices;
+  private final CsrGraph graph;
+
+  private GraphSnapshot(List<N> nodes, Map<N, Integer> indices, CsrGraph graph) {
+    this.nodes = nodes;
+    this.indices = indices;
+    this.graph = graph;
+  }
+
+  /**
+   * Snapshots every Vertex reachable from the given roots.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param roots the vertices to start from; null roots are ignored
+   * @return the snapshot
+   */
+  public static <T> GraphSnapshot<Vertex<T>> ofVertices(Collection<? extends Vertex<T>> roots) {
+    return of(roots, vertex -> vertex.neighbors);
+  }
+
+  /**
+   * Snapshots every Professional reachable from the given roots through their connections.
+   *
+   * @param roots the professionals to start from; null roots are ignored
+   * @return the snapshot
+   */
+  public static GraphSnapshot<Professional> ofNetwork(Collection<Professional> roots) {
+    return of(roots, Professional::getConnections);
+  }
+
+  /**
+   * Snapshots every node reachable from the given roots.
+   *
+   * @param <N> the node type
+   * @param roots the nodes to start from; null roots are ignored
+   * @param neighbors returns the outgoing neighbors of a node (may return null for none)
+   * @return the snapshot
+   */
+  public static <N> GraphSnapshot<N> of(Collection<? extends N> roots,
+      Function<? super N, ? extends Iterable<? extends N>> neighbors) {
+    List<N> nodes = new ArrayList<>();
+    Map<N, Integer> indices = new IdentityHashMap<>();
+    for (N root : roots) {
+      if (root != null && !indices.containsKey(root)) {
+        indices.put(root, nodes.size());
+        nodes.add(root);
+      }
+    }
+
+    // Nodes are expanded in index order, so each node's edges are appended contiguously.
+    int[] offsets = new int[Math.max(16, nodes.size() + 1)];
+    int[] targets = new int[16];
+    int edges = 0;
+    for (int i = 0; i < nodes.size(); i++) {
+      Iterable<? extends N> next = neighbors.apply(nodes.get(i));
+      if (next != null) {
+        for (N neighbor : next) {
+          if (neighbor == null) continue;
+          Integer index = indices.get(neighbor);
+          if (index == null) {
+            index = nodes.size();
+            indices.put(neighbor, index);
+            nodes.add(neighbor);
+          }
+          if (edges == targets.length) targets = Arrays.copyOf(targets, edges * 2);
+          targets[edges++] = index;
+        }
+      }
+      if (i + 2 > offsets.length) offsets = Arrays.copyOf(offsets, Math.max(i + 2, offsets.length * 2));
+      offsets[i + 1] = edges;
+    }
+
+    int n = nodes.size();
+    int[] ids = new int[n];
+    for (int i = 0; i < n; i++) {
+      ids[i] = i;
+    }
+    long[] keys = new long[(n + 63) >>> 6];
+    Arrays.fill(keys, -1L);
+    CsrGraph graph = new CsrGraph(ids, keys, Arrays.copyOf(offsets, n + 1), Arrays.copyOf(targets, edges));
+    return new GraphSnapshot<>(nodes, indices, graph);
+  }
+
+  /**
+   * @return the CSR graph whose vertex ids are the node indices of this snapshot
+   */
+  public CsrGraph graph() {
+    return graph;
+  }
+
+  /**
+   * @return the number of nodes in the snapshot
+   */
+  public int size() {
+    return nodes.size();
+  }
+
+  /**
+   * @param index a node index
+   * @return the node at that index
+   */
+  public N node(int index) {
+    return nodes.get(index);
+  }
+
+  /**
+   * @param node a node
+   * @return the index of the node, or -1 if it is not part of the snapshot
+   */
+  public int indexOf(N node) {
+    Integer index = indices.get(node);
+    return index == null ? -1 : index;
+  }
+}
@@ -0,0 +1,146 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of int items 0..capacity-1 keyed by longs, with decrease-key.
+ *
+ * Items and keys are kept in primitive arrays, and a position array maps each item to its slot in
+ * the heap so that decreaseKey and contains are O(1) lookups plus a sift. clear() only touches the
+ * items still queued, so a heap reused across searches costs nothing per search beyond the work
+ * done. Ties between equal keys are broken arbitrarily. Not thread-safe.
+ */
+final class IndexedIntHeap {
+  private int[] heap = new int[0];
+  private int[] positions = new int[0];
+  private long[] keys = new long[0];
+  private int size;
+
+  /**
+   * Grows the heap so it can hold items 0..capacity-1. Must not be called while items are queued.
+   *
+   * @param capacity the number of distinct items
+   */
+  void ensureCapacity(int capacity) {
+    if (capacity <= positions.length) return;
+    if (size != 0) throw new IllegalStateException("heap is not empty");
+    heap = new int[capacity];
+    keys = new long[capacity];
+    int old = positions.length;
+    positions = Arrays.copyOf(positions, capacity);
+    Arrays.fill(positions, old, capacity, -1);
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean contains(int item) {
+    return positions[item] >= 0;
+  }
+
+  /**
+   * @param item a queued item
+   * @return its current key
+   */
+  long key(int item) {
+    return keys[item];
+  }
+
+  /**
+   * Queues an item that is not already in the heap.
+   *
+   * @param item the item
+   * @param key its key
+   */
+  void add(int item, long key) {
+    if (positions[item] >= 0) throw new IllegalArgumentException("already queued: " + item);
+    keys[item] = key;
+    heap[size] = item;
+    positions[item] = size;
+    siftUp(size++);
+  }
+
+  /**
+   * Lowers the key of a queued item. Keys that are not lower are ignored.
+   *
+   * @param item a queued item
+   * @param key the new key
+   */
+  void decreaseKey(int item, long key) {
+    if (key >= keys[item]) return;
+    keys[item] = key;
+    siftUp(positions[item]);
+  }
+
+  /**
+   * @return the key of the smallest item
+   */
+  long minKey() {
+    if (size == 0) throw new NoSuchElementException();
+    return keys[heap[0]];
+  }
+
+  /**
+   * Removes and returns the item with the smallest key.
+   *
+   * @return the item
+   */
+  int poll() {
+    if (size == 0) throw new NoSuchElementException();
+    int min = heap[0];
+    positions[min] = -1;
+    int last = heap[--size];
+    if (size > 0) {
+      heap[0] = last;
+      positions[last] = 0;
+      siftDown(0);
+    }
+    return min;
+  }
+
+  /**
+   * Removes every queued item.
+   */
+  void clear() {
+    for (int i = 0; i < size; i++) {
+      positions[heap[i]] = -1;
+    }
+    size = 0;
+  }
+
+  private void siftUp(int slot) {
+    int item = heap[slot];
+    long key = keys[item];
+    while (slot > 0) {
+      int parentSlot = (slot - 1) >>> 1;
+      int parent = heap[parentSlot];
+      if (keys[parent] <= key) break;
+      heap[slot] = parent;
+      positions[parent] = slot;
+      slot = parentSlot;
+    }
+    heap[slot] = item;
+    positions[item] = slot;
+  }
+
+  private void siftDown(int slot) {
+    int item = heap[slot];
+    long key = keys[item];
+    int half = size >>> 1;
+    while (slot < half) {
+      int child = 2 * slot + 1;
+      int right = child + 1;
+      if (right < size && keys[heap[right]] < keys[heap[child]]) child = right;
+      if (keys[heap[child]] >= key) break;
+      heap[slot] = heap[child];
+      positions[heap[slot]] = slot;
+      slot = child;
+    }
+    heap[slot] = item;
+    positions[item] = slot;
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * A read-only directed graph over int vertex ids with dense vertex indices.
+ *
+ * Vertex ids are remapped to dense indices in [0, vertexCount()), normally assigned in ascending id
+ * order, so walking indices upward visits ids in sorted order. A graph relabelled for locality by
+ * VertexOrdering keeps its ids but not that order, and says so through idOrdered. Neighbors are
+ * read through a Cursor, which lets each implementation keep its own edge layout (plain arrays,
+ * mapped files, encoded bytes) behind the same traversal code.
+ *
+ * A vertex that was only ever a neighbor (never a key of the source map) has no outgoing edges and
+ * isKey reports false for it, matching the Map semantics of Practice.
+ */
+public interface IntGraph {
+  /**
+   * Iterates the neighbors of one vertex at a time. A cursor is reusable but not thread-safe.
+   */
+  interface Cursor {
+    /**
+     * Positions the cursor at the first neighbor of a vertex.
+     *
+     * @param index a dense vertex index
+     * @return this cursor
+     */
+    Cursor of(int index);
+
+    /**
+     * @return the dense index of the next neighbor, or -1 when there are no more
+     */
+    int next();
+  }
+
+  /**
+   * @return the number of vertices, including neighbor-only vertices
+   */
+  int vertexCount();
+
+  /**
+   * @return the number of directed edges
+   */
+  long edgeCount();
+
+  /**
+   * Returns the dense index of the given vertex id.
+   *
+   * @param id the vertex id
+   * @return the dense index of id, or -1 if id is not a vertex of this graph
+   */
+  int indexOf(int id);
+
+  /**
+   * @param index a dense vertex index
+   * @return the original vertex id at that index
+   */
+  int idOf(int index);
+
+  /**
+   * @param index a dense vertex index
+   * @return whether the vertex was a key of the map the graph was built from
+   */
+  boolean isKey(int index);
+
+  /**
+   * @param index a dense vertex index
+   * @return the number of outgoing edges of the vertex
+   */
+  int degree(int index);
+
+  /**
+   * @return a new cursor over the neighbors of this graph's vertices
+   */
+  Cursor cursor();
+
+  /**
+   * Returns whether indices are assigned in ascending id order. Code that reads sorted ids off a
+   * scan of indices must sort explicitly when this is false.
+   *
+   * @return true unless the graph was relabelled
+   */
+  default boolean idOrdered() {
+    return true;
+  }
+
+  /**
+   * Returns the same vertices with every edge reversed. Implementations build it on first use and
+   * cache it on the instance.
+   *
+   * @return the reverse graph
+   */
+  IntGraph reverse();
+}
@@ -0,0 +1,144 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A growable list of ints that also serves as a List&lt;Integer&gt;.
+ *
+ * Values are stored unboxed in a primitive array. getInt, addInt and toIntArray work on them
+ * directly; the List methods box on the way in and out so existing callers keep working.
+ * sort() orders the values with a radix sort instead of a comparator. Null elements are not
+ * allowed. Not thread-safe.
+ */
+public final class IntList extends AbstractList<Integer> implements RandomAccess {
+  private int[] items;
+  private int size;
+
+  /**
+   * Creates an empty list.
+   */
+  public IntList() {
+    this(16);
+  }
+
+  /**
+   * Creates an empty list with room for capacity values before it grows.
+   *
+   * @param capacity the initial capacity
+   */
+  public IntList(int capacity) {
+    items = new int[Math.max(1, capacity)];
+  }
+
+  /**
+   * Returns a list holding a copy of values.
+   *
+   * @param values the values to copy
+   * @return a new list
+   */
+  public static IntList of(int... values) {
+    IntList list = new IntList(values.length);
+    System.arraycopy(values, 0, list.items, 0, values.length);
+    list.size = values.length;
+    return list;
+  }
+
+  public int getInt(int index) {
+    checkIndex(index, size);
+    return items[index];
+  }
+
+  public void addInt(int value) {
+    if (size == items.length) items = Arrays.copyOf(items, size * 2);
+    items[size++] = value;
+  }
+
+  /**
+   * Sorts the list in ascending order.
+   */
+  public void sort() {
+    RadixSort.sort(items, size);
+    modCount++;
+  }
+
+  public int[] toIntArray() {
+    return Arrays.copyOf(items, size);
+  }
+
+  /**
+   * @return the backing array, valid up to size(); callers must not keep it across modifications
+   */
+  int[] elements() {
+    return items;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Integer get(int index) {
+    return getInt(index);
+  }
+
+  @Override
+  public Integer set(int index, Integer value) {
+    checkIndex(index, size);
+    int previous = items[index];
+    items[index] = value;
+    return previous;
+  }
+
+  @Override
+  public void add(int index, Integer value) {
+    checkIndex(index, size + 1);
+    int unboxed = value;
+    if (size == items.length) items = Arrays.copyOf(items, size * 2);
+    System.arraycopy(items, index, items, index + 1, size - index);
+    items[index] = unboxed;
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public Integer remove(int index) {
+    checkIndex(index, size);
+    int previous = items[index];
+    System.arraycopy(items, index + 1, items, index, size - index - 1);
+    size--;
+    modCount++;
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (other instanceof IntList) {
+      IntList list = (IntList) other;
+      return Arrays.equals(items, 0, size, list.items, 0, list.size);
+    }
+    return other instanceof List && super.equals(other);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 1;
+    for (int i = 0; i < size; i++) {
+      hash = 31 * hash + items[i];
+    }
+    return hash;
+  }
+
+  private static void checkIndex(int index, int bound) {
+    if (index < 0 || index >= bound) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class IntListTest {
+
+  @Test
+  public void testSort_MatchesArraysSort() {
+    Random random = new Random(12);
+    for (int size : new int[]{0, 1, 10, 255, 256, 1000, 100_000}) {
+      int[] values = new int[size];
+      for (int i = 0; i < size; i++) {
+        // Mix full-range values with a narrow band so some byte passes are skipped.
+        values[i] = i % 3 == 0 ? random.nextInt() : random.nextInt(2000) - 1000;
+      }
+      IntList list = IntList.of(values);
+      list.sort();
+      Arrays.sort(values);
+      assertArrayEquals(values, list.toIntArray());
+    }
+  }
+
+  @Test
+  public void testSort_Extremes() {
+    int[] values = new int[300];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i % 4 == 0 ? Integer.MIN_VALUE : i % 4 == 1 ? Integer.MAX_VALUE : i % 4 == 2 ? -1 : 0;
+    }
+    int[] expected = values.clone();
+    Arrays.sort(expected);
+    RadixSort.sort(values, values.length);
+    assertArrayEquals(expected, values);
+  }
+
+  @Test
+  public void testListContract() {
+    IntList list = IntList.of(3, 1, 2);
+    assertEquals(Arrays.asList(3, 1, 2), list);
+    assertEquals(list, Arrays.asList(3, 1, 2));
+    assertEquals(Arrays.asList(3, 1, 2).hashCode(), list.hashCode());
+    list.add(7);
+    list.add(0, 9);
+    assertEquals(Integer.valueOf(3), list.remove(1));
+    list.set(0, -4);
+    assertEquals(Arrays.asList(-4, 1, 2, 7), list);
+    list.sort();
+    assertEquals(Arrays.asList(-4, 1, 2, 7), new ArrayList<>(list));
+    assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(4));
+    assertThrows(NullPointerException.class, () -> list.add(null));
+  }
+}
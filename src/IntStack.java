@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A growable stack of ints for iterative traversals, with a memory budget.
+ *
+ * Values live in a primitive array that doubles as needed. Once the array reaches the budget, the
+ * oldest half of it is written to a temporary file and the rest slides down, so pushes can keep
+ * going with bounded heap. Pops read spilled blocks back, newest first, when the array runs dry.
+ * A traversal whose stack fits in the budget never touches the disk.
+ *
+ * The default budget is 256 MiB and can be changed with the graph.stackBudgetBytes system property.
+ * Close the stack to delete its spill file. Not thread-safe.
+ */
+final class IntStack implements AutoCloseable {
+  static final long DEFAULT_BUDGET_BYTES = Long.getLong("graph.stackBudgetBytes", 256L << 20);
+
+  private final int capacityLimit;
+  private final int block;
+  private int[] items = new int[16];
+  private int size;
+  private FileChannel spill;
+  private Path spillPath;
+  private ByteBuffer io;
+  private long spilled;
+
+  /**
+   * Creates a stack with the default memory budget.
+   */
+  IntStack() {
+    this(DEFAULT_BUDGET_BYTES);
+  }
+
+  /**
+   * Creates a stack that keeps at most budgetBytes of values in memory.
+   *
+   * @param budgetBytes the in-memory budget; values beyond it are spilled to disk
+   */
+  IntStack(long budgetBytes) {
+    this.capacityLimit = (int) Math.max(16, Math.min(Integer.MAX_VALUE - 8, budgetBytes / 4));
+    this.block = capacityLimit / 2;
+  }
+
+  void push(int value) {
+    if (size == items.length) {
+      if (items.length < capacityLimit) {
+        items = Arrays.copyOf(items, (int) Math.min(capacityLimit, 2L * items.length));
+      } else {
+        spillOldest();
+      }
+    }
+    items[size++] = value;
+  }
+
+  int pop() {
+    if (size == 0) refill();
+    return items[--size];
+  }
+
+  boolean isEmpty() {
+    return size == 0 && spilled == 0;
+  }
+
+  /**
+   * @return the number of values on the stack, in memory and on disk
+   */
+  long size() {
+    return size + spilled;
+  }
+
+  /**
+   * @return whether any values have ever been written to disk
+   */
+  boolean hasSpilled() {
+    return spill != null;
+  }
+
+  @Override
+  public void close() {
+    if (spill == null) return;
+    try {
+      spill.close();
+      Files.deleteIfExists(spillPath);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      spill = null;
+    }
+  }
+
+  private void spillOldest() {
+    try {
+      if (spill == null) {
+        spillPath = Files.createTempFile("graph-stack", ".spill");
+        spill = FileChannel.open(spillPath, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+        io = ByteBuffer.allocateDirect(4 * Math.min(block, 1 << 16)).order(ByteOrder.nativeOrder());
+      }
+      long position = 4 * spilled;
+      for (int start = 0; start < block; start += io.capacity() / 4) {
+        io.clear();
+        io.asIntBuffer().put(items, start, Math.min(io.capacity() / 4, block - start));
+        io.limit(4 * Math.min(io.capacity() / 4, block - start));
+        while (io.hasRemaining()) {
+          position += spill.write(io, position);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    spilled += block;
+    System.arraycopy(items, block, items, 0, size - block);
+    size -= block;
+  }
+
+  private void refill() {
+    if (spilled == 0) throw new IllegalStateException("stack is empty");
+    spilled -= block;
+    try {
+      long position = 4 * spilled;
+      for (int start = 0; start < block; start += io.capacity() / 4) {
+        int count = Math.min(io.capacity() / 4, block - start);
+        io.clear();
+        io.limit(4 * count);
+        while (io.hasRemaining()) {
+          if (spill.read(io, position + io.position()) < 0) throw new IOException("spill file is truncated");
+        }
+        io.flip();
+        io.asIntBuffer().get(items, start, count);
+        position += 4L * count;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    size = block;
+  }
+}
@@ -0,0 +1,39 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class IntStackTest {
+
+  @Test
+  public void testWithinBudget_NeverSpills() {
+    try (IntStack stack = new IntStack(1 << 20)) {
+      for (int i = 0; i < 10_000; i++) {
+        stack.push(i);
+      }
+      assertEquals(10_000, stack.size());
+      for (int i = 9_999; i >= 0; i--) {
+        assertEquals(i, stack.pop());
+      }
+      assertTrue(stack.isEmpty());
+      assertFalse(stack.hasSpilled());
+    }
+  }
+
+  @Test
+  public void testOverBudget_SpillsAndKeepsLifoOrder() {
+    // A 256-byte budget holds 64 ints, so 100,000 pushes go through the spill file many times.
+    try (IntStack stack = new IntStack(256)) {
+      for (int i = 0; i < 100_000; i++) {
+        stack.push(i * 3);
+        if (i % 7 == 0) assertEquals(i * 3, stack.pop());
+      }
+      assertTrue(stack.hasSpilled());
+      int expected = 99_999;
+      while (!stack.isEmpty()) {
+        if (expected % 7 == 0) expected--;
+        assertEquals(expected * 3, stack.pop());
+        expected--;
+      }
+      assertEquals(0, expected);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An int graph read directly from a memory-mapped graph file (see GraphFile).
+ *
+ * Every lookup goes to the mapped buffers, so opening a file costs a few mmap calls no matter how
+ * big the graph is, and the graph adds nothing to the Java heap. Instances are immutable and safe
+ * to share between threads.
+ */
+public final class MappedGraph implements IntGraph {
+  private final int vertexCount;
+  private final long edgeCount;
+  private final IntBuffer ids;
+  private final LongBuffer keys;
+  private final IntBuffer offsets;
+  private final IntBuffer targets;
+  private final IntBuffer reverseOffsets;
+  private final IntBuffer reverseTargets;
+  private final IntBuffer intColumn;
+  private final IntBuffer stringOffsets;
+  private final ByteBuffer stringBytes;
+  private volatile IntGraph reverse;
+
+  MappedGraph(int vertexCount, long edgeCount, IntBuffer ids, LongBuffer keys, IntBuffer offsets,
+      IntBuffer targets, IntBuffer reverseOffsets, IntBuffer reverseTargets, IntBuffer intColumn,
+      IntBuffer stringOffsets, ByteBuffer stringBytes) {
+    this.vertexCount = vertexCount;
+    this.edgeCount = edgeCount;
+    this.ids = ids;
+    this.keys = keys;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.reverseOffsets = reverseOffsets;
+    this.reverseTargets = reverseTargets;
+    this.intColumn = intColumn;
+    this.stringOffsets = stringOffsets;
+    this.stringBytes = stringBytes;
+  }
+
+  @Override
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  @Override
+  public long edgeCount() {
+    return edgeCount;
+  }
+
+  @Override
+  public int indexOf(int id) {
+    int low = 0;
+    int high = vertexCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int value = ids.get(mid);
+      if (value < id) low = mid + 1;
+      else if (value > id) high = mid - 1;
+      else return mid;
+    }
+    return -1;
+  }
+
+  @Override
+  public int idOf(int index) {
+    return ids.get(index);
+  }
+
+  @Override
+  public boolean isKey(int index) {
+    return (keys.get(index >>> 6) & (1L << index)) != 0;
+  }
+
+  @Override
+  public int degree(int index) {
+    return offsets.get(index + 1) - offsets.get(index);
+  }
+
+  @Override
+  public Cursor cursor() {
+    return cursor(offsets, targets);
+  }
+
+  /**
+   * Returns the reverse graph. When the file stores reverse edges this is another view over the
+   * same mapping; otherwise it is built on the heap on first use.
+   *
+   * @return the reverse graph
+   */
+  @Override
+  public IntGraph reverse() {
+    IntGraph result = reverse;
+    if (result == null) {
+      if (reverseOffsets != null) {
+        MappedGraph mapped = new MappedGraph(vertexCount, edgeCount, ids, keys, reverseOffsets, reverseTargets,
+            offsets, targets, intColumn, stringOffsets, stringBytes);
+        mapped.reverse = this;
+        result = mapped;
+      } else {
+        result = CsrGraph.copyOf(this).reverse();
+      }
+      reverse = result;
+    }
+    return result;
+  }
+
+  /**
+   * @return whether the file has an int payload column
+   */
+  public boolean hasIntColumn() {
+    return intColumn != null;
+  }
+
+  /**
+   * @param index a dense vertex index
+   * @return the int payload of the vertex
+   */
+  public int intValue(int index) {
+    return intColumn.get(index);
+  }
+
+  /**
+   * @return whether the file has a text payload column
+   */
+  public boolean hasStringColumn() {
+    return stringOffsets != null;
+  }
+
+  /**
+   * @param index a dense vertex index
+   * @return the text payload of the vertex
+   */
+  public String stringValue(int index) {
+    int start = stringOffsets.get(index);
+    byte[] bytes = new byte[stringOffsets.get(index + 1) - start];
+    stringBytes.get(start, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static Cursor cursor(IntBuffer offsets, IntBuffer targets) {
+    return new Cursor() {
+      private int edge;
+      private int end;
+
+      @Override
+      public Cursor of(int index) {
+        edge = offsets.get(index);
+        end = offsets.get(index + 1);
+        return this;
+      }
+
+      @Override
+      public int next() {
+        return edge < end ? targets.get(edge++) : -1;
+      }
+    };
+  }
+}
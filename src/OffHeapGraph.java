@@ -0,0 +1,475 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable int graph whose vertices and edges live outside the Java heap.
+ *
+ * The layout is the same as CsrGraph (ascending ids, key bits, edge offsets, neighbor indices),
+ * but every array is a Region: a list of 1 GiB chunks mapped from deleted temporary files, indexed
+ * with long positions. The last chunk of a region is mapped only as large as the region needs,
+ * rounded up to a power of two, and is remapped when it grows, so a small graph maps a few pages
+ * rather than a few GiB of address space. Edge offsets are longs, so a graph can hold more than
+ * 2^31 edges, and the heap only carries a few chunk references whatever the graph's size. The pages
+ * belong to the OS: they are not counted against the heap or -XX:MaxDirectMemorySize and can be
+ * written back to disk under memory pressure.
+ *
+ * Mappings are released by the garbage collector once nothing refers to their buffers. close()
+ * drops the graph's references early, so the mappings go with the next collection even while the
+ * graph object itself stays reachable. It never unmaps anything itself: a query running during
+ * or after close either still reads the old, still mapped buffers or fails with an
+ * IndexOutOfBoundsException, and cannot touch freed memory. A graph and its reverse share the
+ * vertex arrays, which are dropped only once both are closed, so closing one never breaks the
+ * other.
+ *
+ * Graphs are built with a Builder that takes vertices in ascending id order and each vertex's
+ * edges right after it, so a graph can be streamed in without ever being held on the heap, or
+ * copied from another IntGraph or from the Practice map representation. Any IntGraph algorithm
+ * (Practice.sortedReachable, positivePathExists, GraphSearch, BidirectionalSearch) runs on it
+ * unchanged; those still use per-vertex visited marks on the heap, but nothing per edge.
+ *
+ * Chunks are created in java.io.tmpdir, or in the directory named by the graph.offHeapDir system
+ * property. Instances are safe to share between threads once built.
+ */
+public final class OffHeapGraph implements IntGraph, AutoCloseable {
+  static final int DEFAULT_CHUNK_BITS = 30;
+
+  private final int vertexCount;
+  private final long edgeCount;
+  private final Region ids;
+  private final Region keys;
+  private final Region offsets;
+  private final Region targets;
+  private final int chunkBits;
+  private volatile OffHeapGraph reverse;
+  private boolean closed;
+
+  private OffHeapGraph(int vertexCount, long edgeCount, Region ids, Region keys, Region offsets, Region targets,
+      int chunkBits) {
+    this.vertexCount = vertexCount;
+    this.edgeCount = edgeCount;
+    this.ids = ids;
+    this.keys = keys;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.chunkBits = chunkBits;
+  }
+
+  /**
+   * @return a builder for a new off-heap graph
+   */
+  public static Builder builder() {
+    return new Builder(DEFAULT_CHUNK_BITS);
+  }
+
+  /**
+   * Builder with a chosen chunk size, so tests can cross chunk boundaries with small graphs.
+   */
+  static Builder builder(int chunkBits) {
+    return new Builder(chunkBits);
+  }
+
+  /**
+   * Copies any int graph off the heap, with the same ids, keys and edges. A graph that is not in
+   * id order (see IntGraph.idOrdered) is renumbered into it.
+   *
+   * @param graph the graph to copy
+   * @return the copy; always a new graph, so closing it leaves the source usable
+   */
+  public static OffHeapGraph copyOf(IntGraph graph) {
+    return copyOf(graph, DEFAULT_CHUNK_BITS);
+  }
+
+  static OffHeapGraph copyOf(IntGraph graph, int chunkBits) {
+    Builder builder = new Builder(chunkBits);
+    Cursor cursor = graph.cursor();
+    int n = graph.vertexCount();
+    if (graph.idOrdered()) {
+      for (int index = 0; index < n; index++) {
+        builder.addVertex(graph.idOf(index), graph.isKey(index));
+        cursor.of(index);
+        for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+          builder.addEdge(next);
+        }
+      }
+      return builder.build();
+    }
+    // A graph relabelled by VertexOrdering is copied in id order, with its targets renumbered.
+    int[] byId = VertexOrdering.permutation(graph, VertexOrdering.Order.ID);
+    int[] position = new int[n];
+    for (int rank = 0; rank < n; rank++) {
+      position[byId[rank]] = rank;
+    }
+    int[] neighbors = new int[16];
+    for (int rank = 0; rank < n; rank++) {
+      int index = byId[rank];
+      builder.addVertex(graph.idOf(index), graph.isKey(index));
+      int degree = 0;
+      cursor.of(index);
+      for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+        if (degree == neighbors.length) neighbors = Arrays.copyOf(neighbors, degree * 2);
+        neighbors[degree++] = position[next];
+      }
+      Arrays.sort(neighbors, 0, degree);
+      for (int i = 0; i < degree; i++) {
+        builder.addEdge(neighbors[i]);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Builds an off-heap graph from the map representation used by Practice.
+   * Null neighbor sets are treated as empty and null neighbors are ignored.
+   *
+   * @param graph a map where each key is a vertex and its value is the set of its neighbors
+   * @return an off-heap copy of the graph
+   */
+  public static OffHeapGraph fromMap(Map<Integer, Set<Integer>> graph) {
+    return copyOf(CsrGraph.fromMap(graph));
+  }
+
+  @Override
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  @Override
+  public long edgeCount() {
+    return edgeCount;
+  }
+
+  @Override
+  public int indexOf(int id) {
+    int low = 0;
+    int high = vertexCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int value = ids.getInt(mid);
+      if (value < id) low = mid + 1;
+      else if (value > id) high = mid - 1;
+      else return mid;
+    }
+    return -1;
+  }
+
+  @Override
+  public int idOf(int index) {
+    return ids.getInt(index);
+  }
+
+  @Override
+  public boolean isKey(int index) {
+    return (keys.getLong(index >>> 6) & (1L << index)) != 0;
+  }
+
+  @Override
+  public int degree(int index) {
+    return (int) (offsets.getLong(index + 1) - offsets.getLong(index));
+  }
+
+  /**
+   * @param index a dense vertex index
+   * @return the position of the first outgoing edge of the vertex
+   */
+  public long edgeStart(int index) {
+    return offsets.getLong(index);
+  }
+
+  /**
+   * @param index a dense vertex index
+   * @return one past the position of the last outgoing edge of the vertex
+   */
+  public long edgeEnd(int index) {
+    return offsets.getLong(index + 1);
+  }
+
+  /**
+   * @param edge an edge position in [edgeStart(i), edgeEnd(i))
+   * @return the dense index of the neighbor at the end of that edge
+   */
+  public int target(long edge) {
+    return targets.getInt(edge);
+  }
+
+  @Override
+  public Cursor cursor() {
+    return new Cursor() {
+      private long edge;
+      private long end;
+
+      @Override
+      public Cursor of(int index) {
+        edge = offsets.getLong(index);
+        end = offsets.getLong(index + 1);
+        return this;
+      }
+
+      @Override
+      public int next() {
+        return edge < end ? targets.getInt(edge++) : -1;
+      }
+    };
+  }
+
+  /**
+   * Returns the reverse of this graph, also off the heap. It is built on first use and cached.
+   *
+   * @return the graph whose edges run from target to source
+   */
+  @Override
+  public OffHeapGraph reverse() {
+    OffHeapGraph result = reverse;
+    if (result == null) {
+      // Racing threads may each build one; they are identical, so any of them can win.
+      result = buildReverse();
+      result.reverse = this;
+      reverse = result;
+    }
+    return result;
+  }
+
+  /**
+   * Drops this graph's mappings, leaving them to the garbage collector. The vertex arrays shared
+   * with the reverse are dropped by whichever of the two is closed last. Calling it again does
+   * nothing.
+   */
+  @Override
+  public void close() {
+    // Both directions lock the shared ids region, so exactly one of them sees the other closed.
+    synchronized (ids) {
+      if (closed) return;
+      closed = true;
+      offsets.close();
+      targets.close();
+      OffHeapGraph other = reverse;
+      if (other == null || other.closed) {
+        ids.close();
+        keys.close();
+      }
+    }
+  }
+
+  /**
+   * @return the bytes currently mapped by this graph, excluding a cached reverse
+   */
+  long mappedBytes() {
+    return ids.capacity() + keys.capacity() + offsets.capacity() + targets.capacity();
+  }
+
+  private OffHeapGraph buildReverse() {
+    Region reverseOffsets = new Region(8L * (vertexCount + 1), chunkBits);
+    for (long edge = 0; edge < edgeCount; edge++) {
+      int target = targets.getInt(edge);
+      reverseOffsets.putLong(target + 1, reverseOffsets.getLong(target + 1) + 1);
+    }
+    for (int i = 0; i < vertexCount; i++) {
+      reverseOffsets.putLong(i + 1, reverseOffsets.getLong(i + 1) + reverseOffsets.getLong(i));
+    }
+    // Fill positions start as a copy of the offsets and end up one vertex ahead of them.
+    Region next = new Region(8L * vertexCount, chunkBits);
+    for (int i = 0; i < vertexCount; i++) {
+      next.putLong(i, reverseOffsets.getLong(i));
+    }
+    Region reverseTargets = new Region(4 * edgeCount, chunkBits);
+    // Sources are visited in ascending order, so every reversed neighbor list comes out sorted.
+    for (int source = 0; source < vertexCount; source++) {
+      for (long edge = offsets.getLong(source), end = offsets.getLong(source + 1); edge < end; edge++) {
+        int target = targets.getInt(edge);
+        long position = next.getLong(target);
+        reverseTargets.putInt(position, source);
+        next.putLong(target, position + 1);
+      }
+    }
+    return new OffHeapGraph(vertexCount, edgeCount, ids, keys, reverseOffsets, reverseTargets, chunkBits);
+  }
+
+  /**
+   * Streams a graph off the heap. Vertices must be added in strictly ascending id order, and each
+   * vertex's edges are added right after it, as dense indices of their targets; a target may be a
+   * vertex that has not been added yet. Not thread-safe, and a builder builds one graph.
+   */
+  public static final class Builder {
+    private final int chunkBits;
+    private Region ids;
+    private Region keys;
+    private Region offsets;
+    private Region targets;
+    private int vertexCount;
+    private long edgeCount;
+    private int maxTarget = -1;
+    private boolean built;
+
+    private Builder(int chunkBits) {
+      this.chunkBits = chunkBits;
+      ids = new Region(0, chunkBits);
+      keys = new Region(0, chunkBits);
+      offsets = new Region(8, chunkBits);
+      targets = new Region(0, chunkBits);
+    }
+
+    /**
+     * Adds the next vertex.
+     *
+     * @param id the vertex id; must be greater than every id added before
+     * @param key whether the vertex counts as a key of the graph (isKey)
+     * @return the dense index of the vertex
+     * @throws IllegalArgumentException if id is not greater than the previous id
+     */
+    public int addVertex(int id, boolean key) {
+      checkOpen();
+      if (vertexCount > 0 && id <= ids.getInt(vertexCount - 1)) {
+        throw new IllegalArgumentException("vertex ids must be added in ascending order: " + id);
+      }
+      if (vertexCount == Integer.MAX_VALUE - 1) throw new IllegalStateException("too many vertices");
+      int index = vertexCount++;
+      ids.ensure(4L * vertexCount);
+      ids.putInt(index, id);
+      keys.ensure(8L * ((vertexCount + 63) >>> 6));
+      if (key) keys.putLong(index >>> 6, keys.getLong(index >>> 6) | 1L << index);
+      offsets.ensure(8L * (vertexCount + 1));
+      offsets.putLong(vertexCount, edgeCount);
+      return index;
+    }
+
+    /**
+     * Adds an edge from the vertex added last.
+     *
+     * @param target the dense index of the neighbor
+     * @throws IllegalStateException if no vertex has been added yet
+     */
+    public void addEdge(int target) {
+      checkOpen();
+      if (vertexCount == 0) throw new IllegalStateException("add a vertex before its edges");
+      if (target < 0) throw new IllegalArgumentException("negative target index: " + target);
+      targets.ensure(4 * (edgeCount + 1));
+      targets.putInt(edgeCount++, target);
+      offsets.putLong(vertexCount, edgeCount);
+      maxTarget = Math.max(maxTarget, target);
+    }
+
+    /**
+     * @return the graph
+     * @throws IllegalArgumentException if an edge points past the last vertex
+     */
+    public OffHeapGraph build() {
+      checkOpen();
+      if (maxTarget >= vertexCount) {
+        throw new IllegalArgumentException("edge target " + maxTarget + " is not a vertex index");
+      }
+      built = true;
+      return new OffHeapGraph(vertexCount, edgeCount, ids, keys, offsets, targets, chunkBits);
+    }
+
+    private void checkOpen() {
+      if (built) throw new IllegalStateException("builder already built its graph");
+    }
+  }
+
+  /**
+   * A growable, zero-filled array of bytes addressed by long positions, stored as fixed-size chunks
+   * each mapped from its own temporary file. The files are deleted as soon as they are mapped, so
+   * nothing is left behind. Every chunk but the last is full size; the last is mapped at the next
+   * power of two (at least a page) that covers the region, and growing it maps a bigger file and
+   * copies the old one over; the garbage collector unmaps the chunk it replaces. Reads and writes
+   * of ints and longs use element indices and never straddle a chunk.
+   */
+  static final class Region {
+    private static final long MIN_MAPPING = 4096;
+
+    private final int chunkBits;
+    private final long chunkMask;
+    private MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+    private long capacity;
+
+    Region(long bytes, int chunkBits) {
+      this.chunkBits = chunkBits;
+      this.chunkMask = (1L << chunkBits) - 1;
+      ensure(bytes);
+    }
+
+    /**
+     * Maps or grows chunks until the region holds at least bytes bytes.
+     */
+    void ensure(long bytes) {
+      if (bytes <= capacity) return;
+      int needed = (int) ((bytes + chunkMask) >>> chunkBits);
+      MappedByteBuffer[] grown = Arrays.copyOf(chunks, needed);
+      for (int i = Math.max(0, chunks.length - 1); i < needed; i++) {
+        long size = i < needed - 1 ? 1L << chunkBits : lastChunkSize(bytes - ((long) i << chunkBits));
+        MappedByteBuffer old = grown[i];
+        if (old != null && old.capacity() >= size) continue;
+        MappedByteBuffer chunk = mapChunk(size);
+        if (old != null) chunk.put(0, old, 0, old.capacity());
+        grown[i] = chunk;
+      }
+      chunks = grown;
+      capacity = ((long) (needed - 1) << chunkBits) + grown[needed - 1].capacity();
+    }
+
+    private long lastChunkSize(long bytes) {
+      long size = Math.max(MIN_MAPPING, Long.highestOneBit(bytes - 1) << 1);
+      return Math.min(size, 1L << chunkBits);
+    }
+
+    /**
+     * @return the number of bytes mapped
+     */
+    long capacity() {
+      return capacity;
+    }
+
+    /**
+     * Drops every chunk; the region is empty afterward.
+     */
+    void close() {
+      chunks = new MappedByteBuffer[0];
+      capacity = 0;
+    }
+
+    int getInt(long index) {
+      long position = index << 2;
+      return chunks[(int) (position >>> chunkBits)].getInt((int) (position & chunkMask));
+    }
+
+    void putInt(long index, int value) {
+      long position = index << 2;
+      chunks[(int) (position >>> chunkBits)].putInt((int) (position & chunkMask), value);
+    }
+
+    long getLong(long index) {
+      long position = index << 3;
+      return chunks[(int) (position >>> chunkBits)].getLong((int) (position & chunkMask));
+    }
+
+    void putLong(long index, long value) {
+      long position = index << 3;
+      chunks[(int) (position >>> chunkBits)].putLong((int) (position & chunkMask), value);
+    }
+
+    private static MappedByteBuffer mapChunk(long size) {
+      try {
+        String dir = System.getProperty("graph.offHeapDir");
+        Path path = dir == null ? Files.createTempFile("graph-offheap", ".chunk")
+            : Files.createTempFile(Path.of(dir), "graph-offheap", ".chunk");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE)) {
+          // The mapping outlives the channel and the file name; the file is sparse until written.
+          MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+          chunk.order(ByteOrder.nativeOrder());
+          return chunk;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("cannot map off-heap graph storage", e);
+      }
+    }
+  }
+}
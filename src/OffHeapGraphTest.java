@@ -0,0 +1,185 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class OffHeapGraphTest {
+
+  private static Map<Integer, Set<Integer>> randomMap(long seed, int vertices, int edges) {
+    return GraphFixtures.randomMap(seed, vertices, edges, -100, 300, 0.2);
+  }
+
+  @Test
+  public void testMatchesCsrGraphAcrossChunkBoundaries() {
+    Map<Integer, Set<Integer>> map = randomMap(7, 150, 500);
+    CsrGraph csr = CsrGraph.fromMap(map);
+    // 256-byte chunks, so every array spans many chunks.
+    OffHeapGraph graph = OffHeapGraph.copyOf(csr, 8);
+
+    assertEquals(csr.vertexCount(), graph.vertexCount());
+    assertEquals(csr.edgeCount(), graph.edgeCount());
+    IntGraph.Cursor expected = csr.cursor();
+    IntGraph.Cursor actual = graph.cursor();
+    for (int i = 0; i < csr.vertexCount(); i++) {
+      assertEquals(csr.idOf(i), graph.idOf(i));
+      assertEquals(i, graph.indexOf(csr.idOf(i)));
+      assertEquals(csr.isKey(i), graph.isKey(i));
+      assertEquals(csr.degree(i), graph.degree(i));
+      expected.of(i);
+      actual.of(i);
+      for (int next = expected.next(); next >= 0; next = expected.next()) {
+        assertEquals(next, actual.next());
+      }
+      assertEquals(-1, actual.next());
+    }
+    assertEquals(-1, graph.indexOf(999));
+
+    IntGraph reverse = graph.reverse();
+    IntGraph.Cursor reverseExpected = csr.reverse().cursor();
+    IntGraph.Cursor reverseActual = reverse.cursor();
+    for (int i = 0; i < csr.vertexCount(); i++) {
+      reverseExpected.of(i);
+      reverseActual.of(i);
+      for (int next = reverseExpected.next(); next >= 0; next = reverseExpected.next()) {
+        assertEquals(next, reverseActual.next());
+      }
+      assertEquals(-1, reverseActual.next());
+    }
+    assertSame(graph, reverse.reverse());
+  }
+
+  @Test
+  public void testPracticeQueriesMatchMap() {
+    Map<Integer, Set<Integer>> map = randomMap(11, 80, 200);
+    OffHeapGraph graph = OffHeapGraph.fromMap(map);
+    for (int starting : map.keySet()) {
+      List<Integer> expected = Practice.sortedReachable(map, starting);
+      int[] actual = Practice.sortedReachable(graph, starting);
+      assertEquals(expected.size(), actual.length);
+      for (int i = 0; i < actual.length; i++) {
+        assertEquals(expected.get(i), actual[i]);
+      }
+    }
+    Random random = new Random(5);
+    List<Integer> keys = new ArrayList<>(map.keySet());
+    for (int i = 0; i < 500; i++) {
+      int starting = keys.get(random.nextInt(keys.size()));
+      int ending = keys.get(random.nextInt(keys.size()));
+      assertEquals(Practice.positivePathExists(map, starting, ending),
+          Practice.positivePathExists(graph, starting, ending));
+    }
+  }
+
+  @Test
+  public void testSmallGraph_MapsOnlyWhatItNeeds() {
+    Map<Integer, Set<Integer>> map = randomMap(13, 3000, 20_000);
+    CsrGraph csr = CsrGraph.fromMap(map);
+    // Default 1 GiB chunks: the arrays grow through several remaps of their last chunk.
+    OffHeapGraph graph = OffHeapGraph.copyOf(csr, OffHeapGraph.DEFAULT_CHUNK_BITS);
+    long needed = 4L * csr.vertexCount() + 8L * ((csr.vertexCount() + 63) / 64)
+        + 8L * (csr.vertexCount() + 1) + 4L * csr.edgeCount();
+    assertTrue(graph.mappedBytes() <= 2 * needed + 4 * 4096, "mapped " + graph.mappedBytes());
+    for (int starting : map.keySet()) {
+      assertArrayEquals(Practice.sortedReachable(csr, starting), Practice.sortedReachable(graph, starting));
+    }
+    graph.close();
+    assertEquals(0, graph.mappedBytes());
+  }
+
+  @Test
+  public void testClose_LeavesReverseAndCopiesUsable() {
+    Map<Integer, Set<Integer>> map = randomMap(17, 100, 300);
+    CsrGraph csr = CsrGraph.fromMap(map);
+    int starting = csr.idOf(0);
+
+    // Closing the reverse keeps the vertex arrays it shares with the original.
+    OffHeapGraph graph = OffHeapGraph.copyOf(csr, 8);
+    OffHeapGraph reverse = graph.reverse();
+    reverse.close();
+    reverse.close();
+    assertArrayEquals(Practice.sortedReachable(csr, starting), Practice.sortedReachable(graph, starting));
+    assertThrows(IndexOutOfBoundsException.class, () -> reverse.cursor().of(0));
+    graph.close();
+    assertEquals(0, graph.mappedBytes());
+    assertThrows(IndexOutOfBoundsException.class, () -> graph.indexOf(starting));
+
+    // And the other way round.
+    OffHeapGraph other = OffHeapGraph.copyOf(csr, 8);
+    OffHeapGraph otherReverse = other.reverse();
+    other.close();
+    assertArrayEquals(Practice.sortedReachable(csr.reverse(), starting),
+        Practice.sortedReachable(otherReverse, starting));
+    otherReverse.close();
+    assertEquals(0, otherReverse.mappedBytes());
+
+    // A copy of an off-heap graph is its own graph.
+    OffHeapGraph original = OffHeapGraph.copyOf(csr);
+    OffHeapGraph copy = OffHeapGraph.copyOf(original);
+    assertNotSame(original, copy);
+    copy.close();
+    assertArrayEquals(Practice.sortedReachable(csr, starting), Practice.sortedReachable(original, starting));
+    original.close();
+  }
+
+  @Test
+  public void testCopyOf_RelabelledGraphIsCopiedInIdOrder() {
+    Map<Integer, Set<Integer>> map = randomMap(19, 120, 400);
+    CsrGraph csr = CsrGraph.fromMap(map);
+    for (VertexOrdering.Order order : VertexOrdering.Order.values()) {
+      CsrGraph relabelled = VertexOrdering.reorder(csr, order);
+      OffHeapGraph graph = OffHeapGraph.copyOf(relabelled, 8);
+      assertTrue(graph.idOrdered());
+      assertEquals(csr.vertexCount(), graph.vertexCount());
+      assertEquals(csr.edgeCount(), graph.edgeCount());
+      IntGraph.Cursor expected = csr.cursor();
+      IntGraph.Cursor actual = graph.cursor();
+      for (int i = 0; i < csr.vertexCount(); i++) {
+        assertEquals(csr.idOf(i), graph.idOf(i), order.name());
+        assertEquals(csr.isKey(i), graph.isKey(i), order.name());
+        expected.of(i);
+        actual.of(i);
+        for (int next = expected.next(); next >= 0; next = expected.next()) {
+          assertEquals(next, actual.next(), order.name());
+        }
+        assertEquals(-1, actual.next(), order.name());
+      }
+    }
+  }
+
+  @Test
+  public void testBuilder_StreamsVerticesAndEdges() {
+    // 10 -> 30, 20 -> {10, 30}, 30 has no edges and is not a key.
+    OffHeapGraph.Builder builder = OffHeapGraph.builder(8);
+    assertEquals(0, builder.addVertex(10, true));
+    builder.addEdge(2);
+    assertEquals(1, builder.addVertex(20, true));
+    builder.addEdge(0);
+    builder.addEdge(2);
+    assertEquals(2, builder.addVertex(30, false));
+    OffHeapGraph graph = builder.build();
+
+    assertEquals(3, graph.vertexCount());
+    assertEquals(3, graph.edgeCount());
+    assertEquals(1, graph.edgeStart(1));
+    assertEquals(3, graph.edgeEnd(1));
+    assertEquals(0, graph.target(1));
+    assertFalse(graph.isKey(2));
+    assertArrayEquals(new int[]{10, 30}, Practice.sortedReachable(graph, 10));
+    assertArrayEquals(new int[0], Practice.sortedReachable(graph, 30));
+    assertThrows(IllegalStateException.class, () -> builder.addVertex(40, true));
+  }
+
+  @Test
+  public void testBuilder_RejectsBadInput() {
+    OffHeapGraph.Builder unordered = OffHeapGraph.builder(8);
+    unordered.addVertex(5, true);
+    assertThrows(IllegalArgumentException.class, () -> unordered.addVertex(5, true));
+    assertThrows(IllegalArgumentException.class, () -> unordered.addVertex(4, true));
+
+    assertThrows(IllegalStateException.class, () -> OffHeapGraph.builder(8).addEdge(0));
+
+    OffHeapGraph.Builder dangling = OffHeapGraph.builder(8);
+    dangling.addVertex(1, true);
+    dangling.addEdge(1);
+    assertThrows(IllegalArgumentException.class, dangling::build);
+  }
+}
@@ -0,0 +1,267 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Level-synchronous parallel breadth-first search over int graphs.
+ *
+ * Each level is expanded by tasks on a ForkJoinPool. Top-down levels split the frontier into
+ * fixed-size chunks; every chunk claims newly discovered vertices with a CAS on a shared visited
+ * bitmap and collects them in a private buffer, and the buffers are concatenated into the next
+ * frontier. When the frontier grows large the search switches to bottom-up (direction-optimizing)
+ * expansion: every still-unvisited vertex scans its in-edges for a parent in the frontier, which
+ * touches far fewer edges once most of the graph is about to be reached.
+ *
+ * The set of reached vertices does not depend on scheduling, so the query methods return exactly
+ * what the sequential Practice methods return.
+ */
+public final class ParallelBfs {
+  private static final int CHUNK = 1024;
+  // Switch to bottom-up once the frontier holds more than 1/BOTTOM_UP_DIVISOR of the vertices,
+  // and back to top-down once it shrinks below 1/TOP_DOWN_DIVISOR.
+  private static final int BOTTOM_UP_DIVISOR = 20;
+  private static final int TOP_DOWN_DIVISOR = 40;
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a search that runs on the common ForkJoin pool.
+   */
+  public ParallelBfs() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a search that runs on the given pool.
+   *
+   * @param pool the pool that expands each level
+   */
+  public ParallelBfs(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Returns the sorted values reachable from starting, with the same result as
+   * Practice.sortedReachable(IntGraph, int).
+   *
+   * @param graph an int graph
+   * @param starting the starting vertex value
+   * @return the reachable vertex values in ascending order
+   */
+  public int[] sortedReachable(IntGraph graph, int starting) {
+    int start = graph.indexOf(starting);
+    if (start < 0 || !graph.isKey(start)) return new int[0];
+    long[] visited = reach(graph, start);
+    int[] result = new int[cardinality(visited)];
+    int out = 0;
+    for (int word = 0; word < visited.length; word++) {
+      long bits = visited[word];
+      while (bits != 0) {
+        result[out++] = graph.idOf((word << 6) + Long.numberOfTrailingZeros(bits));
+        bits &= bits - 1;
+      }
+    }
+    if (!graph.idOrdered()) RadixSort.sort(result, result.length);
+    return result;
+  }
+
+  /**
+   * Returns the sorted values reachable from starting, with the same result as
+   * Practice.sortedReachable(Vertex).
+   *
+   * @param snapshot a snapshot containing starting
+   * @param starting the starting vertex (may be null)
+   * @return a sorted list of all reachable vertex values
+   */
+  public IntList sortedReachable(GraphSnapshot<Vertex<Integer>> snapshot, Vertex<Integer> starting) {
+    int start = starting == null ? -1 : snapshot.indexOf(starting);
+    if (start < 0) {
+      if (starting != null) throw new IllegalArgumentException("starting vertex is not in the snapshot");
+      return new IntList();
+    }
+    long[] visited = reach(snapshot.graph(), start);
+    int[] values = new int[cardinality(visited)];
+    int out = 0;
+    for (int word = 0; word < visited.length; word++) {
+      long bits = visited[word];
+      while (bits != 0) {
+        values[out++] = snapshot.node((word << 6) + Long.numberOfTrailingZeros(bits)).data;
+        bits &= bits - 1;
+      }
+    }
+    Arrays.parallelSort(values);
+    return IntList.of(values);
+  }
+
+  /**
+   * Counts the odd values reachable from starting, with the same result as Practice.oddVertices.
+   *
+   * @param snapshot a snapshot containing starting
+   * @param starting the starting vertex (may be null)
+   * @return the number of vertices with odd values reachable from the starting vertex
+   */
+  public int oddVertices(GraphSnapshot<Vertex<Integer>> snapshot, Vertex<Integer> starting) {
+    int start = starting == null ? -1 : snapshot.indexOf(starting);
+    if (start < 0) {
+      if (starting != null) throw new IllegalArgumentException("starting vertex is not in the snapshot");
+      return 0;
+    }
+    long[] visited = reach(snapshot.graph(), start);
+    return pool.submit(() -> IntStream.range(0, visited.length).parallel().map(word -> {
+      int count = 0;
+      long bits = visited[word];
+      while (bits != 0) {
+        Integer value = snapshot.node((word << 6) + Long.numberOfTrailingZeros(bits)).data;
+        if (value != null && value % 2 != 0) count++;
+        bits &= bits - 1;
+      }
+      return count;
+    }).sum()).join();
+  }
+
+  /**
+   * Runs a breadth-first search from the vertex at index source.
+   *
+   * @param graph an int graph
+   * @param source the dense index of the starting vertex
+   * @return a bitmap with bit i set when the vertex at index i is reachable from source
+   */
+  public long[] reach(IntGraph graph, int source) {
+    int n = graph.vertexCount();
+    AtomicLongArray visited = new AtomicLongArray((n + 63) >>> 6);
+    visited.set(source >>> 6, 1L << source);
+
+    IntGraph reverse = null;
+    int[] frontier = {source};
+    int frontierSize = 1;
+    long[] frontierBits = null;
+    while (frontierSize > 0) {
+      if ((long) frontierSize * BOTTOM_UP_DIVISOR > n
+          || (frontierBits != null && (long) frontierSize * TOP_DOWN_DIVISOR > n)) {
+        if (reverse == null) reverse = graph.reverse();
+        if (frontierBits == null) frontierBits = toBits(frontier, frontierSize, n);
+        long[] next = bottomUpStep(reverse, visited, frontierBits);
+        frontierBits = next;
+        frontierSize = cardinality(next);
+        frontier = null;
+      } else {
+        if (frontier == null) {
+          frontier = toList(frontierBits, frontierSize);
+          frontierBits = null;
+        }
+        frontier = topDownStep(graph, visited, frontier, frontierSize);
+        frontierSize = frontier.length;
+      }
+    }
+
+    long[] result = new long[visited.length()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = visited.get(i);
+    }
+    return result;
+  }
+
+  private int[] topDownStep(IntGraph graph, AtomicLongArray visited, int[] frontier, int size) {
+    int chunks = (size + CHUNK - 1) / CHUNK;
+    int[][] found = new int[chunks][];
+    int[] counts = new int[chunks];
+    pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+      IntGraph.Cursor cursor = graph.cursor();
+      int[] local = new int[64];
+      int count = 0;
+      int end = Math.min(size, (chunk + 1) * CHUNK);
+      for (int i = chunk * CHUNK; i < end; i++) {
+        cursor.of(frontier[i]);
+        for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+          if (claim(visited, next)) {
+            if (count == local.length) local = Arrays.copyOf(local, count * 2);
+            local[count++] = next;
+          }
+        }
+      }
+      found[chunk] = local;
+      counts[chunk] = count;
+    })).join();
+
+    int total = 0;
+    for (int count : counts) {
+      total += count;
+    }
+    int[] next = new int[total];
+    int out = 0;
+    for (int chunk = 0; chunk < chunks; chunk++) {
+      System.arraycopy(found[chunk], 0, next, out, counts[chunk]);
+      out += counts[chunk];
+    }
+    return next;
+  }
+
+  private long[] bottomUpStep(IntGraph reverse, AtomicLongArray visited, long[] frontierBits) {
+    int n = reverse.vertexCount();
+    long[] next = new long[frontierBits.length];
+    int wordsPerChunk = CHUNK >>> 6;
+    int chunks = (next.length + wordsPerChunk - 1) / wordsPerChunk;
+    // Each task owns whole bitmap words, so it can update visited and next without contention.
+    pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+      IntGraph.Cursor cursor = reverse.cursor();
+      int endWord = Math.min(next.length, (chunk + 1) * wordsPerChunk);
+      for (int word = chunk * wordsPerChunk; word < endWord; word++) {
+        long seen = visited.get(word);
+        long reached = 0;
+        int endVertex = Math.min(n, (word + 1) << 6);
+        for (int vertex = word << 6; vertex < endVertex; vertex++) {
+          if ((seen & (1L << vertex)) != 0) continue;
+          cursor.of(vertex);
+          for (int parent = cursor.next(); parent >= 0; parent = cursor.next()) {
+            if ((frontierBits[parent >>> 6] & (1L << parent)) != 0) {
+              reached |= 1L << vertex;
+              break;
+            }
+          }
+        }
+        if (reached != 0) {
+          visited.set(word, seen | reached);
+          next[word] = reached;
+        }
+      }
+    })).join();
+    return next;
+  }
+
+  private static boolean claim(AtomicLongArray visited, int vertex) {
+    int word = vertex >>> 6;
+    long bit = 1L << vertex;
+    long current = visited.get(word);
+    while ((current & bit) == 0) {
+      if (visited.compareAndSet(word, current, current | bit)) return true;
+      current = visited.get(word);
+    }
+    return false;
+  }
+
+  private static long[] toBits(int[] list, int size, int n) {
+    long[] bits = new long[(n + 63) >>> 6];
+    for (int i = 0; i < size; i++) {
+      bits[list[i] >>> 6] |= 1L << list[i];
+    }
+    return bits;
+  }
+
+  private static int[] toList(long[] bits, int size) {
+    int[] list = new int[size];
+    int out = 0;
+    for (int word = 0; word < bits.length; word++) {
+      long remaining = bits[word];
+      while (remaining != 0) {
+        list[out++] = (word << 6) + Long.numberOfTrailingZeros(remaining);
+        remaining &= remaining - 1;
+      }
+    }
+    return list;
+  }
+
+  private static int cardinality(long[] bits) {
+    return BitmapKernels.get().cardinality(bits, 0, bits.length);
+  }
+}
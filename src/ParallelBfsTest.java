@@ -0,0 +1,78 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelBfsTest {
+
+  // Random directed graph over ids 0..n-1 (with a few negative ids mixed in), built with a fixed seed.
+  private Map<Integer, Set<Integer>> randomMapGraph(int n, int edgesPerVertex, long seed) {
+    Random random = new Random(seed);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      int id = i % 17 == 0 ? -i : i;
+      Set<Integer> neighbors = new HashSet<>();
+      for (int e = 0; e < edgesPerVertex; e++) {
+        int j = random.nextInt(n);
+        neighbors.add(j % 17 == 0 ? -j : j);
+      }
+      graph.put(id, neighbors);
+    }
+    return graph;
+  }
+
+  @Test
+  public void testSortedReachable_MatchesSequential() {
+    // Dense enough that the frontier crosses the bottom-up threshold.
+    Map<Integer, Set<Integer>> graph = randomMapGraph(20_000, 4, 42);
+    CsrGraph csr = CsrGraph.fromMap(graph);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      ParallelBfs bfs = new ParallelBfs(pool);
+      for (int starting : new int[]{1, 2, 500, 19_999, -17, 123_456}) {
+        List<Integer> expected = Practice.sortedReachable(graph, starting);
+        int[] actual = bfs.sortedReachable(csr, starting);
+        assertEquals(expected.size(), actual.length);
+        for (int i = 0; i < actual.length; i++) {
+          assertEquals(expected.get(i), actual[i]);
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSortedReachable_SparseChain() {
+    // A long chain keeps the frontier at one vertex, so it never leaves top-down mode.
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < 5_000; i++) {
+      graph.put(i, new HashSet<>(Arrays.asList(i + 1)));
+    }
+    int[] result = new ParallelBfs().sortedReachable(CsrGraph.fromMap(graph), 4_990);
+    assertArrayEquals(new int[]{4_990, 4_991, 4_992, 4_993, 4_994, 4_995, 4_996, 4_997, 4_998, 4_999, 5_000}, result);
+  }
+
+  @Test
+  public void testVertexQueries_MatchSequential() {
+    Random random = new Random(7);
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      vertices.add(new Vertex<>(random.nextInt(100)));
+    }
+    for (Vertex<Integer> vertex : vertices) {
+      for (int e = 0; e < 3; e++) {
+        vertex.neighbors.add(vertices.get(random.nextInt(vertices.size())));
+      }
+    }
+    GraphSnapshot<Vertex<Integer>> snapshot = GraphSnapshot.ofVertices(vertices);
+    ParallelBfs bfs = new ParallelBfs();
+    for (int i = 0; i < 5; i++) {
+      Vertex<Integer> start = vertices.get(random.nextInt(vertices.size()));
+      assertEquals(Practice.oddVertices(start), bfs.oddVertices(snapshot, start));
+      assertEquals(Practice.sortedReachable(start), bfs.sortedReachable(snapshot, start));
+    }
+    assertEquals(0, bfs.oddVertices(snapshot, null));
+    assertTrue(bfs.sortedReachable(snapshot, null).isEmpty());
+  }
+}
@@ -0,0 +1,364 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A precomputed answer table for positivePathExists over one static graph.
+ *
+ * Only positive vertices can be on a positive path, so the index is built over the subgraph
+ * induced by the positive ids. Its strongly connected components are collapsed with SccIndex, and
+ * reachability between components is stored in one of two forms:
+ * <ul>
+ *   <li>CLOSURE: the full transitive closure of the condensation as one bit row per component. A
+ *       query is a single bit test. Size grows with the square of the component count.</li>
+ *   <li>TWO_HOP: pruned 2-hop labels (Akiba, Iwata and Yoshida's pruned landmark labeling, run on
+ *       the condensation DAG). Every component gets an out-label of hubs it reaches and an
+ *       in-label of hubs that reach it, and a reaches b exactly when the two labels share a hub. A
+ *       query is a merge of two short sorted lists. Components are taken as hubs in decreasing
+ *       order of (in-degree + 1) * (out-degree + 1), so well connected components cover most pairs
+ *       and later searches are pruned early.</li>
+ * </ul>
+ * AUTO picks CLOSURE when it fits in CLOSURE_BUDGET_BYTES and TWO_HOP otherwise. In both forms a
+ * query first compares component ids: Tarjan numbers components in reverse topological order, so
+ * a component can only reach components with smaller ids.
+ *
+ * buildNanos and sizeBytes report what the index cost, so the forms can be compared per graph.
+ * The index is immutable and safe to share between threads; build a new one when the graph changes.
+ */
+public final class PositiveReachabilityIndex {
+  static final long CLOSURE_BUDGET_BYTES = 64L << 20;
+
+  /**
+   * How reachability between components is stored.
+   */
+  public enum Mode {
+    AUTO,
+    CLOSURE,
+    TWO_HOP
+  }
+
+  private final int[] ids;
+  private final long[] keys;
+  private final int[] component;
+  private final int componentCount;
+  private final Mode mode;
+  // CLOSURE: one row of words longs per component.
+  private final long[] closure;
+  private final int words;
+  // TWO_HOP: hub ranks of each component's labels, CSR style.
+  private final int[] outOffsets;
+  private final int[] outHubs;
+  private final int[] inOffsets;
+  private final int[] inHubs;
+  private final long buildNanos;
+
+  private PositiveReachabilityIndex(IntGraph graph, Mode requested) {
+    long start = System.nanoTime();
+    CsrGraph positive = positiveSubgraph(graph);
+    int n = positive.vertexCount();
+    this.ids = new int[n];
+    this.keys = new long[(n + 63) >>> 6];
+    for (int i = 0; i < n; i++) {
+      ids[i] = positive.idOf(i);
+      if (positive.isKey(i)) keys[i >>> 6] |= 1L << i;
+    }
+    SccIndex scc = SccIndex.of(positive);
+    this.component = new int[n];
+    for (int i = 0; i < n; i++) {
+      component[i] = scc.componentOf(i);
+    }
+    CsrGraph dag = scc.condensation();
+    int count = dag.vertexCount();
+    this.componentCount = count;
+    int closureWords = (count + 63) >>> 6;
+    Mode chosen = requested;
+    if (chosen == Mode.AUTO) {
+      chosen = 8L * count * closureWords <= CLOSURE_BUDGET_BYTES ? Mode.CLOSURE : Mode.TWO_HOP;
+    }
+    this.mode = chosen;
+    if (chosen == Mode.CLOSURE) {
+      if ((long) count * closureWords > Integer.MAX_VALUE - 8) {
+        throw new IllegalArgumentException("too many components for a closure: " + count);
+      }
+      this.words = closureWords;
+      this.closure = buildClosure(dag, closureWords);
+      this.outOffsets = null;
+      this.outHubs = null;
+      this.inOffsets = null;
+      this.inHubs = null;
+    } else {
+      this.words = 0;
+      this.closure = null;
+      Labels labels = new Labels(dag);
+      this.outOffsets = labels.outOffsets;
+      this.outHubs = labels.outHubs;
+      this.inOffsets = labels.inOffsets;
+      this.inHubs = labels.inHubs;
+    }
+    this.buildNanos = System.nanoTime() - start;
+  }
+
+  /**
+   * Builds the index, choosing the form automatically.
+   *
+   * @param graph an int graph
+   * @return the index
+   */
+  public static PositiveReachabilityIndex of(IntGraph graph) {
+    return new PositiveReachabilityIndex(graph, Mode.AUTO);
+  }
+
+  /**
+   * Builds the index in the given form.
+   *
+   * @param graph an int graph
+   * @param mode the form to build
+   * @return the index
+   */
+  public static PositiveReachabilityIndex of(IntGraph graph, Mode mode) {
+    return new PositiveReachabilityIndex(graph, mode);
+  }
+
+  /**
+   * Builds the index over the map representation used by Practice.
+   *
+   * @param graph a map where each key is a vertex and its value is the set of its neighbors
+   * @param mode the form to build
+   * @return the index
+   */
+  public static PositiveReachabilityIndex ofMap(Map<Integer, Set<Integer>> graph, Mode mode) {
+    return new PositiveReachabilityIndex(CsrGraph.fromMap(graph), mode);
+  }
+
+  /**
+   * Same contract as Practice.positivePathExists on the graph the index was built from.
+   *
+   * @param starting the starting vertex value
+   * @param ending the ending vertex value
+   * @return whether there exists a valid positive path from starting to ending
+   */
+  public boolean positivePathExists(int starting, int ending) {
+    if (starting <= 0 || ending <= 0) return false;
+    int start = Arrays.binarySearch(ids, starting);
+    int end = Arrays.binarySearch(ids, ending);
+    if (start < 0 || end < 0 || !isKey(start) || !isKey(end)) return false;
+    return reaches(component[start], component[end]);
+  }
+
+  /**
+   * @return the form that was built; never AUTO
+   */
+  public Mode mode() {
+    return mode;
+  }
+
+  /**
+   * @return the number of strongly connected components of the positive subgraph
+   */
+  public int componentCount() {
+    return componentCount;
+  }
+
+  /**
+   * @return the time taken to build the index, in nanoseconds
+   */
+  public long buildNanos() {
+    return buildNanos;
+  }
+
+  /**
+   * @return the approximate heap footprint of the index's arrays, in bytes
+   */
+  public long sizeBytes() {
+    long bytes = 4L * ids.length + 8L * keys.length + 4L * component.length;
+    if (mode == Mode.CLOSURE) return bytes + 8L * closure.length;
+    return bytes + 4L * (outOffsets.length + outHubs.length + inOffsets.length + inHubs.length);
+  }
+
+  /**
+   * @return the average number of hubs per component label, in and out together; 0 for CLOSURE
+   */
+  public double averageLabelSize() {
+    if (mode == Mode.CLOSURE) return 0;
+    return componentCount == 0 ? 0 : (double) (outHubs.length + inHubs.length) / componentCount;
+  }
+
+  private boolean isKey(int index) {
+    return (keys[index >>> 6] & (1L << index)) != 0;
+  }
+
+  private boolean reaches(int from, int to) {
+    if (from == to) return true;
+    if (from < to) return false;
+    if (mode == Mode.CLOSURE) {
+      return (closure[from * words + (to >>> 6)] & (1L << to)) != 0;
+    }
+    int i = outOffsets[from];
+    int iEnd = outOffsets[from + 1];
+    int j = inOffsets[to];
+    int jEnd = inOffsets[to + 1];
+    while (i < iEnd && j < jEnd) {
+      int a = outHubs[i];
+      int b = inHubs[j];
+      if (a == b) return true;
+      if (a < b) i++; else j++;
+    }
+    return false;
+  }
+
+  /**
+   * The subgraph induced by the positive ids. Indices follow id order (a relabelled graph is put
+   * back in id order first), so the positive vertices are a suffix of the graph's indices and keep
+   * their relative order.
+   */
+  private static CsrGraph positiveSubgraph(IntGraph graph) {
+    if (!graph.idOrdered()) graph = VertexOrdering.reorder(graph, VertexOrdering.Order.ID);
+    int low = 0;
+    int high = graph.vertexCount();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (graph.idOf(mid) > 0) high = mid; else low = mid + 1;
+    }
+    int first = low;
+    int n = graph.vertexCount() - first;
+    int[] ids = new int[n];
+    long[] keys = new long[(n + 63) >>> 6];
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[16];
+    int edges = 0;
+    IntGraph.Cursor cursor = graph.cursor();
+    for (int i = 0; i < n; i++) {
+      ids[i] = graph.idOf(first + i);
+      if (graph.isKey(first + i)) keys[i >>> 6] |= 1L << i;
+      cursor.of(first + i);
+      for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+        if (next < first) continue;
+        if (edges == targets.length) targets = Arrays.copyOf(targets, edges * 2);
+        targets[edges++] = next - first;
+      }
+      offsets[i + 1] = edges;
+    }
+    return new CsrGraph(ids, keys, offsets, Arrays.copyOf(targets, edges));
+  }
+
+  /**
+   * Fills one bit row per component. Successors have smaller ids, so building rows in ascending
+   * order means every successor's row is complete when it is merged in.
+   */
+  private static long[] buildClosure(CsrGraph dag, int words) {
+    int count = dag.vertexCount();
+    long[] rows = new long[count * words];
+    for (int c = 0; c < count; c++) {
+      int row = c * words;
+      rows[row + (c >>> 6)] |= 1L << c;
+      for (int edge = dag.edgeStart(c); edge < dag.edgeEnd(c); edge++) {
+        int successor = dag.target(edge) * words;
+        // Only words up to the successor's own id can be set in its row.
+        int last = dag.target(edge) >>> 6;
+        for (int w = 0; w <= last; w++) {
+          rows[row + w] |= rows[successor + w];
+        }
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Pruned landmark labeling over a DAG.
+   */
+  private static final class Labels {
+    final int[] outOffsets;
+    final int[] outHubs;
+    final int[] inOffsets;
+    final int[] inHubs;
+
+    Labels(CsrGraph dag) {
+      int count = dag.vertexCount();
+      CsrGraph reverse = dag.reverse();
+      // Highest score first, ties in component order, as packed (-score << 32 | component) longs.
+      // Scores past 2^31 only come from huge hubs and are capped, which just ties them.
+      long[] byScore = new long[count];
+      for (int c = 0; c < count; c++) {
+        long score = Math.min((long) (dag.degree(c) + 1) * (reverse.degree(c) + 1), Integer.MAX_VALUE);
+        byScore[c] = -score << 32 | c;
+      }
+      Arrays.sort(byScore);
+
+      int[][] out = new int[count][];
+      int[][] in = new int[count][];
+      int[] outSize = new int[count];
+      int[] inSize = new int[count];
+      int[] hubMark = new int[count];
+      int[] visited = new int[count];
+      int[] queue = new int[count];
+      Arrays.fill(hubMark, -1);
+      Arrays.fill(visited, -1);
+
+      for (int rank = 0; rank < count; rank++) {
+        int hub = (int) byScore[rank];
+        // Forward: every component the hub reaches gets it in its in-label, unless the labels
+        // built so far already prove hub reaches it.
+        for (int i = 0; i < outSize[hub]; i++) {
+          hubMark[out[hub][i]] = 2 * rank;
+        }
+        search(dag, hub, 2 * rank, visited, queue, in, inSize, hubMark, rank);
+        // Backward: every component reaching the hub gets it in its out-label.
+        for (int i = 0; i < inSize[hub]; i++) {
+          hubMark[in[hub][i]] = 2 * rank + 1;
+        }
+        search(reverse, hub, 2 * rank + 1, visited, queue, out, outSize, hubMark, rank);
+      }
+
+      this.outOffsets = new int[count + 1];
+      this.inOffsets = new int[count + 1];
+      for (int c = 0; c < count; c++) {
+        outOffsets[c + 1] = outOffsets[c] + outSize[c];
+        inOffsets[c + 1] = inOffsets[c] + inSize[c];
+      }
+      this.outHubs = new int[outOffsets[count]];
+      this.inHubs = new int[inOffsets[count]];
+      for (int c = 0; c < count; c++) {
+        if (outSize[c] > 0) System.arraycopy(out[c], 0, outHubs, outOffsets[c], outSize[c]);
+        if (inSize[c] > 0) System.arraycopy(in[c], 0, inHubs, inOffsets[c], inSize[c]);
+      }
+    }
+
+    /**
+     * Breadth-first search from hub that adds rank to the label of every vertex it reaches, except
+     * those already covered: a vertex is covered when its opposite label holds a hub marked with
+     * stamp. Covered vertices are not expanded.
+     */
+    private static void search(CsrGraph graph, int hub, int stamp, int[] visited, int[] queue,
+        int[][] labels, int[] sizes, int[] hubMark, int rank) {
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = hub;
+      visited[hub] = stamp;
+      while (head < tail) {
+        int v = queue[head++];
+        int[] label = labels[v];
+        boolean covered = false;
+        for (int i = 0; i < sizes[v]; i++) {
+          if (hubMark[label[i]] == stamp) {
+            covered = true;
+            break;
+          }
+        }
+        if (covered) continue;
+        if (label == null) {
+          label = labels[v] = new int[4];
+        } else if (sizes[v] == label.length) {
+          label = labels[v] = Arrays.copyOf(label, label.length * 2);
+        }
+        // Hubs are processed in rank order, so every label stays sorted by rank.
+        label[sizes[v]++] = rank;
+        for (int edge = graph.edgeStart(v); edge < graph.edgeEnd(v); edge++) {
+          int w = graph.target(edge);
+          if (visited[w] == stamp) continue;
+          visited[w] = stamp;
+          queue[tail++] = w;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,58 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class PositiveReachabilityIndexTest {
+
+  private static Map<Integer, Set<Integer>> randomMap(long seed, int vertices, int edges) {
+    return GraphFixtures.randomMap(seed, vertices, edges, -40, 121, 0.05);
+  }
+
+  @Test
+  public void testEveryModeMatchesPracticeOnAllPairs() {
+    for (long seed = 1; seed <= 4; seed++) {
+      Map<Integer, Set<Integer>> graph = randomMap(seed, 120, (int) (seed * 90));
+      List<Integer> ids = new ArrayList<>(graph.keySet());
+      ids.addAll(Arrays.asList(121, 122, 0, -1, 999));
+      for (PositiveReachabilityIndex.Mode mode : PositiveReachabilityIndex.Mode.values()) {
+        PositiveReachabilityIndex index = PositiveReachabilityIndex.ofMap(graph, mode);
+        for (int starting : ids) {
+          for (int ending : ids) {
+            assertEquals(Practice.positivePathExists(graph, starting, ending),
+                index.positivePathExists(starting, ending), mode + " " + starting + " -> " + ending);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testModesAndStatistics() {
+    // 1 -> 2 -> 3 -> 1 is one component, 3 -> -4 -> 5 is cut by the negative vertex, 3 -> 6.
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(1, new HashSet<>(Arrays.asList(2)));
+    graph.put(2, new HashSet<>(Arrays.asList(3)));
+    graph.put(3, new HashSet<>(Arrays.asList(1, -4, 6)));
+    graph.put(-4, new HashSet<>(Arrays.asList(5)));
+    graph.put(5, new HashSet<>());
+    graph.put(6, new HashSet<>());
+
+    PositiveReachabilityIndex auto = PositiveReachabilityIndex.of(CsrGraph.fromMap(graph));
+    assertEquals(PositiveReachabilityIndex.Mode.CLOSURE, auto.mode());
+    assertEquals(3, auto.componentCount());
+    assertTrue(auto.sizeBytes() > 0);
+    assertTrue(auto.buildNanos() > 0);
+    assertEquals(0, auto.averageLabelSize());
+
+    PositiveReachabilityIndex labels = PositiveReachabilityIndex.ofMap(graph, PositiveReachabilityIndex.Mode.TWO_HOP);
+    assertEquals(PositiveReachabilityIndex.Mode.TWO_HOP, labels.mode());
+    assertTrue(labels.averageLabelSize() >= 1);
+    for (PositiveReachabilityIndex index : List.of(auto, labels)) {
+      assertTrue(index.positivePathExists(2, 1));
+      assertTrue(index.positivePathExists(1, 6));
+      assertFalse(index.positivePathExists(6, 1));
+      assertFalse(index.positivePathExists(1, 5));
+      assertFalse(index.positivePathExists(1, -4));
+    }
+  }
+}
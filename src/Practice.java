@@ -1,5 +1,6 @@
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 public class Practice {
@@ -25,7 +26,12 @@ public class Practice {
    * @return the number of vertices with odd values reachable from the starting vertex
    */
   public static int oddVertices(Vertex<Integer> starting) {
-    return 0;
+    TraversalMetrics.Probe probe = TraversalMetrics.start(TraversalMetrics.Operation.ODD_VERTICES);
+    try {
+      return GraphSearch.count(starting, value -> true, value -> value != null && value % 2 != 0);
+    } finally {
+      TraversalMetrics.finish(probe);
+    }
   }
 
   /**
@@ -46,9 +52,17 @@ public class Practice {
    * @param starting the starting vertex (may be null)
    * @return a sorted list of all reachable vertex values by 
    */
-  public static List<Integer> sortedReachable(Vertex<Integer> starting) {
-    // Unimplemented: perform a depth-first search and sort the collected values.
-    return null;
+  public static IntList sortedReachable(Vertex<Integer> starting) {
+    TraversalMetrics.Probe probe = TraversalMetrics.start(TraversalMetrics.Operation.SORTED_REACHABLE);
+    try {
+      IntList result = new IntList();
+      if (starting == null) return result;
+      TraversalEngine.forEachReachable(starting, vertex -> result.addInt(vertex.data));
+      result.sort();
+      return result;
+    } finally {
+      TraversalMetrics.finish(probe);
+    }
   }
 
   /**
@@ -61,8 +75,102 @@ public class Practice {
    * @param starting the starting vertex value
    * @return a sorted list of all reachable vertex values
    */
-  public static List<Integer> sortedReachable(Map<Integer, Set<Integer>> graph, int starting) {
-    return null;
+  public static IntList sortedReachable(Map<Integer, Set<Integer>> graph, int starting) {
+    TraversalMetrics.Probe probe = TraversalMetrics.start(TraversalMetrics.Operation.SORTED_REACHABLE);
+    try {
+      IntList result = new IntList();
+      if (!graph.containsKey(starting)) return result;
+
+      Set<Integer> visited = new HashSet<>();
+      long scanned = 0;
+      long rejected = 0;
+      long maxDepth = 1;
+      try (IntStack stack = new IntStack()) {
+        visited.add(starting);
+        stack.push(starting);
+        while (!stack.isEmpty()) {
+          int current = stack.pop();
+          result.addInt(current);
+          Set<Integer> neighbors = graph.get(current);
+          if (neighbors == null) continue;
+          for (Integer neighbor : neighbors) {
+            if (neighbor == null) continue;
+            if (TraversalMetrics.ENABLED) scanned++;
+            if (!visited.add(neighbor)) {
+              if (TraversalMetrics.ENABLED) rejected++;
+              continue;
+            }
+            stack.push(neighbor);
+            if (TraversalMetrics.ENABLED) maxDepth = Math.max(maxDepth, stack.size());
+          }
+        }
+      }
+      if (TraversalMetrics.ENABLED) TraversalMetrics.traversal(result.size(), scanned, rejected, maxDepth, false);
+      result.sort();
+      return result;
+    } finally {
+      TraversalMetrics.finish(probe);
+    }
+  }
+
+  /**
+   * Returns the sorted values reachable from the given starting vertex in an int graph
+   * (for example a CsrGraph or a MappedGraph).
+   * Behaves like sortedReachable(Map, int) on the map the graph was built from, without boxing.
+   * If the starting vertex is not a key of that map, returns an empty array.
+   *
+   * @param graph an int graph
+   * @param starting the starting vertex value
+   * @return the reachable vertex values in ascending order
+   */
+  public static int[] sortedReachable(IntGraph graph, int starting) {
+    TraversalMetrics.Probe probe = TraversalMetrics.start(TraversalMetrics.Operation.SORTED_REACHABLE);
+    try {
+      int start = graph.indexOf(starting);
+      if (start < 0 || !graph.isKey(start)) return new int[0];
+
+      long[] visited = new long[(graph.vertexCount() + 63) >>> 6];
+      IntGraph.Cursor cursor = graph.cursor();
+      int count = 1;
+      long scanned = 0;
+      long rejected = 0;
+      long maxDepth = 1;
+      try (IntStack stack = new IntStack()) {
+        visited[start >>> 6] |= 1L << start;
+        stack.push(start);
+        while (!stack.isEmpty()) {
+          cursor.of(stack.pop());
+          for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+            if (TraversalMetrics.ENABLED) scanned++;
+            if ((visited[next >>> 6] & (1L << next)) != 0) {
+              if (TraversalMetrics.ENABLED) rejected++;
+              continue;
+            }
+            visited[next >>> 6] |= 1L << next;
+            stack.push(next);
+            count++;
+            if (TraversalMetrics.ENABLED) maxDepth = Math.max(maxDepth, stack.size());
+          }
+        }
+      }
+      if (TraversalMetrics.ENABLED) TraversalMetrics.traversal(count, scanned, rejected, maxDepth, false);
+
+      // When indices follow id order a scan of the bitset is already sorted; a relabelled graph
+      // needs an explicit sort.
+      int[] result = new int[count];
+      int out = 0;
+      for (int word = 0; word < visited.length; word++) {
+        long bits = visited[word];
+        while (bits != 0) {
+          result[out++] = graph.idOf((word << 6) + Long.numberOfTrailingZeros(bits));
+          bits &= bits - 1;
+        }
+      }
+      if (!graph.idOrdered()) RadixSort.sort(result, count);
+      return result;
+    } finally {
+      TraversalMetrics.finish(probe);
+    }
   }
 
   /**
@@ -80,7 +188,13 @@ public class Practice {
    * @return true if there is a two-way connection between v1 and v2, false otherwise
    */
   public static <T> boolean twoWay(Vertex<T> v1, Vertex<T> v2) {
-    return false;
+    TraversalMetrics.Probe probe = TraversalMetrics.start(TraversalMetrics.Operation.TWO_WAY);
+    try {
+      if (v1 == null || v2 == null) return false;
+      return TraversalEngine.reaches(v1, v2) && TraversalEngine.reaches(v2, v1);
+    } finally {
+      TraversalMetrics.finish(probe);
+    }
   }
 
   /**
@@ -96,7 +210,34 @@ public class Practice {
    * @return whether there exists a valid positive path from starting to ending
    */
   public static boolean positivePathExists(Map<Integer, Set<Integer>> graph, int starting, int ending) {
-    return false;
+    TraversalMetrics.Probe probe = TraversalMetrics.start(TraversalMetrics.Operation.POSITIVE_PATH_EXISTS);
+    try {
+      if (starting <= 0 || ending <= 0) return false;
+      if (!graph.containsKey(starting) || !graph.containsKey(ending)) return false;
+      return GraphSearch.exists(graph, starting, id -> id > 0, id -> id == ending);
+    } finally {
+      TraversalMetrics.finish(probe);
+    }
+  }
+
+  /**
+   * Returns whether there exists a path from the starting to ending vertex of an int graph
+   * that includes only positive values.
+   * Behaves like positivePathExists(Map, int, int) on the map the graph was built from, without boxing.
+   * Runs as a bidirectional search, so it can stop long before exploring the whole component.
+   *
+   * @param graph an int graph
+   * @param starting the starting vertex value
+   * @param ending the ending vertex value
+   * @return whether there exists a valid positive path from starting to ending
+   */
+  public static boolean positivePathExists(IntGraph graph, int starting, int ending) {
+    TraversalMetrics.Probe probe = TraversalMetrics.start(TraversalMetrics.Operation.POSITIVE_PATH_EXISTS);
+    try {
+      return BidirectionalSearch.positivePathExists(graph, starting, ending);
+    } finally {
+      TraversalMetrics.finish(probe);
+    }
   }
 
   /**
@@ -109,6 +250,12 @@ public class Practice {
    * @return true if a person in the extended network works at the specified company, false otherwise
    */
   public static boolean hasExtendedConnectionAtCompany(Professional person, String companyName) {
-    return false;
+    TraversalMetrics.Probe probe = TraversalMetrics.start(TraversalMetrics.Operation.HAS_EXTENDED_CONNECTION_AT_COMPANY);
+    try {
+      return GraphSearch.exists(person, Professional::getConnections, p -> true,
+          p -> Objects.equals(p.getCompany(), companyName));
+    } finally {
+      TraversalMetrics.finish(probe);
+    }
   }
 }
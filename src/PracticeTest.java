@@ -28,7 +28,7 @@ public class PracticeTest {
   //    v45.neighbors = [v23]
   //    v23.neighbors = []
   //    v67.neighbors = [v91]         // v67 is isolated from the rest (not reachable from v3)
-  private Vertex<Integer>[] createComplexGraph() {
+  static Vertex<Integer>[] createComplexGraph() {
     Vertex<Integer> v3  = new Vertex<>(3);
     Vertex<Integer> v7  = new Vertex<>(7);
     Vertex<Integer> v12 = new Vertex<>(12);
@@ -184,6 +184,35 @@ public class PracticeTest {
     assertTrue(result.isEmpty());
   }
 
+  // --- Tests for sortedReachable(CsrGraph graph, int starting) ---
+  @Test
+  public void testSortedReachable_CsrGraph_MatchesMapGraph() {
+    // 1 -> {2, 3}, 2 -> {4}, 3 -> {}, 4 -> {}, 7 -> {1} (7 is not reachable from 1)
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(1, new LinkedHashSet<>(Arrays.asList(3, 2)));
+    graph.put(2, new LinkedHashSet<>(Arrays.asList(4)));
+    graph.put(3, new LinkedHashSet<>());
+    graph.put(4, new LinkedHashSet<>());
+    graph.put(7, new LinkedHashSet<>(Arrays.asList(1)));
+
+    CsrGraph csr = CsrGraph.fromMap(graph);
+    assertArrayEquals(new int[]{1, 2, 3, 4}, Practice.sortedReachable(csr, 1));
+    assertArrayEquals(new int[]{1, 2, 3, 4, 7}, Practice.sortedReachable(csr, 7));
+    assertEquals(0, Practice.sortedReachable(csr, 5).length);
+  }
+
+  @Test
+  public void testSortedReachable_CsrGraph_NeighborOnlyVertex() {
+    // 9 only appears as a neighbor: it is reachable but cannot be a starting vertex.
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(-3, new HashSet<>(Arrays.asList(9, 1)));
+    graph.put(1, new HashSet<>());
+
+    CsrGraph csr = CsrGraph.fromMap(graph);
+    assertArrayEquals(new int[]{-3, 1, 9}, Practice.sortedReachable(csr, -3));
+    assertEquals(0, Practice.sortedReachable(csr, 9).length);
+  }
+
   // --- Tests for twoWay(Vertex<T> v1, Vertex<T> v2) ---
   @Test
   public void testTwoWay_BothNull() {
@@ -228,6 +257,24 @@ public class PracticeTest {
     assertTrue(Practice.twoWay(v1, v3));
   }
 
+  @Test
+  public void testTwoWay_RepeatedQueriesOnSameGraph() {
+    // Visited state is reused between calls, so answers must not leak from one query to the next.
+    Vertex<Integer>[] vertices = createComplexGraph();
+    Vertex<Integer> v7 = vertices[1];
+    Vertex<Integer> v12 = vertices[2];
+    Vertex<Integer> v56 = vertices[4];
+    Vertex<Integer> v91 = vertices[6];
+    Vertex<Integer> v67 = vertices[9];
+    for (int i = 0; i < 3; i++) {
+      assertTrue(Practice.twoWay(v7, v12));
+      assertFalse(Practice.twoWay(v7, v56));
+      assertTrue(Practice.twoWay(v56, v91));
+      assertFalse(Practice.twoWay(v67, v91));
+      assertEquals(5, Practice.oddVertices(vertices[0]));
+    }
+  }
+
   // --- Tests for positivePathExists(Map<Integer, Set<Integer>> graph, int starting, int ending) ---
   /**
    * Test that a vertex is always reachable from itself if it is positive.
@@ -446,6 +493,45 @@ public class PracticeTest {
     assertFalse(Practice.positivePathExists(graph, 10, 90));
   }
 
+  // --- Tests for positivePathExists(CsrGraph graph, int starting, int ending) ---
+  @Test
+  public void testPositivePath_CsrGraph() {
+    // 3 -> {4, -2}, 4 -> {9}, -2 -> {11}, 9 -> {}, 11 -> {}
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(3, new HashSet<>(Arrays.asList(4, -2)));
+    graph.put(4, new HashSet<>(Arrays.asList(9)));
+    graph.put(-2, new HashSet<>(Arrays.asList(11)));
+    graph.put(9, new HashSet<>());
+    graph.put(11, new HashSet<>());
+
+    CsrGraph csr = CsrGraph.fromMap(graph);
+    assertTrue(Practice.positivePathExists(csr, 3, 9));
+    assertTrue(Practice.positivePathExists(csr, 9, 9));
+    assertFalse(Practice.positivePathExists(csr, 3, 11));
+    assertFalse(Practice.positivePathExists(csr, 3, -2));
+    assertFalse(Practice.positivePathExists(csr, 3, 10));
+  }
+
+  @Test
+  public void testPositivePath_CsrGraph_MatchesMapGraphOnRandomGraph() {
+    Random random = new Random(11);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = -50; i <= 200; i++) {
+      Set<Integer> neighbors = new HashSet<>();
+      for (int e = 0; e < 2; e++) {
+        neighbors.add(random.nextInt(251) - 50);
+      }
+      graph.put(i, neighbors);
+    }
+    CsrGraph csr = CsrGraph.fromMap(graph);
+    for (int q = 0; q < 500; q++) {
+      int starting = random.nextInt(251) - 50;
+      int ending = random.nextInt(251) - 50;
+      assertEquals(Practice.positivePathExists(graph, starting, ending),
+          Practice.positivePathExists(csr, starting, ending));
+    }
+  }
+
   // --- Tests for hasExtendedConnectionAtCompany(Professional person, String companyName) ---
 
 /**
@@ -612,4 +698,35 @@ public class PracticeTest {
     
     assertTrue(Practice.hasExtendedConnectionAtCompany(a, "Innovative LLC"));
   }
+
+  // --- Deep chains: every method must be iterative ---
+
+  /**
+   * A 1,000,000-vertex chain in every representation. A recursive search would overflow the
+   * thread stack long before reaching the end.
+   */
+  @Test
+  public void testDeepChain_AllMethodsFinish() {
+    int n = 1_000_000;
+    List<Vertex<Integer>> chain = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      chain.add(new Vertex<>(i + 1));
+    }
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    Professional next = new Professional("P" + n, "Target Corp", 1, new HashSet<>());
+    for (int i = n - 1; i >= 0; i--) {
+      if (i + 1 < n) chain.get(i).neighbors.add(chain.get(i + 1));
+      graph.put(i + 1, i + 1 < n ? Collections.singleton(i + 2) : Collections.emptySet());
+      if (i > 0) next = new Professional("P" + i, "Other Corp", 1, new HashSet<>(Arrays.asList(next)));
+    }
+    chain.get(n - 1).neighbors.add(chain.get(0));
+
+    assertEquals(n / 2, Practice.oddVertices(chain.get(0)));
+    assertEquals(n, Practice.sortedReachable(chain.get(0)).size());
+    assertTrue(Practice.twoWay(chain.get(0), chain.get(n - 1)));
+    assertEquals(n, Practice.sortedReachable(graph, 1).size());
+    assertEquals(n, Practice.sortedReachable(CsrGraph.fromMap(graph), 1).length);
+    assertTrue(Practice.positivePathExists(graph, 1, n));
+    assertTrue(Practice.hasExtendedConnectionAtCompany(next, "Target Corp"));
+  }
 }
\ No newline at end of file
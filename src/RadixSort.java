@@ -0,0 +1,61 @@
+import java.util.Arrays;
+
+/**
+ * LSD radix sort for int arrays.
+ *
+ * Sorts by one byte per pass, least significant first, counting into 256 buckets and scattering
+ * into a scratch array. The top byte is compared with its sign bit flipped, so negative values
+ * come before positive ones. A pass is skipped when every value has the same byte in that
+ * position, which makes small or narrow-range inputs cost one counting pass per byte.
+ * Short arrays go to Arrays.sort, where the bucket overhead is not worth it.
+ */
+final class RadixSort {
+  static final int THRESHOLD = 256;
+
+  private RadixSort() {
+  }
+
+  /**
+   * Sorts the first size elements of values in ascending order.
+   */
+  static void sort(int[] values, int size) {
+    if (size < THRESHOLD) {
+      Arrays.sort(values, 0, size);
+      return;
+    }
+    int[][] counts = new int[4][256];
+    for (int i = 0; i < size; i++) {
+      int value = values[i];
+      counts[0][value & 0xff]++;
+      counts[1][(value >>> 8) & 0xff]++;
+      counts[2][(value >>> 16) & 0xff]++;
+      counts[3][(value >>> 24) ^ 0x80]++;
+    }
+
+    int[] source = values;
+    int[] target = null;
+    for (int pass = 0; pass < 4; pass++) {
+      int[] count = counts[pass];
+      if (count[digit(source[0], pass)] == size) continue;
+      if (target == null) target = new int[size];
+      int offset = 0;
+      for (int b = 0; b < 256; b++) {
+        int c = count[b];
+        count[b] = offset;
+        offset += c;
+      }
+      for (int i = 0; i < size; i++) {
+        int value = source[i];
+        target[count[digit(value, pass)]++] = value;
+      }
+      int[] swap = source;
+      source = target;
+      target = swap;
+    }
+    if (source != values) System.arraycopy(source, 0, values, 0, size);
+  }
+
+  private static int digit(int value, int pass) {
+    return pass == 3 ? (value >>> 24) ^ 0x80 : (value >>> (pass << 3)) & 0xff;
+  }
+}
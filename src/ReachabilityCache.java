@@ -0,0 +1,130 @@
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Per-source reachable sets for an object graph, kept up to date as edges are added and removed.
+ *
+ * For each source that has been queried the cache holds the set of reachable nodes plus a summary
+ * of S built from them (for example a count of odd values). The cache must be told about every
+ * edge change through edgeAdded and edgeRemoved, after the change has been applied to the graph:
+ * <ul>
+ *   <li>An insertion from -> to only extends the entries that reach from but not yet to, by
+ *       traversing from to and adding the newly reachable nodes to the set and the summary.</li>
+ *   <li>A deletion from -> to drops only the entries that reach both endpoints, since no other
+ *       entry could have used that edge. Dropped entries are recomputed on their next query.</li>
+ * </ul>
+ *
+ * Nodes are compared by identity. Not thread-safe.
+ *
+ * @param <N> the node type
+ * @param <S> the per-source summary type
+ */
+final class ReachabilityCache<N, S> {
+  /**
+   * Builds and extends the summary kept for each cached source.
+   *
+   * @param <N> the node type
+   * @param <S> the summary type
+   */
+  interface Summary<N, S> {
+    S create();
+
+    void add(S summary, N node);
+  }
+
+  private static final class Entry<N, S> {
+    final Set<N> reached = Collections.newSetFromMap(new IdentityHashMap<>());
+    final S summary;
+
+    Entry(S summary) {
+      this.summary = summary;
+    }
+  }
+
+  private final Function<? super N, ? extends Iterable<? extends N>> neighbors;
+  private final Summary<N, S> summaries;
+  private final Map<N, Entry<N, S>> entries = new IdentityHashMap<>();
+
+  ReachabilityCache(Function<? super N, ? extends Iterable<? extends N>> neighbors, Summary<N, S> summaries) {
+    this.neighbors = neighbors;
+    this.summaries = summaries;
+  }
+
+  /**
+   * Returns the summary for source, computing and caching it on first use.
+   *
+   * @param source the starting node (must not be null)
+   * @return the summary of every node reachable from source, including source
+   */
+  S summary(N source) {
+    Entry<N, S> entry = entries.get(source);
+    if (entry == null) {
+      entry = new Entry<>(summaries.create());
+      extend(entry, source);
+      entries.put(source, entry);
+    }
+    return entry.summary;
+  }
+
+  /**
+   * Records that the edge from -> to has been added to the graph.
+   *
+   * @param from the source of the edge
+   * @param to the target of the edge
+   */
+  void edgeAdded(N from, N to) {
+    for (Entry<N, S> entry : entries.values()) {
+      if (entry.reached.contains(from) && !entry.reached.contains(to)) extend(entry, to);
+    }
+  }
+
+  /**
+   * Records that the edge from -> to has been removed from the graph.
+   *
+   * @param from the source of the edge
+   * @param to the target of the edge
+   */
+  void edgeRemoved(N from, N to) {
+    Iterator<Entry<N, S>> it = entries.values().iterator();
+    while (it.hasNext()) {
+      Entry<N, S> entry = it.next();
+      if (entry.reached.contains(from) && entry.reached.contains(to)) it.remove();
+    }
+  }
+
+  /**
+   * Drops every cached entry, for use after changes that were not reported.
+   */
+  void clear() {
+    entries.clear();
+  }
+
+  /**
+   * @return the number of sources currently cached
+   */
+  int size() {
+    return entries.size();
+  }
+
+  private void extend(Entry<N, S> entry, N start) {
+    ArrayDeque<N> stack = new ArrayDeque<>();
+    entry.reached.add(start);
+    summaries.add(entry.summary, start);
+    stack.push(start);
+    while (!stack.isEmpty()) {
+      Iterable<? extends N> next = neighbors.apply(stack.pop());
+      if (next == null) continue;
+      for (N neighbor : next) {
+        if (neighbor != null && entry.reached.add(neighbor)) {
+          summaries.add(entry.summary, neighbor);
+          stack.push(neighbor);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class ReachabilityCacheTest {
+
+  @Test
+  public void testTrackedVertexGraph_FollowsInsertionsAndDeletions() {
+    // 5 -> 4 -> 7, 8 -> 9 (8 is not reachable from 5 yet)
+    Vertex<Integer> v5 = new Vertex<>(5);
+    Vertex<Integer> v4 = new Vertex<>(4);
+    Vertex<Integer> v7 = new Vertex<>(7);
+    Vertex<Integer> v8 = new Vertex<>(8);
+    Vertex<Integer> v9 = new Vertex<>(9);
+    TrackedVertexGraph graph = new TrackedVertexGraph();
+    graph.addEdge(v5, v4);
+    graph.addEdge(v4, v7);
+    graph.addEdge(v8, v9);
+
+    assertEquals(2, graph.oddVertices(v5));
+    assertEquals(Arrays.asList(4, 5, 7), graph.sortedReachable(v5));
+    assertEquals(Arrays.asList(8, 9), graph.sortedReachable(v8));
+
+    // Insertion extends the cached result for 5 without touching the one for 8.
+    graph.addEdge(v7, v8);
+    assertEquals(3, graph.oddVertices(v5));
+    assertEquals(Arrays.asList(4, 5, 7, 8, 9), graph.sortedReachable(v5));
+    assertEquals(Practice.sortedReachable(v5), graph.sortedReachable(v5));
+
+    // Deleting 4 -> 7 cuts 7, 8 and 9 off from 5.
+    assertTrue(graph.removeEdge(v4, v7));
+    assertFalse(graph.removeEdge(v4, v7));
+    assertEquals(1, graph.oddVertices(v5));
+    assertEquals(Arrays.asList(4, 5), graph.sortedReachable(v5));
+    assertEquals(Arrays.asList(8, 9), graph.sortedReachable(v8));
+    assertEquals(0, graph.oddVertices(null));
+  }
+
+  @Test
+  public void testTrackedVertexGraph_DuplicateEdgeSurvivesRemoval() {
+    Vertex<Integer> v1 = new Vertex<>(1);
+    Vertex<Integer> v3 = new Vertex<>(3);
+    TrackedVertexGraph graph = new TrackedVertexGraph();
+    graph.addEdge(v1, v3);
+    graph.addEdge(v1, v3);
+    assertEquals(2, graph.oddVertices(v1));
+    graph.removeEdge(v1, v3);
+    assertEquals(2, graph.oddVertices(v1));
+  }
+
+  @Test
+  public void testTrackedVertexGraph_NullDataMatchesPractice() {
+    // 1 -> null -> 3: the null vertex is reachable but neither odd nor sortable.
+    Vertex<Integer> v1 = new Vertex<>(1);
+    Vertex<Integer> empty = new Vertex<>(null);
+    Vertex<Integer> v3 = new Vertex<>(3);
+    TrackedVertexGraph graph = new TrackedVertexGraph();
+    graph.addEdge(v1, empty);
+    graph.addEdge(empty, v3);
+    assertEquals(Practice.oddVertices(v1), graph.oddVertices(v1));
+    assertEquals(2, graph.oddVertices(v1));
+    assertThrows(NullPointerException.class, () -> Practice.sortedReachable(v1));
+    assertThrows(NullPointerException.class, () -> graph.sortedReachable(v1));
+    assertEquals(Arrays.asList(3), graph.sortedReachable(v3));
+  }
+
+  @Test
+  public void testTrackedNetwork_MatchesPractice() {
+    Professional a = new Professional("A", "Other Corp", 3, new HashSet<>());
+    Professional b = new Professional("B", "FutureTech", 4, new HashSet<>());
+    Professional c = new Professional("C", "Global Inc.", 5, new HashSet<>());
+    TrackedNetwork network = new TrackedNetwork();
+    network.addConnection(a, b);
+
+    assertTrue(network.hasExtendedConnectionAtCompany(a, "FutureTech"));
+    assertFalse(network.hasExtendedConnectionAtCompany(a, "Global Inc."));
+
+    network.addConnection(b, c);
+    assertTrue(network.hasExtendedConnectionAtCompany(a, "Global Inc."));
+    assertEquals(Practice.hasExtendedConnectionAtCompany(a, "Global Inc."),
+        network.hasExtendedConnectionAtCompany(a, "Global Inc."));
+
+    network.removeConnection(a, b);
+    assertFalse(network.hasExtendedConnectionAtCompany(a, "FutureTech"));
+    assertTrue(network.hasExtendedConnectionAtCompany(b, "Global Inc."));
+    assertFalse(network.hasExtendedConnectionAtCompany(null, "FutureTech"));
+  }
+}
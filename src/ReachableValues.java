@@ -0,0 +1,255 @@
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streaming and top-k variants of Practice.sortedReachable.
+ *
+ * The stream methods return the same values as sortedReachable, in ascending order, but only sort
+ * as far as the caller reads: the reachable values are collected into an int[] and heapified in
+ * linear time, and each element taken from the stream pops the heap. Reading the first k values
+ * of R costs O(R + k log R) instead of O(R log R), with no boxing.
+ *
+ * The smallest methods keep a bounded max-heap of k ints while traversing, so the values held
+ * never exceed k no matter how large the reachable set is.
+ *
+ * For an IntGraph whose indices follow id order, the stream walks the visited bitset with no
+ * sorting at all.
+ */
+public final class ReachableValues {
+  private ReachableValues() {
+  }
+
+  /**
+   * Lazily streams the values reachable from starting in ascending order, duplicates included.
+   *
+   * @param starting the starting vertex (may be null)
+   * @return the sorted values; empty when starting is null
+   */
+  public static IntStream sortedReachable(Vertex<Integer> starting) {
+    if (starting == null) return IntStream.empty();
+    IntList values = new IntList();
+    TraversalEngine.forEachReachable(starting, vertex -> values.addInt(vertex.data));
+    return heapStream(values.elements(), values.size());
+  }
+
+  /**
+   * Lazily streams the values reachable from starting in ascending order.
+   *
+   * @param graph a map representing the graph
+   * @param starting the starting vertex value
+   * @return the sorted values; empty when starting is not a key of graph
+   */
+  public static IntStream sortedReachable(Map<Integer, Set<Integer>> graph, int starting) {
+    if (!graph.containsKey(starting)) return IntStream.empty();
+    IntList values = new IntList();
+    forEachReachable(graph, starting, values::addInt);
+    return heapStream(values.elements(), values.size());
+  }
+
+  /**
+   * Lazily streams the values reachable from starting in ascending order.
+   *
+   * @param graph an int graph
+   * @param starting the starting vertex value
+   * @return the sorted values; empty when starting is not a key of graph
+   */
+  public static IntStream sortedReachable(IntGraph graph, int starting) {
+    int start = graph.indexOf(starting);
+    if (start < 0 || !graph.isKey(start)) return IntStream.empty();
+    long[] visited = reach(graph, start);
+    if (!graph.idOrdered()) {
+      // A relabelled graph's bitset is not in id order, so fall back to the heap like the others.
+      IntList values = new IntList();
+      for (int word = 0; word < visited.length; word++) {
+        for (long bits = visited[word]; bits != 0; bits &= bits - 1) {
+          values.addInt(graph.idOf((word << 6) + Long.numberOfTrailingZeros(bits)));
+        }
+      }
+      return heapStream(values.elements(), values.size());
+    }
+    PrimitiveIterator.OfInt iterator = new PrimitiveIterator.OfInt() {
+      private int word;
+      private long bits = visited.length == 0 ? 0 : visited[0];
+
+      @Override
+      public boolean hasNext() {
+        while (bits == 0 && word + 1 < visited.length) {
+          bits = visited[++word];
+        }
+        return bits != 0;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext()) throw new NoSuchElementException();
+        int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+        return graph.idOf(index);
+      }
+    };
+    return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(iterator,
+        Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * Returns the k smallest values reachable from starting, in ascending order.
+   *
+   * @param starting the starting vertex (may be null)
+   * @param k the number of values wanted
+   * @return at most k values; fewer when fewer are reachable
+   */
+  public static int[] smallestReachable(Vertex<Integer> starting, int k) {
+    BoundedHeap heap = new BoundedHeap(k);
+    if (starting != null && k > 0) TraversalEngine.forEachReachable(starting, vertex -> heap.offer(vertex.data));
+    return heap.sorted();
+  }
+
+  /**
+   * Returns the k smallest values reachable from starting, in ascending order.
+   *
+   * @param graph a map representing the graph
+   * @param starting the starting vertex value
+   * @param k the number of values wanted
+   * @return at most k values; fewer when fewer are reachable or starting is not a key
+   */
+  public static int[] smallestReachable(Map<Integer, Set<Integer>> graph, int starting, int k) {
+    BoundedHeap heap = new BoundedHeap(k);
+    if (graph.containsKey(starting) && k > 0) forEachReachable(graph, starting, heap::offer);
+    return heap.sorted();
+  }
+
+  /**
+   * Returns the k smallest values reachable from starting, in ascending order.
+   *
+   * @param graph an int graph
+   * @param starting the starting vertex value
+   * @param k the number of values wanted
+   * @return at most k values; fewer when fewer are reachable or starting is not a key
+   */
+  public static int[] smallestReachable(IntGraph graph, int starting, int k) {
+    return sortedReachable(graph, starting).limit(Math.max(0, k)).toArray();
+  }
+
+  private static void forEachReachable(Map<Integer, Set<Integer>> graph, int starting,
+      IntConsumer action) {
+    Set<Integer> visited = new HashSet<>();
+    try (IntStack stack = new IntStack()) {
+      visited.add(starting);
+      stack.push(starting);
+      while (!stack.isEmpty()) {
+        int current = stack.pop();
+        action.accept(current);
+        Set<Integer> neighbors = graph.get(current);
+        if (neighbors == null) continue;
+        for (Integer neighbor : neighbors) {
+          if (neighbor != null && visited.add(neighbor)) stack.push(neighbor);
+        }
+      }
+    }
+  }
+
+  private static long[] reach(IntGraph graph, int start) {
+    long[] visited = new long[(graph.vertexCount() + 63) >>> 6];
+    IntGraph.Cursor cursor = graph.cursor();
+    try (IntStack stack = new IntStack()) {
+      visited[start >>> 6] |= 1L << start;
+      stack.push(start);
+      while (!stack.isEmpty()) {
+        cursor.of(stack.pop());
+        for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+          if ((visited[next >>> 6] & (1L << next)) != 0) continue;
+          visited[next >>> 6] |= 1L << next;
+          stack.push(next);
+        }
+      }
+    }
+    return visited;
+  }
+
+  private static IntStream heapStream(int[] heap, int size) {
+    for (int i = size / 2 - 1; i >= 0; i--) {
+      siftDownMin(heap, i, size);
+    }
+    PrimitiveIterator.OfInt iterator = new PrimitiveIterator.OfInt() {
+      private int remaining = size;
+
+      @Override
+      public boolean hasNext() {
+        return remaining > 0;
+      }
+
+      @Override
+      public int nextInt() {
+        if (remaining == 0) throw new NoSuchElementException();
+        int smallest = heap[0];
+        heap[0] = heap[--remaining];
+        siftDownMin(heap, 0, remaining);
+        return smallest;
+      }
+    };
+    return StreamSupport.intStream(Spliterators.spliterator(iterator, size,
+        Spliterator.ORDERED | Spliterator.SORTED | Spliterator.SIZED | Spliterator.NONNULL), false);
+  }
+
+  private static void siftDownMin(int[] heap, int i, int size) {
+    int value = heap[i];
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) break;
+      if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+      if (heap[child] >= value) break;
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = value;
+  }
+
+  /**
+   * Keeps the k smallest values offered so far in a max-heap whose root is the largest kept value.
+   */
+  private static final class BoundedHeap {
+    private final int[] heap;
+    private int size;
+
+    BoundedHeap(int k) {
+      heap = new int[Math.max(0, k)];
+    }
+
+    void offer(int value) {
+      if (size < heap.length) {
+        int i = size++;
+        while (i > 0 && heap[(i - 1) / 2] < value) {
+          heap[i] = heap[(i - 1) / 2];
+          i = (i - 1) / 2;
+        }
+        heap[i] = value;
+      } else if (size > 0 && value < heap[0]) {
+        int i = 0;
+        while (true) {
+          int child = 2 * i + 1;
+          if (child >= size) break;
+          if (child + 1 < size && heap[child + 1] > heap[child]) child++;
+          if (heap[child] <= value) break;
+          heap[i] = heap[child];
+          i = child;
+        }
+        heap[i] = value;
+      }
+    }
+
+    int[] sorted() {
+      int[] result = Arrays.copyOf(heap, size);
+      Arrays.sort(result);
+      return result;
+    }
+  }
+}
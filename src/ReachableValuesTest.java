@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class ReachableValuesTest {
+
+  @Test
+  public void testStreamMatchesSortedReachable() {
+    Vertex<Integer>[] vertices = PracticeTest.createComplexGraph();
+    Vertex<Integer> v3 = vertices[0];
+    assertArrayEquals(Practice.sortedReachable(v3).stream().mapToInt(Integer::intValue).toArray(),
+        ReachableValues.sortedReachable(v3).toArray());
+    assertArrayEquals(new int[]{3, 7, 12}, ReachableValues.sortedReachable(v3).limit(3).toArray());
+    assertArrayEquals(new int[]{3, 7, 12}, ReachableValues.smallestReachable(v3, 3));
+    assertEquals(9, ReachableValues.smallestReachable(v3, 100).length);
+    assertEquals(0, ReachableValues.sortedReachable((Vertex<Integer>) null).count());
+    assertEquals(0, ReachableValues.smallestReachable((Vertex<Integer>) null, 3).length);
+  }
+
+  @Test
+  public void testDuplicatesKept() {
+    Vertex<Integer> v5 = new Vertex<>(5);
+    Vertex<Integer> v8a = new Vertex<>(8);
+    Vertex<Integer> v8b = new Vertex<>(8);
+    Vertex<Integer> v2 = new Vertex<>(2);
+    v5.neighbors.add(v8a);
+    v5.neighbors.add(v8b);
+    v8a.neighbors.add(v2);
+    assertArrayEquals(new int[]{2, 5, 8, 8}, ReachableValues.sortedReachable(v5).toArray());
+    assertArrayEquals(new int[]{2, 5, 8}, ReachableValues.smallestReachable(v5, 3));
+  }
+
+  @Test
+  public void testMapAndIntGraph() {
+    Random random = new Random(5);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < 300; i++) {
+      graph.put(i - 100, new HashSet<>(Arrays.asList(random.nextInt(300) - 100, random.nextInt(300) - 100)));
+    }
+    CsrGraph csr = CsrGraph.fromMap(graph);
+    for (int starting : new int[]{-100, 0, 42, 199, 500}) {
+      int[] expected = Practice.sortedReachable(graph, starting).stream().mapToInt(Integer::intValue).toArray();
+      assertArrayEquals(expected, ReachableValues.sortedReachable(graph, starting).toArray());
+      assertArrayEquals(expected, ReachableValues.sortedReachable(csr, starting).toArray());
+      int[] firstTen = Arrays.copyOf(expected, Math.min(10, expected.length));
+      assertArrayEquals(firstTen, ReachableValues.smallestReachable(graph, starting, 10));
+      assertArrayEquals(firstTen, ReachableValues.smallestReachable(csr, starting, 10));
+    }
+  }
+}
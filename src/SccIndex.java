@@ -0,0 +1,260 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Strongly connected components of a graph, computed once so that twoWay becomes a lookup.
+ *
+ * Two vertices can each reach the other exactly when they lie in the same strongly connected
+ * component, so after the index is built twoWay is a comparison of two component ids.
+ *
+ * Components are found with an iterative version of Tarjan's algorithm, so very deep graphs do not
+ * hit the Java recursion limit. Tarjan emits components in reverse topological order: every edge
+ * of the condensation runs from a higher component id to a lower one.
+ *
+ * The index is not updated when the graph changes; build a new one after mutating the graph.
+ */
+public final class SccIndex {
+  private final IntGraph graph;
+  private final GraphSnapshot<?> snapshot;
+  private final int[] component;
+  private final int[] sizes;
+  private final CsrGraph condensation;
+
+  private SccIndex(IntGraph graph, GraphSnapshot<?> snapshot) {
+    this.graph = graph;
+    this.snapshot = snapshot;
+    this.component = new int[graph.vertexCount()];
+    int count = label(graph, component);
+    this.sizes = new int[count];
+    for (int c : component) {
+      sizes[c]++;
+    }
+    this.condensation = condense(graph, component, count);
+  }
+
+  /**
+   * Builds the index over any int graph. Edges are read through cursors, so a MappedGraph is
+   * indexed straight from its mapping without a heap copy.
+   *
+   * @param graph the graph
+   * @return the index
+   */
+  public static SccIndex of(IntGraph graph) {
+    return new SccIndex(graph, null);
+  }
+
+  /**
+   * Builds the index over the map representation used by Practice.
+   *
+   * @param graph a map where each key is a vertex and its value is the set of its neighbors
+   * @return the index
+   */
+  public static SccIndex ofMap(Map<Integer, Set<Integer>> graph) {
+    return new SccIndex(CsrGraph.fromMap(graph), null);
+  }
+
+  /**
+   * Builds the index over every vertex reachable from the given roots.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param roots the vertices to start from
+   * @return the index
+   */
+  public static <T> SccIndex ofVertices(Collection<? extends Vertex<T>> roots) {
+    return ofSnapshot(GraphSnapshot.ofVertices(roots));
+  }
+
+  /**
+   * Builds the index over the graph of a snapshot, so its nodes can be queried directly.
+   *
+   * @param snapshot the snapshot
+   * @return the index
+   */
+  public static SccIndex ofSnapshot(GraphSnapshot<?> snapshot) {
+    return new SccIndex(snapshot.graph(), snapshot);
+  }
+
+  /**
+   * Returns true if and only if it is possible both to reach v2 from v1 and to reach v1 from v2.
+   * Same contract as Practice.twoWay; requires an index built from vertices or a snapshot.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param v1 the starting vertex
+   * @param v2 the target vertex
+   * @return true if there is a two-way connection between v1 and v2, false otherwise
+   */
+  public <T> boolean twoWay(Vertex<T> v1, Vertex<T> v2) {
+    if (v1 == null || v2 == null) return false;
+    if (snapshot == null) throw new IllegalStateException("index was not built from a Vertex graph");
+    @SuppressWarnings("unchecked")
+    GraphSnapshot<Object> nodes = (GraphSnapshot<Object>) snapshot;
+    int a = nodes.indexOf(v1);
+    int b = nodes.indexOf(v2);
+    if (a < 0 || b < 0) throw new IllegalArgumentException("vertex is not in the index");
+    return component[a] == component[b];
+  }
+
+  /**
+   * Returns true if the vertices with the given ids can each reach the other.
+   * Returns false if either id is not a vertex of the graph.
+   *
+   * @param id1 the first vertex id
+   * @param id2 the second vertex id
+   * @return true if both vertices are in the same strongly connected component
+   */
+  public boolean twoWay(int id1, int id2) {
+    int a = graph.indexOf(id1);
+    int b = graph.indexOf(id2);
+    return a >= 0 && b >= 0 && component[a] == component[b];
+  }
+
+  /**
+   * @return the graph the index was built over
+   */
+  public IntGraph graph() {
+    return graph;
+  }
+
+  /**
+   * @return the number of strongly connected components
+   */
+  public int componentCount() {
+    return sizes.length;
+  }
+
+  /**
+   * @param index a dense vertex index of the indexed graph
+   * @return the id of the component holding that vertex
+   */
+  public int componentOf(int index) {
+    return component[index];
+  }
+
+  /**
+   * @param component a component id
+   * @return the number of vertices in that component
+   */
+  public int componentSize(int component) {
+    return sizes[component];
+  }
+
+  /**
+   * Returns the condensation DAG: one vertex per component (its id is the component id) and one
+   * edge for every pair of distinct components joined by at least one edge.
+   *
+   * @return the condensation as a CSR graph
+   */
+  public CsrGraph condensation() {
+    return condensation;
+  }
+
+  private static int label(IntGraph graph, int[] component) {
+    int n = graph.vertexCount();
+    int[] order = new int[n];
+    int[] low = new int[n];
+    Arrays.fill(order, -1);
+    long[] onStack = new long[(n + 63) >>> 6];
+    int[] stack = new int[n];
+    int stackSize = 0;
+    // Explicit call stack: the vertex of each frame and a cursor over the edges it has not looked
+    // at yet. Cursors are made on first use of each depth and reused by later frames at that depth.
+    int[] frameVertex = new int[n];
+    IntGraph.Cursor[] frameEdges = new IntGraph.Cursor[16];
+    int counter = 0;
+    int components = 0;
+
+    for (int root = 0; root < n; root++) {
+      if (order[root] != -1) continue;
+      int depth = 0;
+      frameVertex[0] = root;
+      if (frameEdges[0] == null) frameEdges[0] = graph.cursor();
+      frameEdges[0].of(root);
+      order[root] = low[root] = counter++;
+      stack[stackSize++] = root;
+      onStack[root >>> 6] |= 1L << root;
+
+      while (depth >= 0) {
+        int v = frameVertex[depth];
+        int w = frameEdges[depth].next();
+        if (w >= 0) {
+          if (order[w] == -1) {
+            depth++;
+            if (depth == frameEdges.length) frameEdges = Arrays.copyOf(frameEdges, Math.min(n, depth * 2));
+            if (frameEdges[depth] == null) frameEdges[depth] = graph.cursor();
+            frameVertex[depth] = w;
+            frameEdges[depth].of(w);
+            order[w] = low[w] = counter++;
+            stack[stackSize++] = w;
+            onStack[w >>> 6] |= 1L << w;
+          } else if ((onStack[w >>> 6] & (1L << w)) != 0) {
+            low[v] = Math.min(low[v], order[w]);
+          }
+          continue;
+        }
+
+        if (low[v] == order[v]) {
+          do {
+            w = stack[--stackSize];
+            onStack[w >>> 6] &= ~(1L << w);
+            component[w] = components;
+          } while (w != v);
+          components++;
+        }
+        depth--;
+        if (depth >= 0) {
+          int parent = frameVertex[depth];
+          low[parent] = Math.min(low[parent], low[v]);
+        }
+      }
+    }
+    return components;
+  }
+
+  private static CsrGraph condense(IntGraph graph, int[] component, int count) {
+    int n = graph.vertexCount();
+    // Group vertices by component so each component's out-edges can be gathered in one pass.
+    int[] start = new int[count + 1];
+    for (int c : component) {
+      start[c + 1]++;
+    }
+    for (int c = 0; c < count; c++) {
+      start[c + 1] += start[c];
+    }
+    int[] members = new int[n];
+    int[] fill = Arrays.copyOf(start, count);
+    for (int v = 0; v < n; v++) {
+      members[fill[component[v]]++] = v;
+    }
+
+    int[] seen = new int[count];
+    Arrays.fill(seen, -1);
+    int[] offsets = new int[count + 1];
+    int[] targets = new int[16];
+    int edges = 0;
+    IntGraph.Cursor cursor = graph.cursor();
+    for (int c = 0; c < count; c++) {
+      for (int m = start[c]; m < start[c + 1]; m++) {
+        cursor.of(members[m]);
+        for (int target = cursor.next(); target >= 0; target = cursor.next()) {
+          int d = component[target];
+          if (d == c || seen[d] == c) continue;
+          seen[d] = c;
+          if (edges == targets.length) targets = Arrays.copyOf(targets, edges * 2);
+          targets[edges++] = d;
+        }
+      }
+      Arrays.sort(targets, offsets[c], edges);
+      offsets[c + 1] = edges;
+    }
+
+    int[] ids = new int[count];
+    for (int c = 0; c < count; c++) {
+      ids[c] = c;
+    }
+    long[] keys = new long[(count + 63) >>> 6];
+    Arrays.fill(keys, -1L);
+    return new CsrGraph(ids, keys, offsets, Arrays.copyOf(targets, edges));
+  }
+}
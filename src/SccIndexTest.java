@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class SccIndexTest {
+
+  @Test
+  public void testTwoWay_MatchesPracticeOnRandomVertices() {
+    Random random = new Random(3);
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    for (int i = 0; i < 60; i++) {
+      vertices.add(new Vertex<>(i));
+    }
+    for (Vertex<Integer> vertex : vertices) {
+      vertex.neighbors.add(vertices.get(random.nextInt(vertices.size())));
+      if (random.nextBoolean()) vertex.neighbors.add(vertices.get(random.nextInt(vertices.size())));
+    }
+    SccIndex index = SccIndex.ofVertices(vertices);
+    for (Vertex<Integer> v1 : vertices) {
+      for (Vertex<Integer> v2 : vertices) {
+        assertEquals(Practice.twoWay(v1, v2), index.twoWay(v1, v2));
+      }
+    }
+    assertFalse(index.twoWay(null, vertices.get(0)));
+  }
+
+  @Test
+  public void testMapGraph_ComponentsAndCondensation() {
+    // {1, 2, 3} form a cycle, 3 -> 4, 4 <-> 5, 6 -> 1, and 7 only appears as a neighbor of 5.
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    graph.put(1, new HashSet<>(Arrays.asList(2)));
+    graph.put(2, new HashSet<>(Arrays.asList(3)));
+    graph.put(3, new HashSet<>(Arrays.asList(1, 4)));
+    graph.put(4, new HashSet<>(Arrays.asList(5)));
+    graph.put(5, new HashSet<>(Arrays.asList(4, 7)));
+    graph.put(6, new HashSet<>(Arrays.asList(1)));
+    SccIndex index = SccIndex.ofMap(graph);
+
+    assertTrue(index.twoWay(1, 3));
+    assertTrue(index.twoWay(5, 4));
+    assertFalse(index.twoWay(3, 4));
+    assertFalse(index.twoWay(6, 1));
+    assertTrue(index.twoWay(7, 7));
+    assertFalse(index.twoWay(1, 99));
+    assertEquals(4, index.componentCount());
+
+    IntGraph graphCsr = index.graph();
+    assertEquals(3, index.componentSize(index.componentOf(graphCsr.indexOf(2))));
+    assertEquals(2, index.componentSize(index.componentOf(graphCsr.indexOf(4))));
+
+    // Components come out in reverse topological order, so condensation edges point to lower ids.
+    CsrGraph dag = index.condensation();
+    assertEquals(3, dag.edgeCount());
+    for (int c = 0; c < dag.vertexCount(); c++) {
+      for (int edge = dag.edgeStart(c); edge < dag.edgeEnd(c); edge++) {
+        assertTrue(dag.target(edge) < c);
+      }
+    }
+  }
+
+  @Test
+  public void testDeepCycle_NoStackOverflow() {
+    int n = 500_000;
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      graph.put(i, Collections.singleton((i + 1) % n));
+    }
+    SccIndex index = SccIndex.ofMap(graph);
+    assertEquals(1, index.componentCount());
+    assertTrue(index.twoWay(0, n - 1));
+  }
+}
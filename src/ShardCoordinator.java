@@ -0,0 +1,324 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.URISyntaxException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs Practice queries over a graph split across ShardWorkers, as BFS supersteps.
+ *
+ * A query starts with BEGIN on every worker; the one owning the start vertex walks its own shard
+ * from there. Each superstep then forwards the boundary ids every worker reported to the workers
+ * that own them, one EXPAND batch per worker, and collects the next round of boundary ids. All
+ * requests of a superstep are written before any reply is read, so the workers run in parallel.
+ * The query ends when no boundary ids are left, or as soon as a worker reports the goal.
+ *
+ * Answers follow the IntGraph overloads of Practice on the unsplit graph: vertices are ids,
+ * sortedReachable and hasExtendedConnectionAtCompany need the start to be a key, and
+ * positivePathExists needs both ends to be positive keys. For a Professional network, partition
+ * GraphSnapshot.ofNetwork(roots).graph() with each node's company as the company column and query
+ * by snapshot index.
+ *
+ * A coordinator holds one connection per worker and runs one query at a time; it is not
+ * thread-safe. Use one coordinator per thread.
+ */
+public final class ShardCoordinator implements AutoCloseable {
+  private final SocketChannel[] workers;
+  private final List<Process> processes;
+  private final ByteBuffer header = ByteBuffer.allocate(4);
+  private final IntList[] inbox;
+  private IOException failure;
+  private int lastSupersteps;
+  private long lastExchangedIds;
+
+  private ShardCoordinator(SocketChannel[] workers, List<Process> processes) {
+    this.workers = workers;
+    this.processes = processes;
+    this.inbox = new IntList[workers.length];
+    for (int shard = 0; shard < workers.length; shard++) {
+      inbox[shard] = new IntList();
+    }
+  }
+
+  /**
+   * Connects to running workers.
+   *
+   * @param addresses the worker of each shard, in shard order
+   * @return the connected coordinator
+   * @throws IOException if a connection fails
+   */
+  public static ShardCoordinator connect(List<? extends SocketAddress> addresses) throws IOException {
+    return connect(addresses, new ArrayList<>());
+  }
+
+  /**
+   * Starts one local ShardWorker process per shard file, listening on loopback, and connects to
+   * them. The processes are stopped when the coordinator is closed.
+   *
+   * @param shardFiles the shard files, in shard order, as written by GraphPartitioner.writeShards
+   * @return the connected coordinator
+   * @throws IOException if a worker fails to start or cannot be reached
+   */
+  public static ShardCoordinator launch(List<Path> shardFiles) throws IOException {
+    String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    String classPath;
+    try {
+      classPath = Paths.get(ShardWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    } catch (URISyntaxException e) {
+      throw new IOException("cannot locate the ShardWorker class", e);
+    }
+    List<Process> processes = new ArrayList<>();
+    List<SocketAddress> addresses = new ArrayList<>();
+    try {
+      for (Path file : shardFiles) {
+        Process process = new ProcessBuilder(java, "-cp", classPath, "ShardWorker", "--graph=" + file,
+            "--listen=tcp:127.0.0.1:0")
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        processes.add(process);
+      }
+      // The workers start up concurrently; read their addresses once all have been launched.
+      for (Process process : processes) {
+        BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = out.readLine();
+        if (line == null || !line.startsWith("listening on ")) {
+          throw new IOException("worker did not start: " + line);
+        }
+        addresses.add(GraphServer.parseAddress(line.substring("listening on ".length())));
+      }
+      return connect(addresses, processes);
+    } catch (IOException | RuntimeException e) {
+      for (Process process : processes) {
+        process.destroy();
+      }
+      throw e;
+    }
+  }
+
+  private static ShardCoordinator connect(List<? extends SocketAddress> addresses, List<Process> processes)
+      throws IOException {
+    SocketChannel[] workers = new SocketChannel[addresses.size()];
+    try {
+      for (int shard = 0; shard < workers.length; shard++) {
+        SocketAddress address = addresses.get(shard);
+        workers[shard] = address instanceof UnixDomainSocketAddress
+            ? SocketChannel.open(StandardProtocolFamily.UNIX)
+            : SocketChannel.open();
+        workers[shard].connect(address);
+        if (!(address instanceof UnixDomainSocketAddress)) {
+          workers[shard].setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+      }
+      return new ShardCoordinator(workers, processes);
+    } catch (IOException | RuntimeException e) {
+      for (SocketChannel channel : workers) {
+        if (channel != null) channel.close();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * @return the number of shards
+   */
+  public int shardCount() {
+    return workers.length;
+  }
+
+  /**
+   * @return the number of EXPAND rounds the last query needed after BEGIN
+   */
+  public int lastSupersteps() {
+    return lastSupersteps;
+  }
+
+  /**
+   * @return the number of boundary ids the last query sent between shards
+   */
+  public long lastExchangedIds() {
+    return lastExchangedIds;
+  }
+
+  /**
+   * Same contract as Practice.sortedReachable(IntGraph, int) on the unsplit graph.
+   *
+   * @param starting the starting vertex value
+   * @return the reachable vertex values in ascending order
+   * @throws IOException if a worker cannot be reached
+   */
+  public int[] sortedReachable(int starting) throws IOException {
+    if ((run(ShardWorker.REACH, starting, 0, "") & ShardWorker.START_VALID) == 0) return new int[0];
+    ByteBuffer request = ByteBuffer.allocate(5).putInt(0).put(ShardWorker.COLLECT);
+    for (SocketChannel worker : workers) {
+      ShardWorker.writeFrame(worker, request.clear().position(5));
+    }
+    int[][] parts = new int[workers.length][];
+    int total = 0;
+    for (int shard = 0; shard < workers.length; shard++) {
+      ByteBuffer reply = receive(shard);
+      if (reply == null) continue;
+      parts[shard] = new int[reply.getInt()];
+      reply.asIntBuffer().get(parts[shard]);
+      total += parts[shard].length;
+    }
+    rethrow();
+    // Each part is sorted already; concatenating and sorting again is simpler than a k-way merge
+    // and costs little next to the traversal.
+    int[] result = new int[total];
+    int at = 0;
+    for (int[] part : parts) {
+      System.arraycopy(part, 0, result, at, part.length);
+      at += part.length;
+    }
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * Same contract as Practice.positivePathExists(IntGraph, int, int) on the unsplit graph.
+   *
+   * @param starting the starting vertex value
+   * @param ending the ending vertex value
+   * @return whether there exists a valid positive path from starting to ending
+   * @throws IOException if a worker cannot be reached
+   */
+  public boolean positivePathExists(int starting, int ending) throws IOException {
+    if (starting <= 0 || ending <= 0) return false;
+    int flags = run(ShardWorker.POSITIVE_PATH, starting, ending, "");
+    return (flags & ShardWorker.FOUND) != 0 && (flags & ShardWorker.ENDING_KEY) != 0;
+  }
+
+  /**
+   * Returns whether a vertex with the given company is reachable from person, person included,
+   * using the company column of the shards. Matches GraphServer's company query on the unsplit
+   * graph.
+   *
+   * @param person the starting vertex value
+   * @param companyName the name of the company to check for employment
+   * @return true if a vertex in the extended network has the specified company
+   * @throws IOException if a worker cannot be reached or the shards have no companies
+   */
+  public boolean hasExtendedConnectionAtCompany(int person, String companyName) throws IOException {
+    return (run(ShardWorker.COMPANY, person, 0, companyName) & ShardWorker.FOUND) != 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOException failure = null;
+    for (SocketChannel worker : workers) {
+      try {
+        worker.close();
+      } catch (IOException e) {
+        failure = e;
+      }
+    }
+    for (Process process : processes) {
+      process.destroy();
+    }
+    if (failure != null) throw failure;
+  }
+
+  /**
+   * Runs one query to completion and returns the OR of every flag the workers reported.
+   */
+  private int run(byte kind, int start, int ending, String company) throws IOException {
+    byte[] text = company.getBytes(StandardCharsets.UTF_8);
+    if (text.length > 0xffff) throw new IllegalArgumentException("company name too long");
+    ByteBuffer begin = ByteBuffer.allocate(16 + text.length).putInt(0).put(ShardWorker.BEGIN).put(kind)
+        .putInt(start).putInt(ending).putShort((short) text.length).put(text);
+    for (SocketChannel worker : workers) {
+      ShardWorker.writeFrame(worker, begin.clear().position(16 + text.length));
+    }
+    lastSupersteps = 0;
+    lastExchangedIds = 0;
+    int flags = 0;
+    for (int shard = 0; shard < workers.length; shard++) {
+      flags |= absorb(receive(shard));
+    }
+    rethrow();
+    boolean[] sent = new boolean[workers.length];
+    while ((flags & ShardWorker.FOUND) == 0) {
+      boolean any = false;
+      for (int shard = 0; shard < workers.length; shard++) {
+        IntList ids = inbox[shard];
+        sent[shard] = !ids.isEmpty();
+        if (!sent[shard]) continue;
+        any = true;
+        lastExchangedIds += ids.size();
+        ByteBuffer expand = ByteBuffer.allocate(9 + 4 * ids.size()).putInt(0).put(ShardWorker.EXPAND).putInt(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+          expand.putInt(ids.getInt(i));
+        }
+        ids.clear();
+        ShardWorker.writeFrame(workers[shard], expand);
+      }
+      if (!any) break;
+      lastSupersteps++;
+      for (int shard = 0; shard < workers.length; shard++) {
+        if (sent[shard]) flags |= absorb(receive(shard));
+      }
+      rethrow();
+    }
+    for (IntList ids : inbox) {
+      ids.clear();
+    }
+    return flags;
+  }
+
+  /**
+   * Routes the boundary ids of a BEGIN or EXPAND reply to their owners' inboxes.
+   */
+  private int absorb(ByteBuffer reply) throws IOException {
+    if (reply == null) return 0;
+    int flags = reply.get();
+    reply.getInt(); // vertices reached, which the coordinator does not need
+    int groups = reply.getInt();
+    for (int g = 0; g < groups; g++) {
+      int owner = reply.getInt();
+      int count = reply.getInt();
+      if (owner < 0 || owner >= inbox.length) throw new IOException("boundary id for unknown shard " + owner);
+      IntList ids = inbox[owner];
+      for (int k = 0; k < count; k++) {
+        ids.addInt(reply.getInt());
+      }
+    }
+    return flags;
+  }
+
+  /**
+   * Reads the next reply of a shard. An error reply is remembered for rethrow and returns null,
+   * so the other shards' replies of the same round are still read and the connections stay in step.
+   */
+  private ByteBuffer receive(int shard) throws IOException {
+    ByteBuffer reply = ShardWorker.readFrame(workers[shard], header);
+    if (reply == null) throw new IOException("shard " + shard + " closed the connection");
+    if (reply.get() == GraphServer.ERROR) {
+      byte[] text = new byte[reply.getShort() & 0xffff];
+      reply.get(text);
+      if (failure == null) failure = new IOException("shard " + shard + ": " + new String(text, StandardCharsets.UTF_8));
+      return null;
+    }
+    return reply;
+  }
+
+  private void rethrow() throws IOException {
+    if (failure == null) return;
+    IOException e = failure;
+    failure = null;
+    for (IntList ids : inbox) {
+      ids.clear();
+    }
+    throw e;
+  }
+}
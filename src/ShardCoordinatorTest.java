@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Path;
+import java.util.*;
+
+public class ShardCoordinatorTest {
+
+  @TempDir
+  Path dir;
+
+  private static Map<Integer, Set<Integer>> randomGraph(int n, long seed) {
+    Random random = new Random(seed);
+    Map<Integer, Set<Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      Set<Integer> neighbors = new HashSet<>();
+      for (int k = random.nextInt(3); k > 0; k--) {
+        neighbors.add(random.nextInt(n + n / 10) - n / 4);
+      }
+      graph.put(i - n / 4, neighbors);
+    }
+    return graph;
+  }
+
+  private static String[] companies(CsrGraph graph) {
+    String[] companies = new String[graph.vertexCount()];
+    for (int i = 0; i < companies.length; i++) {
+      companies[i] = "Company " + Math.floorMod(graph.idOf(i) * 31, 23);
+    }
+    return companies;
+  }
+
+  private static List<ShardWorker> startWorkers(CsrGraph graph, String[] companies,
+      GraphPartitioner.Partition partition, SocketAddress... addresses) throws IOException {
+    List<ShardWorker> workers = new ArrayList<>();
+    for (int s = 0; s < partition.shardCount(); s++) {
+      workers.add(ShardWorker.start(partition.shard(graph, companies, s), addresses[s]));
+    }
+    return workers;
+  }
+
+  private static void assertAnswersLikePractice(CsrGraph graph, String[] companies, ShardCoordinator coordinator,
+      long seed) throws IOException {
+    Random random = new Random(seed);
+    int n = graph.vertexCount();
+    for (int q = 0; q < 150; q++) {
+      int a = graph.idOf(random.nextInt(n)) + (q % 10 == 0 ? 1_000_000 : 0);
+      int b = q % 7 == 0 ? a : graph.idOf(random.nextInt(n));
+      assertArrayEquals(Practice.sortedReachable(graph, a), coordinator.sortedReachable(a), "from " + a);
+      assertEquals(Practice.positivePathExists(graph, a, b), coordinator.positivePathExists(a, b), a + " -> " + b);
+      String company = "Company " + random.nextInt(25);
+      boolean expected = GraphSearch.exists(graph, a, id -> true, id -> company.equals(companies[graph.indexOf(id)]));
+      assertEquals(expected, coordinator.hasExtendedConnectionAtCompany(a, company), a + " at " + company);
+    }
+  }
+
+  @Test
+  public void testInProcessWorkers_AnswerLikePractice() throws IOException {
+    CsrGraph graph = CsrGraph.fromMap(randomGraph(2_000, 22));
+    String[] companies = companies(graph);
+    for (GraphPartitioner.Partition partition : List.of(GraphPartitioner.hash(graph, 4),
+        GraphPartitioner.labelPropagation(graph, 3))) {
+      SocketAddress[] addresses = new SocketAddress[partition.shardCount()];
+      Arrays.fill(addresses, new InetSocketAddress("127.0.0.1", 0));
+      List<ShardWorker> workers = startWorkers(graph, companies, partition, addresses);
+      List<SocketAddress> bound = new ArrayList<>();
+      for (ShardWorker worker : workers) {
+        bound.add(worker.address());
+      }
+      try (ShardCoordinator coordinator = ShardCoordinator.connect(bound)) {
+        assertEquals(partition.shardCount(), coordinator.shardCount());
+        assertAnswersLikePractice(graph, companies, coordinator, 23);
+      } finally {
+        for (ShardWorker worker : workers) {
+          worker.close();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testChainAcrossShards_OneSuperstepPerCrossing() throws IOException {
+    Map<Integer, Set<Integer>> chain = new HashMap<>();
+    for (int i = 1; i <= 100; i++) {
+      chain.put(i, i < 100 ? new HashSet<>(List.of(i + 1)) : new HashSet<>());
+    }
+    CsrGraph graph = CsrGraph.fromMap(chain);
+    // Hashing scatters the chain, label propagation keeps long runs of it together.
+    GraphPartitioner.Partition hashed = GraphPartitioner.hash(graph, 2);
+    GraphPartitioner.Partition propagated = GraphPartitioner.labelPropagation(graph, 2);
+    int[] supersteps = new int[2];
+    int p = 0;
+    for (GraphPartitioner.Partition partition : List.of(hashed, propagated)) {
+      List<ShardWorker> workers = startWorkers(graph, null, partition,
+          UnixDomainSocketAddress.of(dir.resolve("a" + p + ".sock")), UnixDomainSocketAddress.of(dir.resolve("b" + p + ".sock")));
+      try (ShardCoordinator coordinator = ShardCoordinator.connect(List.of(workers.get(0).address(), workers.get(1).address()))) {
+        assertEquals(100, coordinator.sortedReachable(1).length);
+        assertEquals(partition.edgeCut(graph), coordinator.lastSupersteps());
+        assertEquals(partition.edgeCut(graph), coordinator.lastExchangedIds());
+        supersteps[p++] = coordinator.lastSupersteps();
+        assertTrue(coordinator.positivePathExists(1, 100));
+        assertFalse(coordinator.positivePathExists(100, 1));
+        // The shards carry no companies, so the workers refuse; the connections stay usable.
+        assertThrows(IOException.class, () -> coordinator.hasExtendedConnectionAtCompany(1, "Acme"));
+        assertArrayEquals(new int[]{99, 100}, coordinator.sortedReachable(99));
+      } finally {
+        for (ShardWorker worker : workers) {
+          worker.close();
+        }
+      }
+    }
+    assertTrue(supersteps[1] < supersteps[0], Arrays.toString(supersteps));
+  }
+
+  @Test
+  public void testWorkerProcesses_OverLoopback() throws IOException {
+    CsrGraph graph = CsrGraph.fromMap(randomGraph(1_000, 24));
+    String[] companies = companies(graph);
+    List<Path> files = GraphPartitioner.writeShards(dir.resolve("shards"), graph, companies,
+        GraphPartitioner.labelPropagation(graph, 3));
+    try (ShardCoordinator coordinator = ShardCoordinator.launch(files)) {
+      assertEquals(3, coordinator.shardCount());
+      assertAnswersLikePractice(graph, companies, coordinator, 25);
+    }
+  }
+}
@@ -0,0 +1,453 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Serves one shard of a partitioned graph to a ShardCoordinator.
+ *
+ * A shard holds the vertices it owns with their outgoing edges, plus an edgeless stub for every
+ * vertex in another shard that those edges reach, tagged with the shard that owns it. A traversal
+ * runs as a series of supersteps. Each superstep the coordinator hands the worker a batch of owned
+ * ids. The worker walks as far as it can without leaving the shard, then returns the stub ids it
+ * reached, grouped by their owning shard. Visited marks persist for the whole query, so each
+ * boundary id leaves a worker at most once per query.
+ *
+ * Frames are a big-endian int length followed by that many bytes, as in GraphServer. Requests:
+ * <pre>
+ *   BEGIN   kind byte, start int, ending int, company (short length + UTF-8)
+ *   EXPAND  count int, ids int[count]
+ *   COLLECT
+ * </pre>
+ * BEGIN starts a new query on the connection and seeds it if this shard owns the start. BEGIN
+ * and EXPAND answer with OK, a flags byte (FOUND, START_VALID, ENDING_KEY), the number of
+ * vertices newly reached, then a group count and, per group, the owning shard, an id count and
+ * the ids. COLLECT answers with OK and the owned ids the query reached, ascending. Failures answer
+ * ERROR and a short-length-prefixed UTF-8 message.
+ *
+ * Every connection has its own query state, so several coordinators can share one worker.
+ *
+ * Usage:
+ *   java ShardWorker --graph=shard-0.graph [--listen=tcp:127.0.0.1:0]
+ *
+ * Once listening it prints "listening on tcp:host:port" on stdout. It exits when stdin closes, so a
+ * worker started by a coordinator does not outlive it.
+ */
+public final class ShardWorker implements AutoCloseable {
+  /** Owner value of a vertex this shard owns. */
+  static final int OWNED = -1;
+  static final int MAX_FRAME = 1 << 28;
+
+  static final byte BEGIN = 1;
+  static final byte EXPAND = 2;
+  static final byte COLLECT = 3;
+
+  static final byte REACH = 0;
+  static final byte POSITIVE_PATH = 1;
+  static final byte COMPANY = 2;
+
+  static final int FOUND = 1;
+  static final int START_VALID = 1 << 1;
+  static final int ENDING_KEY = 1 << 2;
+
+  private final Shard shard;
+  private final int shardCount;
+  private final ServerSocketChannel server;
+  private final SocketAddress address;
+  private final ExecutorService connections;
+  private final Set<SocketChannel> open = ConcurrentHashMap.newKeySet();
+  private volatile boolean closed;
+
+  private ShardWorker(Shard shard, ServerSocketChannel server) throws IOException {
+    this.shard = shard;
+    int highest = -1;
+    for (int owner : shard.owners) {
+      highest = Math.max(highest, owner);
+    }
+    this.shardCount = highest + 1;
+    this.server = server;
+    this.address = server.getLocalAddress();
+    this.connections = GraphServer.newThreadPerTaskExecutor();
+    Thread acceptor = new Thread(this::acceptLoop, "shard-worker-accept");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Starts a worker and returns once it is accepting connections.
+   *
+   * @param shard the shard to serve
+   * @param address an InetSocketAddress (port 0 picks a free port) or a UnixDomainSocketAddress
+   * @return the running worker
+   * @throws IOException if the address cannot be bound
+   */
+  public static ShardWorker start(Shard shard, SocketAddress address) throws IOException {
+    ServerSocketChannel server = address instanceof UnixDomainSocketAddress
+        ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+        : ServerSocketChannel.open();
+    try {
+      server.bind(address, 256);
+      return new ShardWorker(shard, server);
+    } catch (IOException | RuntimeException e) {
+      server.close();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the bound address, with the actual port when port 0 was requested
+   */
+  public SocketAddress address() {
+    return address;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    server.close();
+    for (SocketChannel channel : open) {
+      channel.close();
+    }
+    connections.shutdownNow();
+    if (address instanceof UnixDomainSocketAddress) {
+      Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    Path file = null;
+    String listen = "tcp:127.0.0.1:0";
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--graph=")) file = Paths.get(value);
+      else if (arg.startsWith("--listen=")) listen = value;
+      else throw new IllegalArgumentException("unknown argument: " + arg);
+    }
+    if (file == null) throw new IllegalArgumentException("--graph is required");
+    try (ShardWorker worker = start(Shard.open(file), GraphServer.parseAddress(listen))) {
+      System.out.println("listening on " + format(worker.address()));
+      System.out.flush();
+      while (System.in.read() >= 0) {
+        // Input is ignored; end of stream means the parent has gone.
+      }
+    }
+  }
+
+  /**
+   * Formats an address the way GraphServer.parseAddress reads it.
+   */
+  static String format(SocketAddress address) {
+    if (address instanceof UnixDomainSocketAddress) return "unix:" + ((UnixDomainSocketAddress) address).getPath();
+    InetSocketAddress inet = (InetSocketAddress) address;
+    return "tcp:" + inet.getHostString() + ":" + inet.getPort();
+  }
+
+  /**
+   * Reads one frame, or returns null at end of stream before the frame starts.
+   */
+  static ByteBuffer readFrame(SocketChannel channel, ByteBuffer header) throws IOException {
+    header.clear();
+    if (!readFully(channel, header)) return null;
+    int length = header.getInt(0);
+    if (length < 1 || length > MAX_FRAME) throw new IOException("bad frame length " + length);
+    ByteBuffer frame = ByteBuffer.allocate(length);
+    if (!readFully(channel, frame)) throw new IOException("connection closed mid-frame");
+    frame.flip();
+    return frame;
+  }
+
+  /**
+   * Writes a frame whose payload is everything written to the buffer after its first four bytes.
+   */
+  static void writeFrame(SocketChannel channel, ByteBuffer frame) throws IOException {
+    frame.putInt(0, frame.position() - 4);
+    frame.flip();
+    while (frame.hasRemaining()) {
+      channel.write(frame);
+    }
+  }
+
+  private static boolean readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        if (buffer.position() == 0) return false;
+        throw new IOException("connection closed mid-frame");
+      }
+    }
+    return true;
+  }
+
+  private void acceptLoop() {
+    while (!closed) {
+      SocketChannel channel;
+      try {
+        channel = server.accept();
+      } catch (IOException e) {
+        if (closed || e instanceof ClosedChannelException) return;
+        continue;
+      }
+      open.add(channel);
+      try {
+        if (!(address instanceof UnixDomainSocketAddress)) channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        connections.execute(() -> serve(channel));
+      } catch (IOException | RuntimeException e) {
+        open.remove(channel);
+        closeQuietly(channel);
+      }
+    }
+  }
+
+  private void serve(SocketChannel channel) {
+    Query query = new Query();
+    ByteBuffer header = ByteBuffer.allocate(4);
+    try {
+      for (ByteBuffer frame = readFrame(channel, header); frame != null; frame = readFrame(channel, header)) {
+        ByteBuffer reply;
+        try {
+          reply = query.handle(frame);
+        } catch (RuntimeException e) {
+          byte[] text = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+          int length = Math.min(text.length, 0xffff);
+          reply = ByteBuffer.allocate(7 + length).putInt(0).put(GraphServer.ERROR).putShort((short) length)
+              .put(text, 0, length);
+        }
+        writeFrame(channel, reply);
+      }
+    } catch (IOException e) {
+      // The coordinator went away or sent garbage; either way this connection is done.
+    } finally {
+      open.remove(channel);
+      closeQuietly(channel);
+    }
+  }
+
+  private static void closeQuietly(SocketChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Nothing left to do for a connection that failed to close.
+    }
+  }
+
+  /**
+   * The state of the query running on one connection.
+   */
+  private final class Query {
+    private final IntGraph graph = shard.graph;
+    private final int[] owners = shard.owners;
+    private final IntGraph.Cursor cursor = graph.cursor();
+    private final int[] seen = new int[graph.vertexCount()];
+    private final int[] stack = new int[graph.vertexCount()];
+    private final IntList[] outbox = new IntList[shardCount];
+    private int top;
+    private int epoch;
+    private byte kind;
+    private int ending;
+    private String company;
+    private boolean found;
+    private int reached;
+
+    ByteBuffer handle(ByteBuffer frame) {
+      byte op = frame.get();
+      if (op == BEGIN) return begin(frame);
+      if (epoch == 0) throw new IllegalStateException("no query started on this connection");
+      if (op == EXPAND) {
+        int count = frame.getInt();
+        for (int k = 0; k < count && !found; k++) {
+          int id = frame.getInt();
+          int index = graph.indexOf(id);
+          if (index < 0 || owners[index] != OWNED) throw new IllegalArgumentException("not owned by this shard: " + id);
+          if (seen[index] == epoch) continue;
+          seen[index] = epoch;
+          if (admissible(id)) enter(index);
+        }
+        drain();
+        return progress(0);
+      }
+      if (op == COLLECT) {
+        IntList ids = new IntList();
+        for (int i = 0; i < seen.length; i++) {
+          if (seen[i] == epoch && owners[i] == OWNED && admissible(graph.idOf(i))) ids.addInt(graph.idOf(i));
+        }
+        ByteBuffer reply = ByteBuffer.allocate(9 + 4 * ids.size()).putInt(0).put(GraphServer.OK).putInt(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+          reply.putInt(ids.getInt(i));
+        }
+        return reply;
+      }
+      throw new IllegalArgumentException("unknown operation " + op);
+    }
+
+    private ByteBuffer begin(ByteBuffer frame) {
+      kind = frame.get();
+      if (kind != REACH && kind != POSITIVE_PATH && kind != COMPANY) throw new IllegalArgumentException("unknown query kind " + kind);
+      int start = frame.getInt();
+      ending = frame.getInt();
+      byte[] text = new byte[frame.getShort() & 0xffff];
+      frame.get(text);
+      company = new String(text, StandardCharsets.UTF_8);
+      if (kind == COMPANY && shard.companies == null) throw new IllegalStateException("the shard has no companies");
+      if (++epoch == 0) {
+        Arrays.fill(seen, 0);
+        epoch = 1;
+      }
+      found = false;
+      reached = 0;
+
+      int flags = 0;
+      int end = graph.indexOf(ending);
+      if (kind == POSITIVE_PATH && end >= 0 && owners[end] == OWNED && graph.isKey(end)) flags |= ENDING_KEY;
+      int index = graph.indexOf(start);
+      if (index >= 0 && owners[index] == OWNED && graph.isKey(index) && admissible(start)) {
+        flags |= START_VALID;
+        seen[index] = epoch;
+        enter(index);
+        drain();
+      }
+      return progress(flags);
+    }
+
+    private boolean admissible(int id) {
+      return kind != POSITIVE_PATH || id > 0;
+    }
+
+    /**
+     * Counts an owned vertex as reached and queues it, or records that it is the goal.
+     */
+    private void enter(int index) {
+      reached++;
+      if (kind == POSITIVE_PATH ? graph.idOf(index) == ending
+          : kind == COMPANY && company.equals(shard.companies[index])) {
+        found = true;
+      } else {
+        stack[top++] = index;
+      }
+    }
+
+    /**
+     * Walks every owned vertex reachable from the queued ones, sending stubs to the outbox, until
+     * the goal turns up or the stack runs dry.
+     */
+    private void drain() {
+      while (top > 0 && !found) {
+        cursor.of(stack[--top]);
+        for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+          if (seen[next] == epoch) continue;
+          seen[next] = epoch;
+          int id = graph.idOf(next);
+          if (!admissible(id)) continue;
+          int owner = owners[next];
+          if (owner != OWNED) {
+            if (outbox[owner] == null) outbox[owner] = new IntList();
+            outbox[owner].addInt(id);
+            continue;
+          }
+          enter(next);
+          if (found) break;
+        }
+      }
+      top = 0;
+    }
+
+    private ByteBuffer progress(int flags) {
+      if (found) flags |= FOUND;
+      int size = 14;
+      for (IntList ids : outbox) {
+        if (ids != null && !ids.isEmpty()) size += 8 + 4 * ids.size();
+      }
+      ByteBuffer reply = ByteBuffer.allocate(size).putInt(0).put(GraphServer.OK).put((byte) flags).putInt(reached);
+      int groupsAt = reply.position();
+      reply.putInt(0);
+      int groups = 0;
+      for (int owner = 0; owner < outbox.length; owner++) {
+        IntList ids = outbox[owner];
+        if (ids == null || ids.isEmpty()) continue;
+        groups++;
+        reply.putInt(owner).putInt(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+          reply.putInt(ids.getInt(i));
+        }
+        ids.clear();
+      }
+      reply.putInt(groupsAt, groups);
+      reached = 0;
+      return reply;
+    }
+  }
+
+  /**
+   * One shard of a partitioned graph: an int graph whose owned vertices carry their edges, the
+   * owning shard of every stub (OWNED for the shard's own vertices) and, optionally, each vertex's
+   * company.
+   */
+  public static final class Shard {
+    final IntGraph graph;
+    final int[] owners;
+    final String[] companies;
+
+    Shard(IntGraph graph, int[] owners, String[] companies) {
+      if (owners.length != graph.vertexCount()) throw new IllegalArgumentException("need one owner per vertex");
+      if (companies != null && companies.length != graph.vertexCount()) {
+        throw new IllegalArgumentException("need one company per vertex");
+      }
+      this.graph = graph;
+      this.owners = owners;
+      this.companies = companies;
+    }
+
+    /**
+     * Opens a shard file written by write, mapping its graph.
+     *
+     * @param path the shard file
+     * @return the shard
+     * @throws IOException if the file cannot be read or is not a shard file
+     */
+    public static Shard open(Path path) throws IOException {
+      MappedGraph graph = GraphFile.open(path);
+      if (!graph.hasIntColumn()) throw new IOException("not a shard file (no owner column): " + path);
+      int n = graph.vertexCount();
+      int[] owners = new int[n];
+      String[] companies = graph.hasStringColumn() ? new String[n] : null;
+      for (int i = 0; i < n; i++) {
+        owners[i] = graph.intValue(i);
+        if (companies != null) companies[i] = graph.stringValue(i);
+      }
+      return new Shard(graph, owners, companies);
+    }
+
+    /**
+     * Writes the shard as a GraphFile: owners in the int column, companies in the text column.
+     *
+     * @param path the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+      GraphFile.write(path, graph, false, owners, companies);
+    }
+
+    /**
+     * @return the number of vertices this shard owns
+     */
+    public int ownedCount() {
+      int count = 0;
+      for (int owner : owners) {
+        if (owner == OWNED) count++;
+      }
+      return count;
+    }
+  }
+}
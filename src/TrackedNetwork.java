@@ -0,0 +1,70 @@
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A change-tracking wrapper around a Professional network that caches, per professional, the set
+ * of companies somebody in their extended network works for.
+ *
+ * Connections must be changed through addConnection and removeConnection so the cache can follow
+ * along: insertions extend the cached company sets in place and deletions discard only the sets
+ * they could affect. If connection sets are edited directly, call invalidateAll afterward.
+ *
+ * Not thread-safe.
+ */
+class TrackedNetwork {
+  private final ReachabilityCache<Professional, Set<String>> cache = new ReachabilityCache<>(
+      Professional::getConnections,
+      new ReachabilityCache.Summary<>() {
+        @Override
+        public Set<String> create() {
+          return new HashSet<>();
+        }
+
+        @Override
+        public void add(Set<String> companies, Professional professional) {
+          companies.add(professional.getCompany());
+        }
+      });
+
+  /**
+   * Adds a directed connection from -> to.
+   *
+   * @param from the professional gaining a connection
+   * @param to the new connection
+   */
+  public void addConnection(Professional from, Professional to) {
+    if (from.getConnections().add(to)) cache.edgeAdded(from, to);
+  }
+
+  /**
+   * Removes the directed connection from -> to.
+   *
+   * @param from the professional losing a connection
+   * @param to the connection to remove
+   * @return true if the connection was present
+   */
+  public boolean removeConnection(Professional from, Professional to) {
+    if (!from.getConnections().remove(to)) return false;
+    cache.edgeRemoved(from, to);
+    return true;
+  }
+
+  /**
+   * Drops every cached result. Use after editing connection sets without going through this class.
+   */
+  public void invalidateAll() {
+    cache.clear();
+  }
+
+  /**
+   * Same contract as Practice.hasExtendedConnectionAtCompany.
+   *
+   * @param person the professional to start the search from (may be null)
+   * @param companyName the name of the company to check for employment
+   * @return true if a person in the extended network works at the specified company, false otherwise
+   */
+  public boolean hasExtendedConnectionAtCompany(Professional person, String companyName) {
+    if (person == null) return false;
+    return cache.summary(person).contains(companyName);
+  }
+}
@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+/**
+ * A change-tracking wrapper around a Vertex&lt;Integer&gt; graph that caches oddVertices and
+ * sortedReachable results per starting vertex.
+ *
+ * Edges must be changed through addEdge and removeEdge so the cache can follow along: insertions
+ * extend the cached results in place and deletions discard only the results they could affect.
+ * If the neighbor lists are edited directly, call invalidateAll afterward.
+ *
+ * Not thread-safe.
+ */
+public class TrackedVertexGraph {
+  private static final class Values {
+    int odd;
+    int[] values = new int[16];
+    int size;
+    boolean sorted = true;
+    // Null data is not odd and has no value to sort; sortedReachable fails on it, like Practice.
+    boolean hasNull;
+  }
+
+  private final ReachabilityCache<Vertex<Integer>, Values> cache = new ReachabilityCache<>(
+      vertex -> vertex.neighbors,
+      new ReachabilityCache.Summary<>() {
+        @Override
+        public Values create() {
+          return new Values();
+        }
+
+        @Override
+        public void add(Values summary, Vertex<Integer> vertex) {
+          Integer value = vertex.data;
+          if (value == null) {
+            summary.hasNull = true;
+            return;
+          }
+          if (value % 2 != 0) summary.odd++;
+          if (summary.size == summary.values.length) {
+            summary.values = Arrays.copyOf(summary.values, summary.size * 2);
+          }
+          summary.values[summary.size++] = value;
+          summary.sorted = false;
+        }
+      });
+
+  /**
+   * Adds the edge from -> to to the graph.
+   *
+   * @param from the vertex gaining a neighbor
+   * @param to the new neighbor
+   */
+  public void addEdge(Vertex<Integer> from, Vertex<Integer> to) {
+    from.neighbors.add(to);
+    cache.edgeAdded(from, to);
+  }
+
+  /**
+   * Removes one occurrence of the edge from -> to from the graph.
+   *
+   * @param from the vertex losing a neighbor
+   * @param to the neighbor to remove
+   * @return true if the edge was present
+   */
+  public boolean removeEdge(Vertex<Integer> from, Vertex<Integer> to) {
+    if (!from.neighbors.remove(to)) return false;
+    // A duplicate edge keeps the same connection alive, so nothing cached can change.
+    if (!from.neighbors.contains(to)) cache.edgeRemoved(from, to);
+    return true;
+  }
+
+  /**
+   * Drops every cached result. Use after editing neighbor lists without going through this class.
+   */
+  public void invalidateAll() {
+    cache.clear();
+  }
+
+  /**
+   * Same contract as Practice.oddVertices.
+   *
+   * @param starting the starting vertex (may be null)
+   * @return the number of vertices with odd values reachable from the starting vertex
+   */
+  public int oddVertices(Vertex<Integer> starting) {
+    if (starting == null) return 0;
+    return cache.summary(starting).odd;
+  }
+
+  /**
+   * Same contract as Practice.sortedReachable(Vertex).
+   *
+   * @param starting the starting vertex (may be null)
+   * @return a sorted list of all reachable vertex values
+   * @throws NullPointerException if a reachable vertex has null data, as Practice does
+   */
+  public IntList sortedReachable(Vertex<Integer> starting) {
+    if (starting == null) return new IntList();
+    Values summary = cache.summary(starting);
+    if (summary.hasNull) throw new NullPointerException("a reachable vertex has null data");
+    if (!summary.sorted) {
+      RadixSort.sort(summary.values, summary.size);
+      summary.sorted = true;
+    }
+    IntList result = new IntList(summary.size);
+    for (int i = 0; i < summary.size; i++) {
+      result.addInt(summary.values[i]);
+    }
+    return result;
+  }
+}
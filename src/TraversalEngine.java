@@ -0,0 +1,244 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Iterative depth-first traversal over Vertex graphs that does not allocate in the steady state.
+ *
+ * Each thread keeps one reusable workspace: an int mark array indexed by Vertex.index (unique among
+ * live vertices and reused after collection, so the array tracks the peak live count) and a
+ * vertex stack. A vertex counts as visited when its mark equals the current epoch, so starting a
+ * new traversal is just an epoch increment instead of clearing a visited set. Stack slots are
+ * nulled as they are popped, so a finished traversal holds no references to the graph.
+ *
+ * A traversal started from inside a callback of another traversal on the same thread gets a
+ * private workspace, so nesting is safe (it just allocates).
+ */
+final class TraversalEngine {
+  private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+  private TraversalEngine() {
+  }
+
+  /**
+   * Counts the vertices reachable from start (including start) whose data matches filter.
+   * Vertices whose data fails admissible are never entered, so the search does not pass through
+   * them; if start itself is not admissible the count is 0.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param start the starting vertex (must not be null)
+   * @param admissible the test a vertex's data must pass to be entered
+   * @param filter the test applied to each reachable vertex's data
+   * @return the number of matching reachable vertices
+   */
+  static <T> int count(Vertex<T> start, Predicate<? super T> admissible, Predicate<? super T> filter) {
+    if (!admissible.test(start.data)) return 0;
+    Workspace ws = acquire();
+    try {
+      int count = 0;
+      ws.visit(start);
+      while (ws.size > 0) {
+        Vertex<T> current = ws.pop();
+        if (filter.test(current.data)) count++;
+        ws.pushAdmissible(current.neighbors, admissible);
+      }
+      return count;
+    } finally {
+      release(ws);
+    }
+  }
+
+  /**
+   * Returns whether a vertex whose data matches goal is reachable from start through admissible
+   * vertices only. Each vertex is tested against goal as soon as it is discovered, and the search
+   * stops at the first hit.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param start the starting vertex (must not be null)
+   * @param admissible the test a vertex's data must pass to be entered
+   * @param goal the test for the vertex being looked for
+   * @return true if an admissible path leads from start to a goal vertex
+   */
+  static <T> boolean anyMatch(Vertex<T> start, Predicate<? super T> admissible, Predicate<? super T> goal) {
+    if (!admissible.test(start.data)) return false;
+    if (goal.test(start.data)) return true;
+    Workspace ws = acquire();
+    try {
+      ws.visit(start);
+      while (ws.size > 0) {
+        List<Vertex<T>> neighbors = ws.<T>pop().neighbors;
+        if (neighbors == null) continue;
+        for (Vertex<T> neighbor : neighbors) {
+          if (neighbor == null || !ws.mark(neighbor) || !admissible.test(neighbor.data)) continue;
+          if (goal.test(neighbor.data)) {
+            ws.exitedEarly = true;
+            return true;
+          }
+          ws.push(neighbor);
+        }
+      }
+      return false;
+    } finally {
+      release(ws);
+    }
+  }
+
+  /**
+   * Returns whether target is reachable from start. A vertex is always reachable from itself.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param start the starting vertex (must not be null)
+   * @param target the vertex to look for
+   * @return true if target is reachable from start
+   */
+  static <T> boolean reaches(Vertex<T> start, Vertex<T> target) {
+    if (start == target) return true;
+    Workspace ws = acquire();
+    try {
+      ws.visit(start);
+      while (ws.size > 0) {
+        Vertex<T> current = ws.pop();
+        if (current == target) {
+          ws.exitedEarly = true;
+          return true;
+        }
+        ws.pushUnvisited(current.neighbors);
+      }
+      return false;
+    } finally {
+      release(ws);
+    }
+  }
+
+  /**
+   * Calls action once for every vertex reachable from start, including start, in depth-first order.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param start the starting vertex (must not be null)
+   * @param action the callback for each reachable vertex
+   */
+  static <T> void forEachReachable(Vertex<T> start, Consumer<? super Vertex<T>> action) {
+    Workspace ws = acquire();
+    try {
+      ws.visit(start);
+      while (ws.size > 0) {
+        Vertex<T> current = ws.pop();
+        action.accept(current);
+        ws.pushUnvisited(current.neighbors);
+      }
+    } finally {
+      release(ws);
+    }
+  }
+
+  private static Workspace acquire() {
+    Workspace ws = WORKSPACE.get();
+    if (ws.inUse) ws = new Workspace();
+    ws.inUse = true;
+    ws.nextEpoch();
+    return ws;
+  }
+
+  private static void release(Workspace ws) {
+    if (TraversalMetrics.ENABLED) {
+      TraversalMetrics.traversal(ws.popped, ws.scanned, ws.rejected, ws.maxDepth, ws.exitedEarly);
+      ws.popped = ws.scanned = ws.rejected = ws.maxDepth = 0;
+    }
+    ws.exitedEarly = false;
+    ws.clearStack();
+    ws.inUse = false;
+  }
+
+  private static final class Workspace {
+    private int[] marks = new int[1024];
+    private int epoch;
+    private Vertex<?>[] stack = new Vertex<?>[64];
+    private int size;
+    private boolean inUse;
+    private boolean exitedEarly;
+    // Cost counters, only maintained when TraversalMetrics is enabled.
+    private long popped;
+    private long scanned;
+    private long rejected;
+    private long maxDepth;
+
+    void nextEpoch() {
+      if (++epoch == 0) {
+        // Wrapped around: old marks could collide with new epochs, so pay for one full clear.
+        Arrays.fill(marks, 0);
+        epoch = 1;
+      }
+    }
+
+    void visit(Vertex<?> vertex) {
+      if (mark(vertex)) push(vertex);
+    }
+
+    /**
+     * Marks vertex as seen in the current traversal; returns false if it already was.
+     */
+    boolean mark(Vertex<?> vertex) {
+      int index = vertex.index;
+      if (index >= marks.length) {
+        marks = Arrays.copyOf(marks, Math.max(index + 1, marks.length * 2));
+      }
+      if (TraversalMetrics.ENABLED) scanned++;
+      if (marks[index] == epoch) {
+        if (TraversalMetrics.ENABLED) rejected++;
+        return false;
+      }
+      marks[index] = epoch;
+      return true;
+    }
+
+    void push(Vertex<?> vertex) {
+      if (size == stack.length) stack = Arrays.copyOf(stack, size * 2);
+      stack[size++] = vertex;
+      if (TraversalMetrics.ENABLED) maxDepth = Math.max(maxDepth, size);
+    }
+
+    <T> void pushUnvisited(List<Vertex<T>> neighbors) {
+      if (neighbors == null) return;
+      if (neighbors instanceof RandomAccess) {
+        for (int i = 0, n = neighbors.size(); i < n; i++) {
+          Vertex<T> neighbor = neighbors.get(i);
+          if (neighbor != null) visit(neighbor);
+        }
+      } else {
+        for (Vertex<T> neighbor : neighbors) {
+          if (neighbor != null) visit(neighbor);
+        }
+      }
+    }
+
+    <T> void pushAdmissible(List<Vertex<T>> neighbors, Predicate<? super T> admissible) {
+      if (neighbors == null) return;
+      // Inadmissible vertices are marked too, so the predicate runs at most once per vertex.
+      if (neighbors instanceof RandomAccess) {
+        for (int i = 0, n = neighbors.size(); i < n; i++) {
+          Vertex<T> neighbor = neighbors.get(i);
+          if (neighbor != null && mark(neighbor) && admissible.test(neighbor.data)) push(neighbor);
+        }
+      } else {
+        for (Vertex<T> neighbor : neighbors) {
+          if (neighbor != null && mark(neighbor) && admissible.test(neighbor.data)) push(neighbor);
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Vertex<T> pop() {
+      Vertex<?> vertex = stack[--size];
+      stack[size] = null;
+      if (TraversalMetrics.ENABLED) popped++;
+      return (Vertex<T>) vertex;
+    }
+
+    void clearStack() {
+      Arrays.fill(stack, 0, size, null);
+      size = 0;
+    }
+  }
+}
@@ -0,0 +1,323 @@
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in cost counters for the five Practice methods.
+ *
+ * Turned on with -Dgraph.metrics=true. The switch is a static final field, so when it is off the
+ * JIT folds every instrumentation branch away and the traversals run exactly as before.
+ *
+ * When on, each Practice call opens a probe on its thread. The traversals it runs add to the
+ * probe: vertices visited, edges scanned, revisits rejected (an edge to a vertex that was already
+ * seen), the deepest stack or frontier, and for searches that stop early, how many vertices had
+ * been visited when they did. Closing the probe folds these into per-method LongAdder counters
+ * and records the call's wall time in a log-linear latency histogram (16 sub-buckets per power of
+ * two, so percentiles are within about 6%). The totals are published as the MXBean
+ * graph:type=TraversalMetrics and can be read directly with snapshot.
+ */
+public final class TraversalMetrics {
+  static final boolean ENABLED = Boolean.getBoolean("graph.metrics");
+
+  /**
+   * The instrumented Practice methods; overloads share an entry.
+   */
+  public enum Operation {
+    ODD_VERTICES("oddVertices"),
+    SORTED_REACHABLE("sortedReachable"),
+    TWO_WAY("twoWay"),
+    POSITIVE_PATH_EXISTS("positivePathExists"),
+    HAS_EXTENDED_CONNECTION_AT_COMPANY("hasExtendedConnectionAtCompany");
+
+    final String methodName;
+
+    Operation(String methodName) {
+      this.methodName = methodName;
+    }
+  }
+
+  private static final Stats[] STATS = new Stats[Operation.values().length];
+  private static final ThreadLocal<Probe> CURRENT = new ThreadLocal<>();
+
+  static {
+    for (int i = 0; i < STATS.length; i++) {
+      STATS[i] = new Stats();
+    }
+    if (ENABLED) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(),
+            new ObjectName("graph:type=TraversalMetrics"));
+      } catch (JMException e) {
+        // Another copy of this class (a second class loader) already registered; counting still works.
+      }
+    }
+  }
+
+  private TraversalMetrics() {
+  }
+
+  /**
+   * Opens a probe for one call of a Practice method. Returns null when metrics are off or when a
+   * probe is already open on this thread, in which case the inner call's work counts toward the
+   * outer one.
+   */
+  static Probe start(Operation operation) {
+    if (!ENABLED || CURRENT.get() != null) return null;
+    Probe probe = new Probe(operation);
+    CURRENT.set(probe);
+    return probe;
+  }
+
+  /**
+   * Closes a probe returned by start and records it. Does nothing for null.
+   */
+  static void finish(Probe probe) {
+    if (probe == null) return;
+    CURRENT.remove();
+    long elapsed = System.nanoTime() - probe.startNanos;
+    Stats stats = STATS[probe.operation.ordinal()];
+    stats.calls.increment();
+    stats.visited.add(probe.visited);
+    stats.scanned.add(probe.scanned);
+    stats.rejected.add(probe.rejected);
+    stats.maxDepth.accumulate(probe.maxDepth);
+    if (probe.exitAt >= 0) {
+      stats.earlyExits.increment();
+      stats.earlyExitPositions.add(probe.exitAt);
+    }
+    stats.latency.record(elapsed);
+  }
+
+  /**
+   * Adds one finished traversal to the probe open on this thread, if any. Called by the traversal
+   * code under an ENABLED check.
+   *
+   * @param visited vertices taken off the stack or frontier
+   * @param scanned edges looked at
+   * @param rejected edges leading to an already seen vertex
+   * @param maxDepth the largest stack or frontier size reached
+   * @param exitedEarly whether the traversal stopped before exhausting its reachable set
+   */
+  static void traversal(long visited, long scanned, long rejected, long maxDepth, boolean exitedEarly) {
+    Probe probe = CURRENT.get();
+    if (probe == null) return;
+    probe.visited += visited;
+    probe.scanned += scanned;
+    probe.rejected += rejected;
+    probe.maxDepth = Math.max(probe.maxDepth, maxDepth);
+    if (exitedEarly && probe.exitAt < 0) probe.exitAt = probe.visited;
+  }
+
+  /**
+   * @return the totals recorded so far for one method
+   */
+  public static OperationSnapshot snapshot(Operation operation) {
+    return new OperationSnapshot(STATS[operation.ordinal()]);
+  }
+
+  /**
+   * Clears every counter and histogram.
+   */
+  public static void reset() {
+    for (int i = 0; i < STATS.length; i++) {
+      STATS[i] = new Stats();
+    }
+  }
+
+  /**
+   * The counters of one in-progress Practice call. Confined to the calling thread.
+   */
+  static final class Probe {
+    final Operation operation;
+    final long startNanos = System.nanoTime();
+    long visited;
+    long scanned;
+    long rejected;
+    long maxDepth;
+    long exitAt = -1;
+
+    Probe(Operation operation) {
+      this.operation = operation;
+    }
+  }
+
+  private static final class Stats {
+    final LongAdder calls = new LongAdder();
+    final LongAdder visited = new LongAdder();
+    final LongAdder scanned = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    final LongAdder earlyExits = new LongAdder();
+    final LongAdder earlyExitPositions = new LongAdder();
+    final Histogram latency = new Histogram();
+  }
+
+  /**
+   * A log-linear histogram of non-negative longs. Values below 16 get their own bucket; above
+   * that each power of two is split into 16 equal buckets.
+   */
+  static final class Histogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private final AtomicLongArray counts = new AtomicLongArray(SUB + (64 - SUB_BITS) * SUB);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(long value) {
+      if (value < 0) value = 0;
+      counts.incrementAndGet(indexOf(value));
+      max.accumulate(value);
+    }
+
+    long count() {
+      long total = 0;
+      for (int i = 0; i < counts.length(); i++) {
+        total += counts.get(i);
+      }
+      return total;
+    }
+
+    long max() {
+      return max.get();
+    }
+
+    /**
+     * @return the lower bound of the bucket holding the given quantile, or 0 if nothing was recorded
+     */
+    long quantile(double q) {
+      long total = count();
+      if (total == 0) return 0;
+      long rank = Math.max(1, (long) Math.ceil(q * total));
+      long seen = 0;
+      for (int i = 0; i < counts.length(); i++) {
+        seen += counts.get(i);
+        if (seen >= rank) return lowerBound(i);
+      }
+      return max();
+    }
+
+    static int indexOf(long value) {
+      if (value < SUB) return (int) value;
+      int exponent = 63 - Long.numberOfLeadingZeros(value);
+      int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB - 1);
+      return SUB + (exponent - SUB_BITS) * SUB + mantissa;
+    }
+
+    static long lowerBound(int index) {
+      if (index < SUB) return index;
+      int exponent = (index - SUB) / SUB + SUB_BITS;
+      int mantissa = (index - SUB) % SUB;
+      return (long) (SUB + mantissa) << (exponent - SUB_BITS);
+    }
+  }
+
+  /**
+   * Point-in-time totals for one method, also the JMX composite type of the MXBean.
+   */
+  public static final class OperationSnapshot {
+    private final long calls;
+    private final long verticesVisited;
+    private final long edgesScanned;
+    private final long revisitsRejected;
+    private final long maxStackDepth;
+    private final long earlyExits;
+    private final double meanEarlyExitPosition;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    private OperationSnapshot(Stats stats) {
+      calls = stats.calls.sum();
+      verticesVisited = stats.visited.sum();
+      edgesScanned = stats.scanned.sum();
+      revisitsRejected = stats.rejected.sum();
+      maxStackDepth = stats.maxDepth.get();
+      earlyExits = stats.earlyExits.sum();
+      meanEarlyExitPosition = earlyExits == 0 ? 0 : (double) stats.earlyExitPositions.sum() / earlyExits;
+      p50Nanos = stats.latency.quantile(0.50);
+      p99Nanos = stats.latency.quantile(0.99);
+      p999Nanos = stats.latency.quantile(0.999);
+      maxNanos = stats.latency.max();
+    }
+
+    public long getCalls() {
+      return calls;
+    }
+
+    public long getVerticesVisited() {
+      return verticesVisited;
+    }
+
+    public long getEdgesScanned() {
+      return edgesScanned;
+    }
+
+    public long getRevisitsRejected() {
+      return revisitsRejected;
+    }
+
+    public long getMaxStackDepth() {
+      return maxStackDepth;
+    }
+
+    public long getEarlyExits() {
+      return earlyExits;
+    }
+
+    /**
+     * @return the average number of vertices visited before a search stopped early
+     */
+    public double getMeanEarlyExitPosition() {
+      return meanEarlyExitPosition;
+    }
+
+    public long getP50Nanos() {
+      return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+      return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+      return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+  }
+
+  /**
+   * The management interface registered as graph:type=TraversalMetrics.
+   */
+  public interface TraversalMetricsMXBean {
+    /**
+     * @return the totals of every method, keyed by method name
+     */
+    Map<String, OperationSnapshot> getOperations();
+
+    void reset();
+  }
+
+  private static final class Bean implements TraversalMetricsMXBean {
+    @Override
+    public Map<String, OperationSnapshot> getOperations() {
+      Map<String, OperationSnapshot> result = new LinkedHashMap<>();
+      for (Operation operation : Operation.values()) {
+        result.put(operation.methodName, snapshot(operation));
+      }
+      return result;
+    }
+
+    @Override
+    public void reset() {
+      TraversalMetrics.reset();
+    }
+  }
+}
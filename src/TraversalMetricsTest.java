@@ -0,0 +1,238 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+public class TraversalMetricsTest {
+
+  @Test
+  public void testHistogramBucketsSmallValuesExactly() {
+    for (long value = 0; value < 16; value++) {
+      int index = TraversalMetrics.Histogram.indexOf(value);
+      assertEquals(value, TraversalMetrics.Histogram.lowerBound(index));
+    }
+  }
+
+  @Test
+  public void testHistogramBucketLowerBoundsAreWithinASixteenth() {
+    long[] values = {16, 17, 31, 32, 100, 1_000, 123_456, 987_654_321L, Long.MAX_VALUE};
+    for (long value : values) {
+      long lower = TraversalMetrics.Histogram.lowerBound(TraversalMetrics.Histogram.indexOf(value));
+      assertTrue(lower <= value, "lower bound above " + value);
+      assertTrue(value - lower <= value / 16, "bucket too wide for " + value);
+    }
+    int previous = -1;
+    for (long value = 0; value < 100_000; value += 7) {
+      int index = TraversalMetrics.Histogram.indexOf(value);
+      assertTrue(index >= previous);
+      previous = index;
+    }
+  }
+
+  @Test
+  public void testHistogramQuantiles() {
+    TraversalMetrics.Histogram histogram = new TraversalMetrics.Histogram();
+    assertEquals(0, histogram.quantile(0.5));
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+    assertEquals(1000, histogram.count());
+    assertEquals(1_000_000, histogram.max());
+    long p50 = histogram.quantile(0.50);
+    assertTrue(p50 <= 500_000 && p50 >= 500_000 - 500_000 / 16, "p50 " + p50);
+    long p99 = histogram.quantile(0.99);
+    assertTrue(p99 <= 990_000 && p99 >= 990_000 - 990_000 / 16, "p99 " + p99);
+  }
+
+  @Test
+  public void testDisabledRecordsNothing() throws Exception {
+    // Like the enabled test, this runs on fresh classes, so it holds whatever -Dgraph.metrics the
+    // suite itself was started with.
+    String previous = System.setProperty("graph.metrics", "false");
+    try (FreshLoader loader = new FreshLoader()) {
+      Class<?> practice = loader.loadClass("Practice");
+      Class<?> metrics = loader.loadClass("TraversalMetrics");
+      Class<?> operation = loader.loadClass("TraversalMetrics$Operation");
+
+      Map<Integer, Set<Integer>> graph = new HashMap<>();
+      graph.put(1, new HashSet<>(List.of(2)));
+      graph.put(2, new HashSet<>(List.of(1)));
+      practice.getMethod("sortedReachable", Map.class, int.class).invoke(null, graph, 1);
+      practice.getMethod("positivePathExists", Map.class, int.class, int.class).invoke(null, graph, 1, 2);
+      Method start = metrics.getDeclaredMethod("start", operation);
+      start.setAccessible(true);
+      assertNull(start.invoke(null, operation.getEnumConstants()[0]));
+      assertEquals(0L, get(snapshot(metrics, operation, "SORTED_REACHABLE"), "getCalls"));
+      assertEquals(0L, get(snapshot(metrics, operation, "POSITIVE_PATH_EXISTS"), "getCalls"));
+    } finally {
+      if (previous == null) System.clearProperty("graph.metrics");
+      else System.setProperty("graph.metrics", previous);
+    }
+  }
+
+  @Test
+  public void testEnabledCountsTraversalWork() throws Exception {
+    // The switch is read once per class load, so the enabled path runs on fresh copies of the classes.
+    String previous = System.setProperty("graph.metrics", "true");
+    try (FreshLoader loader = new FreshLoader()) {
+      Class<?> practice = loader.loadClass("Practice");
+      Class<?> metrics = loader.loadClass("TraversalMetrics");
+      Class<?> operation = loader.loadClass("TraversalMetrics$Operation");
+
+      // 1 -> 2 -> 3 -> 1 and 2 -> 4: four vertices, four edges, one of them back to a seen vertex.
+      Map<Integer, Set<Integer>> graph = new HashMap<>();
+      graph.put(1, new HashSet<>(List.of(2)));
+      graph.put(2, new HashSet<>(List.of(3, 4)));
+      graph.put(3, new HashSet<>(List.of(1)));
+      graph.put(4, new HashSet<>());
+      Method sorted = practice.getMethod("sortedReachable", Map.class, int.class);
+      Method positive = practice.getMethod("positivePathExists", Map.class, int.class, int.class);
+      assertEquals(List.of(1, 2, 3, 4), sorted.invoke(null, graph, 1));
+      assertEquals(List.of(1, 2, 3, 4), sorted.invoke(null, graph, 1));
+      assertEquals(true, positive.invoke(null, graph, 1, 3));
+
+      Object sortedStats = snapshot(metrics, operation, "SORTED_REACHABLE");
+      assertEquals(2L, get(sortedStats, "getCalls"));
+      assertEquals(8L, get(sortedStats, "getVerticesVisited"));
+      assertEquals(8L, get(sortedStats, "getEdgesScanned"));
+      assertEquals(2L, get(sortedStats, "getRevisitsRejected"));
+      assertEquals(0L, get(sortedStats, "getEarlyExits"));
+      assertTrue((long) get(sortedStats, "getMaxStackDepth") >= 1);
+      assertTrue((long) get(sortedStats, "getMaxNanos") > 0);
+      assertTrue((long) get(sortedStats, "getP50Nanos") <= (long) get(sortedStats, "getMaxNanos"));
+
+      Object pathStats = snapshot(metrics, operation, "POSITIVE_PATH_EXISTS");
+      assertEquals(1L, get(pathStats, "getCalls"));
+      assertEquals(1L, get(pathStats, "getEarlyExits"));
+      assertTrue((double) get(pathStats, "getMeanEarlyExitPosition") >= 1);
+
+      metrics.getMethod("reset").invoke(null);
+      assertEquals(0L, get(snapshot(metrics, operation, "SORTED_REACHABLE"), "getCalls"));
+    } finally {
+      if (previous == null) System.clearProperty("graph.metrics");
+      else System.setProperty("graph.metrics", previous);
+    }
+  }
+
+  @Test
+  public void testSearchOverloadsCountRevisitsAlike() throws Exception {
+    String previous = System.setProperty("graph.metrics", "true");
+    try (FreshLoader loader = new FreshLoader()) {
+      Class<?> metrics = loader.loadClass("TraversalMetrics");
+      Class<?> operation = loader.loadClass("TraversalMetrics$Operation");
+      Class<?> search = loader.loadClass("GraphSearch");
+      Class<?> vertexClass = loader.loadClass("Vertex");
+
+      // 1 -> 2 -> 1, 1 -> 3, and both 2 and 3 lead to the inadmissible -4: one plain revisit and
+      // one second edge into a vertex that was seen but not entered.
+      Map<Integer, Set<Integer>> graph = new HashMap<>();
+      graph.put(1, new HashSet<>(List.of(2, 3)));
+      graph.put(2, new HashSet<>(List.of(-4, 1)));
+      graph.put(3, new HashSet<>(List.of(-4)));
+      graph.put(-4, new HashSet<>(List.of(1)));
+      IntPredicate positive = id -> id > 0;
+      IntPredicate all = id -> true;
+      Object intGraph = loader.loadClass("CsrGraph").getMethod("fromMap", Map.class).invoke(null, graph);
+      Map<Integer, List<Object>> adjacency = new HashMap<>();
+      Map<Integer, Object> vertices = new HashMap<>();
+      for (int id : graph.keySet()) {
+        adjacency.put(id, new ArrayList<>());
+        vertices.put(id, vertexClass.getConstructor(Object.class, List.class).newInstance(id, adjacency.get(id)));
+      }
+      graph.forEach((id, targets) -> targets.forEach(target -> adjacency.get(id).add(vertices.get(target))));
+      Function<Integer, Set<Integer>> successors = graph::get;
+      Predicate<Object> positiveData = data -> (Integer) data > 0;
+
+      long fromMap = rejected(metrics, operation, () -> search
+          .getMethod("forEach", Map.class, int.class, IntPredicate.class, IntPredicate.class)
+          .invoke(null, graph, 1, positive, all));
+      long fromIntGraph = rejected(metrics, operation, () -> search
+          .getMethod("forEach", loader.loadClass("IntGraph"), int.class, IntPredicate.class, IntPredicate.class)
+          .invoke(null, intGraph, 1, positive, all));
+      long fromVertices = rejected(metrics, operation, () -> search
+          .getMethod("exists", vertexClass, Predicate.class, Predicate.class)
+          .invoke(null, vertices.get(1), positiveData, (Predicate<Object>) data -> false));
+      long fromObjects = rejected(metrics, operation, () -> search
+          .getMethod("exists", Object.class, Function.class, Predicate.class, Predicate.class)
+          .invoke(null, 1, successors, (Predicate<Integer>) id -> id > 0, (Predicate<Integer>) id -> false));
+      assertEquals(2L, fromMap);
+      assertEquals(2L, fromIntGraph);
+      assertEquals(2L, fromVertices);
+      assertEquals(2L, fromObjects);
+    } finally {
+      if (previous == null) System.clearProperty("graph.metrics");
+      else System.setProperty("graph.metrics", previous);
+    }
+  }
+
+  private interface Search {
+    void run() throws Exception;
+  }
+
+  /**
+   * Runs search under one probe of the fresh TraversalMetrics and returns the revisits it recorded.
+   */
+  private static long rejected(Class<?> metrics, Class<?> operation, Search search) throws Exception {
+    metrics.getMethod("reset").invoke(null);
+    Method start = metrics.getDeclaredMethod("start", operation);
+    Method finish = metrics.getDeclaredMethod("finish", start.getReturnType());
+    start.setAccessible(true);
+    finish.setAccessible(true);
+    Object probe = start.invoke(null, operation.getEnumConstants()[0]);
+    try {
+      search.run();
+    } finally {
+      finish.invoke(null, probe);
+    }
+    return (long) get(snapshot(metrics, operation, "ODD_VERTICES"), "getRevisitsRejected");
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Object snapshot(Class<?> metrics, Class<?> operation, String name) throws Exception {
+    Object constant = Enum.valueOf((Class) operation, name);
+    return metrics.getMethod("snapshot", operation).invoke(null, constant);
+  }
+
+  private static Object get(Object snapshot, String getter) throws Exception {
+    return snapshot.getClass().getMethod(getter).invoke(snapshot);
+  }
+
+  /**
+   * Loads the project's classes again, child first, so their static state starts over.
+   */
+  private static final class FreshLoader extends URLClassLoader {
+    FreshLoader() {
+      super(new URL[]{TraversalMetrics.class.getProtectionDomain().getCodeSource().getLocation()},
+          TraversalMetricsTest.class.getClassLoader());
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> loaded = findLoadedClass(name);
+        if (loaded == null && name.indexOf('.') < 0) {
+          try (InputStream in = getResourceAsStream(name + ".class")) {
+            if (in != null) {
+              byte[] bytes = in.readAllBytes();
+              loaded = defineClass(name, bytes, 0, bytes.length);
+            }
+          } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+          }
+        }
+        if (loaded == null) return super.loadClass(name, resolve);
+        if (resolve) resolveClass(loaded);
+        return loaded;
+      }
+    }
+  }
+}
@@ -5,6 +5,10 @@ public class Vertex<T> {
   T data;
   List<Vertex<T>> neighbors;
 
+  // Dense id used by TraversalEngine to index its reusable visited marks. Indices of collected
+  // vertices are reused (see VertexIndices), so it is unique among live vertices only.
+  final int index = VertexIndices.register(this);
+
   public Vertex(T data) {
     this(data, new ArrayList<>());
   }
@@ -13,4 +17,4 @@ public class Vertex<T> {
     this.data = data;
     this.neighbors = neighbors;
   }
-}
\ No newline at end of file
+}
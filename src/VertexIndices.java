@@ -0,0 +1,80 @@
+import java.lang.ref.Cleaner;
+import java.util.Arrays;
+
+/**
+ * Hands out the dense Vertex.index values that TraversalEngine uses to address its mark arrays.
+ *
+ * An index is returned to the pool once its vertex has been garbage collected (through a Cleaner),
+ * and the lowest free index is handed out first. Indices therefore stay below the largest number
+ * of vertices alive at one time, rather than the number ever created, and so do the per-thread mark
+ * arrays. Running out of indices (more than the limit alive at once) fails with an
+ * IllegalStateException instead of wrapping to negative values.
+ *
+ * The shared pool is thread-safe; a collected index can be reused as soon as the Cleaner thread
+ * releases it.
+ */
+final class VertexIndices {
+  private static final Cleaner CLEANER = Cleaner.create();
+  private static final VertexIndices SHARED = new VertexIndices(Integer.MAX_VALUE);
+
+  private final int limit;
+  private int next;
+  // Binary min-heap of released indices.
+  private int[] free = new int[16];
+  private int freeCount;
+
+  VertexIndices(int limit) {
+    this.limit = limit;
+  }
+
+  /**
+   * Takes an index from the shared pool for owner and returns it when owner is collected.
+   *
+   * @param owner the vertex the index belongs to
+   * @return the index
+   * @throws IllegalStateException if every index is in use
+   */
+  static int register(Object owner) {
+    int index = SHARED.acquire();
+    // The action must not capture owner, or it would never become unreachable.
+    CLEANER.register(owner, () -> SHARED.release(index));
+    return index;
+  }
+
+  /**
+   * @return the lowest free index
+   * @throws IllegalStateException if every index below the limit is in use
+   */
+  synchronized int acquire() {
+    if (freeCount == 0) {
+      if (next == limit) throw new IllegalStateException("more than " + limit + " vertices alive at once");
+      return next++;
+    }
+    int lowest = free[0];
+    int last = free[--freeCount];
+    int hole = 0;
+    for (int child = 1; child < freeCount; child = 2 * hole + 1) {
+      if (child + 1 < freeCount && free[child + 1] < free[child]) child++;
+      if (free[child] >= last) break;
+      free[hole] = free[child];
+      hole = child;
+    }
+    free[hole] = last;
+    return lowest;
+  }
+
+  /**
+   * Puts an index back into the pool.
+   *
+   * @param index an index returned by acquire and not released since
+   */
+  synchronized void release(int index) {
+    if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+    int hole = freeCount++;
+    while (hole > 0 && free[(hole - 1) >>> 1] > index) {
+      free[hole] = free[(hole - 1) >>> 1];
+      hole = (hole - 1) >>> 1;
+    }
+    free[hole] = index;
+  }
+}
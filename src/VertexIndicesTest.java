@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+public class VertexIndicesTest {
+
+  @Test
+  public void testReleasedIndices_ReusedLowestFirst() {
+    VertexIndices indices = new VertexIndices(Integer.MAX_VALUE);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, indices.acquire());
+    }
+    List<Integer> released = new ArrayList<>();
+    for (int i = 0; i < 100; i += 3) {
+      released.add(i);
+    }
+    Collections.shuffle(released, new Random(2));
+    for (int index : released) {
+      indices.release(index);
+    }
+    Collections.sort(released);
+    for (int index : released) {
+      assertEquals(index, indices.acquire());
+    }
+    assertEquals(100, indices.acquire());
+  }
+
+  @Test
+  public void testLimit_FailsCleanly() {
+    VertexIndices indices = new VertexIndices(3);
+    indices.acquire();
+    indices.acquire();
+    assertEquals(2, indices.acquire());
+    assertThrows(IllegalStateException.class, indices::acquire);
+    indices.release(1);
+    assertEquals(1, indices.acquire());
+  }
+
+  @Test
+  public void testVertices_HaveDistinctIndicesWhileAlive() {
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    Set<Integer> seen = new HashSet<>();
+    for (int i = 0; i < 10_000; i++) {
+      Vertex<Integer> vertex = new Vertex<>(i);
+      vertices.add(vertex);
+      assertTrue(vertex.index >= 0);
+      assertTrue(seen.add(vertex.index));
+    }
+  }
+}
@@ -0,0 +1,292 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Relabels graph vertices so that vertices visited together sit close together in memory.
+ *
+ * A traversal touches a vertex's offsets, its neighbor list and its visited bit. When the
+ * neighbors of a vertex have nearby indices, those accesses share cache lines and pages instead of
+ * scattering across the whole graph. The orders are:
+ * <ul>
+ *   <li>ID: ascending id, the order every graph is built in; puts a relabelled graph back.</li>
+ *   <li>BFS: breadth-first discovery order over edges in both directions.</li>
+ *   <li>RCM: reverse Cuthill-McKee. A BFS from a low-degree peripheral vertex that visits
+ *   neighbors by ascending degree, reversed. It keeps the index distance between neighbors
+ *   small.</li>
+ *   <li>DEGREE: descending total degree, so the hubs most traversals pass through share the first
+ *   cache lines.</li>
+ * </ul>
+ *
+ * Reordering only moves vertices between indices: ids, key flags and edges are unchanged. Queries
+ * such as Practice.sortedReachable answer exactly as before, because a relabelled CsrGraph
+ * reports idOrdered() false and callers that need sorted ids sort them. relayout does the same for
+ * Vertex graphs by copying the vertices in the chosen order, so that they are allocated next to
+ * each other and get consecutive traversal marks.
+ */
+public final class VertexOrdering {
+  /**
+   * The available vertex orders.
+   */
+  public enum Order { ID, BFS, RCM, DEGREE }
+
+  private VertexOrdering() {
+  }
+
+  /**
+   * Builds a CSR graph from a map with its vertices placed in the given order.
+   *
+   * @param graph a map where each key is a vertex and its value is the set of its neighbors
+   * @param order the order to place vertices in
+   * @return the reordered graph
+   */
+  public static CsrGraph fromMap(Map<Integer, Set<Integer>> graph, Order order) {
+    return reorder(CsrGraph.fromMap(graph), order);
+  }
+
+  /**
+   * Copies a graph with its vertices placed in the given order.
+   *
+   * @param graph the graph to reorder
+   * @param order the order to place vertices in
+   * @return the reordered graph
+   */
+  public static CsrGraph reorder(IntGraph graph, Order order) {
+    return reorder(graph, permutation(graph, order));
+  }
+
+  /**
+   * Copies a graph with its vertices placed in the given order.
+   *
+   * @param graph the graph to reorder
+   * @param permutation the old index of the vertex to place at each new index
+   * @return the reordered graph, with each neighbor list in ascending index order
+   */
+  public static CsrGraph reorder(IntGraph graph, int[] permutation) {
+    int n = graph.vertexCount();
+    if (permutation.length != n) throw new IllegalArgumentException("permutation length != vertex count");
+    if (graph.edgeCount() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("too many edges for an on-heap CSR graph: " + graph.edgeCount());
+    }
+    int[] position = new int[n];
+    Arrays.fill(position, -1);
+    for (int i = 0; i < n; i++) {
+      int old = permutation[i];
+      if (old < 0 || old >= n || position[old] >= 0) throw new IllegalArgumentException("not a permutation");
+      position[old] = i;
+    }
+    int[] ids = new int[n];
+    long[] keys = new long[(n + 63) >>> 6];
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[(int) graph.edgeCount()];
+    IntGraph.Cursor cursor = graph.cursor();
+    int edge = 0;
+    for (int i = 0; i < n; i++) {
+      int old = permutation[i];
+      ids[i] = graph.idOf(old);
+      if (graph.isKey(old)) keys[i >>> 6] |= 1L << i;
+      int first = edge;
+      cursor.of(old);
+      for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+        targets[edge++] = position[next];
+      }
+      // Ascending neighbor indices make each expansion walk memory forward.
+      Arrays.sort(targets, first, edge);
+      offsets[i + 1] = edge;
+    }
+    return new CsrGraph(ids, keys, offsets, targets);
+  }
+
+  /**
+   * Computes the given order for a graph.
+   *
+   * @param graph the graph to order
+   * @param order the order wanted
+   * @return the old index of the vertex to place at each new index
+   */
+  public static int[] permutation(IntGraph graph, Order order) {
+    switch (order) {
+      case ID: return byId(graph);
+      case BFS: return breadthFirst(graph, false);
+      case RCM: return breadthFirst(graph, true);
+      case DEGREE: return byDegree(graph);
+      default: throw new IllegalArgumentException("unknown order " + order);
+    }
+  }
+
+  /**
+   * Copies every Vertex reachable from the given roots, allocating the copies in the given order.
+   * The copies hold the same data and have the same edges, so every Practice query on them
+   * answers as on the originals.
+   *
+   * @param <T> the type of data stored in the vertices
+   * @param roots the vertices to start from; null roots are ignored
+   * @param order the order to allocate copies in
+   * @return the copy of each root, in iteration order (null for null roots)
+   */
+  public static <T> List<Vertex<T>> relayout(Collection<? extends Vertex<T>> roots, Order order) {
+    GraphSnapshot<Vertex<T>> snapshot = GraphSnapshot.ofVertices(roots);
+    CsrGraph graph = snapshot.graph();
+    int[] permutation = permutation(graph, order);
+    Map<Vertex<T>, Vertex<T>> copies = new IdentityHashMap<>();
+    List<Vertex<T>> placed = new ArrayList<>(permutation.length);
+    for (int old : permutation) {
+      Vertex<T> original = snapshot.node(old);
+      Vertex<T> copy = new Vertex<>(original.data,
+          original.neighbors == null ? null : new ArrayList<>(original.neighbors.size()));
+      copies.put(original, copy);
+      placed.add(copy);
+    }
+    // Neighbor lists keep the original order (and any duplicates or nulls), so traversals see the
+    // same sequence of neighbors as before.
+    for (int i = 0; i < permutation.length; i++) {
+      List<Vertex<T>> neighbors = snapshot.node(permutation[i]).neighbors;
+      if (neighbors == null) continue;
+      for (Vertex<T> neighbor : neighbors) {
+        placed.get(i).neighbors.add(neighbor == null ? null : copies.get(neighbor));
+      }
+    }
+    List<Vertex<T>> result = new ArrayList<>(roots.size());
+    for (Vertex<T> root : roots) {
+      result.add(root == null ? null : copies.get(root));
+    }
+    return result;
+  }
+
+  private static int[] byId(IntGraph graph) {
+    int n = graph.vertexCount();
+    long[] packed = new long[n];
+    for (int i = 0; i < n; i++) {
+      packed[i] = (long) graph.idOf(i) << 32 | i;
+    }
+    Arrays.sort(packed);
+    int[] permutation = new int[n];
+    for (int i = 0; i < n; i++) {
+      permutation[i] = (int) packed[i];
+    }
+    return permutation;
+  }
+
+  private static int[] byDegree(IntGraph graph) {
+    int[] degree = totalDegrees(graph);
+    int n = degree.length;
+    // Negated degrees sort the hubs first; the index in the low half keeps ties in index order.
+    long[] packed = new long[n];
+    for (int i = 0; i < n; i++) {
+      packed[i] = (long) -degree[i] << 32 | i;
+    }
+    Arrays.sort(packed);
+    int[] permutation = new int[n];
+    for (int i = 0; i < n; i++) {
+      permutation[i] = (int) packed[i];
+    }
+    return permutation;
+  }
+
+  /**
+   * Out-degree plus in-degree of every vertex.
+   */
+  private static int[] totalDegrees(IntGraph graph) {
+    int n = graph.vertexCount();
+    int[] degree = new int[n];
+    IntGraph.Cursor cursor = graph.cursor();
+    for (int i = 0; i < n; i++) {
+      degree[i] += graph.degree(i);
+      cursor.of(i);
+      for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+        degree[next]++;
+      }
+    }
+    return degree;
+  }
+
+  /**
+   * BFS over edges in both directions, one component at a time. For RCM each component starts at
+   * a pseudo-peripheral vertex, neighbors are queued by ascending degree, and the whole order is
+   * reversed at the end.
+   */
+  private static int[] breadthFirst(IntGraph graph, boolean cuthillMcKee) {
+    int n = graph.vertexCount();
+    IntGraph reverse = graph.reverse();
+    int[] degree = cuthillMcKee ? totalDegrees(graph) : null;
+    IntGraph.Cursor out = graph.cursor();
+    IntGraph.Cursor in = reverse.cursor();
+    int[] order = new int[n];
+    boolean[] placed = new boolean[n];
+    // Scratch for the pseudo-peripheral search, which runs BFS without disturbing placed.
+    int[] level = cuthillMcKee ? new int[n] : null;
+    int[] stamp = cuthillMcKee ? new int[n] : null;
+    int[] queue = cuthillMcKee ? new int[n] : null;
+    int searches = 0;
+    long[] batch = new long[16];
+    int tail = 0;
+    for (int root = 0; root < n; root++) {
+      if (placed[root]) continue;
+      int start = root;
+      if (cuthillMcKee) {
+        // George-Liu: hop to a low-degree vertex on the last BFS level while that deepens the BFS.
+        int depth = -1;
+        for (int attempt = 0; attempt < 8; attempt++) {
+          int stampValue = ++searches;
+          int head = 0;
+          int end = 0;
+          queue[end++] = start;
+          stamp[start] = stampValue;
+          level[start] = 0;
+          int far = start;
+          while (head < end) {
+            int vertex = queue[head++];
+            if (level[vertex] > level[far] || (level[vertex] == level[far] && degree[vertex] < degree[far])) {
+              far = vertex;
+            }
+            for (int pass = 0; pass < 2; pass++) {
+              IntGraph.Cursor cursor = (pass == 0 ? out : in).of(vertex);
+              for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+                if (stamp[next] == stampValue) continue;
+                stamp[next] = stampValue;
+                level[next] = level[vertex] + 1;
+                queue[end++] = next;
+              }
+            }
+          }
+          if (level[far] <= depth) break;
+          depth = level[far];
+          start = far;
+        }
+      }
+
+      placed[start] = true;
+      int head = tail;
+      order[tail++] = start;
+      while (head < tail) {
+        int vertex = order[head++];
+        int count = 0;
+        for (int pass = 0; pass < 2; pass++) {
+          IntGraph.Cursor cursor = (pass == 0 ? out : in).of(vertex);
+          for (int next = cursor.next(); next >= 0; next = cursor.next()) {
+            if (placed[next]) continue;
+            placed[next] = true;
+            if (count == batch.length) batch = Arrays.copyOf(batch, count * 2);
+            batch[count++] = cuthillMcKee ? (long) degree[next] << 32 | next : next;
+          }
+        }
+        if (cuthillMcKee) Arrays.sort(batch, 0, count);
+        for (int k = 0; k < count; k++) {
+          order[tail++] = (int) batch[k];
+        }
+      }
+    }
+    if (cuthillMcKee) {
+      for (int i = 0, j = n - 1; i < j; i++, j--) {
+        int swap = order[i];
+        order[i] = order[j];
+        order[j] = swap;
+      }
+    }
+    return order;
+  }
+}
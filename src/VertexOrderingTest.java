@@ -0,0 +1,132 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.util.*;
+
+public class VertexOrderingTest {
+  @TempDir
+  Path dir;
+
+  private static Map<Integer, Set<Integer>> randomMap(long seed, int vertices, int edges) {
+    return GraphFixtures.randomMap(seed, vertices, edges, -20, 91, 0.05);
+  }
+
+  private static boolean isPermutation(int[] permutation, int n) {
+    boolean[] seen = new boolean[n];
+    for (int old : permutation) {
+      if (old < 0 || old >= n || seen[old]) return false;
+      seen[old] = true;
+    }
+    return permutation.length == n;
+  }
+
+  @Test
+  public void testEveryOrderAnswersLikeTheOriginal() {
+    ParallelBfs parallel = new ParallelBfs();
+    for (long seed = 1; seed <= 3; seed++) {
+      Map<Integer, Set<Integer>> map = randomMap(seed, 90, (int) (seed * 80));
+      CsrGraph original = CsrGraph.fromMap(map);
+      List<Integer> ids = new ArrayList<>(map.keySet());
+      ids.addAll(Arrays.asList(91, 93, 0, 999));
+      for (VertexOrdering.Order order : VertexOrdering.Order.values()) {
+        int[] permutation = VertexOrdering.permutation(original, order);
+        assertTrue(isPermutation(permutation, original.vertexCount()), order.toString());
+        CsrGraph graph = VertexOrdering.fromMap(map, order);
+        assertEquals(original.vertexCount(), graph.vertexCount());
+        assertEquals(original.edgeCount(), graph.edgeCount());
+        for (int i = 0; i < graph.vertexCount(); i++) {
+          assertEquals(i, graph.indexOf(graph.idOf(i)), order + " index of " + graph.idOf(i));
+        }
+        assertEquals(-1, graph.indexOf(12345));
+        for (int starting : ids) {
+          int[] expected = Practice.sortedReachable(original, starting);
+          String label = order + " from " + starting;
+          assertArrayEquals(expected, Practice.sortedReachable(graph, starting), label);
+          assertArrayEquals(expected, parallel.sortedReachable(graph, starting), label);
+          assertArrayEquals(expected, ReachableValues.sortedReachable(graph, starting).toArray(), label);
+          assertArrayEquals(Arrays.copyOf(expected, Math.min(3, expected.length)),
+              ReachableValues.smallestReachable(graph, starting, 3), label);
+          for (int ending : ids) {
+            assertEquals(Practice.positivePathExists(original, starting, ending),
+                Practice.positivePathExists(graph, starting, ending), label + " to " + ending);
+          }
+        }
+        PositiveReachabilityIndex index = PositiveReachabilityIndex.of(graph);
+        for (int starting : ids) {
+          for (int ending : ids) {
+            assertEquals(Practice.positivePathExists(map, starting, ending), index.positivePathExists(starting, ending));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOrdersPlaceVerticesAsDocumented() {
+    // A path 1 - 2 - 3 - 4 - 5 plus a hub 6 pointing at everything.
+    Map<Integer, Set<Integer>> map = new HashMap<>();
+    map.put(1, new HashSet<>(Arrays.asList(2)));
+    map.put(2, new HashSet<>(Arrays.asList(3)));
+    map.put(3, new HashSet<>(Arrays.asList(4)));
+    map.put(4, new HashSet<>(Arrays.asList(5)));
+    map.put(5, new HashSet<>());
+    map.put(6, new HashSet<>(Arrays.asList(1, 2, 3, 4, 5)));
+    CsrGraph graph = CsrGraph.fromMap(map);
+
+    assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5}, VertexOrdering.permutation(graph, VertexOrdering.Order.ID));
+    assertEquals(5, VertexOrdering.permutation(graph, VertexOrdering.Order.DEGREE)[0]);
+    assertEquals(0, VertexOrdering.permutation(graph, VertexOrdering.Order.BFS)[0]);
+
+    CsrGraph degree = VertexOrdering.reorder(graph, VertexOrdering.Order.DEGREE);
+    assertFalse(degree.idOrdered());
+    assertEquals(6, degree.idOf(0));
+    assertTrue(CsrGraph.fromMap(map).idOrdered());
+    // Reordering by id puts a relabelled graph back in the order it was built in.
+    CsrGraph back = VertexOrdering.reorder(degree, VertexOrdering.Order.ID);
+    assertTrue(back.idOrdered());
+    for (int i = 0; i < graph.vertexCount(); i++) {
+      assertEquals(graph.idOf(i), back.idOf(i));
+      assertEquals(graph.degree(i), back.degree(i));
+    }
+
+    // On a plain path, RCM keeps every edge between adjacent indices.
+    Map<Integer, Set<Integer>> path = new HashMap<>();
+    for (int i = 1; i <= 8; i++) {
+      path.put(i * 5 % 9, new HashSet<>(i < 8 ? Arrays.asList((i + 1) * 5 % 9) : Arrays.asList()));
+    }
+    CsrGraph rcm = VertexOrdering.fromMap(path, VertexOrdering.Order.RCM);
+    for (int i = 0; i < rcm.vertexCount(); i++) {
+      for (int edge = rcm.edgeStart(i); edge < rcm.edgeEnd(i); edge++) {
+        assertEquals(1, Math.abs(rcm.target(edge) - i));
+      }
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> VertexOrdering.reorder(graph, new int[] {0, 1, 2, 3, 4, 4}));
+    assertThrows(IllegalArgumentException.class, () -> VertexOrdering.reorder(graph, new int[] {0, 1}));
+    assertThrows(IllegalArgumentException.class, () -> GraphFile.write(dir.resolve("degree.graph"), degree, false, null, null));
+  }
+
+  @Test
+  public void testRelayoutCopiesVertexGraphs() {
+    List<Vertex<Integer>> vertices = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      vertices.add(new Vertex<>(i * 3 % 8));
+    }
+    for (int i = 0; i < 8; i++) {
+      vertices.get(i).neighbors.add(vertices.get((i * 5 + 1) % 8));
+      if (i % 3 == 0) vertices.get(i).neighbors.add(null);
+    }
+    Vertex<Integer> island = new Vertex<>(100, null);
+    for (VertexOrdering.Order order : VertexOrdering.Order.values()) {
+      List<Vertex<Integer>> copies = VertexOrdering.relayout(Arrays.asList(vertices.get(2), null, island), order);
+      assertEquals(3, copies.size());
+      assertNull(copies.get(1));
+      assertNotSame(vertices.get(2), copies.get(0));
+      assertEquals(Practice.sortedReachable(vertices.get(2)), Practice.sortedReachable(copies.get(0)));
+      assertEquals(Practice.oddVertices(vertices.get(2)), Practice.oddVertices(copies.get(0)));
+      assertEquals(100, copies.get(2).data);
+      assertNull(copies.get(2).neighbors);
+    }
+  }
+}
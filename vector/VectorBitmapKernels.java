@@ -0,0 +1,93 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * BitmapKernels written with jdk.incubator.vector, in the widest lane shape the CPU supports
+ * (256 bits on AVX2, 512 on AVX-512).
+ *
+ * JDK 17's vector API has no lane popcount, so the fused kernels count with the SWAR bit-sliced
+ * sum: pairs, nibbles, bytes, then a shift-and-add fold, all with lanewise shifts, ANDs and adds.
+ * Per-lane totals are only reduced across lanes once per call. A plain cardinality has nothing to
+ * fuse and the SWAR sum does not beat one popcount instruction per word, so it stays scalar.
+ * parityMask shifts each lane's low bit to its lane number and ORs the lanes together, which
+ * compiles to far better code on JDK 17 than converting a compare mask with toLong. Tails shorter
+ * than a vector fall back to the scalar loops.
+ *
+ * Compile and run with --add-modules jdk.incubator.vector; BitmapKernels.get() loads this class
+ * reflectively when it is present.
+ */
+final class VectorBitmapKernels extends BitmapKernels {
+  private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+  private static final IntVector LANE_INDEX = IntVector.zero(INTS).addIndex(1);
+
+  public VectorBitmapKernels() {
+  }
+
+  @Override
+  String name() {
+    return "vector" + LONGS.vectorBitSize();
+  }
+
+  @Override
+  int andNotOr(long[] next, long[] visited, int from, int to) {
+    LongVector total = LongVector.zero(LONGS);
+    int i = from;
+    for (int bound = from + LONGS.loopBound(to - from); i < bound; i += LONGS.length()) {
+      LongVector seen = LongVector.fromArray(LONGS, visited, i);
+      LongVector fresh = LongVector.fromArray(LONGS, next, i).lanewise(VectorOperators.AND_NOT, seen);
+      fresh.intoArray(next, i);
+      seen.or(fresh).intoArray(visited, i);
+      total = total.add(bitCounts(fresh));
+    }
+    return (int) total.reduceLanes(VectorOperators.ADD) + super.andNotOr(next, visited, i, to);
+  }
+
+  @Override
+  int andCardinality(long[] a, long[] b, int from, int to) {
+    LongVector total = LongVector.zero(LONGS);
+    int i = from;
+    for (int bound = from + LONGS.loopBound(to - from); i < bound; i += LONGS.length()) {
+      total = total.add(bitCounts(LongVector.fromArray(LONGS, a, i).and(LongVector.fromArray(LONGS, b, i))));
+    }
+    return (int) total.reduceLanes(VectorOperators.ADD) + super.andCardinality(a, b, i, to);
+  }
+
+  @Override
+  void parityMask(int[] values, long[] out) {
+    int lanes = INTS.length();
+    int fullWords = values.length >>> 6;
+    for (int word = 0; word < fullWords; word++) {
+      int base = word << 6;
+      long bits = 0;
+      // 64 is a multiple of every int species length, so each word takes whole vectors.
+      for (int shift = 0; shift < 64; shift += lanes) {
+        IntVector v = IntVector.fromArray(INTS, values, base + shift);
+        bits |= (v.and(1).lanewise(VectorOperators.LSHL, LANE_INDEX).reduceLanes(VectorOperators.OR) & 0xffffffffL) << shift;
+      }
+      out[word] = bits;
+    }
+    if (fullWords << 6 < values.length) {
+      long bits = 0;
+      for (int i = fullWords << 6; i < values.length; i++) {
+        bits |= (long) (values[i] & 1) << (i & 63);
+      }
+      out[fullWords] = bits;
+    }
+  }
+
+  /**
+   * Lanewise population count.
+   */
+  private static LongVector bitCounts(LongVector x) {
+    x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+    x = x.and(0x3333333333333333L).add(x.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+    x = x.add(x.lanewise(VectorOperators.LSHR, 4)).and(0x0f0f0f0f0f0f0f0fL);
+    x = x.add(x.lanewise(VectorOperators.LSHR, 8));
+    x = x.add(x.lanewise(VectorOperators.LSHR, 16));
+    x = x.add(x.lanewise(VectorOperators.LSHR, 32));
+    return x.and(0x7f);
+  }
+}